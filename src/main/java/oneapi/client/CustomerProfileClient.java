@@ -43,4 +43,15 @@ public interface CustomerProfileClient {
 	 * @return AccountBalance
 	 */
 	AccountBalance getAccountBalance();
+
+	/**
+	 * Drop cached responses of the endpoint
+	 * @param endpoint - one of ResponseCacheSettings constants
+	 */
+	void invalidateResponseCache(String endpoint);
+
+	/**
+	 * Drop all cached responses
+	 */
+	void invalidateResponseCache();
 }
\ No newline at end of file
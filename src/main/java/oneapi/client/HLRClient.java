@@ -1,8 +1,17 @@
 package oneapi.client;
 
+import java.io.File;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Future;
+import oneapi.config.HLRBulkLookupSettings;
+import oneapi.listener.HLRBulkLookupListener;
 import oneapi.listener.HLRNotificationsListener;
 import oneapi.listener.ResponseListener;
+import oneapi.model.HLRBulkLookupSummary;
+import oneapi.model.HLRCacheStatistics;
+import oneapi.model.NetworkInfo;
+import oneapi.model.NetworkPrefixStatistics;
 import oneapi.model.RoamingNotification;
 import oneapi.model.SubscribeToHLRDeliveryNotificationsRequest;
 import oneapi.model.common.DeliveryReportSubscription;
@@ -41,6 +50,59 @@ public interface HLRClient {
 	 */
 	 void queryHLRAsync(String address, ResponseListener<Roaming> responseListener);
 
+	/**
+	 * Query the customer’s roaming status and get a future completed by the HLR push notification received on the HLR push server simulator.
+	 * The clientCorrelator is sent as callbackData too, since it is used to match the notification to the query.
+	 * @param address (mandatory) mobile device number being queried
+	 * @param notifyURL (mandatory) URL of the HLR push server simulator
+	 * @param clientCorrelator (optional) uniquely identifies this request, generated if not specified
+	 * @param timeout (mandatory) time in milliseconds to wait for the notification, the future fails afterwards
+	 * @return Future<Roaming>
+	 */
+	Future<Roaming> queryHLRAsync(String address, String notifyURL, String clientCorrelator, long timeout);
+
+	/**
+	 * Query the customer’s roaming status and get a future completed by the HLR push notification received on the HLR push server simulator
+	 * @param address (mandatory) mobile device number being queried
+	 * @param notifyURL (mandatory) URL of the HLR push server simulator
+	 * @param timeout (mandatory) time in milliseconds to wait for the notification, the future fails afterwards
+	 * @return Future<Roaming>
+	 */
+	Future<Roaming> queryHLRAsync(String address, String notifyURL, long timeout);
+
+	/**
+	 * Get the network serving the number. The network is resolved from the prefix table learned from previous HLR results
+	 * if the longest matching prefix is unambiguous, otherwise HLR is queried
+	 * @param address (mandatory) mobile device number
+	 * @return NetworkInfo
+	 */
+	NetworkInfo lookupNetwork(String address);
+
+	/**
+	 * Get network prefix table statistics
+	 * @return NetworkPrefixStatistics or null if network prefix table is not configured
+	 */
+	NetworkPrefixStatistics getNetworkPrefixStatistics();
+
+	/**
+	 * Query HLR of many addresses with bounded parallelism and rate, the call returns when all lookups are completed
+	 * @param addresses (mandatory) mobile device numbers being queried
+	 * @param settings (mandatory) parallelism, rate and checkpoint settings
+	 * @param listener (mandatory) receives HLR results in completion order
+	 * @return HLRBulkLookupSummary
+	 */
+	HLRBulkLookupSummary queryHLRBulk(Iterator<String> addresses, HLRBulkLookupSettings settings, HLRBulkLookupListener listener);
+
+	/**
+	 * Query HLR of addresses read from a file (one per line) and append the results to a newline delimited JSON file,
+	 * the call returns when all lookups are completed
+	 * @param addressFile (mandatory) file with mobile device numbers being queried
+	 * @param resultFile (mandatory) file the HLR results are appended to
+	 * @param settings (mandatory) parallelism, rate and checkpoint settings
+	 * @return HLRBulkLookupSummary
+	 */
+	HLRBulkLookupSummary queryHLRBulk(File addressFile, File resultFile, HLRBulkLookupSettings settings);
+
 	/**
 	 * Convert JSON to HLR Notification </summary>
 	 * @param json
@@ -86,4 +148,27 @@ public interface HLRClient {
 	 */
 	void removePushHLRNotificationsListeners();
 
+	/**
+	 * Get HLR lookup cache statistics
+	 * @return HLRCacheStatistics or null if HLR cache is not configured
+	 */
+	HLRCacheStatistics getHLRCacheStatistics();
+
+	/**
+	 * Remove cached HLR result of the address
+	 * @param address
+	 */
+	void invalidateHLRCache(String address);
+
+	/**
+	 * Remove all cached HLR results
+	 */
+	void invalidateHLRCache();
+
+	/**
+	 * Release expired HLR results from the HLR cache store file
+	 * @return number of released results
+	 */
+	int compactHLRCacheStore();
+
 }
\ No newline at end of file
@@ -1,6 +1,12 @@
 package oneapi.client;
 
+import java.io.File;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+
+import oneapi.config.CampaignSettings;
+import oneapi.listener.CampaignListener;
 import oneapi.listener.DeliveryReportListener;
 import oneapi.listener.DeliveryStatusNotificationsListener;
 import oneapi.listener.InboundMessageListener;
@@ -11,23 +17,81 @@ import oneapi.model.common.DeliveryInfoList;
 import oneapi.model.common.DeliveryReportSubscription;
 import oneapi.model.common.InboundSMSMessageList;
 import oneapi.model.common.MoSubscription;
+import oneapi.util.AddressSet;
 
 
 public interface SMSMessagingClient {
 
 	/**
-	 * Send an SMS to one or more mobile terminals using the customized 'SMSRequest' object 
+	 * Send an SMS to one or more mobile terminals using the customized 'SMSRequest' object. Recipients on the suppression
+	 * list are removed first (see 'suppressionList' configuration); when every recipient is suppressed nothing is sent and
+	 * the result has no resource reference, an empty 'sendMessageResults' array, the client correlator of the request and
+	 * 'suppressedCount' of all its recipients
 	 * @param sms - object containing data needed to be filled in order to send the SMS
-	 * @return String Request Id
+	 * @return SendMessageResult
 	 */
 	SendMessageResult sendSMS(SMSRequest sms);
 
 	/**
-     * Send an SMS asynchronously over OneAPI to one or more mobile terminals using the customized 'SMSRequest' object
+     * Send an SMS asynchronously over OneAPI to one or more mobile terminals using the customized 'SMSRequest' object,
+     * suppressed recipients are handled as by sendSMS()
      * @param sms (mandatory) object containing data needed to be filled in order to send the SMS
      * @param responseListener (mandatory) method to call after receiving sent SMS response
      */   
     void sendSMSAsync(SMSRequest smsRequest, final ResponseListener<SendMessageResult> responseListener);
+
+	/**
+	 * Send many SMS requests merging the ones with the same sender address, sender name, message, notify url and callback data
+	 * into multi-recipient requests (see 'smsBatch' configuration)
+	 * @param smsRequests (mandatory) requests to send, requests with a client correlator are not merged, one with more than
+	 * 'maxRecipients' recipients is sent in parts whose correlators get the part number appended, e.g. 'c-1-0'
+	 * @return SMSBatchResult result or error of every request
+	 */
+	SMSBatchResult sendSMSBatch(Collection<SMSRequest> smsRequests);
+
+	/**
+	 * Send the SMS to a stream of recipient addresses in any format accepted by AddressNormalizer.toE164(). Addresses are
+	 * normalized to E.164 numbers and deduplicated while they are read, and sent in multi-recipient requests of at most
+	 * 'maxRecipients' numbers (see 'smsBatch' configuration), so the recipient list is never held in memory as strings
+	 * @param smsRequest (mandatory) sender, message and notification data of the SMS, its recipient addresses are ignored
+	 * @param addresses (mandatory) recipient addresses, e.g. lines of a file
+	 * @param sentAddresses (optional) numbers already sent to, they are skipped and the numbers of the requests sent without
+	 * error are added, pass the same set to several calls to skip numbers across them. Numbers are always deduplicated within the call
+	 * @return SMSBatchResult result or error of every sent request and the number of invalid and duplicate addresses
+	 */
+	SMSBatchResult sendSMSToRecipients(SMSRequest smsRequest, Iterator<? extends CharSequence> addresses, AddressSet sentAddresses);
+
+	/**
+	 * Get the number of duplicate SMS requests which got the result of the original request instead of being sent (see 'smsDedup' configuration)
+	 * @return long
+	 */
+	long getSuppressedDuplicateCount();
+
+	/**
+	 * Load the new version of the suppression list files (see 'suppressionList' configuration), requests being sent
+	 * keep using the previous version and the following requests use the new one
+	 */
+	void reloadSuppressionList();
+
+	/**
+	 * Get the number of recipients removed from sent requests because they are on the suppression list (see 'suppressionList' configuration)
+	 * @return long
+	 */
+	long getSuppressedRecipientCount();
+
+	/**
+	 * Send a campaign to the recipients streamed from a CSV file with a header line or a newline delimited JSON file
+	 * ('.ndjson', '.jsonl' or '.json'), the call returns when all requests are completed. Recipients of a batch with the
+	 * same rendered message are sent in requests of at most 'smsBatch.maxRecipients' recipients. An interrupted campaign
+	 * resumes from its checkpoint file without sending the requests already sent again, failed requests are sent again.
+	 * @param recipientFile (mandatory) file with the 'address' of every recipient and the values of the template variables
+	 * @param template (mandatory) message template
+	 * @param senderAddress (mandatory) address to whom a responding SMS may be sent
+	 * @param settings (mandatory) batch, parallelism, rate and checkpoint settings
+	 * @param listener (optional) receives send results in completion order and progress reports
+	 * @return CampaignSummary
+	 */
+	CampaignSummary sendCampaign(File recipientFile, SMSTemplate template, String senderAddress, CampaignSettings settings, CampaignListener listener);
 	
 	/**
 	 * Query the delivery status for an SMS sent to one or more mobile terminals                        
@@ -256,4 +320,15 @@ public interface SMSMessagingClient {
      *  Remove PUSH Delivery Reports Notifications listeners and stop server
      */
     void removePushInboundMessageListeners();
+
+    /**
+     * Drop cached responses of the endpoint
+     * @param endpoint - one of ResponseCacheSettings constants
+     */
+    void invalidateResponseCache(String endpoint);
+
+    /**
+     * Drop all cached responses
+     */
+    void invalidateResponseCache();
 }
@@ -1,5 +1,6 @@
 package oneapi.client;
 
+import oneapi.listener.ResponseListener;
 import oneapi.model.common.InboundSMSMessage;
 
 public interface USSDClient {
@@ -11,12 +12,28 @@ public interface USSDClient {
 	 * @return InboundSMSMessage
 	 */
 	InboundSMSMessage sendMessage(String address, String message);
-
+
 	/**
 	 * Stop USSD session
 	 * @param address
 	 * @param message
 	 */
 	void stopSession(String address, String message);
-
+
+	/**
+	 * Send an USSD over OneAPI to one mobile terminal asynchronously
+	 * @param address
+	 * @param message
+	 * @param responseListener - called with the subscriber's reply
+	 */
+	void sendMessageAsync(String address, String message, ResponseListener<InboundSMSMessage> responseListener);
+
+	/**
+	 * Stop USSD session asynchronously
+	 * @param address
+	 * @param message
+	 * @param responseListener - called when the session is stopped
+	 */
+	void stopSessionAsync(String address, String message, ResponseListener<Void> responseListener);
+
 }
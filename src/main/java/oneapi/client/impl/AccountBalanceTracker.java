@@ -0,0 +1,246 @@
+package oneapi.client.impl;
+
+import java.math.BigDecimal;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import oneapi.client.CustomerProfileClient;
+import oneapi.config.AccountBalanceSettings;
+import oneapi.model.common.AccountBalance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Account balance refreshed from the server in the background and estimated locally between refreshes.
+ * Sent messages are charged at the configured price per message, or at the price learned by comparing the spend
+ * reported by consecutive refreshes with the number of messages sent between them. HLR queries are charged at the
+ * price returned in their results. Reading the estimated balance takes no lock and makes no request, so send gating
+ * logic can read it at any rate.
+ */
+public class AccountBalanceTracker {
+	private static final Logger LOGGER = LoggerFactory.getLogger(AccountBalanceTracker.class);
+	private static final double MICROS = 1000000d;
+
+	private final CustomerProfileClient customerProfileClient;
+	private final AccountBalanceSettings settings;
+	private final ScheduledExecutorService scheduler;
+	private final boolean ownScheduler;
+	private final AtomicReference<Reconciliation> reconciliation = new AtomicReference<Reconciliation>();
+	private final AtomicLong spent = new AtomicLong();
+	private final AtomicLong pricedSpent = new AtomicLong();
+	private final AtomicLong sentMessages = new AtomicLong();
+	private volatile long learnedPricePerMessage = 0;
+	private ScheduledFuture<?> refreshTask = null;
+
+	/**
+	 * @param customerProfileClient client the balance is requested with
+	 * @param settings
+	 * @param scheduler scheduler running the refreshes, null to create one
+	 */
+	AccountBalanceTracker(CustomerProfileClient customerProfileClient, AccountBalanceSettings settings, ScheduledExecutorService scheduler) {
+		this.customerProfileClient = customerProfileClient;
+		this.settings = settings;
+		this.ownScheduler = scheduler == null;
+		if (scheduler == null) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "oneapi-account-balance");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Estimated current balance: the last balance received from the server less the spend recorded since it was requested
+	 * @return double or Double.NaN before the first refresh completes
+	 */
+	public double getEstimatedBalance() {
+		Reconciliation current = reconciliation.get();
+		if (current == null) {
+			return Double.NaN;
+		}
+		return (current.balance - (spent.get() - current.spent)) / MICROS;
+	}
+
+	/**
+	 * Check if the estimated balance covers the amount
+	 * @param amount
+	 * @return false if it doesn't or if the balance is not known yet
+	 */
+	public boolean hasBalance(double amount) {
+		return getEstimatedBalance() >= amount;
+	}
+
+	/**
+	 * Check if the estimated balance covers the messages at the current price per message
+	 * @param messages
+	 * @return false if it doesn't or if the balance is not known yet
+	 */
+	public boolean hasBalanceForMessages(int messages) {
+		return hasBalance(messages * getPricePerMessage());
+	}
+
+	/**
+	 * Get the account balance received with the last refresh
+	 * @return AccountBalance or null before the first refresh completes
+	 */
+	public AccountBalance getAccountBalance() {
+		Reconciliation current = reconciliation.get();
+		return current == null ? null : current.accountBalance;
+	}
+
+	/**
+	 * Get time of the last refresh in milliseconds
+	 * @return long or 0 before the first refresh completes
+	 */
+	public long getLastRefreshTime() {
+		Reconciliation current = reconciliation.get();
+		return current == null ? 0 : current.time;
+	}
+
+	/**
+	 * Price sent messages are charged at, the configured one or the one learned from the refreshes
+	 * @return double or 0 while the price is not known yet
+	 */
+	public double getPricePerMessage() {
+		if (settings.getPricePerMessage() > 0) {
+			return settings.getPricePerMessage();
+		}
+		return learnedPricePerMessage / MICROS;
+	}
+
+	/**
+	 * Request the balance from the server now and reconcile the estimate with it
+	 * @return AccountBalance
+	 */
+	public AccountBalance refresh() {
+		synchronized (reconciliation) {
+			long spentBefore = spent.get();
+			long pricedSpentBefore = pricedSpent.get();
+			long sentMessagesBefore = sentMessages.get();
+			AccountBalance accountBalance = customerProfileClient.getAccountBalance();
+			if (accountBalance == null || accountBalance.getBalance() == null) {
+				return accountBalance;
+			}
+
+			Reconciliation next = new Reconciliation(accountBalance, toMicros(accountBalance.getBalance()), spentBefore, pricedSpentBefore, sentMessagesBefore, System.currentTimeMillis());
+			Reconciliation previous = reconciliation.get();
+			if (previous != null) {
+				learnPricePerMessage(previous, next);
+			}
+			reconciliation.set(next);
+			return accountBalance;
+		}
+	}
+
+	/**
+	 * Stop the background refreshes
+	 */
+	public synchronized void stop() {
+		if (refreshTask != null) {
+			refreshTask.cancel(false);
+			refreshTask = null;
+		}
+		if (ownScheduler) {
+			scheduler.shutdown();
+		}
+	}
+
+	/**
+	 * Start the background refreshes, the first one runs immediately
+	 */
+	synchronized void start() {
+		if (refreshTask != null || settings.getRefreshInterval() <= 0) {
+			return;
+		}
+
+		refreshTask = scheduler.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					refresh();
+				} catch (Exception e) {
+					if (LOGGER.isWarnEnabled()) {
+						LOGGER.warn("Error occured while refreshing account balance. Message: " + e.getMessage());
+					}
+				}
+			}
+		}, 0, settings.getRefreshInterval(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Charge sent messages at the current price per message
+	 * @param messages
+	 */
+	void recordSentMessages(int messages) {
+		if (messages <= 0) {
+			return;
+		}
+		sentMessages.addAndGet(messages);
+		spent.addAndGet(Math.round(messages * getPricePerMessage() * MICROS));
+	}
+
+	/**
+	 * Charge a request with a price known from its result
+	 * @param price
+	 */
+	void recordSpend(double price) {
+		if (price <= 0 || Double.isNaN(price)) {
+			return;
+		}
+		long amount = Math.round(price * MICROS);
+		pricedSpent.addAndGet(amount);
+		spent.addAndGet(amount);
+	}
+
+	/**
+	 * Price per message observed between two refreshes is the spend reported by the server less the priced requests,
+	 * divided by the messages sent in between. Intervals with a top-up or without messages are skipped.
+	 */
+	private void learnPricePerMessage(Reconciliation previous, Reconciliation next) {
+		long messages = next.sentMessages - previous.sentMessages;
+		long messageSpend = (previous.balance - next.balance) - (next.pricedSpent - previous.pricedSpent);
+		if (settings.getPricePerMessage() > 0 || messages <= 0 || messageSpend <= 0) {
+			return;
+		}
+
+		long observed = messageSpend / messages;
+		long learned = learnedPricePerMessage;
+		learnedPricePerMessage = learned == 0 ? observed : (3 * learned + observed) / 4;
+	}
+
+	private static long toMicros(BigDecimal value) {
+		return value.movePointRight(6).setScale(0, BigDecimal.ROUND_HALF_UP).longValue();
+	}
+
+	/**
+	 * Balance received from the server together with the counters at the time it was requested
+	 */
+	private static final class Reconciliation {
+		private final AccountBalance accountBalance;
+		private final long balance;
+		private final long spent;
+		private final long pricedSpent;
+		private final long sentMessages;
+		private final long time;
+
+		private Reconciliation(AccountBalance accountBalance, long balance, long spent, long pricedSpent, long sentMessages, long time) {
+			this.accountBalance = accountBalance;
+			this.balance = balance;
+			this.spent = spent;
+			this.pricedSpent = pricedSpent;
+			this.sentMessages = sentMessages;
+			this.time = time;
+		}
+	}
+}
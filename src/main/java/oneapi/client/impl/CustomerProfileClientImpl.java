@@ -4,8 +4,11 @@ import java.util.ArrayList;
 import java.util.List;
 import oneapi.client.CustomerProfileClient;
 import oneapi.config.Configuration;
+import oneapi.config.ConfigurationProvider;
+import oneapi.config.ResponseCacheSettings;
 import oneapi.listener.LoginListener;
 import oneapi.listener.LogoutListener;
+import oneapi.model.Authentication;
 import oneapi.model.LoginRequest;
 import oneapi.model.RequestData;
 import oneapi.model.RequestData.Method;
@@ -21,7 +24,16 @@ public class CustomerProfileClientImpl extends OneAPIBaseClientImpl implements C
 
 	//*************************CustomerProfileClientImpl initialization***********************************************************************************************************************************************
 	public CustomerProfileClientImpl(Configuration configuration, LoginListener loginListner, LogoutListener logoutListener) {
-		super(configuration);
+		this(new ConfigurationProvider(configuration), loginListner, logoutListener);
+	}
+
+	private CustomerProfileClientImpl(ConfigurationProvider configurationProvider, LoginListener loginListner, LogoutListener logoutListener) {
+		this(configurationProvider, new IBSSOSessionManager(configurationProvider, null), null, loginListner, logoutListener);
+	}
+
+	CustomerProfileClientImpl(ConfigurationProvider configurationProvider, IBSSOSessionManager sessionManager, Tenant tenant, LoginListener loginListner, LogoutListener logoutListener) {
+		super(configurationProvider, sessionManager, tenant);
+		sessionManager.setCustomerProfileClient(this);
 		addLoginListener(loginListner);
 		addLogoutListener(logoutListener);
 	}
@@ -29,9 +41,13 @@ public class CustomerProfileClientImpl extends OneAPIBaseClientImpl implements C
 	//*************************CustomerProfileClientImpl public***********************************************************************************************************************************************
 	@Override
 	public LoginResponse login() {
-		LoginRequest loginRequest = new LoginRequest(getConfiguration().getAuthentication().getUsername(), getConfiguration().getAuthentication().getPassword());	
+		Authentication authentication = getConfiguration().getAuthentication();
+		LoginRequest loginRequest = new LoginRequest(authentication.getUsername(), authentication.getPassword());	
 		RequestData requestData = new RequestData(CUSTOMER_PROFILE_URL_BASE + "/login", Method.POST, "login", loginRequest, URL_ENCODED_CONTENT_TYPE);
+		requestData.setSessionRequired(false);
 		LoginResponse response = executeMethod(requestData, LoginResponse.class);
+		invalidateCustomerProfiles();
+		getSessionManager().start(response);
 		fireOnLogin(response);
 		return response;
 	}
@@ -40,18 +56,24 @@ public class CustomerProfileClientImpl extends OneAPIBaseClientImpl implements C
 	public void logout() {
 		RequestData requestData = new RequestData(CUSTOMER_PROFILE_URL_BASE + "/logout", Method.POST);
 		executeMethod(requestData);
+		invalidateCustomerProfiles();
+		getSessionManager().end();
 		fireOnLogout();
 	}
 
 	@Override
 	public CustomerProfile getCustomerProfile() {	
 		 RequestData requestData = new RequestData(CUSTOMER_PROFILE_URL_BASE, Method.GET);
+		 requestData.setIdempotent(true);
+		 requestData.setCacheRegion(ResponseCacheSettings.CUSTOMER_PROFILE);
 		 return executeMethod(requestData, CustomerProfile.class);
 	}
 	
 	@Override
 	public CustomerProfile[] getCustomerProfiles() {	
 		RequestData requestData = new RequestData(CUSTOMER_PROFILE_URL_BASE + "/list", Method.GET);
+		requestData.setIdempotent(true);
+		requestData.setCacheRegion(ResponseCacheSettings.CUSTOMER_PROFILES);
 		return executeMethod(requestData, CustomerProfile[].class);
 	}
 
@@ -61,6 +83,7 @@ public class CustomerProfileClientImpl extends OneAPIBaseClientImpl implements C
 		urlBuilder.append(encodeURLParam(String.valueOf(id)));
 
 		RequestData requestData = new RequestData(urlBuilder.toString(), Method.GET);
+		requestData.setIdempotent(true);
 		return executeMethod(requestData, CustomerProfile.class);
 	}
 	
@@ -68,10 +91,19 @@ public class CustomerProfileClientImpl extends OneAPIBaseClientImpl implements C
     public AccountBalance getAccountBalance()
     {	
 		RequestData requestData = new RequestData(CUSTOMER_PROFILE_URL_BASE + "/balance", Method.GET);
+		requestData.setIdempotent(true);
 		return executeMethod(requestData, AccountBalance.class);
     }
 	
 	//*************************CustomerProfileClientImpl private******************************************************************************************************************************************************
+	/**
+	 * Cached profiles belong to the previous session
+	 */
+	private void invalidateCustomerProfiles() {
+		invalidateResponseCache(ResponseCacheSettings.CUSTOMER_PROFILE);
+		invalidateResponseCache(ResponseCacheSettings.CUSTOMER_PROFILES);
+	}
+
 	/**
 	 *  Add OneAPI Login listener
 	 * @param listener - (new LoginListener)
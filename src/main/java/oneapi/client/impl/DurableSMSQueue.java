@@ -0,0 +1,194 @@
+package oneapi.client.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import oneapi.client.SMSMessagingClient;
+import oneapi.config.SendLogSettings;
+import oneapi.exception.ConfigurationException;
+import oneapi.exception.RequestException;
+import oneapi.listener.DurableSMSQueueListener;
+import oneapi.model.SMSRequest;
+import oneapi.model.SendMessageResult;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Outbound SMS queue which survives restarts. Queued requests are appended to a send log on disk before enqueue()
+ * returns and stay there until the send result acknowledges them. A consumer thread sends them in order at the configured
+ * rate; after a restart the requests which were not acknowledged are sent again with their client correlator, so the
+ * server can recognize the ones it already accepted.
+ */
+public class DurableSMSQueue {
+	private static final Logger LOGGER = LoggerFactory.getLogger(DurableSMSQueue.class);
+
+	private final SMSMessagingClient smsMessagingClient;
+	private final SendLogSettings settings;
+	private final SendLog sendLog;
+	private final LinkedBlockingQueue<SendLog.Entry> pending = new LinkedBlockingQueue<SendLog.Entry>();
+	private final List<DurableSMSQueueListener> listeners = new CopyOnWriteArrayList<DurableSMSQueueListener>();
+	private final Thread consumer;
+	private volatile boolean stopped = false;
+	private long nextSendTime = 0;
+
+	/**
+	 * Open the send log and start sending the requests which were not acknowledged before the restart
+	 * @param smsMessagingClient - client the queued requests are sent with
+	 * @param settings - send log directory, send rate and retry settings
+	 */
+	public DurableSMSQueue(SMSMessagingClient smsMessagingClient, SendLogSettings settings) {
+		if (settings.getDirectory() == null) {
+			throw new ConfigurationException("Send log directory is not configured.");
+		}
+
+		this.smsMessagingClient = smsMessagingClient;
+		this.settings = settings;
+		try {
+			this.sendLog = new SendLog(new File(settings.getDirectory()), settings.getSegmentSize(), settings.getCommitInterval());
+		} catch (IOException e) {
+			throw new ConfigurationException("Send log '" + settings.getDirectory() + "' can't be opened.", e);
+		}
+		pending.addAll(sendLog.getRecovered());
+
+		consumer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				consume();
+			}
+		}, "oneapi-durable-sms-queue");
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+
+	/**
+	 * Queue the SMS, the call returns when the request is durable. A client correlator is generated for requests without one.
+	 * @param smsRequest (mandatory) object containing data needed to be filled in order to send the SMS
+	 * @return String client correlator of the queued request
+	 */
+	public String enqueue(SMSRequest smsRequest) {
+		String clientCorrelator = smsRequest.getClientCorrelator();
+		if (clientCorrelator == null || clientCorrelator.length() == 0) {
+			clientCorrelator = UUID.randomUUID().toString().replace("-", "");
+		}
+		SMSRequest queuedRequest = new SMSRequest(smsRequest.getSenderAddress(), smsRequest.getMessage(), clientCorrelator, smsRequest.getNotifyURL(),
+				smsRequest.getSenderName(), smsRequest.getCallbackData(), smsRequest.getAddress());
+
+		try {
+			SendLog.Entry entry = sendLog.append(queuedRequest);
+			sendLog.awaitCommit(entry);
+			pending.add(entry);
+		} catch (IOException e) {
+			throw new RequestException("SMS request could not be written to the send log.", e);
+		}
+		return clientCorrelator;
+	}
+
+	/**
+	 * Number of queued requests which are not acknowledged yet
+	 * @return int
+	 */
+	public int getPendingCount() {
+		return sendLog.getUnacknowledgedCount();
+	}
+
+	public void addListener(DurableSMSQueueListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(DurableSMSQueueListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Stop sending and close the send log, requests which are not acknowledged are sent after the next start
+	 */
+	public void close() {
+		stopped = true;
+		consumer.interrupt();
+		try {
+			consumer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		sendLog.close();
+	}
+
+	//*************************DurableSMSQueue private***********************************************************************************************************************************************
+	private void consume() {
+		try {
+			while (!stopped) {
+				SendLog.Entry entry = pending.take();
+				send(entry);
+			}
+		} catch (InterruptedException e) {
+			// closed
+		}
+	}
+
+	/**
+	 * Send the entry until it is sent or its attempts are used up, later entries wait so the queue order is kept
+	 */
+	private void send(SendLog.Entry entry) throws InterruptedException {
+		SMSRequest smsRequest = entry.getSMSRequest();
+		int attempts = 0;
+		while (!stopped) {
+			pace(smsRequest.getAddress() != null ? smsRequest.getAddress().length : 1);
+			try {
+				SendMessageResult result = smsMessagingClient.sendSMS(smsRequest);
+				acknowledge(entry, result, null);
+				return;
+			} catch (RuntimeException e) {
+				// any failure is retried, e.g. a ConfigurationException of a suppression list which can't be loaded
+				attempts++;
+				if (settings.getMaxAttempts() > 0 && attempts >= settings.getMaxAttempts()) {
+					acknowledge(entry, null, e);
+					return;
+				}
+				if (LOGGER.isWarnEnabled()) {
+					LOGGER.warn("Queued SMS " + smsRequest.getClientCorrelator() + " was not sent, attempt " + attempts + ". Message: " + e.getMessage());
+				}
+				Thread.sleep(settings.getRetryDelay());
+			}
+		}
+	}
+
+	private void acknowledge(SendLog.Entry entry, SendMessageResult result, Throwable error) {
+		try {
+			sendLog.acknowledge(entry.getSequence());
+		} catch (IOException e) {
+			if (LOGGER.isErrorEnabled()) {
+				LOGGER.error("Acknowledgement of queued SMS " + entry.getSMSRequest().getClientCorrelator() + " could not be written. Message: " + e.getMessage());
+			}
+		}
+
+		for (DurableSMSQueueListener listener : listeners) {
+			try {
+				listener.onSMSAcknowledged(entry.getSMSRequest(), result, error);
+			} catch (RuntimeException e) {
+				LOGGER.warn("Durable SMS queue listener failed: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Wait for the send rate to allow the messages
+	 */
+	private void pace(int messages) throws InterruptedException {
+		if (settings.getMessagesPerSecond() <= 0) {
+			return;
+		}
+
+		long now = System.nanoTime();
+		if (nextSendTime - now > 0) {
+			TimeUnit.NANOSECONDS.sleep(nextSendTime - now);
+			now = nextSendTime;
+		}
+		nextSendTime = now + messages * (TimeUnit.SECONDS.toNanos(1) / settings.getMessagesPerSecond());
+	}
+}
@@ -0,0 +1,461 @@
+package oneapi.client.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import oneapi.client.HLRClient;
+import oneapi.config.HLRBulkLookupSettings;
+import oneapi.exception.RequestException;
+import oneapi.listener.HLRBulkLookupListener;
+import oneapi.listener.ResponseListener;
+import oneapi.model.HLRBulkLookupSummary;
+import oneapi.model.common.Roaming;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Bulk HLR lookup job. Lookups are started with queryHLRAsync, at most 'parallelism' of them are in flight and
+ * they are started no faster than 'requestsPerSecond'. Results are passed to the listener in completion order.
+ * <p>
+ * Since results complete out of order, the checkpoint holds the index below which every address is completed
+ * (the watermark) together with the few completed indexes above it, at most 'parallelism' of them.
+ */
+class HLRBulkLookup {
+	private static final Logger LOGGER = LoggerFactory.getLogger(HLRBulkLookup.class);
+
+	private static final String CHECKPOINT_WATERMARK = "watermark";
+	private static final String CHECKPOINT_COMPLETED = "completed";
+	private static final String CHECKPOINT_OUTPUT_LENGTH = "outputLength";
+
+	private final HLRClient client;
+	private final HLRBulkLookupSettings settings;
+	private final HLRBulkLookupListener listener;
+	private final NdjsonOutput output;
+	private final File checkpointFile;
+	private final int parallelism;
+	private final Semaphore inFlight;
+
+	private final Object lock = new Object();
+	private long watermark = 0;
+	private final Set<Long> completedAboveWatermark = new HashSet<Long>();
+	private long succeededCount = 0;
+	private long failedCount = 0;
+	private int completedSinceCheckpoint = 0;
+	private RuntimeException failure = null;
+
+	/**
+	 * @param client
+	 * @param settings
+	 * @param listener
+	 */
+	HLRBulkLookup(HLRClient client, HLRBulkLookupSettings settings, HLRBulkLookupListener listener) {
+		this(client, settings, listener, null);
+	}
+
+	/**
+	 * @param client
+	 * @param settings
+	 * @param output NDJSON result file
+	 */
+	HLRBulkLookup(HLRClient client, HLRBulkLookupSettings settings, NdjsonOutput output) {
+		this(client, settings, output, output);
+	}
+
+	private HLRBulkLookup(HLRClient client, HLRBulkLookupSettings settings, HLRBulkLookupListener listener, NdjsonOutput output) {
+		if (listener == null) {
+			throw new RequestException("'listener' parameter is mandatory.");
+		}
+
+		this.client = client;
+		this.settings = settings;
+		this.listener = listener;
+		this.output = output;
+		this.checkpointFile = (settings.getCheckpointFile() == null || settings.getCheckpointFile().length() == 0) ? null : new File(settings.getCheckpointFile());
+		this.parallelism = Math.max(1, settings.getParallelism());
+		this.inFlight = new Semaphore(parallelism);
+	}
+
+	/**
+	 * Look up all addresses, the call returns when every started lookup is completed
+	 * @param addresses
+	 * @return HLRBulkLookupSummary
+	 */
+	HLRBulkLookupSummary run(Iterator<String> addresses) {
+		long startTime = System.currentTimeMillis();
+		restoreCheckpoint();
+
+		long permitInterval = settings.getRequestsPerSecond() > 0 ? TimeUnit.SECONDS.toNanos(1) / settings.getRequestsPerSecond() : 0;
+		long nextStartTime = System.nanoTime();
+		long index = 0;
+		long skippedCount = 0;
+		boolean interrupted = false;
+		boolean finished = false;
+		try {
+			while (addresses.hasNext()) {
+				String address = addresses.next();
+				long current = index++;
+				if (isCompleted(current)) {
+					skippedCount++;
+					continue;
+				}
+				if (getFailure() != null) {
+					break;
+				}
+
+				inFlight.acquire();
+				if (permitInterval > 0) {
+					try {
+						long delay = nextStartTime - System.nanoTime();
+						if (delay > 0) {
+							TimeUnit.NANOSECONDS.sleep(delay);
+						}
+					} catch (InterruptedException e) {
+						inFlight.release();
+						throw e;
+					}
+					nextStartTime = Math.max(nextStartTime, System.nanoTime() - permitInterval) + permitInterval;
+				}
+				lookup(current, address);
+			}
+			finished = true;
+		} catch (InterruptedException e) {
+			interrupted = true;
+		} finally {
+			// wait for the lookups in flight before the final checkpoint
+			inFlight.acquireUninterruptibly(parallelism);
+			inFlight.release(parallelism);
+			finish(finished && getFailure() == null);
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+			throw new RequestException("Bulk HLR lookup was interrupted.");
+		}
+
+		RuntimeException error = getFailure();
+		if (error != null) {
+			throw error;
+		}
+
+		synchronized (lock) {
+			return new HLRBulkLookupSummary(succeededCount, failedCount, skippedCount, System.currentTimeMillis() - startTime);
+		}
+	}
+
+	private void lookup(final long index, final String address) {
+		try {
+			client.queryHLRAsync(address, new ResponseListener<Roaming>() {
+				@Override
+				public void onGotResponse(Roaming roaming, Throwable error) {
+					complete(index, address, roaming, error);
+				}
+			});
+		} catch (RuntimeException e) {
+			complete(index, address, null, e);
+		}
+	}
+
+	private void complete(long index, String address, Roaming roaming, Throwable error) {
+		try {
+			synchronized (lock) {
+				if (failure != null) {
+					return;
+				}
+
+				try {
+					listener.onHLRResult(index, address, roaming, error);
+				} catch (RuntimeException e) {
+					failure = e;
+					return;
+				}
+
+				if (error == null) {
+					succeededCount++;
+				} else {
+					failedCount++;
+				}
+				markCompleted(index);
+
+				if (checkpointFile != null && ++completedSinceCheckpoint >= settings.getCheckpointInterval()) {
+					writeCheckpoint();
+					completedSinceCheckpoint = 0;
+				}
+			}
+		} finally {
+			inFlight.release();
+		}
+	}
+
+	private void markCompleted(long index) {
+		if (index != watermark) {
+			completedAboveWatermark.add(Long.valueOf(index));
+			return;
+		}
+
+		watermark++;
+		while (completedAboveWatermark.remove(Long.valueOf(watermark))) {
+			watermark++;
+		}
+	}
+
+	private boolean isCompleted(long index) {
+		synchronized (lock) {
+			return index < watermark || completedAboveWatermark.contains(Long.valueOf(index));
+		}
+	}
+
+	private RuntimeException getFailure() {
+		synchronized (lock) {
+			return failure;
+		}
+	}
+
+	/**
+	 * Checkpoint is deleted when every address was looked up, otherwise the final progress is saved
+	 */
+	private void finish(boolean completed) {
+		synchronized (lock) {
+			if (checkpointFile == null) {
+				return;
+			}
+
+			if (completed) {
+				if (checkpointFile.exists() && !checkpointFile.delete()) {
+					LOGGER.warn("Bulk HLR lookup checkpoint file '" + checkpointFile + "' could not be deleted.");
+				}
+			} else {
+				writeCheckpoint();
+			}
+		}
+	}
+
+	private void restoreCheckpoint() {
+		if (checkpointFile == null || !checkpointFile.exists()) {
+			return;
+		}
+
+		Properties checkpoint = new Properties();
+		try {
+			FileInputStream in = new FileInputStream(checkpointFile);
+			try {
+				checkpoint.load(in);
+			} finally {
+				in.close();
+			}
+
+			synchronized (lock) {
+				watermark = Long.parseLong(checkpoint.getProperty(CHECKPOINT_WATERMARK, "0"));
+				String completed = checkpoint.getProperty(CHECKPOINT_COMPLETED, "");
+				for (String value : completed.split(",")) {
+					if (value.length() > 0) {
+						completedAboveWatermark.add(Long.valueOf(value));
+					}
+				}
+			}
+
+			String outputLength = checkpoint.getProperty(CHECKPOINT_OUTPUT_LENGTH);
+			if (output != null && outputLength != null) {
+				// results written after the checkpoint are looked up again
+				output.truncate(Long.parseLong(outputLength));
+			}
+		} catch (IOException e) {
+			throw new RequestException("Bulk HLR lookup checkpoint file '" + checkpointFile + "' could not be read.", e);
+		} catch (NumberFormatException e) {
+			throw new RequestException("Bulk HLR lookup checkpoint file '" + checkpointFile + "' is corrupted.", e);
+		}
+
+		if (LOGGER.isInfoEnabled()) {
+			LOGGER.info("Bulk HLR lookup is resumed from checkpoint, " + watermark + " addresses are already looked up.");
+		}
+	}
+
+	/**
+	 * Checkpoint is written to a temporary file first, so a crash never leaves a partially written checkpoint
+	 */
+	private void writeCheckpoint() {
+		StringBuilder completed = new StringBuilder();
+		for (Long index : completedAboveWatermark) {
+			if (completed.length() > 0) {
+				completed.append(',');
+			}
+			completed.append(index);
+		}
+
+		Properties checkpoint = new Properties();
+		checkpoint.setProperty(CHECKPOINT_WATERMARK, String.valueOf(watermark));
+		checkpoint.setProperty(CHECKPOINT_COMPLETED, completed.toString());
+
+		File tmpFile = new File(checkpointFile.getPath() + ".tmp");
+		try {
+			if (output != null) {
+				checkpoint.setProperty(CHECKPOINT_OUTPUT_LENGTH, String.valueOf(output.flush()));
+			}
+
+			FileOutputStream out = new FileOutputStream(tmpFile);
+			try {
+				checkpoint.store(out, "Bulk HLR lookup checkpoint");
+				out.getFD().sync();
+			} finally {
+				out.close();
+			}
+
+			if (!tmpFile.renameTo(checkpointFile)) {
+				checkpointFile.delete();
+				if (!tmpFile.renameTo(checkpointFile)) {
+					throw new IOException("rename of '" + tmpFile + "' failed");
+				}
+			}
+		} catch (IOException e) {
+			LOGGER.warn("Bulk HLR lookup checkpoint could not be written: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * HLR results written to a file as newline delimited JSON, one object per address:
+	 * {"index":0,"address":"...","roaming":{...}} or {"index":1,"address":"...","error":"...","responseCode":400}
+	 */
+	static class NdjsonOutput implements HLRBulkLookupListener {
+		private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+		static {
+			OBJECT_MAPPER.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+		}
+
+		private final File file;
+		private OutputStream out;
+		private long length;
+
+		NdjsonOutput(File file) throws IOException {
+			this.file = file;
+			this.length = file.length();
+			this.out = new BufferedOutputStream(new FileOutputStream(file, true));
+		}
+
+		@Override
+		public void onHLRResult(long index, String address, Roaming roaming, Throwable error) {
+			ObjectNode line = OBJECT_MAPPER.createObjectNode();
+			line.put("index", index);
+			line.put("address", address);
+			if (error == null) {
+				line.putPOJO("roaming", roaming);
+			} else {
+				line.put("error", error.getMessage());
+				if (error instanceof RequestException && ((RequestException) error).getResponseCode() > 0) {
+					line.put("responseCode", ((RequestException) error).getResponseCode());
+				}
+			}
+
+			try {
+				byte[] bytes = OBJECT_MAPPER.writeValueAsBytes(line);
+				out.write(bytes);
+				out.write('\n');
+				length += bytes.length + 1;
+			} catch (IOException e) {
+				throw new RequestException("Bulk HLR lookup result could not be written to '" + file + "'.", e);
+			}
+		}
+
+		/**
+		 * @return file length after flush
+		 * @throws IOException
+		 */
+		long flush() throws IOException {
+			out.flush();
+			return length;
+		}
+
+		void truncate(long newLength) throws IOException {
+			if (newLength >= length) {
+				return;
+			}
+
+			out.close();
+			RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+			try {
+				randomAccessFile.setLength(newLength);
+			} finally {
+				randomAccessFile.close();
+			}
+			length = newLength;
+			out = new BufferedOutputStream(new FileOutputStream(file, true));
+		}
+
+		void close() throws IOException {
+			out.close();
+		}
+	}
+
+	/**
+	 * Addresses read from a file, one per line, blank lines are skipped
+	 */
+	static class AddressFileIterator implements Iterator<String> {
+		private final File file;
+		private final BufferedReader reader;
+		private String next;
+
+		AddressFileIterator(File file) throws IOException {
+			this.file = file;
+			this.reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+			advance();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public String next() {
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+
+			String address = next;
+			try {
+				advance();
+			} catch (IOException e) {
+				throw new RequestException("Addresses could not be read from '" + file + "'.", e);
+			}
+			return address;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		void close() throws IOException {
+			reader.close();
+		}
+
+		private void advance() throws IOException {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.length() > 0) {
+					next = line;
+					return;
+				}
+			}
+			next = null;
+		}
+	}
+}
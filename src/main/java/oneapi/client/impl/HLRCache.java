@@ -0,0 +1,297 @@
+package oneapi.client.impl;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import oneapi.config.HLRCacheSettings;
+import oneapi.exception.RequestException;
+import oneapi.model.HLRCacheStatistics;
+import oneapi.model.common.Roaming;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HLR lookup results cached by normalized address. Failures and incorrect numbers are cached for a shorter time.
+ * The cache is split into independently locked LRU segments to keep lock contention low.
+ * Results can also be persisted to a file store, which is consulted when the address is not cached in memory.
+ */
+class HLRCache {
+	private static final Logger LOGGER = LoggerFactory.getLogger(HLRCache.class);
+	private static final int SEGMENT_COUNT = 16;
+
+	private final Segment[] segments = new Segment[SEGMENT_COUNT];
+	private final HLRFileStore store;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong negativeHitCount = new AtomicLong();
+	private final AtomicLong storeHitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+	private final AtomicBoolean closed = new AtomicBoolean();
+
+	HLRCache(int maxEntries) {
+		this(maxEntries, null);
+	}
+
+	/**
+	 * @param maxEntries maximum number of addresses cached in memory
+	 * @param store file store or null
+	 */
+	HLRCache(int maxEntries, HLRFileStore store) {
+		this.store = store;
+		int segmentMaxEntries = Math.max(1, (maxEntries + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+		for (int i = 0; i < SEGMENT_COUNT; i++) {
+			segments[i] = new Segment(segmentMaxEntries);
+		}
+	}
+
+	/**
+	 * Get cached lookup result and record the hit or miss
+	 * @param address normalized address
+	 * @return Entry or null if the address is not cached or the result expired
+	 */
+	Entry get(String address) {
+		long now = System.currentTimeMillis();
+		Segment segment = segmentFor(address);
+		Entry entry = segment.get(address, now);
+		if (entry == null && isStoreOpen()) {
+			entry = getStored(address, now);
+			if (entry != null) {
+				segment.put(address, entry);
+				storeHitCount.incrementAndGet();
+			}
+		}
+
+		if (entry == null) {
+			missCount.incrementAndGet();
+		} else {
+			hitCount.incrementAndGet();
+			if (entry.isNegative()) {
+				negativeHitCount.incrementAndGet();
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * Cache the HLR result, results with 'Error' retrieval status or incorrect number are cached for a shorter time
+	 * @param address normalized address
+	 * @param roaming
+	 * @param settings
+	 */
+	void putResult(String address, Roaming roaming, HLRCacheSettings settings) {
+		int timeToLive;
+		if ("Error".equals(roaming.getRetrievalStatus())) {
+			timeToLive = settings.getErrorTimeToLive();
+		} else if (isNegative(roaming)) {
+			timeToLive = settings.getIncorrectNumberTimeToLive();
+		} else {
+			timeToLive = settings.getTimeToLive();
+		}
+		if (timeToLive <= 0) {
+			return;
+		}
+
+		long expiresAt = System.currentTimeMillis() + timeToLive;
+		put(address, new Entry(roaming, null, expiresAt, isNegative(roaming)), timeToLive);
+		if (isStoreOpen()) {
+			try {
+				store.put(address, roaming, expiresAt);
+			} catch (IOException e) {
+				LOGGER.warn("HLR result of '" + address + "' could not be written to the store file: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Cache the failed lookup if the server rejected the request for this address. Transport errors, server errors,
+	 * authorization failures and throttling are not cached.
+	 * @param address normalized address
+	 * @param error
+	 * @param settings
+	 */
+	void putError(String address, RequestException error, HLRCacheSettings settings) {
+		int responseCode = error.getResponseCode();
+		if (responseCode < 400 || responseCode >= 500 || responseCode == 401 || responseCode == 403 || responseCode == 429) {
+			return;
+		}
+
+		int timeToLive = settings.getErrorTimeToLive();
+		put(address, new Entry(null, error, System.currentTimeMillis() + timeToLive, true), timeToLive);
+	}
+
+	/**
+	 * Remove the address from the cache
+	 * @param address normalized address
+	 */
+	void invalidate(String address) {
+		segmentFor(address).remove(address);
+		if (isStoreOpen()) {
+			try {
+				store.remove(address);
+			} catch (IOException e) {
+				LOGGER.warn("HLR result of '" + address + "' could not be removed from the store file: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Remove all cached addresses, including the ones in the store file
+	 */
+	void clear() {
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+		if (isStoreOpen()) {
+			try {
+				store.compact(Long.MAX_VALUE);
+			} catch (IOException e) {
+				LOGGER.warn("HLR store file could not be cleared: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Release expired results from the store file
+	 * @return number of released results
+	 */
+	int compactStore() {
+		if (!isStoreOpen()) {
+			return 0;
+		}
+		try {
+			return store.compact(System.currentTimeMillis());
+		} catch (IOException e) {
+			LOGGER.warn("HLR store file could not be compacted: " + e.getMessage());
+			return 0;
+		}
+	}
+
+	/**
+	 * Release the store file, results are no longer read from or written to it
+	 */
+	void close() {
+		if (store == null || !closed.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			store.close();
+		} catch (IOException e) {
+			LOGGER.warn("HLR store file could not be closed: " + e.getMessage());
+		}
+	}
+
+	HLRCacheStatistics getStatistics() {
+		long size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return new HLRCacheStatistics(hitCount.get(), negativeHitCount.get(), storeHitCount.get(), missCount.get(), evictionCount.get(), size);
+	}
+
+	private void put(String address, Entry entry, int timeToLive) {
+		if (timeToLive > 0) {
+			segmentFor(address).put(address, entry);
+		}
+	}
+
+	private boolean isStoreOpen() {
+		return store != null && !closed.get();
+	}
+
+	private Entry getStored(String address, long now) {
+		try {
+			HLRFileStore.Entry stored = store.get(address, now);
+			if (stored != null) {
+				return new Entry(stored.getRoaming(), null, stored.getExpiresAt(), isNegative(stored.getRoaming()));
+			}
+		} catch (IOException e) {
+			LOGGER.warn("HLR result of '" + address + "' could not be read from the store file: " + e.getMessage());
+		}
+		return null;
+	}
+
+	private static boolean isNegative(Roaming roaming) {
+		return "Error".equals(roaming.getRetrievalStatus())
+				|| (roaming.getExtendedData() != null && Boolean.FALSE.equals(roaming.getExtendedData().getIsNumberCorrect()));
+	}
+
+	private Segment segmentFor(String address) {
+		int hash = address.hashCode();
+		hash ^= (hash >>> 16);
+		return segments[hash & (SEGMENT_COUNT - 1)];
+	}
+
+	/**
+	 * Cached lookup result, either the Roaming or the error returned by the server
+	 */
+	static final class Entry {
+		private final Roaming roaming;
+		private final RequestException error;
+		private final long expiresAt;
+		private final boolean negative;
+
+		private Entry(Roaming roaming, RequestException error, long expiresAt, boolean negative) {
+			this.roaming = roaming;
+			this.error = error;
+			this.expiresAt = expiresAt;
+			this.negative = negative;
+		}
+
+		Roaming getRoaming() {
+			return roaming;
+		}
+
+		RequestException getError() {
+			return error;
+		}
+
+		boolean isNegative() {
+			return negative;
+		}
+	}
+
+	private final class Segment {
+		private final int maxEntries;
+		private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+		private Segment(int maxEntries) {
+			this.maxEntries = maxEntries;
+		}
+
+		synchronized Entry get(String address, long now) {
+			Entry entry = entries.get(address);
+			if (entry != null && entry.expiresAt <= now) {
+				entries.remove(address);
+				return null;
+			}
+			return entry;
+		}
+
+		synchronized void put(String address, Entry entry) {
+			entries.put(address, entry);
+			if (entries.size() > maxEntries) {
+				Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+				eldest.next();
+				eldest.remove();
+				evictionCount.incrementAndGet();
+			}
+		}
+
+		synchronized void remove(String address) {
+			entries.remove(address);
+		}
+
+		synchronized void clear() {
+			entries.clear();
+		}
+
+		synchronized int size() {
+			return entries.size();
+		}
+	}
+}
@@ -1,21 +1,41 @@
 package oneapi.client.impl;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
 
 import oneapi.client.HLRClient;
 import oneapi.config.Configuration;
+import oneapi.config.ConfigurationProvider;
+import oneapi.config.HLRBulkLookupSettings;
+import oneapi.config.HLRCacheSettings;
+import oneapi.config.NetworkPrefixSettings;
+import oneapi.exception.ConfigurationException;
 import oneapi.exception.RequestException;
+import oneapi.listener.ConfigurationListener;
+import oneapi.listener.HLRBulkLookupListener;
 import oneapi.listener.HLRNotificationsListener;
 import oneapi.listener.ResponseListener;
+import oneapi.model.HLRBulkLookupSummary;
+import oneapi.model.HLRCacheStatistics;
+import oneapi.model.NetworkInfo;
+import oneapi.model.NetworkPrefixStatistics;
 import oneapi.model.RequestData;
 import oneapi.model.RequestData.Method;
 import oneapi.model.RoamingNotification;
 import oneapi.model.SubscribeToHLRDeliveryNotificationsRequest;
 import oneapi.model.common.DeliveryReceiptSubscription;
 import oneapi.model.common.DeliveryReportSubscription;
+import oneapi.model.common.HlrResponseData;
 import oneapi.model.common.Roaming;
 import oneapi.pushserver.PushServerSimulator;
+import oneapi.util.AddressNormalizer;
 
 public class HLRClientImpl extends OneAPIBaseClientImpl implements HLRClient {
 	private static final String HLR_URL_BASE = "/terminalstatus/queries";
@@ -23,9 +43,20 @@ public class HLRClientImpl extends OneAPIBaseClientImpl implements HLRClient {
 
 	private volatile List<HLRNotificationsListener> hlrPushListenerList = null;
 	private PushServerSimulator hlrPushServerSimulator;
+	private volatile HLRCache hlrCache = null;
+	private boolean hlrCacheClosed = false;
+	private final NetworkPrefixTable networkPrefixTable = new NetworkPrefixTable();
+	private volatile AccountBalanceTracker accountBalanceTracker = null;
+	private final ConcurrentMap<String, PendingResponse<Roaming>> pendingHLRQueries = new ConcurrentHashMap<String, PendingResponse<Roaming>>();
 
 	public HLRClientImpl(Configuration configuration) {
 		super(configuration);
+		watchConfiguration();
+	}
+
+	HLRClientImpl(ConfigurationProvider configurationProvider, IBSSOSessionManager sessionManager, Tenant tenant) {
+		super(configurationProvider, sessionManager, tenant);
+		watchConfiguration();
 	}
 
 	/**
@@ -37,6 +68,10 @@ public class HLRClientImpl extends OneAPIBaseClientImpl implements HLRClient {
 	 */
 	@Override 
 	public void queryHLR(String address, String notifyURL, String clientCorrelator, String callbackData) {	
+		executeMethod(createQueryHLRRequestData(address, notifyURL, clientCorrelator, callbackData));
+	}
+
+	private RequestData createQueryHLRRequestData(String address, String notifyURL, String clientCorrelator, String callbackData) {
 		if (notifyURL == null || notifyURL.length() == 0) {
 			throw new RequestException("'notifiyURL' parmeter is mandatory.");
 		}
@@ -60,8 +95,7 @@ public class HLRClientImpl extends OneAPIBaseClientImpl implements HLRClient {
 			urlBuilder.append(encodeURLParam(callbackData));
 		}
 
-		RequestData requestData = new RequestData(urlBuilder.toString(), Method.GET);
-		executeMethod(requestData);
+		return new RequestData(urlBuilder.toString(), Method.GET);
 	}
 
 	/**
@@ -81,13 +115,29 @@ public class HLRClientImpl extends OneAPIBaseClientImpl implements HLRClient {
 	 */
 	@Override
 	public Roaming queryHLR(String address) {		
-		StringBuilder urlBuilder = new StringBuilder(HLR_URL_BASE);	
-		urlBuilder.append("/roamingStatus?address=");	
-		urlBuilder.append(encodeURLParam(address));
-		urlBuilder.append("&includeExtendedData=true");	
+		HLRCache cache = getHLRCache();
+		if (cache == null) {
+			return executeQueryHLR(address);
+		}
 
-		RequestData requestData = new RequestData(urlBuilder.toString(), Method.GET, "roaming");
-		return executeMethod(requestData, Roaming.class);
+		String cacheKey = AddressNormalizer.normalize(address);
+		HLRCache.Entry entry = cache.get(cacheKey);
+		if (entry != null) {
+			if (entry.getError() != null) {
+				throw entry.getError();
+			}
+			return entry.getRoaming();
+		}
+
+		Roaming roaming;
+		try {
+			roaming = executeQueryHLR(address);
+		} catch (RequestException e) {
+			cache.putError(cacheKey, e, getConfiguration().getHlrCache());
+			throw e;
+		}
+		cache.putResult(cacheKey, roaming, getConfiguration().getHlrCache());
+		return roaming;
 	}
 	
 	/**
@@ -98,13 +148,196 @@ public class HLRClientImpl extends OneAPIBaseClientImpl implements HLRClient {
 	@Override
 	public void queryHLRAsync(String address, final ResponseListener<Roaming> responseListener)
 	{
-		StringBuilder urlBuilder = new StringBuilder(HLR_URL_BASE);
-		urlBuilder.append("/roamingStatus?address=");
-		urlBuilder.append(encodeURLParam(address));
-		urlBuilder.append("&includeExtendedData=true");
+		final HLRCache cache = getHLRCache();
+		if (cache == null) {
+			executeQueryHLRAsync(address, responseListener);
+			return;
+		}
 
-		RequestData requestData = new RequestData(urlBuilder.toString(), Method.GET, "roaming");
-		executeMethodAsync(requestData, Roaming.class, responseListener);
+		final String cacheKey = AddressNormalizer.normalize(address);
+		HLRCache.Entry entry = cache.get(cacheKey);
+		if (entry != null) {
+			responseListener.onGotResponse(entry.getRoaming(), entry.getError());
+			return;
+		}
+
+		executeQueryHLRAsync(address, new ResponseListener<Roaming>() {
+			@Override
+			public void onGotResponse(Roaming roaming, Throwable error) {
+				HLRCacheSettings cacheSettings = getConfiguration().getHlrCache();
+				if (cacheSettings != null) {
+					if (error == null && roaming != null) {
+						cache.putResult(cacheKey, roaming, cacheSettings);
+					} else if (error instanceof RequestException) {
+						cache.putError(cacheKey, (RequestException) error, cacheSettings);
+					}
+				}
+				responseListener.onGotResponse(roaming, error);
+			}
+		});
+	}
+
+	/**
+	 * Query the customer’s roaming status and get a future completed by the HLR push notification received on the HLR push server simulator.
+	 * The clientCorrelator is sent as callbackData too, since it is used to match the notification to the query.
+	 * @param address (mandatory) mobile device number being queried
+	 * @param notifyURL (mandatory) URL of the HLR push server simulator
+	 * @param clientCorrelator (optional) uniquely identifies this request, generated if not specified
+	 * @param timeout (mandatory) time in milliseconds to wait for the notification, the future fails afterwards
+	 * @return Future<Roaming>
+	 */
+	@Override
+	public Future<Roaming> queryHLRAsync(String address, String notifyURL, String clientCorrelator, long timeout) {
+		String correlator = clientCorrelator;
+		if (correlator == null || correlator.length() == 0) {
+			correlator = UUID.randomUUID().toString().replace("-", "");
+		}
+
+		RequestData requestData = createQueryHLRRequestData(address, notifyURL, correlator, correlator);
+		final PendingResponse<Roaming> pendingQuery = new PendingResponse<Roaming>(correlator, pendingHLRQueries);
+		if (!pendingQuery.register(getTimerWheel(), timeout)) {
+			throw new RequestException("HLR query with clientCorrelator '" + correlator + "' is already pending.");
+		}
+
+		startHLRPushServerSimulator();
+		try {
+			// the response only acknowledges the query, the result is completed by the notification
+			executeMethodAsync(requestData, Void.class, new ResponseListener<Void>() {
+				@Override
+				public void onGotResponse(Void result, Throwable error) {
+					if (error != null) {
+						pendingQuery.fail(error);
+					}
+				}
+			});
+		} catch (RuntimeException e) {
+			pendingQuery.fail(e);
+			throw e;
+		}
+		return pendingQuery;
+	}
+
+	/**
+	 * Query the customer’s roaming status and get a future completed by the HLR push notification received on the HLR push server simulator
+	 * @param address (mandatory) mobile device number being queried
+	 * @param notifyURL (mandatory) URL of the HLR push server simulator
+	 * @param timeout (mandatory) time in milliseconds to wait for the notification, the future fails afterwards
+	 * @return Future<Roaming>
+	 */
+	@Override
+	public Future<Roaming> queryHLRAsync(String address, String notifyURL, long timeout) {
+		return queryHLRAsync(address, notifyURL, null, timeout);
+	}
+
+	/**
+	 * Complete the pending HLR query the notification belongs to, the notification callbackData holds the query clientCorrelator.
+	 * The query is completed with a decoded copy of the roaming, the lazily decoded notification stays with the listeners.
+	 * @param roamingNotification
+	 * @return true if a pending query was completed
+	 */
+	public boolean completePendingHLRQuery(RoamingNotification roamingNotification) {
+		if (roamingNotification == null || pendingHLRQueries.isEmpty()) {
+			return false;
+		}
+
+		String correlator = roamingNotification.getCallbackData();
+		if (correlator == null && roamingNotification.getRoaming() != null) {
+			correlator = roamingNotification.getRoaming().getCallbackData();
+		}
+		if (correlator == null) {
+			return false;
+		}
+
+		PendingResponse<Roaming> pendingQuery = pendingHLRQueries.get(correlator);
+		Roaming roaming = roamingNotification.getRoaming();
+		return pendingQuery != null && pendingQuery.complete(roaming != null ? HLRRecordCodec.copy(roaming) : null);
+	}
+
+	/**
+	 * Check if any HLR query is waiting for its notification
+	 * @return boolean
+	 */
+	public boolean hasPendingHLRQueries() {
+		return !pendingHLRQueries.isEmpty();
+	}
+
+	/**
+	 * Get the network serving the number. The network is resolved from the prefix table learned from previous HLR results
+	 * if the longest matching prefix is unambiguous, otherwise HLR is queried
+	 * @param address (mandatory) mobile device number
+	 * @return NetworkInfo
+	 */
+	@Override
+	public NetworkInfo lookupNetwork(String address) {
+		String digits = AddressNormalizer.normalize(address);
+		NetworkPrefixSettings prefixSettings = getConfiguration().getNetworkPrefixTable();
+		if (prefixSettings != null && digits != null) {
+			NetworkInfo networkInfo = networkPrefixTable.lookup(address, digits, prefixSettings);
+			if (networkInfo != null) {
+				return networkInfo;
+			}
+		}
+
+		Roaming roaming = queryHLR(address);
+		HlrResponseData data = roaming.getExtendedData();
+		if (data == null) {
+			return new NetworkInfo(address, null, null, null, false);
+		}
+		String networkName = Boolean.TRUE.equals(data.getIsNumberPorted()) ? data.getPortedNetworkName() : data.getOriginalNetworkName();
+		return new NetworkInfo(address, data.getMccMnc(), networkName, networkPrefixTable.prefixOf(digits, data), false);
+	}
+
+	/**
+	 * Get network prefix table statistics
+	 * @return NetworkPrefixStatistics or null if network prefix table is not configured
+	 */
+	@Override
+	public NetworkPrefixStatistics getNetworkPrefixStatistics() {
+		return getConfiguration().getNetworkPrefixTable() == null ? null : networkPrefixTable.getStatistics();
+	}
+
+	/**
+	 * Query HLR of many addresses with bounded parallelism and rate, the call returns when all lookups are completed
+	 * @param addresses (mandatory) mobile device numbers being queried
+	 * @param settings (mandatory) parallelism, rate and checkpoint settings
+	 * @param listener (mandatory) receives HLR results in completion order
+	 * @return HLRBulkLookupSummary
+	 */
+	@Override
+	public HLRBulkLookupSummary queryHLRBulk(Iterator<String> addresses, HLRBulkLookupSettings settings, HLRBulkLookupListener listener) {
+		return new HLRBulkLookup(this, settings, listener).run(addresses);
+	}
+
+	/**
+	 * Query HLR of addresses read from a file (one per line) and append the results to a newline delimited JSON file,
+	 * the call returns when all lookups are completed
+	 * @param addressFile (mandatory) file with mobile device numbers being queried
+	 * @param resultFile (mandatory) file the HLR results are appended to
+	 * @param settings (mandatory) parallelism, rate and checkpoint settings
+	 * @return HLRBulkLookupSummary
+	 */
+	@Override
+	public HLRBulkLookupSummary queryHLRBulk(File addressFile, File resultFile, HLRBulkLookupSettings settings) {
+		HLRBulkLookup.AddressFileIterator addresses = null;
+		HLRBulkLookup.NdjsonOutput output = null;
+		try {
+			addresses = new HLRBulkLookup.AddressFileIterator(addressFile);
+			output = new HLRBulkLookup.NdjsonOutput(resultFile);
+			return new HLRBulkLookup(this, settings, output).run(addresses);
+		} catch (IOException e) {
+			throw new RequestException("Bulk HLR lookup files could not be opened.", e);
+		} finally {
+			try {
+				if (addresses != null) {
+					addresses.close();
+				}
+				if (output != null) {
+					output.close();
+				}
+			} catch (IOException e) {
+				LOGGER.warn("Bulk HLR lookup files could not be closed: " + e.getMessage());
+			}
+		}
 	}
 
 	/**
@@ -140,6 +373,7 @@ public class HLRClientImpl extends OneAPIBaseClientImpl implements HLRClient {
 		urlBuilder.append(encodeURLParam(subscriptionId));
 
 		RequestData requestData = new RequestData(urlBuilder.toString(), Method.GET, "deliveryReceiptSubscriptions");
+		requestData.setIdempotent(true);
 		return executeMethod(requestData,  DeliveryReportSubscription[].class);
 	}
 
@@ -205,7 +439,178 @@ public class HLRClientImpl extends OneAPIBaseClientImpl implements HLRClient {
 		}
 	}
 
-	private void startHLRPushServerSimulator()
+	/**
+	 * Get HLR lookup cache statistics
+	 * @return HLRCacheStatistics or null if HLR cache is not configured
+	 */
+	@Override
+	public HLRCacheStatistics getHLRCacheStatistics() {
+		HLRCache cache = getHLRCache();
+		return cache == null ? null : cache.getStatistics();
+	}
+
+	/**
+	 * Remove cached HLR result of the address
+	 * @param address
+	 */
+	@Override
+	public void invalidateHLRCache(String address) {
+		HLRCache cache = hlrCache;
+		if (cache != null) {
+			cache.invalidate(AddressNormalizer.normalize(address));
+		}
+	}
+
+	/**
+	 * Remove all cached HLR results
+	 */
+	@Override
+	public void invalidateHLRCache() {
+		HLRCache cache = hlrCache;
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
+	private Roaming executeQueryHLR(String address) {
+		StringBuilder urlBuilder = new StringBuilder(HLR_URL_BASE);	
+		urlBuilder.append("/roamingStatus?address=");	
+		urlBuilder.append(encodeURLParam(address));
+		urlBuilder.append("&includeExtendedData=true");	
+
+		RequestData requestData = new RequestData(urlBuilder.toString(), Method.GET, "roaming");
+		requestData.setIdempotent(true);
+		Roaming roaming = executeMethod(requestData, Roaming.class);
+		learnNetworkPrefix(address, roaming);
+		recordSpend(roaming);
+		return roaming;
+	}
+
+	private void executeQueryHLRAsync(final String address, final ResponseListener<Roaming> responseListener) {
+		StringBuilder urlBuilder = new StringBuilder(HLR_URL_BASE);
+		urlBuilder.append("/roamingStatus?address=");
+		urlBuilder.append(encodeURLParam(address));
+		urlBuilder.append("&includeExtendedData=true");
+
+		RequestData requestData = new RequestData(urlBuilder.toString(), Method.GET, "roaming");
+		requestData.setIdempotent(true);
+		executeMethodAsync(requestData, Roaming.class, new ResponseListener<Roaming>() {
+			@Override
+			public void onGotResponse(Roaming roaming, Throwable error) {
+				if (error == null) {
+					learnNetworkPrefix(address, roaming);
+					recordSpend(roaming);
+				}
+				responseListener.onGotResponse(roaming, error);
+			}
+		});
+	}
+
+	/**
+	 * Feed the network prefix table with the HLR result received from the server
+	 * @param address
+	 * @param roaming
+	 */
+	private void learnNetworkPrefix(String address, Roaming roaming) {
+		if (roaming != null && getConfiguration().getNetworkPrefixTable() != null) {
+			networkPrefixTable.learn(AddressNormalizer.normalize(address), roaming.getExtendedData());
+		}
+	}
+
+	/**
+	 * Set tracker charged for HLR queries
+	 * @param accountBalanceTracker
+	 */
+	void setAccountBalanceTracker(AccountBalanceTracker accountBalanceTracker) {
+		this.accountBalanceTracker = accountBalanceTracker;
+	}
+
+	/**
+	 * Charge the account balance tracker with the price returned in the HLR result received from the server
+	 * @param roaming
+	 */
+	private void recordSpend(Roaming roaming) {
+		AccountBalanceTracker tracker = accountBalanceTracker;
+		if (tracker != null && roaming != null && roaming.getExtendedData() != null && roaming.getExtendedData().getPricePerMessage() != null) {
+			tracker.recordSpend(roaming.getExtendedData().getPricePerMessage().doubleValue());
+		}
+	}
+
+	/**
+	 * Release expired HLR results from the HLR cache store file
+	 * @return number of released results
+	 */
+	@Override
+	public int compactHLRCacheStore() {
+		HLRCache cache = getHLRCache();
+		return cache == null ? 0 : cache.compactStore();
+	}
+
+	/**
+	 * Release the HLR cache store file, the cache is not created again afterwards
+	 */
+	synchronized void closeHLRCache() {
+		hlrCacheClosed = true;
+		if (hlrCache != null) {
+			hlrCache.close();
+		}
+	}
+
+	/**
+	 * HLR cache is created on first use once it is configured, together with its store file if one is configured
+	 * @return HLRCache or null if HLR cache is not configured
+	 */
+	private HLRCache getHLRCache() {
+		HLRCacheSettings cacheSettings = getConfiguration().getHlrCache();
+		if (cacheSettings == null) {
+			return null;
+		}
+
+		if (hlrCache == null) {
+			synchronized (this) {
+				if (hlrCache == null && !hlrCacheClosed) {
+					hlrCache = new HLRCache(cacheSettings.getMaxEntries(), openHLRFileStore(cacheSettings));
+				}
+			}
+		}
+		return hlrCache;
+	}
+
+	private HLRFileStore openHLRFileStore(HLRCacheSettings cacheSettings) {
+		if (cacheSettings.getStoreFile() == null || cacheSettings.getStoreFile().length() == 0) {
+			return null;
+		}
+
+		try {
+			HLRFileStore store = HLRFileStore.open(new File(cacheSettings.getStoreFile()), cacheSettings.getStoreMaxEntries());
+			int released = store.compact(System.currentTimeMillis());
+			if (LOGGER.isInfoEnabled()) {
+				LOGGER.info("HLR cache store file '" + store.getFile() + "' is opened, " + released + " expired results released.");
+			}
+			return store;
+		} catch (IOException e) {
+			throw new ConfigurationException("HLR cache store file '" + cacheSettings.getStoreFile() + "' can't be opened.", e);
+		}
+	}
+
+	/**
+	 * Move the running push server to the changed port
+	 */
+	private void watchConfiguration() {
+		getConfigurationProvider().addListener(new ConfigurationListener() {
+			@Override
+			public void onConfigurationChanged(Configuration previous, Configuration current) {
+				synchronized (HLRClientImpl.this) {
+					if (hlrPushServerSimulator != null && previous.getHlrPushServerSimulatorPort() != current.getHlrPushServerSimulatorPort()) {
+						stopHLRPushServerSimulator();
+						startHLRPushServerSimulator();
+					}
+				}
+			}
+		});
+	}
+
+	private synchronized void startHLRPushServerSimulator()
 	{
 		if (hlrPushServerSimulator == null)
 		{
@@ -214,11 +619,12 @@ public class HLRClientImpl extends OneAPIBaseClientImpl implements HLRClient {
 		} 
 	}
 
-	private void stopHLRPushServerSimulator()
+	private synchronized void stopHLRPushServerSimulator()
 	{
 		if (hlrPushServerSimulator != null)
 		{
 			hlrPushServerSimulator.stop();   
+			hlrPushServerSimulator = null;
 		}
 	}
 }
@@ -0,0 +1,404 @@
+package oneapi.client.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import oneapi.exception.ConfigurationException;
+import oneapi.model.common.Roaming;
+
+/**
+ * HLR lookup results persisted in a memory mapped file, so they survive restarts and are shared by all
+ * processes on the host which use the same file.
+ * <p>
+ * The file is a fixed size hash table of buckets, each bucket holds {@value #BUCKET_SLOTS} fixed size slots.
+ * A bucket is locked with a file region lock (between processes) and a lock stripe (between threads of this process,
+ * since file locks are held per process). File locks of one file can't overlap within a process, so all users of
+ * a file in this process share one store, opened by open() and released by close(). When a bucket is full,
+ * expired slots are reused first, then the slot which expires soonest is overwritten, so the file never grows
+ * beyond its initial size.
+ */
+class HLRFileStore {
+	private static final int MAGIC = 0x484C5231;
+	private static final int FILE_VERSION = 1;
+	private static final int HEADER_SIZE = 64;
+	private static final int BUCKET_SLOTS = 8;
+	private static final int SLOT_SIZE = 1024;
+	private static final int BUCKET_SIZE = BUCKET_SLOTS * SLOT_SIZE;
+	private static final int MAX_BUCKETS = (Integer.MAX_VALUE - HEADER_SIZE) / BUCKET_SIZE;
+	private static final int LOCK_STRIPES = 64;
+	// stores opened in this process by canonical path, guarded by itself
+	private static final Map<String, HLRFileStore> OPEN_STORES = new HashMap<String, HLRFileStore>();
+
+	// header layout
+	private static final int HEADER_MAGIC = 0;
+	private static final int HEADER_VERSION = 4;
+	private static final int HEADER_SLOT_SIZE = 8;
+	private static final int HEADER_BUCKET_COUNT = 12;
+
+	// slot layout
+	private static final int SLOT_USED = 0;
+	private static final int SLOT_KEY_LENGTH = 4;
+	private static final int SLOT_RECORD_LENGTH = 8;
+	private static final int SLOT_EXPIRES_AT = 12;
+	private static final int SLOT_DATA = 20;
+	private static final int MAX_DATA_LENGTH = SLOT_SIZE - SLOT_DATA;
+
+	private final File file;
+	private final String path;
+	private final RandomAccessFile randomAccessFile;
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final int bucketCount;
+	private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+	// guarded by OPEN_STORES
+	private int openCount = 1;
+
+	/**
+	 * Open the store file, it is created if it doesn't exist. If the file was created by another process with
+	 * a different size, its size is kept. If the file is already open in this process, its store is shared.
+	 * @param file
+	 * @param maxEntries number of slots of a newly created file
+	 * @return HLRFileStore to be released with close()
+	 * @throws IOException
+	 */
+	static HLRFileStore open(File file, int maxEntries) throws IOException {
+		String path = file.getCanonicalPath();
+		synchronized (OPEN_STORES) {
+			HLRFileStore store = OPEN_STORES.get(path);
+			if (store != null) {
+				store.openCount++;
+				return store;
+			}
+			store = new HLRFileStore(file, path, maxEntries);
+			OPEN_STORES.put(path, store);
+			return store;
+		}
+	}
+
+	private HLRFileStore(File file, String path, int maxEntries) throws IOException {
+		this.file = file;
+		this.path = path;
+		for (int i = 0; i < LOCK_STRIPES; i++) {
+			locks[i] = new ReentrantLock();
+		}
+
+		randomAccessFile = new RandomAccessFile(file, "rw");
+		channel = randomAccessFile.getChannel();
+		try {
+			bucketCount = openHeader(Math.min(MAX_BUCKETS, Math.max(1, (maxEntries + BUCKET_SLOTS - 1) / BUCKET_SLOTS)));
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) bucketCount * BUCKET_SIZE);
+		} catch (IOException e) {
+			randomAccessFile.close();
+			throw e;
+		} catch (RuntimeException e) {
+			randomAccessFile.close();
+			throw e;
+		}
+	}
+
+	File getFile() {
+		return file;
+	}
+
+	/**
+	 * Get stored lookup result
+	 * @param address normalized address
+	 * @param now current time in milliseconds
+	 * @return Entry or null if the address is not stored or the result expired
+	 * @throws IOException
+	 */
+	Entry get(String address, long now) throws IOException {
+		byte[] key = address.getBytes("UTF-8");
+		int bucket = bucketFor(key);
+		ReentrantLock lock = locks[bucket % LOCK_STRIPES];
+		lock.lock();
+		try {
+			FileLock fileLock = lockBucket(bucket, true);
+			try {
+				int slot = findSlot(bucket, key);
+				if (slot < 0) {
+					return null;
+				}
+				long expiresAt = buffer.getLong(slot + SLOT_EXPIRES_AT);
+				if (expiresAt <= now) {
+					return null;
+				}
+
+				byte[] record = new byte[buffer.getInt(slot + SLOT_RECORD_LENGTH)];
+				ByteBuffer view = buffer.duplicate();
+				view.position(slot + SLOT_DATA + key.length);
+				view.get(record);
+				Roaming roaming = HLRRecordCodec.decode(record, 0, record.length);
+				return roaming == null ? null : new Entry(roaming, expiresAt);
+			} finally {
+				fileLock.release();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Store the lookup result
+	 * @param address normalized address
+	 * @param roaming
+	 * @param expiresAt time in milliseconds
+	 * @return false if the encoded result doesn't fit into a slot and was not stored
+	 * @throws IOException
+	 */
+	boolean put(String address, Roaming roaming, long expiresAt) throws IOException {
+		byte[] key = address.getBytes("UTF-8");
+		byte[] record = HLRRecordCodec.encode(roaming);
+		if (key.length + record.length > MAX_DATA_LENGTH) {
+			return false;
+		}
+
+		int bucket = bucketFor(key);
+		long now = System.currentTimeMillis();
+		ReentrantLock lock = locks[bucket % LOCK_STRIPES];
+		lock.lock();
+		try {
+			FileLock fileLock = lockBucket(bucket, false);
+			try {
+				int slot = findSlot(bucket, key);
+				if (slot < 0) {
+					slot = findFreeSlot(bucket, now);
+				}
+
+				// mark the slot unused while it is rewritten
+				buffer.putInt(slot + SLOT_USED, 0);
+				ByteBuffer view = buffer.duplicate();
+				view.position(slot + SLOT_DATA);
+				view.put(key);
+				view.put(record);
+				buffer.putInt(slot + SLOT_KEY_LENGTH, key.length);
+				buffer.putInt(slot + SLOT_RECORD_LENGTH, record.length);
+				buffer.putLong(slot + SLOT_EXPIRES_AT, expiresAt);
+				buffer.putInt(slot + SLOT_USED, 1);
+				return true;
+			} finally {
+				fileLock.release();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove the address from the store
+	 * @param address normalized address
+	 * @throws IOException
+	 */
+	void remove(String address) throws IOException {
+		byte[] key = address.getBytes("UTF-8");
+		int bucket = bucketFor(key);
+		ReentrantLock lock = locks[bucket % LOCK_STRIPES];
+		lock.lock();
+		try {
+			FileLock fileLock = lockBucket(bucket, false);
+			try {
+				int slot = findSlot(bucket, key);
+				if (slot >= 0) {
+					buffer.putInt(slot + SLOT_USED, 0);
+				}
+			} finally {
+				fileLock.release();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Release expired slots, or all slots if 'now' is Long.MAX_VALUE
+	 * @param now current time in milliseconds
+	 * @return number of released slots
+	 * @throws IOException
+	 */
+	int compact(long now) throws IOException {
+		int released = 0;
+		for (int bucket = 0; bucket < bucketCount; bucket++) {
+			ReentrantLock lock = locks[bucket % LOCK_STRIPES];
+			lock.lock();
+			try {
+				FileLock fileLock = lockBucket(bucket, false);
+				try {
+					int offset = bucketOffset(bucket);
+					for (int i = 0; i < BUCKET_SLOTS; i++) {
+						int slot = offset + i * SLOT_SIZE;
+						if (buffer.getInt(slot + SLOT_USED) != 0 && buffer.getLong(slot + SLOT_EXPIRES_AT) <= now) {
+							buffer.putInt(slot + SLOT_USED, 0);
+							released++;
+						}
+					}
+				} finally {
+					fileLock.release();
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+		return released;
+	}
+
+	/**
+	 * Release the store, the file is closed when the last user of the file in this process releases it.
+	 * A released store can't be used afterwards.
+	 * @throws IOException
+	 */
+	void close() throws IOException {
+		synchronized (OPEN_STORES) {
+			if (openCount == 0 || --openCount > 0) {
+				return;
+			}
+			OPEN_STORES.remove(path);
+		}
+		buffer.force();
+		randomAccessFile.close();
+	}
+
+	private FileLock lockBucket(int bucket, boolean shared) throws IOException {
+		try {
+			return channel.lock(bucketOffset(bucket), BUCKET_SIZE, shared);
+		} catch (OverlappingFileLockException e) {
+			throw new IOException("HLR cache store file '" + file + "' is locked by another store of this process.");
+		}
+	}
+
+	/**
+	 * Initialize the header of a new file or read the bucket count of an existing one
+	 */
+	private int openHeader(int requestedBucketCount) throws IOException {
+		FileLock fileLock = channel.lock(0, HEADER_SIZE, false);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			if (channel.size() >= HEADER_SIZE) {
+				channel.read(header, 0);
+				header.flip();
+				if (header.getInt(HEADER_MAGIC) == MAGIC) {
+					if (header.getInt(HEADER_VERSION) != FILE_VERSION || header.getInt(HEADER_SLOT_SIZE) != SLOT_SIZE) {
+						throw new ConfigurationException("HLR cache store file '" + file + "' has unsupported format.");
+					}
+					int bucketCount = header.getInt(HEADER_BUCKET_COUNT);
+					if (bucketCount <= 0 || bucketCount > MAX_BUCKETS || channel.size() < HEADER_SIZE + (long) bucketCount * BUCKET_SIZE) {
+						throw new ConfigurationException("HLR cache store file '" + file + "' is corrupted.");
+					}
+					return bucketCount;
+				}
+				// never truncate a file of another format, other processes may have it mapped
+				if (header.getInt(HEADER_MAGIC) != 0) {
+					throw new ConfigurationException("HLR cache store file '" + file + "' is not an HLR cache store file.");
+				}
+				header.clear();
+			}
+
+			// new file, or one whose creator failed before the header was written, so nobody has it mapped yet;
+			// slots are zero filled (unused) when the file is extended
+			channel.truncate(0);
+			randomAccessFile.setLength(HEADER_SIZE + (long) requestedBucketCount * BUCKET_SIZE);
+			header.putInt(HEADER_MAGIC, MAGIC);
+			header.putInt(HEADER_VERSION, FILE_VERSION);
+			header.putInt(HEADER_SLOT_SIZE, SLOT_SIZE);
+			header.putInt(HEADER_BUCKET_COUNT, requestedBucketCount);
+			channel.write(header, 0);
+			channel.force(true);
+			return requestedBucketCount;
+		} finally {
+			fileLock.release();
+		}
+	}
+
+	private int findSlot(int bucket, byte[] key) {
+		int offset = bucketOffset(bucket);
+		for (int i = 0; i < BUCKET_SLOTS; i++) {
+			int slot = offset + i * SLOT_SIZE;
+			if (buffer.getInt(slot + SLOT_USED) != 0 && keyEquals(slot, key)) {
+				return slot;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Unused or expired slot, otherwise the slot which expires soonest
+	 */
+	private int findFreeSlot(int bucket, long now) {
+		int offset = bucketOffset(bucket);
+		int candidate = offset;
+		long candidateExpiresAt = Long.MAX_VALUE;
+		for (int i = 0; i < BUCKET_SLOTS; i++) {
+			int slot = offset + i * SLOT_SIZE;
+			if (buffer.getInt(slot + SLOT_USED) == 0) {
+				return slot;
+			}
+			long expiresAt = buffer.getLong(slot + SLOT_EXPIRES_AT);
+			if (expiresAt <= now) {
+				return slot;
+			}
+			if (expiresAt < candidateExpiresAt) {
+				candidate = slot;
+				candidateExpiresAt = expiresAt;
+			}
+		}
+		return candidate;
+	}
+
+	private boolean keyEquals(int slot, byte[] key) {
+		if (buffer.getInt(slot + SLOT_KEY_LENGTH) != key.length) {
+			return false;
+		}
+		int keyOffset = slot + SLOT_DATA;
+		for (int i = 0; i < key.length; i++) {
+			if (buffer.get(keyOffset + i) != key[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Bucket must not depend on String.hashCode() implementation details of a particular JVM, so FNV-1a is used
+	 */
+	private int bucketFor(byte[] key) {
+		int hash = 0x811C9DC5;
+		for (byte b : key) {
+			hash ^= (b & 0xFF);
+			hash *= 0x01000193;
+		}
+		return (hash & Integer.MAX_VALUE) % bucketCount;
+	}
+
+	private int bucketOffset(int bucket) {
+		return HEADER_SIZE + bucket * BUCKET_SIZE;
+	}
+
+	/**
+	 * Stored lookup result
+	 */
+	static final class Entry {
+		private final Roaming roaming;
+		private final long expiresAt;
+
+		private Entry(Roaming roaming, long expiresAt) {
+			this.roaming = roaming;
+			this.expiresAt = expiresAt;
+		}
+
+		Roaming getRoaming() {
+			return roaming;
+		}
+
+		long getExpiresAt() {
+			return expiresAt;
+		}
+	}
+}
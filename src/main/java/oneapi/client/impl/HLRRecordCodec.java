@@ -0,0 +1,228 @@
+package oneapi.client.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Date;
+
+import oneapi.model.common.HlrResponseData;
+import oneapi.model.common.Roaming;
+
+/**
+ * Compact binary encoding of Roaming and its HlrResponseData used by the persistent HLR store.
+ * Nullable values are prefixed with a presence byte, so empty HLR fields take a single byte.
+ */
+final class HLRRecordCodec {
+	private static final int FORMAT_VERSION = 1;
+
+	private HLRRecordCodec() {
+	}
+
+	static byte[] encode(Roaming roaming) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(FORMAT_VERSION);
+		writeString(out, roaming.getAddress());
+		writeString(out, roaming.getCurrentRoaming());
+		Roaming.ServingMccMnc servingMccMnc = roaming.getServingMccMnc();
+		out.writeBoolean(servingMccMnc != null);
+		if (servingMccMnc != null) {
+			writeString(out, servingMccMnc.getMcc());
+			writeString(out, servingMccMnc.getMnc());
+		}
+		writeString(out, roaming.getResourceURL());
+		writeString(out, roaming.getRetrievalStatus());
+		writeString(out, roaming.getCallbackData());
+
+		HlrResponseData data = roaming.getExtendedData();
+		out.writeBoolean(data != null);
+		if (data != null) {
+			encode(out, data);
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Copy of the roaming with every field decoded, e.g. to hand a lazily decoded result to another thread
+	 * @param roaming
+	 * @return Roaming
+	 */
+	static Roaming copy(Roaming roaming) {
+		try {
+			byte[] record = encode(roaming);
+			return decode(record, 0, record.length);
+		} catch (IOException e) {
+			throw new IllegalStateException("HLR result could not be copied.", e);
+		}
+	}
+
+	static Roaming decode(byte[] record, int offset, int length) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(record, offset, length));
+		if (in.readByte() != FORMAT_VERSION) {
+			return null;
+		}
+
+		Roaming roaming = new Roaming();
+		roaming.setAddress(readString(in));
+		roaming.setCurrentRoaming(readString(in));
+		if (in.readBoolean()) {
+			String mcc = readString(in);
+			String mnc = readString(in);
+			roaming.setServingMccMnc(new Roaming.ServingMccMnc(mcc, mnc));
+		}
+		roaming.setResourceURL(readString(in));
+		roaming.setRetrievalStatus(readString(in));
+		roaming.setCallbackData(readString(in));
+		if (in.readBoolean()) {
+			HlrResponseData data = new HlrResponseData();
+			decode(in, data);
+			roaming.setExtendedData(data);
+		}
+		return roaming;
+	}
+
+	private static void encode(DataOutputStream out, HlrResponseData data) throws IOException {
+		writeString(out, data.getDestinationAddress());
+		out.writeInt(data.getStatusId());
+		writeDate(out, data.getSubmitTime());
+		writeDate(out, data.getDoneTime());
+		writeDouble(out, data.getPricePerMessage());
+		writeString(out, data.getMccMnc());
+		writeString(out, data.getMcc());
+		writeString(out, data.getMnc());
+		writeString(out, data.getServingMsc());
+		writeString(out, data.getCensoredServingMsc());
+		out.writeInt(data.getGsmErrorCode());
+		writeString(out, data.getOriginalNetworkName());
+		writeString(out, data.getPortedNetworkName());
+		writeString(out, data.getRoamingNetworkName());
+		writeString(out, data.getRoamingCountryCode());
+		writeString(out, data.getRoamingCountryName());
+		writeString(out, data.getServingHlr());
+		writeString(out, data.getImsi());
+		writeString(out, data.getOriginalNetworkPrefix());
+		writeString(out, data.getOriginalCountryPrefix());
+		writeString(out, data.getOriginalCountryCode());
+		writeString(out, data.getOriginalCountryName());
+		writeString(out, data.getRoamingNetworkPrefix());
+		writeString(out, data.getRoamingCountryPrefix());
+		writeBoolean(out, data.getIsNumberPorted());
+		writeString(out, data.getPortedNetworkPrefix());
+		writeString(out, data.getPortedCountryCode());
+		writeString(out, data.getPortedCountryPrefix());
+		writeString(out, data.getPortedCountryName());
+		writeString(out, data.getRoamingMccMnc());
+		writeString(out, data.getRoamingMcc());
+		writeString(out, data.getRoamingMnc());
+		writeBoolean(out, data.getNumberInRoaming());
+		writeBoolean(out, data.getIsNumberCorrect());
+		writeInteger(out, data.getOriginalNetworkServiceProviderId());
+		writeInteger(out, data.getPortedNetworkServiceProviderId());
+		writeInteger(out, data.getRoamingNetworkServiceProviderId());
+		writeString(out, data.getOriginalNetworkServiceProviderName());
+		writeString(out, data.getPortedNetworkServiceProviderName());
+		writeString(out, data.getRoamingNetworkServiceProviderName());
+	}
+
+	private static void decode(DataInputStream in, HlrResponseData data) throws IOException {
+		data.setDestinationAddress(readString(in));
+		data.setStatusId(in.readInt());
+		data.setSubmitTime(readDate(in));
+		data.setDoneTime(readDate(in));
+		data.setPricePerMessage(readDouble(in));
+		data.setMccMnc(readString(in));
+		data.setMcc(readString(in));
+		data.setMnc(readString(in));
+		data.setServingMsc(readString(in));
+		data.setCensoredServingMsc(readString(in));
+		data.setGsmErrorCode(in.readInt());
+		data.setOriginalNetworkName(readString(in));
+		data.setPortedNetworkName(readString(in));
+		data.setRoamingNetworkName(readString(in));
+		data.setRoamingCountryCode(readString(in));
+		data.setRoamingCountryName(readString(in));
+		data.setServingHlr(readString(in));
+		data.setImsi(readString(in));
+		data.setOriginalNetworkPrefix(readString(in));
+		data.setOriginalCountryPrefix(readString(in));
+		data.setOriginalCountryCode(readString(in));
+		data.setOriginalCountryName(readString(in));
+		data.setRoamingNetworkPrefix(readString(in));
+		data.setRoamingCountryPrefix(readString(in));
+		data.setIsNumberPorted(readBoolean(in));
+		data.setPortedNetworkPrefix(readString(in));
+		data.setPortedCountryCode(readString(in));
+		data.setPortedCountryPrefix(readString(in));
+		data.setPortedCountryName(readString(in));
+		data.setRoamingMccMnc(readString(in));
+		data.setRoamingMcc(readString(in));
+		data.setRoamingMnc(readString(in));
+		data.setNumberInRoaming(readBoolean(in));
+		data.setIsNumberCorrect(readBoolean(in));
+		data.setOriginalNetworkServiceProviderId(readInteger(in));
+		data.setPortedNetworkServiceProviderId(readInteger(in));
+		data.setRoamingNetworkServiceProviderId(readInteger(in));
+		data.setOriginalNetworkServiceProviderName(readString(in));
+		data.setPortedNetworkServiceProviderName(readString(in));
+		data.setRoamingNetworkServiceProviderName(readString(in));
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static void writeDate(DataOutputStream out, Date value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeLong(value.getTime());
+		}
+	}
+
+	private static Date readDate(DataInputStream in) throws IOException {
+		return in.readBoolean() ? new Date(in.readLong()) : null;
+	}
+
+	private static void writeDouble(DataOutputStream out, Double value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeDouble(value.doubleValue());
+		}
+	}
+
+	private static Double readDouble(DataInputStream in) throws IOException {
+		return in.readBoolean() ? Double.valueOf(in.readDouble()) : null;
+	}
+
+	private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeInt(value.intValue());
+		}
+	}
+
+	private static Integer readInteger(DataInputStream in) throws IOException {
+		return in.readBoolean() ? Integer.valueOf(in.readInt()) : null;
+	}
+
+	/**
+	 * Boolean is stored as a single byte: 0 = null, 1 = false, 2 = true
+	 */
+	private static void writeBoolean(DataOutputStream out, Boolean value) throws IOException {
+		out.writeByte(value == null ? 0 : (value.booleanValue() ? 2 : 1));
+	}
+
+	private static Boolean readBoolean(DataInputStream in) throws IOException {
+		byte value = in.readByte();
+		return value == 0 ? null : Boolean.valueOf(value == 2);
+	}
+}
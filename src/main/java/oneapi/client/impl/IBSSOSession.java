@@ -0,0 +1,43 @@
+package oneapi.client.impl;
+
+/**
+ * Immutable snapshot of an IBSSO session. A new login replaces the snapshot as a whole, so a request always sends
+ * the token of one session and can tell whether the session it used is still the current one.
+ */
+final class IBSSOSession {
+	private final String token;
+	private final long startTime;
+	private final long expiresAt;
+
+	/**
+	 * @param token IBSSO token (ibAuthCookie)
+	 * @param startTime login time in milliseconds
+	 * @param expiresAt expiry time in milliseconds, Long.MAX_VALUE if the token lifetime is unknown
+	 */
+	IBSSOSession(String token, long startTime, long expiresAt) {
+		this.token = token;
+		this.startTime = startTime;
+		this.expiresAt = expiresAt;
+	}
+
+	String getToken() {
+		return token;
+	}
+
+	long getStartTime() {
+		return startTime;
+	}
+
+	long getExpiresAt() {
+		return expiresAt;
+	}
+
+	boolean isExpired(long now) {
+		return now >= expiresAt;
+	}
+
+	@Override
+	public String toString() {
+		return "IBSSOSession {startTime=" + startTime + ", expiresAt=" + expiresAt + "}";
+	}
+}
@@ -0,0 +1,251 @@
+package oneapi.client.impl;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import oneapi.client.CustomerProfileClient;
+import oneapi.config.Configuration;
+import oneapi.config.ConfigurationProvider;
+import oneapi.config.IBSSOSessionSettings;
+import oneapi.exception.RequestException;
+import oneapi.listener.ConfigurationListener;
+import oneapi.model.Authentication;
+import oneapi.model.Authentication.AuthType;
+import oneapi.model.common.LoginResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * IBSSO session shared by the clients of one SMSClient. The current session is an immutable snapshot swapped atomically
+ * on every login, requests read it without locking. Logins are serialized: requests which find their session rejected
+ * wait for a single re-login and continue with its session, and the session is refreshed in the background before it expires.
+ */
+class IBSSOSessionManager {
+	private static final Logger LOGGER = LoggerFactory.getLogger(IBSSOSessionManager.class);
+	private static final long MIN_REFRESH_RETRY_DELAY = 1000;
+
+	private final ConfigurationProvider configurationProvider;
+	private final AtomicReference<IBSSOSession> session = new AtomicReference<IBSSOSession>();
+	private final Object loginLock = new Object();
+	private volatile CustomerProfileClient customerProfileClient = null;
+	private ScheduledExecutorService scheduler = null;
+	private ScheduledFuture<?> scheduledRefresh = null;
+
+	// guarded by loginLock
+	private IBSSOSession failedRenewal = null;
+	private RuntimeException failedRenewalError = null;
+	private long failedRenewalTime = 0;
+
+	/**
+	 * @param configurationProvider
+	 * @param scheduler scheduler running session refreshes, null to create one on first use
+	 */
+	IBSSOSessionManager(ConfigurationProvider configurationProvider, ScheduledExecutorService scheduler) {
+		this.configurationProvider = configurationProvider;
+		this.scheduler = scheduler;
+
+		//The session belongs to the credentials it was started with
+		configurationProvider.addListener(new ConfigurationListener() {
+			@Override
+			public void onConfigurationChanged(Configuration previous, Configuration current) {
+				if (!isSameUser(previous.getAuthentication(), current.getAuthentication())) {
+					end();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Set the client used to login
+	 * @param customerProfileClient
+	 */
+	void setCustomerProfileClient(CustomerProfileClient customerProfileClient) {
+		this.customerProfileClient = customerProfileClient;
+	}
+
+	/**
+	 * Get the current session, a new one is started if IBSSO session settings are configured and there is no valid session
+	 * @return IBSSOSession or null if requests are authorized with configured credentials
+	 */
+	IBSSOSession getSession() {
+		IBSSOSession current = session.get();
+		if (current != null && !current.isExpired(System.currentTimeMillis())) {
+			return current;
+		}
+		if (!isLoginOnDemand()) {
+			return current;
+		}
+
+		synchronized (loginLock) {
+			IBSSOSession latest = session.get();
+			if (latest != current) {
+				return latest;
+			}
+			return login();
+		}
+	}
+
+	/**
+	 * Replace the session rejected by the server. Only the first caller logs in, the others wait for its login
+	 * and continue with the new session or fail with its error.
+	 * @param rejected session the request was sent with
+	 * @param rejectedAt System.nanoTime() when the rejection was received
+	 * @return IBSSOSession
+	 */
+	IBSSOSession renew(IBSSOSession rejected, long rejectedAt) {
+		synchronized (loginLock) {
+			IBSSOSession current = session.get();
+			if (current != null && current != rejected) {
+				return current;
+			}
+			if (rejected == failedRenewal && rejectedAt - failedRenewalTime <= 0) {
+				throw failedRenewalError;
+			}
+
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("IBSSO session was rejected, logging in again");
+			}
+			try {
+				return login();
+			} catch (RuntimeException e) {
+				failedRenewal = rejected;
+				failedRenewalError = e;
+				failedRenewalTime = System.nanoTime();
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Replace the session with the one started by the login and schedule its refresh
+	 * @param response
+	 */
+	void start(LoginResponse response) {
+		if (response == null || response.getIbAuthCookie() == null || response.getIbAuthCookie().length() == 0) {
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+		IBSSOSessionSettings settings = configurationProvider.get().getIbssoSession();
+		long expiresAt = Long.MAX_VALUE;
+		if (settings != null && settings.getTimeToLive() > 0) {
+			expiresAt = now + settings.getTimeToLive();
+		}
+
+		IBSSOSession newSession = new IBSSOSession(response.getIbAuthCookie(), now, expiresAt);
+		session.set(newSession);
+		if (expiresAt != Long.MAX_VALUE) {
+			scheduleRefresh(newSession, Math.max(0, expiresAt - settings.getRefreshAhead() - now));
+		} else {
+			cancelRefresh();
+		}
+	}
+
+	/**
+	 * Drop the session after logout
+	 */
+	void end() {
+		session.set(null);
+		cancelRefresh();
+	}
+
+	/**
+	 * Run the task on the session thread, used to renew sessions outside of the http client threads
+	 * @param task
+	 */
+	void execute(Runnable task) {
+		getScheduler().execute(task);
+	}
+
+	private boolean isLoginOnDemand() {
+		Configuration configuration = configurationProvider.get();
+		return configuration.getIbssoSession() != null
+				&& customerProfileClient != null
+				&& !AuthType.OAUTH.equals(configuration.getAuthentication().getType());
+	}
+
+	private static boolean isSameUser(Authentication previous, Authentication current) {
+		if (previous == null || current == null) {
+			return previous == current;
+		}
+		String username = previous.getUsername();
+		String password = previous.getPassword();
+		return (username == null ? current.getUsername() == null : username.equals(current.getUsername()))
+				&& (password == null ? current.getPassword() == null : password.equals(current.getPassword()));
+	}
+
+	private IBSSOSession login() {
+		CustomerProfileClient client = customerProfileClient;
+		if (client == null) {
+			throw new RequestException("IBSSO session can't be renewed, there is no customer profile client to login with.");
+		}
+
+		client.login();
+		IBSSOSession newSession = session.get();
+		if (newSession == null) {
+			throw new RequestException("IBSSO login didn't return a session token.");
+		}
+		return newSession;
+	}
+
+	private void refresh(IBSSOSession expiring) {
+		synchronized (loginLock) {
+			if (session.get() != expiring) {
+				return;
+			}
+
+			try {
+				login();
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("IBSSO session refreshed");
+				}
+			} catch (Exception e) {
+				long remaining = expiring.getExpiresAt() - System.currentTimeMillis();
+				if (LOGGER.isWarnEnabled()) {
+					LOGGER.warn("Error occured while refreshing IBSSO session. Message: " + e.getMessage());
+				}
+				if (remaining > MIN_REFRESH_RETRY_DELAY) {
+					scheduleRefresh(expiring, Math.max(MIN_REFRESH_RETRY_DELAY, remaining / 2));
+				}
+			}
+		}
+	}
+
+	private synchronized void scheduleRefresh(final IBSSOSession expiring, long delayMillis) {
+		if (scheduledRefresh != null) {
+			scheduledRefresh.cancel(false);
+		}
+		scheduledRefresh = getScheduler().schedule(new Runnable() {
+			@Override
+			public void run() {
+				refresh(expiring);
+			}
+		}, delayMillis, TimeUnit.MILLISECONDS);
+	}
+
+	private synchronized void cancelRefresh() {
+		if (scheduledRefresh != null) {
+			scheduledRefresh.cancel(false);
+			scheduledRefresh = null;
+		}
+	}
+
+	private synchronized ScheduledExecutorService getScheduler() {
+		if (scheduler == null) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "oneapi-ibsso-session");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return scheduler;
+	}
+}
@@ -0,0 +1,120 @@
+package oneapi.client.impl;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import oneapi.config.Configuration;
+import oneapi.config.MultiTenantSettings;
+import oneapi.exception.ConfigurationException;
+
+/**
+ * SMS clients of many accounts (tenants) sharing one transport. Every tenant has its own Configuration with its
+ * credentials and its own IBSSO session, while the asynchronous http client, scheduler and notification timer wheel
+ * are shared. Requests of each tenant are limited to the tenant's quota, and when all slots of the transport are
+ * taken the waiting tenants are served in turn.
+ */
+public class MultiTenantSMSClient {
+	private final MultiTenantSettings settings;
+	private final SharedTransport transport;
+	private final ConcurrentMap<String, SMSClient> tenants = new ConcurrentHashMap<String, SMSClient>();
+
+	//*************************MultiTenantSMSClient initialization***********************************************************************************************************************************************
+	public MultiTenantSMSClient() {
+		this(new MultiTenantSettings());
+	}
+
+	/**
+	 * Initialize multi-tenant SMS client
+	 * @param settings - shared transport settings
+	 */
+	public MultiTenantSMSClient(MultiTenantSettings settings) {
+		this.settings = settings;
+		this.transport = new SharedTransport(settings);
+	}
+
+	//*************************MultiTenantSMSClient public***********************************************************************************************************************************************
+	/**
+	 * Add tenant with the default quota of requests in flight
+	 * @param tenantId - unique tenant identifier
+	 * @param configuration - OneAPI configuration data of the tenant
+	 * @return SMSClient of the tenant
+	 */
+	public SMSClient addTenant(String tenantId, Configuration configuration) {
+		return addTenant(tenantId, configuration, settings.getTenantMaxInFlight());
+	}
+
+	/**
+	 * Add tenant
+	 * @param tenantId - unique tenant identifier
+	 * @param configuration - OneAPI configuration data of the tenant
+	 * @param maxInFlight - maximum number of requests of the tenant in flight
+	 * @return SMSClient of the tenant
+	 */
+	public SMSClient addTenant(String tenantId, Configuration configuration, int maxInFlight) {
+		if (tenants.containsKey(tenantId)) {
+			throw new ConfigurationException("Tenant '" + tenantId + "' is already added.");
+		}
+
+		SMSClient client = new SMSClient(configuration, new Tenant(tenantId, maxInFlight, transport));
+		if (tenants.putIfAbsent(tenantId, client) != null) {
+			client.close();
+			throw new ConfigurationException("Tenant '" + tenantId + "' is already added.");
+		}
+		return client;
+	}
+
+	/**
+	 * Get SMSClient of the tenant
+	 * @param tenantId
+	 * @return SMSClient or null if the tenant is not added
+	 */
+	public SMSClient getTenant(String tenantId) {
+		return tenants.get(tenantId);
+	}
+
+	/**
+	 * Remove the tenant and stop its retrievers, trackers, durable queue and lanes. Its requests already in flight
+	 * are completed, its requests waiting for a slot and later requests fail.
+	 * @param tenantId
+	 * @return SMSClient of the removed tenant or null if the tenant is not added
+	 */
+	public SMSClient removeTenant(String tenantId) {
+		SMSClient client = tenants.remove(tenantId);
+		if (client == null) {
+			return null;
+		}
+
+		client.close();
+		client.getTenant().remove();
+		return client;
+	}
+
+	/**
+	 * Get identifiers of added tenants
+	 * @return Set<String>
+	 */
+	public Set<String> getTenantIds() {
+		return Collections.unmodifiableSet(new TreeSet<String>(tenants.keySet()));
+	}
+
+	/**
+	 * Number of requests of all tenants currently in flight
+	 * @return int
+	 */
+	public int getInFlight() {
+		return transport.getTenantScheduler().getInFlight();
+	}
+
+	/**
+	 * Remove all tenants, stop the shared scheduler and close the shared http client
+	 */
+	public void shutdown() {
+		for (String tenantId : tenants.keySet()) {
+			removeTenant(tenantId);
+		}
+		transport.close();
+	}
+}
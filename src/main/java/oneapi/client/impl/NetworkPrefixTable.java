@@ -0,0 +1,181 @@
+package oneapi.client.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import oneapi.config.NetworkPrefixSettings;
+import oneapi.model.NetworkInfo;
+import oneapi.model.NetworkPrefixStatistics;
+import oneapi.model.common.HlrResponseData;
+
+/**
+ * Digit trie of network prefixes learned from HLR results. Each prefix node counts the HLR results seen with it,
+ * how many of them were ported numbers and whether non-ported numbers reported more than one network (MCC/MNC).
+ * Lookups use the longest learned prefix of the number and are answered only if that prefix is unambiguous.
+ */
+class NetworkPrefixTable {
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Node root = new Node();
+	private int prefixCount = 0;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong ambiguousCount = new AtomicLong();
+
+	/**
+	 * Resolve the network from the longest learned prefix of the number
+	 * @param address looked up address
+	 * @param digits normalized address
+	 * @param settings
+	 * @return NetworkInfo or null if HLR has to be queried
+	 */
+	NetworkInfo lookup(String address, String digits, NetworkPrefixSettings settings) {
+		Node match = null;
+		int matchLength = 0;
+		lock.readLock().lock();
+		try {
+			Node node = root;
+			for (int i = 0; i < digits.length() && node != null; i++) {
+				int digit = digits.charAt(i) - '0';
+				if (digit < 0 || digit > 9 || node.children == null) {
+					break;
+				}
+				node = node.children[digit];
+				if (node != null && node.observations > 0) {
+					match = node;
+					matchLength = i + 1;
+				}
+			}
+
+			if (match == null) {
+				missCount.incrementAndGet();
+				return null;
+			}
+			if (!isConfident(match, settings)) {
+				ambiguousCount.incrementAndGet();
+				missCount.incrementAndGet();
+				return null;
+			}
+
+			hitCount.incrementAndGet();
+			return new NetworkInfo(address, match.mccMnc, match.networkName, digits.substring(0, matchLength), true);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Learn the network prefix from the HLR result
+	 * @param digits normalized address
+	 * @param data
+	 */
+	void learn(String digits, HlrResponseData data) {
+		if (data == null || Boolean.FALSE.equals(data.getIsNumberCorrect())) {
+			return;
+		}
+
+		String prefix = prefixOf(digits, data);
+		if (prefix == null) {
+			return;
+		}
+
+		boolean ported = Boolean.TRUE.equals(data.getIsNumberPorted());
+		lock.writeLock().lock();
+		try {
+			Node node = root;
+			for (int i = 0; i < prefix.length(); i++) {
+				if (node.children == null) {
+					node.children = new Node[10];
+				}
+				int digit = prefix.charAt(i) - '0';
+				if (node.children[digit] == null) {
+					node.children[digit] = new Node();
+				}
+				node = node.children[digit];
+			}
+
+			if (node.observations == 0) {
+				prefixCount++;
+			}
+			node.observations++;
+			if (node.networkName == null) {
+				node.networkName = data.getOriginalNetworkName();
+			}
+
+			// mccMnc of a ported number belongs to the network it was ported to
+			if (ported) {
+				node.portedCount++;
+			} else if (data.getMccMnc() != null) {
+				if (node.mccMnc == null) {
+					node.mccMnc = data.getMccMnc();
+				} else if (!node.mccMnc.equals(data.getMccMnc())) {
+					node.conflicting = true;
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Original network prefix of the number including the country prefix, or the network prefix alone
+	 * if the number doesn't start with both
+	 * @param digits normalized address
+	 * @param data
+	 * @return String or null if the number doesn't start with the original network prefix
+	 */
+	String prefixOf(String digits, HlrResponseData data) {
+		String networkPrefix = data.getOriginalNetworkPrefix();
+		if (digits == null || networkPrefix == null || networkPrefix.length() == 0) {
+			return null;
+		}
+
+		String prefix = null;
+		String countryPrefix = data.getOriginalCountryPrefix();
+		if (countryPrefix != null && digits.startsWith(countryPrefix + networkPrefix)) {
+			prefix = countryPrefix + networkPrefix;
+		} else if (digits.startsWith(networkPrefix)) {
+			prefix = networkPrefix;
+		}
+
+		if (prefix == null || prefix.length() >= digits.length() || !isDigits(prefix)) {
+			return null;
+		}
+		return prefix;
+	}
+
+	NetworkPrefixStatistics getStatistics() {
+		lock.readLock().lock();
+		try {
+			return new NetworkPrefixStatistics(hitCount.get(), missCount.get(), ambiguousCount.get(), prefixCount);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private boolean isConfident(Node node, NetworkPrefixSettings settings) {
+		return node.mccMnc != null
+				&& !node.conflicting
+				&& node.observations >= settings.getMinObservations()
+				&& node.portedCount * 100L <= (long) settings.getMaxPortedPercent() * node.observations;
+	}
+
+	private static boolean isDigits(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static final class Node {
+		private Node[] children;
+		private String mccMnc;
+		private String networkName;
+		private int observations;
+		private int portedCount;
+		private boolean conflicting;
+	}
+}
@@ -13,7 +13,11 @@ import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 import oneapi.config.Configuration;
+import oneapi.config.ConfigurationProvider;
+import oneapi.config.ResponseCacheSettings;
 import oneapi.exception.RequestException;
 import oneapi.listener.ResponseListener;
 import oneapi.model.Authentication;
@@ -28,6 +32,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ning.http.client.AsyncCompletionHandler;
 import com.ning.http.client.AsyncHttpClient;
+import com.ning.http.client.Request;
 import com.ning.http.client.RequestBuilder;
 import com.ning.http.client.Response;
 
@@ -45,31 +50,114 @@ public class OneAPIBaseClientImpl {
 
 	protected static final String JSON_CONTENT_TYPE = "application/json";
 
-	private Configuration configuration = null;
+	private final ConfigurationProvider configurationProvider;
 	private ObjectMapper objectMapper = null;
 	private AsyncHttpClient asyncHttpClient = null;
+	private final SingleFlight singleFlight = new SingleFlight();
+	private final ResponseCache responseCache = new ResponseCache();
+	private volatile TimerWheel timerWheel = null;
+	private final IBSSOSessionManager sessionManager;
+	private final Tenant tenant;
 
 	/**
 	 * Initialize OneAPIClientBase
 	 * @param configuration
 	 */
 	protected OneAPIBaseClientImpl(Configuration configuration) {
-		this.configuration = configuration;
+		this(new ConfigurationProvider(configuration));
+	}
+
+	private OneAPIBaseClientImpl(ConfigurationProvider configurationProvider) {
+		this(configurationProvider, new IBSSOSessionManager(configurationProvider, null), null);
+	}
+
+	/**
+	 * Initialize OneAPIClientBase sharing the IBSSO session with other clients
+	 * @param configurationProvider
+	 * @param sessionManager
+	 * @param tenant - tenant of the shared transport, null if the client uses its own transport
+	 */
+	OneAPIBaseClientImpl(ConfigurationProvider configurationProvider, IBSSOSessionManager sessionManager, Tenant tenant) {
+		this.configurationProvider = configurationProvider;
+		this.sessionManager = sessionManager;
+		this.tenant = tenant;
 	}
 
 	/**
-	 * Get Configuration object
+	 * Get current Configuration snapshot
 	 * @return Configuration
 	 */
 	protected Configuration getConfiguration() {
-		return configuration;
+		return configurationProvider.get();
+	}
+
+	/**
+	 * Get provider publishing the Configuration snapshots
+	 * @return ConfigurationProvider
+	 */
+	ConfigurationProvider getConfigurationProvider() {
+		return configurationProvider;
 	}
 	
+	/**
+	 * Get timer wheel used to expire outstanding notifications, it is created on first use
+	 * @return TimerWheel
+	 */
+	TimerWheel getTimerWheel() {
+		if (tenant != null) {
+			return tenant.getTransport().getTimerWheel();
+		}
+		if (timerWheel == null) {
+			synchronized (this) {
+				if (timerWheel == null) {
+					timerWheel = new TimerWheel("oneapi-notification-timeouts", 100, 512);
+				}
+			}
+		}
+		return timerWheel;
+	}
+
+	/**
+	 * Stop the response cache refreshes, and the timer wheel and http client of the client's own transport.
+	 * The shared transport of a tenant is closed by MultiTenantSMSClient.
+	 */
+	synchronized void close() {
+		responseCache.close();
+		if (tenant != null) {
+			return;
+		}
+		if (timerWheel != null) {
+			timerWheel.stop();
+		}
+		if (asyncHttpClient != null) {
+			asyncHttpClient.close();
+		}
+	}
+
+	/**
+	 * Get IBSSO session manager
+	 * @return IBSSOSessionManager
+	 */
+	IBSSOSessionManager getSessionManager() {
+		return sessionManager;
+	}
+
+	/**
+	 * Get scheduler shared by the tenants of the transport
+	 * @return ScheduledExecutorService or null if the client uses its own transport
+	 */
+	ScheduledExecutorService getSharedScheduler() {
+		return tenant != null ? tenant.getTransport().getScheduler() : null;
+	}
+
 	/**
 	 * Get asynchronous http client
 	 * @return
 	 */
 	private AsyncHttpClient getAsyncHttpClient() {
+		if (tenant != null) {
+			return tenant.getTransport().getAsyncHttpClient();
+		}
 		if (asyncHttpClient == null) {
 			asyncHttpClient = new AsyncHttpClient();
 		}
@@ -95,7 +183,98 @@ public class OneAPIBaseClientImpl {
 	 * @return T
 	 */
 	protected <T> T executeMethod(RequestData requestData, Class<T> clazz) {
-		HttpURLConnection connection = sendOneAPIRequest(requestData);
+		ResponseCacheSettings cacheSettings = getResponseCacheSettings(requestData);
+		if (cacheSettings != null) {
+			return executeCachedMethod(requestData, clazz, cacheSettings);
+		}
+
+		return executeUncachedMethod(requestData, clazz);
+	}
+
+	/**
+	 * Drop cached responses of the endpoint
+	 * @param endpoint - one of ResponseCacheSettings constants
+	 */
+	public void invalidateResponseCache(String endpoint) {
+		responseCache.invalidate(endpoint);
+	}
+
+	/**
+	 * Drop all cached responses
+	 */
+	public void invalidateResponseCache() {
+		responseCache.invalidateAll();
+	}
+
+	/**
+	 * Serve the response from the cache while it is fresh. Stale response is served while it is refreshed in the background,
+	 * expired or missing response is requested from the server.
+	 * Cached objects are shared between callers and must not be modified.
+	 * @param requestData
+	 * @param clazz
+	 * @param cacheSettings
+	 * @return T
+	 */
+	private <T> T executeCachedMethod(final RequestData requestData, final Class<T> clazz, final ResponseCacheSettings cacheSettings) {
+		final String region = requestData.getCacheRegion();
+		final String key = getFlightKey(requestData, clazz);
+
+		final ResponseCache.Entry entry = responseCache.get(region, key);
+		if (entry != null) {
+			long age = entry.getAge(System.currentTimeMillis());
+			if (age < cacheSettings.getTimeToLive()) {
+				return clazz.cast(entry.getValue());
+			}
+
+			if (age < (long) cacheSettings.getTimeToLive() + cacheSettings.getStaleWhileRevalidate()) {
+				if (entry.startRefresh()) {
+					responseCache.refresh(new Runnable() {
+						@Override
+						public void run() {
+							try {
+								loadCachedResponse(requestData, clazz, cacheSettings, region, key);
+							} catch (Exception e) {
+								entry.refreshFailed();
+								if (LOGGER.isWarnEnabled()) {
+									LOGGER.warn("Error occured while refreshing cached response " + key + ". Message: " + e.getMessage());
+								}
+							}
+						}
+					});
+				}
+				return clazz.cast(entry.getValue());
+			}
+		}
+
+		return loadCachedResponse(requestData, clazz, cacheSettings, region, key);
+	}
+
+	private <T> T loadCachedResponse(RequestData requestData, Class<T> clazz, ResponseCacheSettings cacheSettings, String region, String key) {
+		long generation = responseCache.getGeneration(region);
+		T response = executeUncachedMethod(requestData, clazz);
+		responseCache.put(region, key, response, cacheSettings.getMaxEntries(), generation);
+		return response;
+	}
+
+	private ResponseCacheSettings getResponseCacheSettings(RequestData requestData) {
+		Configuration configuration = getConfiguration();
+		if (requestData.getCacheRegion() == null || configuration.getResponseCache() == null) {
+			return null;
+		}
+
+		ResponseCacheSettings cacheSettings = configuration.getResponseCache().get(requestData.getCacheRegion());
+		if (cacheSettings == null || cacheSettings.getTimeToLive() <= 0 || cacheSettings.getMaxEntries() <= 0) {
+			return null;
+		}
+		return cacheSettings;
+	}
+
+	private <T> T executeUncachedMethod(RequestData requestData, Class<T> clazz) {
+		if (requestData.isIdempotent()) {
+			return executeSharedMethod(requestData, clazz);
+		}
+
+		HttpURLConnection connection = sendAuthorizedRequest(requestData);
 		return deserialize(connection, clazz, requestData.getRootElement());
 	}
 
@@ -105,7 +284,7 @@ public class OneAPIBaseClientImpl {
 	 */
 	protected void executeMethod(RequestData requestData)
 	{
-		HttpURLConnection connection = sendOneAPIRequest(requestData);
+		HttpURLConnection connection = sendAuthorizedRequest(requestData);
 		validateResponse(connection);
 	}
 
@@ -116,9 +295,100 @@ public class OneAPIBaseClientImpl {
 	 * @param responseListener
 	 */
 	protected <T> void executeMethodAsync(RequestData requestData, Class<T> clazz, ResponseListener<T> responseListener) {
-		sendOneAPIRequestAsync(requestData, clazz, responseListener);     
+		if (requestData.isIdempotent()) {
+			executeSharedMethodAsync(requestData, clazz, responseListener);
+			return;
+		}
+
+		sendAuthorizedRequestAsync(requestData, clazz, responseListener);     
 	}
 	
+	/**
+	 * Execute idempotent method, concurrent callers of the same request share one outstanding call and its deserialized result
+	 * @param requestData
+	 * @param clazz
+	 * @return T
+	 */
+	private <T> T executeSharedMethod(RequestData requestData, Class<T> clazz) {
+		String flightKey = getFlightKey(requestData, clazz);
+		while (true) {
+			SingleFlight.Flight flight = singleFlight.start(flightKey);
+			if (flight != null) {
+				T result = null;
+				Throwable error = null;
+				try {
+					HttpURLConnection connection = sendAuthorizedRequest(requestData);
+					result = deserialize(connection, clazz, requestData.getRootElement());
+					return result;
+				} catch (RuntimeException e) {
+					error = e;
+					throw e;
+				} catch (Error e) {
+					error = e;
+					throw e;
+				} finally {
+					flight.complete(result, error);
+				}
+			}
+
+			flight = singleFlight.find(flightKey);
+			if (flight != null) {
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("Joining request already in flight: " + flightKey);
+				}
+				return flight.await(clazz);
+			}
+			// the flight completed in the meantime, start a new one
+		}
+	}
+
+	/**
+	 * Execute idempotent method asynchronously, concurrent callers of the same request share one outstanding call and its deserialized result
+	 * @param requestData
+	 * @param clazz
+	 * @param responseListener
+	 */
+	private <T> void executeSharedMethodAsync(RequestData requestData, Class<T> clazz, final ResponseListener<T> responseListener) {
+		String flightKey = getFlightKey(requestData, clazz);
+		while (true) {
+			final SingleFlight.Flight newFlight = singleFlight.start(flightKey);
+			if (newFlight != null) {
+				try {
+					sendAuthorizedRequestAsync(requestData, clazz, new ResponseListener<T>() {
+						@Override
+						public void onGotResponse(T jsonObject, Throwable error) {
+							newFlight.complete(jsonObject, error);
+							responseListener.onGotResponse(jsonObject, error);
+						}
+					});
+				} catch (RuntimeException e) {
+					newFlight.complete(null, e);
+					throw e;
+				}
+				return;
+			}
+
+			SingleFlight.Flight flight = singleFlight.find(flightKey);
+			if (flight != null) {
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("Joining request already in flight: " + flightKey);
+				}
+				flight.addListener(responseListener);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Identical requests (method, resolved url and expected response) share the same flight key
+	 * @param requestData
+	 * @param clazz
+	 * @return String
+	 */
+	private String getFlightKey(RequestData requestData, Class<?> clazz) {
+		return requestData.getRequestMethod() + " " + appendMessagingBaseUrl(requestData.getResourcePath()) + " " + requestData.getRootElement() + " " + clazz.getName();
+	}
+
 	/**
 	 * Convert json string to specific object
 	 * @param jsonBytes
@@ -182,12 +452,95 @@ public class OneAPIBaseClientImpl {
 		}
 	}
 
+	/**
+	 * Send OneAPI request, request rejected with the IBSSO session it was sent with is sent once more with the renewed session
+	 * @param requestData
+	 * @return HttpURLConnection
+	 */
+	private HttpURLConnection sendAuthorizedRequest(RequestData requestData) {
+		IBSSOSession session = getSession(requestData);
+		HttpURLConnection connection = sendAdmittedRequest(requestData, session);
+		if (session != null && getResponseCode(connection) == HttpURLConnection.HTTP_UNAUTHORIZED) {
+			long rejectedAt = System.nanoTime();
+			connection.disconnect();
+			connection = sendAdmittedRequest(requestData, sessionManager.renew(session, rejectedAt));
+		}
+		return connection;
+	}
+
+	/**
+	 * Send OneAPI request in a slot of the tenant, the slot is held until the response status is received
+	 * @param requestData
+	 * @param session
+	 * @return HttpURLConnection
+	 */
+	private HttpURLConnection sendAdmittedRequest(RequestData requestData, IBSSOSession session) {
+		if (tenant == null) {
+			return sendOneAPIRequest(requestData, session);
+		}
+
+		tenant.acquire();
+		try {
+			HttpURLConnection connection = sendOneAPIRequest(requestData, session);
+			getResponseCode(connection);
+			return connection;
+		} finally {
+			tenant.release();
+		}
+	}
+
+	/**
+	 * Send OneAPI request asynchronously, request rejected with the IBSSO session it was sent with is sent once more with the renewed session
+	 * @param requestData
+	 * @param clazz
+	 * @param responseListener
+	 */
+	private <T> void sendAuthorizedRequestAsync(RequestData requestData, Class<T> clazz, ResponseListener<T> responseListener) {
+		IBSSOSession session = getSession(requestData);
+		sendOneAPIRequestAsync(requestData, clazz, responseListener, session, session != null);
+	}
+
+	/**
+	 * Renew the rejected IBSSO session on the session thread, so the http client thread is not blocked by the login, and send the request again
+	 * @param requestData
+	 * @param clazz
+	 * @param responseListener
+	 * @param rejected
+	 */
+	private <T> void resendAsync(final RequestData requestData, final Class<T> clazz, final ResponseListener<T> responseListener, final IBSSOSession rejected) {
+		final long rejectedAt = System.nanoTime();
+		sessionManager.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					IBSSOSession renewed = sessionManager.renew(rejected, rejectedAt);
+					sendOneAPIRequestAsync(requestData, clazz, responseListener, renewed, false);
+				} catch (Exception e) {
+					responseListener.onGotResponse(null, e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Get the IBSSO session the request is sent with
+	 * @param requestData
+	 * @return IBSSOSession or null if the request is authorized with configured credentials
+	 */
+	private IBSSOSession getSession(RequestData requestData) {
+		if (!requestData.isSessionRequired()) {
+			return null;
+		}
+		return sessionManager.getSession();
+	}
+
 	/**
 	 * Send OneAPI request
 	 * @param requestData
+	 * @param session IBSSO session, null to authorize with configured credentials
 	 * @throws RequestException
 	 */
-	private HttpURLConnection sendOneAPIRequest(RequestData requestData) {
+	private HttpURLConnection sendOneAPIRequest(RequestData requestData, IBSSOSession session) {
 
 		HttpURLConnection connection = null;
 
@@ -195,8 +548,10 @@ public class OneAPIBaseClientImpl {
 			String apiUrl = appendMessagingBaseUrl(requestData.getResourcePath());
 
 			//setup connection with custom authorization
-			Authentication authentication = configuration.getAuthentication();
-			if (authentication.getType().equals(AuthType.BASIC)) {
+			Authentication authentication = getConfiguration().getAuthentication();
+			if (session != null) {
+				connection = setupConnectionWithCustomAuthorization(apiUrl, "IBSSO", session.getToken());
+			} else if (authentication.getType().equals(AuthType.BASIC)) {
 				connection = setupConnectionWithCustomAuthorization(apiUrl, "Basic", new String(Base64.encodeBase64((authentication.getUsername()+":"+authentication.getPassword()).getBytes("UTF-8")), "UTF-8"));
 			} else if (authentication.getType().equals(AuthType.OAUTH)) {
 				connection = setupConnectionWithCustomAuthorization(apiUrl, "OAuth", authentication.getAccessToken());
@@ -241,9 +596,12 @@ public class OneAPIBaseClientImpl {
 	 * @param requestData
 	 * @param clazz
 	 * @param responseListener
+	 * @param session IBSSO session, null to authorize with configured credentials
+	 * @param renewOnRejection whether the request is sent again with a renewed session if the session is rejected
 	 */
 	@SuppressWarnings({ "unchecked", "rawtypes" })
-	private <T> void sendOneAPIRequestAsync(final RequestData requestData, final Class<T> clazz, final ResponseListener<T> responseListener) {
+	private <T> void sendOneAPIRequestAsync(final RequestData requestData, final Class<T> clazz, final ResponseListener<T> responseListener,
+			final IBSSOSession session, final boolean renewOnRejection) {
 
 		String apiUrl = appendMessagingBaseUrl(requestData.getResourcePath());
 
@@ -261,8 +619,13 @@ public class OneAPIBaseClientImpl {
 	
 		try {
 			//Set Authorization header
-			Authentication authentication = configuration.getAuthentication();			
-			if (authentication.getType().equals(AuthType.BASIC)) {
+			Authentication authentication = getConfiguration().getAuthentication();			
+			if (session != null) {
+				requestBuilder.addHeader("Authorization", "IBSSO " + session.getToken());
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("Authorization type IBSSO using " + session.getToken());
+				}
+			} else if (authentication.getType().equals(AuthType.BASIC)) {
 				String basicCredentials =  new String(Base64.encodeBase64((authentication.getUsername()+":"+authentication.getPassword()).getBytes("UTF-8")), "UTF-8");
 				requestBuilder.addHeader("Authorization", "Basic " + basicCredentials);
 				if (LOGGER.isDebugEnabled()) {
@@ -293,10 +656,17 @@ public class OneAPIBaseClientImpl {
 				}
 			}
 
-			//Execute async request
-			getAsyncHttpClient().executeRequest(requestBuilder.build(), new AsyncCompletionHandler() {
+			final Request request = requestBuilder.build();
+			final AtomicBoolean slotHeld = new AtomicBoolean(false);
+			final AsyncCompletionHandler handler = new AsyncCompletionHandler() {
 				@Override
 				public Response onCompleted(Response response) {
+					releaseSlot(slotHeld);
+					if (renewOnRejection && response.getStatusCode() == HttpURLConnection.HTTP_UNAUTHORIZED) {
+						resendAsync(requestData, clazz, responseListener, session);
+						return response;
+					}
+
 					try {
 						T jsonObject = deserialize(response, clazz, requestData.getRootElement());
 						responseListener.onGotResponse(jsonObject, null);
@@ -309,8 +679,33 @@ public class OneAPIBaseClientImpl {
 
 				@Override
 				public void onThrowable(Throwable t){
+					releaseSlot(slotHeld);
 					responseListener.onGotResponse(null, t);
 				}
+			};
+
+			if (tenant == null) {
+				getAsyncHttpClient().executeRequest(request, handler);
+				return;
+			}
+
+			//Execute async request in a slot of the tenant, without a free slot it is started by the thread releasing one
+			tenant.submit(new TenantScheduler.Waiter() {
+				@Override
+				void admitted() {
+					slotHeld.set(true);
+					try {
+						getAsyncHttpClient().executeRequest(request, handler);
+					} catch (Exception e) {
+						releaseSlot(slotHeld);
+						responseListener.onGotResponse(null, e);
+					}
+				}
+
+				@Override
+				void rejected(RequestException e) {
+					responseListener.onGotResponse(null, e);
+				}
 			});
 
 		} catch (Exception e) {
@@ -318,6 +713,16 @@ public class OneAPIBaseClientImpl {
 		}
 	}
 
+	/**
+	 * Return the tenant slot of an asynchronous request, once
+	 * @param slotHeld
+	 */
+	private void releaseSlot(AtomicBoolean slotHeld) {
+		if (slotHeld.compareAndSet(true, false)) {
+			tenant.release();
+		}
+	}
+
 	/**
 	 * Setup http connection with custom authorization
 	 * @param url
@@ -384,6 +789,9 @@ public class OneAPIBaseClientImpl {
 		InputStream inputStream = response.getResponseBodyAsStream();
 
 		if (responseCode >= 200 && responseCode < 300) {	
+			if (clazz == Void.class) {
+				return null;
+			}
 			T jsonObject =  deserializeStream(inputStream, CHARSET, clazz, rootElement);
 			return jsonObject;
 		}
@@ -533,6 +941,7 @@ public class OneAPIBaseClientImpl {
 	 * @return String
 	 */
 	private String appendMessagingBaseUrl(String resourcePath) {
+		Configuration configuration = getConfiguration();
 		StringBuilder urlBuilder = new StringBuilder(configuration.getApiUrl());
 		if (!configuration.getApiUrl().endsWith("/")) {
 			urlBuilder.append("/");
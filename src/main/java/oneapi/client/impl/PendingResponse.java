@@ -0,0 +1,143 @@
+package oneapi.client.impl;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import oneapi.exception.RequestException;
+
+/**
+ * Response which arrives later as a push notification. It is registered in the pending table under its correlation key
+ * until the matching notification completes it, its timeout expires or it is cancelled.
+ * @param <T> response type
+ */
+class PendingResponse<T> implements Future<T> {
+	private final String key;
+	private final ConcurrentMap<String, PendingResponse<T>> pendingTable;
+	private final CountDownLatch done = new CountDownLatch(1);
+	private volatile TimerWheel.Timeout timeout;
+	private boolean completed = false;
+	private boolean cancelled = false;
+	private T result;
+	private Throwable error;
+
+	PendingResponse(String key, ConcurrentMap<String, PendingResponse<T>> pendingTable) {
+		this.key = key;
+		this.pendingTable = pendingTable;
+	}
+
+	String getKey() {
+		return key;
+	}
+
+	/**
+	 * Register the response in the pending table and fail it after the timeout
+	 * @param timerWheel
+	 * @param timeoutMillis
+	 * @return false if another response is already pending under the same key
+	 */
+	boolean register(TimerWheel timerWheel, final long timeoutMillis) {
+		if (pendingTable.putIfAbsent(key, this) != null) {
+			return false;
+		}
+
+		timeout = timerWheel.schedule(new Runnable() {
+			@Override
+			public void run() {
+				if (pendingTable.remove(key, PendingResponse.this)) {
+					finish(null, new RequestException("Notification for '" + key + "' was not received in " + timeoutMillis + " ms."), false);
+				}
+			}
+		}, timeoutMillis);
+		return true;
+	}
+
+	/**
+	 * Complete the response with the notification content, if it is still pending
+	 * @param result
+	 * @return boolean
+	 */
+	boolean complete(T result) {
+		if (!pendingTable.remove(key, this)) {
+			return false;
+		}
+		return finish(result, null, false);
+	}
+
+	/**
+	 * Fail the response, if it is still pending
+	 * @param error
+	 * @return boolean
+	 */
+	boolean fail(Throwable error) {
+		if (!pendingTable.remove(key, this)) {
+			return false;
+		}
+		return finish(null, error, false);
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		if (!pendingTable.remove(key, this)) {
+			return false;
+		}
+		return finish(null, null, true);
+	}
+
+	@Override
+	public synchronized boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public synchronized boolean isDone() {
+		return completed;
+	}
+
+	@Override
+	public T get() throws InterruptedException, ExecutionException {
+		done.await();
+		return getResult();
+	}
+
+	@Override
+	public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		if (!done.await(timeout, unit)) {
+			throw new TimeoutException();
+		}
+		return getResult();
+	}
+
+	private boolean finish(T result, Throwable error, boolean cancelled) {
+		synchronized (this) {
+			if (completed) {
+				return false;
+			}
+			this.completed = true;
+			this.result = result;
+			this.error = error;
+			this.cancelled = cancelled;
+		}
+
+		TimerWheel.Timeout currentTimeout = timeout;
+		if (currentTimeout != null) {
+			currentTimeout.cancel();
+		}
+		done.countDown();
+		return true;
+	}
+
+	private synchronized T getResult() throws ExecutionException {
+		if (cancelled) {
+			throw new CancellationException();
+		}
+		if (error != null) {
+			throw new ExecutionException(error);
+		}
+		return result;
+	}
+}
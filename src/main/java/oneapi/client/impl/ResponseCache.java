@@ -0,0 +1,195 @@
+package oneapi.client.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size bounded, per endpoint cache of deserialized responses
+ */
+class ResponseCache {
+	private final ConcurrentMap<String, Region> regions = new ConcurrentHashMap<String, Region>();
+	private volatile ExecutorService refreshExecutor = null;
+	// guarded by this
+	private boolean closed = false;
+
+	/**
+	 * Get cached response
+	 * @param regionName
+	 * @param key
+	 * @return Entry or null if not cached
+	 */
+	Entry get(String regionName, String key) {
+		Region region = regions.get(regionName);
+		return region == null ? null : region.get(key);
+	}
+
+	/**
+	 * Cache the response unless the region was invalidated after the response was requested
+	 * @param regionName
+	 * @param key
+	 * @param value
+	 * @param maxEntries
+	 * @param generation - region generation read before the response was requested
+	 */
+	void put(String regionName, String key, Object value, int maxEntries, long generation) {
+		getRegion(regionName).put(key, new Entry(value), maxEntries, generation);
+	}
+
+	/**
+	 * Current region generation, it changes on every invalidation
+	 * @param regionName
+	 * @return long
+	 */
+	long getGeneration(String regionName) {
+		return getRegion(regionName).generation.get();
+	}
+
+	/**
+	 * Drop all responses cached for the region
+	 * @param regionName
+	 */
+	void invalidate(String regionName) {
+		Region region = regions.get(regionName);
+		if (region != null) {
+			region.clear();
+		}
+	}
+
+	/**
+	 * Drop all cached responses
+	 */
+	void invalidateAll() {
+		for (Region region : regions.values()) {
+			region.clear();
+		}
+	}
+
+	/**
+	 * Run the refresh task in the background
+	 * @param task
+	 */
+	void refresh(Runnable task) {
+		ExecutorService executor = getRefreshExecutor();
+		if (executor == null) {
+			return;
+		}
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			// closed meanwhile, the stale response is not refreshed
+		}
+	}
+
+	/**
+	 * Stop the refresh threads, refreshes already running are completed and new ones are not started
+	 */
+	synchronized void close() {
+		closed = true;
+		if (refreshExecutor != null) {
+			refreshExecutor.shutdown();
+		}
+	}
+
+	private Region getRegion(String regionName) {
+		Region region = regions.get(regionName);
+		if (region == null) {
+			Region newRegion = new Region();
+			region = regions.putIfAbsent(regionName, newRegion);
+			if (region == null) {
+				region = newRegion;
+			}
+		}
+		return region;
+	}
+
+	/**
+	 * @return ExecutorService or null if the cache is closed
+	 */
+	private ExecutorService getRefreshExecutor() {
+		if (refreshExecutor == null) {
+			synchronized (this) {
+				if (refreshExecutor == null && !closed) {
+					refreshExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "oneapi-response-cache-refresh");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+				}
+			}
+		}
+		return refreshExecutor;
+	}
+
+	/**
+	 * Cached responses of a single endpoint
+	 */
+	private static final class Region {
+		private final AtomicLong generation = new AtomicLong();
+		private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+		synchronized Entry get(String key) {
+			return entries.get(key);
+		}
+
+		synchronized void put(String key, Entry entry, int maxEntries, long expectedGeneration) {
+			if (generation.get() != expectedGeneration) {
+				return;
+			}
+
+			entries.put(key, entry);
+			while (entries.size() > maxEntries) {
+				Map.Entry<String, Entry> eldest = entries.entrySet().iterator().next();
+				entries.remove(eldest.getKey());
+			}
+		}
+
+		synchronized void clear() {
+			generation.incrementAndGet();
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Cached response
+	 */
+	static final class Entry {
+		private final Object value;
+		private final long loadedAt = System.currentTimeMillis();
+		private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+		private Entry(Object value) {
+			this.value = value;
+		}
+
+		Object getValue() {
+			return value;
+		}
+
+		long getAge(long now) {
+			return now - loadedAt;
+		}
+
+		/**
+		 * Only the first caller which finds the entry stale starts the refresh
+		 * @return boolean
+		 */
+		boolean startRefresh() {
+			return refreshing.compareAndSet(false, true);
+		}
+
+		void refreshFailed() {
+			refreshing.set(false);
+		}
+	}
+}
@@ -0,0 +1,814 @@
+package oneapi.client.impl;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import oneapi.client.SMSMessagingClient;
+import oneapi.config.CampaignSettings;
+import oneapi.exception.RequestException;
+import oneapi.listener.CampaignListener;
+import oneapi.listener.ResponseListener;
+import oneapi.model.CampaignSummary;
+import oneapi.model.SMSRequest;
+import oneapi.model.SMSTemplate;
+import oneapi.model.SMSTemplateBatch;
+import oneapi.model.SendMessageResult;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * SMS campaign read from a recipient file. Recipients are read in batches of 'batchSize', each batch is rendered with
+ * the template and its recipients with the same message are sent in requests of at most 'maxRecipients' recipients.
+ * At most 'parallelism' requests are in flight and messages are sent no faster than 'messagesPerSecond'.
+ * <p>
+ * Like the bulk HLR lookup, the checkpoint holds the batch index below which every batch is completed together with
+ * the completed batches above it; a batch is completed when each of its requests was sent or failed. The requests
+ * already sent of the batches in progress and the failed requests are saved as well. A resumed campaign skips the
+ * completed batches without rendering them, sends only the requests not sent yet and sends the failed requests again,
+ * with the same client correlators. Checkpoints are written by their own thread, so a file sync never holds up the
+ * responses.
+ */
+class SMSCampaign {
+	private static final Logger LOGGER = LoggerFactory.getLogger(SMSCampaign.class);
+
+	private static final String CHECKPOINT_WATERMARK = "watermark";
+	private static final String CHECKPOINT_COMPLETED = "completed";
+	private static final String CHECKPOINT_SENT = "sent.";
+	private static final String CHECKPOINT_FAILED = "failed.";
+	private static final String ADDRESS_COLUMN = "address";
+
+	private final SMSMessagingClient client;
+	private final SMSTemplate template;
+	private final String senderAddress;
+	private final CampaignSettings settings;
+	private final CampaignListener listener;
+	private final File checkpointFile;
+	private final int parallelism;
+	private final int batchSize;
+	private final int maxRecipients;
+	private final Semaphore inFlight;
+
+	private final Object lock = new Object();
+	private long watermark = 0;
+	private final Set<Long> completedAboveWatermark = new HashSet<Long>();
+	// sent requests of the batches which are not completed and failed requests of all batches, by batch index
+	private final Map<Long, Set<Integer>> sentRequests = new HashMap<Long, Set<Integer>>();
+	private final Map<Long, Set<Integer>> failedRequests = new TreeMap<Long, Set<Integer>>();
+	private long totalCount = 0;
+	private long sentCount = 0;
+	private long failedCount = 0;
+	private long skippedCount = 0;
+	private long startTime;
+	private long nextProgressTime;
+	private int completedSinceCheckpoint = 0;
+	private RuntimeException failure = null;
+	private CheckpointWriter checkpointWriter = null;
+
+	/**
+	 * @param client
+	 * @param template
+	 * @param senderAddress
+	 * @param settings
+	 * @param maxRecipients maximum number of recipients of a request
+	 * @param listener (optional)
+	 */
+	SMSCampaign(SMSMessagingClient client, SMSTemplate template, String senderAddress, CampaignSettings settings, int maxRecipients, CampaignListener listener) {
+		this.client = client;
+		this.template = template;
+		this.senderAddress = senderAddress;
+		this.settings = settings;
+		this.listener = listener;
+		this.checkpointFile = (settings.getCheckpointFile() == null || settings.getCheckpointFile().length() == 0) ? null : new File(settings.getCheckpointFile());
+		this.parallelism = Math.max(1, settings.getParallelism());
+		this.batchSize = Math.max(1, settings.getBatchSize());
+		this.maxRecipients = Math.max(1, maxRecipients);
+		this.inFlight = new Semaphore(parallelism);
+	}
+
+	/**
+	 * Send the campaign, the call returns when every started request is completed
+	 * @param recipients
+	 * @return CampaignSummary
+	 */
+	CampaignSummary run(RecipientReader recipients) {
+		synchronized (lock) {
+			startTime = System.currentTimeMillis();
+			nextProgressTime = startTime + settings.getProgressInterval();
+			totalCount = recipients.getRecipientCount();
+		}
+		restoreCheckpoint();
+		if (checkpointFile != null) {
+			checkpointWriter = new CheckpointWriter();
+		}
+
+		long permitInterval = settings.getMessagesPerSecond() > 0 ? TimeUnit.SECONDS.toNanos(1) / settings.getMessagesPerSecond() : 0;
+		long nextSendTime = System.nanoTime();
+		long batchIndex = 0;
+		boolean interrupted = false;
+		boolean finished = false;
+		try {
+			while (true) {
+				long current = batchIndex++;
+				if (isCompletedWithoutFailures(current)) {
+					int skipped = recipients.skip(batchSize);
+					if (skipped == 0) {
+						break;
+					}
+					synchronized (lock) {
+						skippedCount += skipped;
+					}
+					continue;
+				}
+				if (getFailure() != null) {
+					break;
+				}
+
+				SMSTemplateBatch batch = new SMSTemplateBatch(template, senderAddress);
+				if (recipients.read(batch, batchSize) == 0) {
+					break;
+				}
+
+				List<SMSRequest> smsRequests = new ArrayList<SMSRequest>();
+				for (SMSCoalescer.Chunk chunk : SMSCoalescer.coalesce(batch.getRequests(), maxRecipients)) {
+					smsRequests.add(chunk.toRequest());
+				}
+				List<Integer> unsent = getUnsentRequests(current, smsRequests);
+				Batch pending = new Batch(current, unsent.size());
+				for (int i : unsent) {
+					SMSRequest smsRequest = smsRequests.get(i);
+					if (settings.getCampaignId() != null) {
+						smsRequest.setClientCorrelator(settings.getCampaignId() + "-" + current + "-" + i);
+					}
+
+					inFlight.acquire();
+					if (permitInterval > 0) {
+						try {
+							long delay = nextSendTime - System.nanoTime();
+							if (delay > 0) {
+								TimeUnit.NANOSECONDS.sleep(delay);
+							}
+						} catch (InterruptedException e) {
+							inFlight.release();
+							throw e;
+						}
+						nextSendTime = Math.max(nextSendTime, System.nanoTime() - permitInterval) + permitInterval * smsRequest.getAddress().length;
+					}
+					send(pending, i, smsRequest);
+				}
+			}
+			finished = true;
+		} catch (InterruptedException e) {
+			interrupted = true;
+		} finally {
+			// wait for the requests in flight before the final checkpoint
+			inFlight.acquireUninterruptibly(parallelism);
+			inFlight.release(parallelism);
+			finish(finished && getFailure() == null);
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+			throw new RequestException("SMS campaign was interrupted.");
+		}
+
+		RuntimeException error = getFailure();
+		if (error != null) {
+			throw error;
+		}
+		return getSummary();
+	}
+
+	private void send(final Batch batch, final int requestIndex, final SMSRequest smsRequest) {
+		try {
+			client.sendSMSAsync(smsRequest, new ResponseListener<SendMessageResult>() {
+				@Override
+				public void onGotResponse(SendMessageResult result, Throwable error) {
+					complete(batch, requestIndex, smsRequest, result, error);
+				}
+			});
+		} catch (RuntimeException e) {
+			complete(batch, requestIndex, smsRequest, null, e);
+		}
+	}
+
+	private void complete(Batch batch, int requestIndex, SMSRequest smsRequest, SendMessageResult result, Throwable error) {
+		try {
+			synchronized (lock) {
+				if (failure != null) {
+					return;
+				}
+
+				if (listener != null) {
+					try {
+						listener.onSMSResult(batch.index, smsRequest, result, error);
+					} catch (RuntimeException e) {
+						failure = e;
+						return;
+					}
+				}
+
+				Long index = Long.valueOf(batch.index);
+				if (error == null) {
+					sentCount += smsRequest.getAddress().length;
+					remove(failedRequests, index, requestIndex);
+					if (!isCompleted(batch.index)) {
+						add(sentRequests, index, requestIndex);
+					}
+				} else {
+					failedCount += smsRequest.getAddress().length;
+					add(failedRequests, index, requestIndex);
+				}
+				if (--batch.remainingRequests == 0) {
+					markCompleted(batch.index);
+				}
+
+				if (checkpointWriter != null && ++completedSinceCheckpoint >= settings.getCheckpointInterval()) {
+					checkpointWriter.schedule(createCheckpoint());
+					completedSinceCheckpoint = 0;
+				}
+				reportProgress(false);
+			}
+		} finally {
+			inFlight.release();
+		}
+	}
+
+	/**
+	 * Called holding the lock
+	 */
+	private void reportProgress(boolean always) {
+		long now = System.currentTimeMillis();
+		if (listener == null || (!always && now < nextProgressTime)) {
+			return;
+		}
+
+		nextProgressTime = now + settings.getProgressInterval();
+		try {
+			listener.onProgress(new CampaignSummary(totalCount, sentCount, failedCount, skippedCount, now - startTime));
+		} catch (RuntimeException e) {
+			LOGGER.warn("SMS campaign progress listener failed: " + e.getMessage());
+		}
+	}
+
+	private CampaignSummary getSummary() {
+		synchronized (lock) {
+			return new CampaignSummary(totalCount, sentCount, failedCount, skippedCount, System.currentTimeMillis() - startTime);
+		}
+	}
+
+	/**
+	 * Requests of the batch which have to be sent: the failed ones of a completed batch, otherwise the ones not sent yet.
+	 * The requests left out are counted as skipped, a batch with nothing left to send is completed.
+	 */
+	private List<Integer> getUnsentRequests(long batchIndex, List<SMSRequest> smsRequests) {
+		synchronized (lock) {
+			Long index = Long.valueOf(batchIndex);
+			boolean completed = isCompleted(batchIndex);
+			Set<Integer> sent = sentRequests.get(index);
+			Set<Integer> failed = failedRequests.get(index);
+
+			List<Integer> unsent = new ArrayList<Integer>(smsRequests.size());
+			for (int i = 0; i < smsRequests.size(); i++) {
+				Integer request = Integer.valueOf(i);
+				if (completed ? (failed != null && failed.contains(request)) : (sent == null || !sent.contains(request))) {
+					unsent.add(request);
+				} else {
+					skippedCount += smsRequests.get(i).getAddress().length;
+				}
+			}
+			if (unsent.isEmpty()) {
+				markCompleted(batchIndex);
+			}
+			return unsent;
+		}
+	}
+
+	/**
+	 * Called holding the lock
+	 */
+	private void markCompleted(long index) {
+		sentRequests.remove(Long.valueOf(index));
+		if (isCompleted(index)) {
+			return;
+		}
+		if (index != watermark) {
+			completedAboveWatermark.add(Long.valueOf(index));
+			return;
+		}
+
+		watermark++;
+		while (completedAboveWatermark.remove(Long.valueOf(watermark))) {
+			watermark++;
+		}
+	}
+
+	/**
+	 * Called holding the lock
+	 */
+	private boolean isCompleted(long index) {
+		return index < watermark || completedAboveWatermark.contains(Long.valueOf(index));
+	}
+
+	private boolean isCompletedWithoutFailures(long index) {
+		synchronized (lock) {
+			return isCompleted(index) && !failedRequests.containsKey(Long.valueOf(index));
+		}
+	}
+
+	private RuntimeException getFailure() {
+		synchronized (lock) {
+			return failure;
+		}
+	}
+
+	/**
+	 * Checkpoint is deleted when every request was sent, otherwise the final progress is saved
+	 */
+	private void finish(boolean completed) {
+		if (checkpointWriter != null) {
+			checkpointWriter.stop();
+		}
+
+		Properties checkpoint = null;
+		synchronized (lock) {
+			reportProgress(true);
+			if (checkpointFile == null) {
+				return;
+			}
+
+			if (!completed || !failedRequests.isEmpty()) {
+				checkpoint = createCheckpoint();
+			}
+			if (completed && !failedRequests.isEmpty() && LOGGER.isWarnEnabled()) {
+				LOGGER.warn("SMS campaign has failed requests, they are sent again when the campaign is resumed from '" + checkpointFile + "'.");
+			}
+		}
+
+		if (checkpoint != null) {
+			writeCheckpoint(checkpoint);
+		} else if (checkpointFile.exists() && !checkpointFile.delete()) {
+			LOGGER.warn("SMS campaign checkpoint file '" + checkpointFile + "' could not be deleted.");
+		}
+	}
+
+	private void restoreCheckpoint() {
+		if (checkpointFile == null || !checkpointFile.exists()) {
+			return;
+		}
+
+		Properties checkpoint = new Properties();
+		try {
+			FileInputStream in = new FileInputStream(checkpointFile);
+			try {
+				checkpoint.load(in);
+			} finally {
+				in.close();
+			}
+
+			synchronized (lock) {
+				watermark = Long.parseLong(checkpoint.getProperty(CHECKPOINT_WATERMARK, "0"));
+				for (String value : checkpoint.getProperty(CHECKPOINT_COMPLETED, "").split(",")) {
+					if (value.length() > 0) {
+						completedAboveWatermark.add(Long.valueOf(value));
+					}
+				}
+				for (String name : checkpoint.stringPropertyNames()) {
+					if (name.startsWith(CHECKPOINT_SENT)) {
+						parseRequests(sentRequests, Long.valueOf(name.substring(CHECKPOINT_SENT.length())), checkpoint.getProperty(name));
+					} else if (name.startsWith(CHECKPOINT_FAILED)) {
+						parseRequests(failedRequests, Long.valueOf(name.substring(CHECKPOINT_FAILED.length())), checkpoint.getProperty(name));
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new RequestException("SMS campaign checkpoint file '" + checkpointFile + "' could not be read.", e);
+		} catch (NumberFormatException e) {
+			throw new RequestException("SMS campaign checkpoint file '" + checkpointFile + "' is corrupted.", e);
+		}
+
+		if (LOGGER.isInfoEnabled()) {
+			LOGGER.info("SMS campaign is resumed from checkpoint, " + watermark + " batches are already completed.");
+		}
+	}
+
+	/**
+	 * Called holding the lock
+	 */
+	private Properties createCheckpoint() {
+		Properties checkpoint = new Properties();
+		checkpoint.setProperty(CHECKPOINT_WATERMARK, String.valueOf(watermark));
+		checkpoint.setProperty(CHECKPOINT_COMPLETED, join(completedAboveWatermark));
+		for (Map.Entry<Long, Set<Integer>> sent : sentRequests.entrySet()) {
+			checkpoint.setProperty(CHECKPOINT_SENT + sent.getKey(), join(sent.getValue()));
+		}
+		for (Map.Entry<Long, Set<Integer>> failed : failedRequests.entrySet()) {
+			checkpoint.setProperty(CHECKPOINT_FAILED + failed.getKey(), join(failed.getValue()));
+		}
+		return checkpoint;
+	}
+
+	/**
+	 * Checkpoint is written to a temporary file first, so a crash never leaves a partially written checkpoint
+	 */
+	private void writeCheckpoint(Properties checkpoint) {
+		File tmpFile = new File(checkpointFile.getPath() + ".tmp");
+		try {
+			FileOutputStream out = new FileOutputStream(tmpFile);
+			try {
+				checkpoint.store(out, "SMS campaign checkpoint");
+				out.getFD().sync();
+			} finally {
+				out.close();
+			}
+
+			if (!tmpFile.renameTo(checkpointFile)) {
+				checkpointFile.delete();
+				if (!tmpFile.renameTo(checkpointFile)) {
+					throw new IOException("rename of '" + tmpFile + "' failed");
+				}
+			}
+		} catch (IOException e) {
+			LOGGER.warn("SMS campaign checkpoint could not be written: " + e.getMessage());
+		}
+	}
+
+	private static void add(Map<Long, Set<Integer>> requests, Long batchIndex, int requestIndex) {
+		Set<Integer> batchRequests = requests.get(batchIndex);
+		if (batchRequests == null) {
+			batchRequests = new TreeSet<Integer>();
+			requests.put(batchIndex, batchRequests);
+		}
+		batchRequests.add(Integer.valueOf(requestIndex));
+	}
+
+	private static void remove(Map<Long, Set<Integer>> requests, Long batchIndex, int requestIndex) {
+		Set<Integer> batchRequests = requests.get(batchIndex);
+		if (batchRequests != null && batchRequests.remove(Integer.valueOf(requestIndex)) && batchRequests.isEmpty()) {
+			requests.remove(batchIndex);
+		}
+	}
+
+	private static void parseRequests(Map<Long, Set<Integer>> requests, Long batchIndex, String value) {
+		for (String request : value.split(",")) {
+			if (request.length() > 0) {
+				add(requests, batchIndex, Integer.parseInt(request));
+			}
+		}
+	}
+
+	private static String join(Collection<? extends Number> values) {
+		StringBuilder joined = new StringBuilder();
+		for (Number value : values) {
+			if (joined.length() > 0) {
+				joined.append(',');
+			}
+			joined.append(value);
+		}
+		return joined.toString();
+	}
+
+	/**
+	 * Writes the scheduled checkpoints on its own thread, only the latest checkpoint waiting to be written is kept
+	 */
+	private final class CheckpointWriter implements Runnable {
+		private final Thread thread;
+		// guarded by this
+		private Properties scheduled = null;
+		private boolean stopped = false;
+
+		private CheckpointWriter() {
+			thread = new Thread(this, "oneapi-sms-campaign-checkpoint");
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		synchronized void schedule(Properties checkpoint) {
+			scheduled = checkpoint;
+			notifyAll();
+		}
+
+		/**
+		 * Write the checkpoint scheduled last and stop the thread
+		 */
+		void stop() {
+			synchronized (this) {
+				stopped = true;
+				notifyAll();
+			}
+
+			boolean interrupted = false;
+			while (thread.isAlive()) {
+				try {
+					thread.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				Properties checkpoint;
+				synchronized (this) {
+					while (scheduled == null && !stopped) {
+						try {
+							wait();
+						} catch (InterruptedException e) {
+							return;
+						}
+					}
+					if (scheduled == null) {
+						return;
+					}
+					checkpoint = scheduled;
+					scheduled = null;
+				}
+				writeCheckpoint(checkpoint);
+			}
+		}
+	}
+
+	/**
+	 * Requests of one batch still in flight, accessed holding the lock
+	 */
+	private static final class Batch {
+		private final long index;
+		private int remainingRequests;
+
+		private Batch(long index, int remainingRequests) {
+			this.index = index;
+			this.remainingRequests = remainingRequests;
+		}
+	}
+
+	/**
+	 * Recipients streamed from a file, one per line, blank lines are skipped. Every recipient has an address and
+	 * the values of the template variables.
+	 */
+	abstract static class RecipientReader {
+		private final File file;
+		private final BufferedReader reader;
+		private final long recipientCount;
+
+		RecipientReader(File file) throws IOException {
+			this.file = file;
+			this.recipientCount = countLines(file);
+			this.reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+		}
+
+		/**
+		 * Open the reader for the file format, NDJSON for '.ndjson', '.jsonl' and '.json' files, CSV otherwise
+		 * @param file
+		 * @param template
+		 * @return RecipientReader
+		 * @throws IOException
+		 */
+		static RecipientReader open(File file, SMSTemplate template) throws IOException {
+			String name = file.getName().toLowerCase();
+			if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json")) {
+				return new NdjsonRecipientReader(file, template);
+			}
+			return new CsvRecipientReader(file, template);
+		}
+
+		/**
+		 * Number of recipients in the file
+		 * @return long
+		 */
+		long getRecipientCount() {
+			return recipientCount - getHeaderLineCount();
+		}
+
+		/**
+		 * Read recipients and add them to the batch
+		 * @param batch
+		 * @param count
+		 * @return number of recipients read, 0 at the end of the file
+		 */
+		int read(SMSTemplateBatch batch, int count) {
+			int read = 0;
+			String line;
+			while (read < count && (line = nextLine()) != null) {
+				addRecipient(batch, line);
+				read++;
+			}
+			return read;
+		}
+
+		/**
+		 * Skip recipients without parsing them
+		 * @param count
+		 * @return number of recipients skipped, 0 at the end of the file
+		 */
+		int skip(int count) {
+			int skipped = 0;
+			while (skipped < count && nextLine() != null) {
+				skipped++;
+			}
+			return skipped;
+		}
+
+		void close() throws IOException {
+			reader.close();
+		}
+
+		abstract int getHeaderLineCount();
+
+		abstract void addRecipient(SMSTemplateBatch batch, String line);
+
+		String nextLine() {
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (line.trim().length() > 0) {
+						return line;
+					}
+				}
+				return null;
+			} catch (IOException e) {
+				throw new RequestException("Recipients could not be read from '" + file + "'.", e);
+			}
+		}
+
+		File getFile() {
+			return file;
+		}
+
+		private static long countLines(File file) throws IOException {
+			BufferedReader counter = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+			try {
+				long count = 0;
+				String line;
+				while ((line = counter.readLine()) != null) {
+					if (line.trim().length() > 0) {
+						count++;
+					}
+				}
+				return count;
+			} finally {
+				counter.close();
+			}
+		}
+	}
+
+	/**
+	 * Comma separated values with a header line naming the columns. The 'address' column holds the recipient
+	 * (the first column if there is none), the other columns are matched to the template variables by name.
+	 * Quoted values may contain commas and doubled quotes, but not line breaks.
+	 */
+	static class CsvRecipientReader extends RecipientReader {
+		private final int addressColumn;
+		private final int[] variableColumns;
+		private final String[] values;
+
+		CsvRecipientReader(File file, SMSTemplate template) throws IOException {
+			super(file);
+			try {
+				String header = nextLine();
+				if (header == null) {
+					throw new RequestException("Recipient file '" + file + "' has no header line.");
+				}
+
+				List<String> columns = parse(header);
+				int address = 0;
+				for (int i = 0; i < columns.size(); i++) {
+					if (columns.get(i).trim().equalsIgnoreCase(ADDRESS_COLUMN)) {
+						address = i;
+					}
+				}
+				this.addressColumn = address;
+
+				String[] variableNames = template.getVariableNames();
+				this.variableColumns = new int[variableNames.length];
+				for (int v = 0; v < variableNames.length; v++) {
+					variableColumns[v] = -1;
+					for (int i = 0; i < columns.size(); i++) {
+						if (columns.get(i).trim().equals(variableNames[v])) {
+							variableColumns[v] = i;
+						}
+					}
+					if (variableColumns[v] < 0) {
+						throw new RequestException("Recipient file '" + file + "' has no column '" + variableNames[v] + "'.");
+					}
+				}
+				this.values = new String[variableNames.length];
+			} catch (RuntimeException e) {
+				// the reader is not returned to the caller, which would close it
+				try {
+					close();
+				} catch (IOException closeError) {
+					LOGGER.warn("Recipient file '" + file + "' could not be closed: " + closeError.getMessage());
+				}
+				throw e;
+			}
+		}
+
+		@Override
+		int getHeaderLineCount() {
+			return 1;
+		}
+
+		@Override
+		void addRecipient(SMSTemplateBatch batch, String line) {
+			List<String> fields = parse(line);
+			for (int v = 0; v < variableColumns.length; v++) {
+				values[v] = variableColumns[v] < fields.size() ? fields.get(variableColumns[v]) : "";
+			}
+			batch.add(addressColumn < fields.size() ? fields.get(addressColumn).trim() : "", values);
+		}
+
+		static List<String> parse(String line) {
+			List<String> fields = new ArrayList<String>();
+			StringBuilder field = new StringBuilder();
+			boolean quoted = false;
+			for (int i = 0; i < line.length(); i++) {
+				char c = line.charAt(i);
+				if (quoted) {
+					if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+						field.append('"');
+						i++;
+					} else if (c == '"') {
+						quoted = false;
+					} else {
+						field.append(c);
+					}
+				} else if (c == '"') {
+					quoted = true;
+				} else if (c == ',') {
+					fields.add(field.toString());
+					field.setLength(0);
+				} else {
+					field.append(c);
+				}
+			}
+			fields.add(field.toString());
+			return fields;
+		}
+	}
+
+	/**
+	 * Newline delimited JSON objects, the 'address' field holds the recipient and the other fields are matched to the
+	 * template variables by name
+	 */
+	static class NdjsonRecipientReader extends RecipientReader {
+		private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+		private final String[] variableNames;
+		private final String[] values;
+
+		NdjsonRecipientReader(File file, SMSTemplate template) throws IOException {
+			super(file);
+			this.variableNames = template.getVariableNames();
+			this.values = new String[variableNames.length];
+		}
+
+		@Override
+		int getHeaderLineCount() {
+			return 0;
+		}
+
+		@Override
+		void addRecipient(SMSTemplateBatch batch, String line) {
+			JsonNode recipient;
+			try {
+				recipient = OBJECT_MAPPER.readTree(line);
+			} catch (IOException e) {
+				throw new RequestException("Recipient file '" + getFile() + "' has an invalid line: " + line, e);
+			}
+
+			for (int v = 0; v < variableNames.length; v++) {
+				JsonNode value = recipient.get(variableNames[v]);
+				if (value == null || value.isNull()) {
+					throw new RequestException("Recipient " + line + " has no field '" + variableNames[v] + "'.");
+				}
+				values[v] = value.asText();
+			}
+			JsonNode address = recipient.get(ADDRESS_COLUMN);
+			batch.add(address != null ? address.asText() : "", values);
+		}
+	}
+}
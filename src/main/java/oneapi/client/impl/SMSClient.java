@@ -1,13 +1,16 @@
 package oneapi.client.impl;
 
+import java.util.concurrent.ScheduledExecutorService;
+
 import oneapi.client.CustomerProfileClient;
 import oneapi.client.HLRClient;
 import oneapi.client.SMSMessagingClient;
 import oneapi.client.USSDClient;
 import oneapi.config.Configuration;
+import oneapi.config.ConfigurationProvider;
+import oneapi.config.SMSBatchSettings;
 import oneapi.listener.LoginListener;
 import oneapi.listener.LogoutListener;
-import oneapi.model.Authentication.AuthType;
 import oneapi.model.common.LoginResponse;
 
 
@@ -15,13 +18,18 @@ public class SMSClient {
   
 	protected static final String VERSION = "1.0.0"; 
 	
-    private CustomerProfileClient customerProfileClient = null;
-    private SMSMessagingClient smsMessagingClient = null;
-    private HLRClient hlrClient = null;
-    private USSDClient ussdClient = null;
+    private CustomerProfileClientImpl customerProfileClient = null;
+    private SMSMessagingClientImpl smsMessagingClient = null;
+    private HLRClientImpl hlrClient = null;
+    private USSDClientImpl ussdClient = null;
+    private AccountBalanceTracker accountBalanceTracker = null;
+    private DurableSMSQueue durableSMSQueue = null;
+    private SMSPriorityLanes smsPriorityLanes = null;
+    private IBSSOSessionManager sessionManager = null;
+    private Tenant tenant = null;
     private LoginListener loginListener = null;
     private LogoutListener logoutListener = null;
-    private Configuration configuration = null;
+    private ConfigurationProvider configurationProvider = null;
   
     //*************************SMSClient initialization***********************************************************************************************************************************************
     /**
@@ -29,19 +37,65 @@ public class SMSClient {
      * @param configuration - parameter containing OneAPI configuration data
      */
     public SMSClient(Configuration configuration) {
+        this(configuration, null);
+    }
+
+    /**
+     * Initialize SMS client reading the configuration snapshots published by the provider, published changes are used without restarting the client
+     * @param configurationProvider - provider of OneAPI configuration data
+     */
+    public SMSClient(ConfigurationProvider configurationProvider) {
+        this(configurationProvider, null);
+    }
+
+    /**
+     * Initialize SMS client of the tenant using the shared transport
+     * @param configuration - parameter containing OneAPI configuration data of the tenant
+     * @param tenant - tenant of the shared transport, null if the client uses its own transport
+     */
+    SMSClient(Configuration configuration, Tenant tenant) {
+        this(new ConfigurationProvider(configuration), tenant);
+    }
 
-        this.configuration = configuration;
+    private SMSClient(ConfigurationProvider configurationProvider, Tenant tenant) {
+
+        this.configurationProvider = configurationProvider;
+        this.tenant = tenant;
 
 
         //Set Login and Logout listeners so that authorization mode can be switched to IBSSO
         setLoginListener();
         setLogoutListener();
 
-        //Initialize Clients     
-        customerProfileClient = new CustomerProfileClientImpl(configuration, loginListener, logoutListener);
-        smsMessagingClient = new SMSMessagingClientImpl(configuration);   
-        hlrClient = new HLRClientImpl(configuration);
-        ussdClient = new USSDClientImpl(configuration);
+        //Initialize Clients, they share one IBSSO session
+        ScheduledExecutorService sharedScheduler = tenant != null ? tenant.getTransport().getScheduler() : null;
+        sessionManager = new IBSSOSessionManager(configurationProvider, sharedScheduler);
+        customerProfileClient = new CustomerProfileClientImpl(configurationProvider, sessionManager, tenant, loginListener, logoutListener);
+        SMSMessagingClientImpl smsMessagingClientImpl = new SMSMessagingClientImpl(configurationProvider, sessionManager, tenant);   
+        HLRClientImpl hlrClientImpl = new HLRClientImpl(configurationProvider, sessionManager, tenant);
+        smsMessagingClient = smsMessagingClientImpl;
+        hlrClient = hlrClientImpl;
+        ussdClient = new USSDClientImpl(configurationProvider, sessionManager, tenant);
+
+        //Track account balance charged for sent messages and HLR queries
+        Configuration configuration = configurationProvider.get();
+        if (configuration.getAccountBalance() != null) {
+            accountBalanceTracker = new AccountBalanceTracker(customerProfileClient, configuration.getAccountBalance(), sharedScheduler);
+            smsMessagingClientImpl.setAccountBalanceTracker(accountBalanceTracker);
+            hlrClientImpl.setAccountBalanceTracker(accountBalanceTracker);
+            accountBalanceTracker.start();
+        }
+
+        //Resume sending the requests left in the send log
+        if (configuration.getSendLog() != null) {
+            durableSMSQueue = new DurableSMSQueue(smsMessagingClient, configuration.getSendLog());
+        }
+
+        //Send OTP, transactional and bulk traffic through separate lanes
+        if (configuration.getSmsPriorityLanes() != null) {
+            SMSBatchSettings batchSettings = configuration.getSmsBatch() != null ? configuration.getSmsBatch() : new SMSBatchSettings();
+            smsPriorityLanes = new SMSPriorityLanes(smsMessagingClient, configuration.getSmsPriorityLanes(), batchSettings.getMaxRecipients());
+        }
     }
 
     //*************************SMSClient public***********************************************************************************************************************************************
@@ -76,15 +130,86 @@ public class SMSClient {
     public USSDClient getUSSDClient() {
         return ussdClient;
     }
+
+    /**
+     * Get provider of the configuration snapshots, use it to change the configuration or watch the configuration file
+     * @return ConfigurationProvider
+     */
+    public ConfigurationProvider getConfigurationProvider() {
+        return configurationProvider;
+    }
+
+    /**
+     * Get account balance tracker
+     * @return AccountBalanceTracker or null if account balance tracking is not configured
+     */
+    public AccountBalanceTracker getAccountBalanceTracker() {
+        return accountBalanceTracker;
+    }
+
+    /**
+     * Get durable SMS queue
+     * @return DurableSMSQueue or null if the send log is not configured
+     */
+    public DurableSMSQueue getDurableSMSQueue() {
+        return durableSMSQueue;
+    }
+
+    /**
+     * Get SMS priority lanes
+     * @return SMSPriorityLanes or null if priority lanes are not configured
+     */
+    public SMSPriorityLanes getSMSPriorityLanes() {
+        return smsPriorityLanes;
+    }
+
+    /**
+     * Stop the background work of the client: delivery report and inbound message retrievers, push server simulators,
+     * account balance refreshes, durable SMS queue, priority lanes, HLR cache store file, IBSSO session refreshes, response cache
+     * refreshes, and the notification timeouts and http client unless the client uses the shared transport of a tenant.
+     * Requests already in flight are completed, requests still queued in the priority lanes fail.
+     */
+    public void close() {
+        if (smsPriorityLanes != null) {
+            smsPriorityLanes.close();
+        }
+        if (durableSMSQueue != null) {
+            durableSMSQueue.close();
+        }
+        if (accountBalanceTracker != null) {
+            accountBalanceTracker.stop();
+        }
+
+        smsMessagingClient.removePullDeliveryReportListeners();
+        smsMessagingClient.removePullInboundMessageListeners();
+        smsMessagingClient.removePushDeliveryStatusNotificationListeners();
+        smsMessagingClient.removePushInboundMessageListeners();
+        hlrClient.removePushHLRNotificationsListeners();
+        hlrClient.closeHLRCache();
+        sessionManager.end();
+
+        //Stop the threads of the client's own transport
+        customerProfileClient.close();
+        smsMessagingClient.close();
+        hlrClient.close();
+        ussdClient.close();
+    }
    
+    /**
+     * Get tenant of the shared transport
+     * @return Tenant or null if the client uses its own transport
+     */
+    Tenant getTenant() {
+        return tenant;
+    }
+
 	//*************************SMSClient private***********************************************************************************************************************************************
     private void setLoginListener() {
         loginListener = new LoginListener() {
             @Override
             public void onLogin(LoginResponse response) {
                 if ((response != null) && (response.getIbAuthCookie().length() != 0)) {
-                    configuration.getAuthentication().setType(AuthType.IBSSO);
-                    configuration.getAuthentication().setIbssoToken(response.getIbAuthCookie());
+                    configurationProvider.updateIbssoToken(response.getIbAuthCookie());
                 }
             }
         };
@@ -94,7 +219,7 @@ public class SMSClient {
         logoutListener = new LogoutListener() {
             @Override
             public void onLogout() {
-                configuration.getAuthentication().setIbssoToken("");
+                configurationProvider.updateIbssoToken("");
             }
         };
     }
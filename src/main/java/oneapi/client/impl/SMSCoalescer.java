@@ -0,0 +1,257 @@
+package oneapi.client.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import oneapi.model.SMSRequest;
+import oneapi.model.SendMessageResult;
+import oneapi.model.SendMessageResultItem;
+
+/**
+ * Merges SMS requests with the same sender address, sender name, message, notify url and callback data into
+ * multi-recipient requests and maps the results of the merged requests back to the original requests.
+ * Requests with a client correlator are never merged, the correlator identifies the request on retries. When such a
+ * request is split, every part is sent with the correlator followed by the part number, e.g. 'c-1-0', so that the parts
+ * are neither deduplicated against each other nor seen by the server as retries of one request.
+ */
+class SMSCoalescer {
+
+	private SMSCoalescer() {
+	}
+
+	/**
+	 * Group the requests into merged requests of at most maxRecipients recipients, a request with more recipients is split
+	 * @param smsRequests
+	 * @param maxRecipients
+	 * @return List<Chunk> in the order of the first request of every chunk
+	 */
+	static List<Chunk> coalesce(Collection<SMSRequest> smsRequests, int maxRecipients) {
+		int chunkSize = Math.max(1, maxRecipients);
+		Map<Object, Chunk> openChunks = new LinkedHashMap<Object, Chunk>();
+		List<Chunk> chunks = new ArrayList<Chunk>();
+
+		for (SMSRequest smsRequest : smsRequests) {
+			String[] addresses = smsRequest.getAddress();
+			if (addresses == null || addresses.length == 0) {
+				// nothing to merge, the request is sent as it is
+				Chunk chunk = new Chunk(smsRequest);
+				chunk.add(smsRequest, null);
+				chunks.add(chunk);
+				continue;
+			}
+
+			Object key = smsRequest.getClientCorrelator() == null ? new GroupKey(smsRequest) : new Object();
+			Chunk chunk = openChunks.get(key);
+			List<Chunk> parts = new ArrayList<Chunk>();
+			for (String address : addresses) {
+				if (chunk == null || chunk.size() >= chunkSize) {
+					chunk = new Chunk(smsRequest);
+					chunks.add(chunk);
+					parts.add(chunk);
+					openChunks.put(key, chunk);
+				}
+				chunk.add(smsRequest, address);
+			}
+			if (smsRequest.getClientCorrelator() != null && parts.size() > 1) {
+				for (int i = 0; i < parts.size(); i++) {
+					parts.get(i).part = i;
+				}
+			}
+		}
+		return chunks;
+	}
+
+	/**
+	 * Append the result items of an original request, a request split between merged requests collects the items of all of them
+	 * @param result - result collected so far, null for the first merged request
+	 * @param chunkResult - result of the merged request
+	 * @param items - items of the original request's recipients
+	 * @return SendMessageResult
+	 */
+	static SendMessageResult appendResult(SendMessageResult result, SendMessageResult chunkResult, List<SendMessageResultItem> items) {
+		if (result == null) {
+			result = new SendMessageResult();
+			result.setClientCorrelator(chunkResult != null ? chunkResult.getClientCorrelator() : null);
+			result.setResourceReference(chunkResult != null ? chunkResult.getResourceReference() : null);
+			result.setSendMessageResults(items.toArray(new SendMessageResultItem[items.size()]));
+			return result;
+		}
+
+		SendMessageResultItem[] previous = result.getSendMessageResults();
+		SendMessageResultItem[] merged = new SendMessageResultItem[previous.length + items.size()];
+		System.arraycopy(previous, 0, merged, 0, previous.length);
+		for (int i = 0; i < items.size(); i++) {
+			merged[previous.length + i] = items.get(i);
+		}
+		result.setSendMessageResults(merged);
+		return result;
+	}
+
+	/**
+	 * Strip the 'tel:' scheme and the leading '+' so that result addresses match request addresses
+	 */
+	static String normalizeAddress(String address) {
+		if (address == null) {
+			return "";
+		}
+		String normalized = address.trim();
+		if (normalized.regionMatches(true, 0, "tel:", 0, 4)) {
+			normalized = normalized.substring(4);
+		}
+		if (normalized.startsWith("+")) {
+			normalized = normalized.substring(1);
+		}
+		return normalized;
+	}
+
+	/**
+	 * Merged request and the original request of each of its recipients
+	 */
+	static final class Chunk {
+		private final SMSRequest template;
+		private final List<String> addresses = new ArrayList<String>();
+		private final List<SMSRequest> owners = new ArrayList<SMSRequest>();
+		private int part = -1;
+
+		private Chunk(SMSRequest template) {
+			this.template = template;
+		}
+
+		private void add(SMSRequest owner, String address) {
+			if (address != null) {
+				addresses.add(address);
+			}
+			owners.add(owner);
+		}
+
+		int size() {
+			return addresses.size();
+		}
+
+		/**
+		 * Merged request sent for the chunk, a part of a split request with a client correlator gets the correlator of the part
+		 * @return SMSRequest
+		 */
+		SMSRequest toRequest() {
+			String[] templateAddresses = template.getAddress();
+			if (addresses.size() == (templateAddresses != null ? templateAddresses.length : 0) && getRequests().size() == 1) {
+				return template;
+			}
+			String clientCorrelator = part >= 0 ? template.getClientCorrelator() + "-" + part : template.getClientCorrelator();
+			return new SMSRequest(template.getSenderAddress(), template.getMessage(), clientCorrelator, template.getNotifyURL(),
+					template.getSenderName(), template.getCallbackData(), addresses.toArray(new String[addresses.size()]));
+		}
+
+		/**
+		 * Original requests merged into the chunk
+		 * @return List<SMSRequest> without duplicates, in the order they were added
+		 */
+		List<SMSRequest> getRequests() {
+			List<SMSRequest> requests = new ArrayList<SMSRequest>();
+			Map<SMSRequest, Boolean> seen = new IdentityHashMap<SMSRequest, Boolean>();
+			for (SMSRequest owner : owners) {
+				if (seen.put(owner, Boolean.TRUE) == null) {
+					requests.add(owner);
+				}
+			}
+			return requests;
+		}
+
+		/**
+		 * Split the result items of the merged request between the original requests. Items are matched by destination
+		 * address; items whose address can't be matched are assigned in the order of the recipients.
+		 * @param result
+		 * @return Map<SMSRequest, List<SendMessageResultItem>> containing every original request of the chunk
+		 */
+		Map<SMSRequest, List<SendMessageResultItem>> distribute(SendMessageResult result) {
+			Map<SMSRequest, List<SendMessageResultItem>> distributed = new IdentityHashMap<SMSRequest, List<SendMessageResultItem>>();
+			for (SMSRequest request : getRequests()) {
+				distributed.put(request, new ArrayList<SendMessageResultItem>());
+			}
+			if (result == null || result.getSendMessageResults() == null) {
+				return distributed;
+			}
+
+			Map<String, ArrayDeque<Integer>> recipients = new HashMap<String, ArrayDeque<Integer>>();
+			for (int i = 0; i < addresses.size(); i++) {
+				String address = normalizeAddress(addresses.get(i));
+				ArrayDeque<Integer> positions = recipients.get(address);
+				if (positions == null) {
+					positions = new ArrayDeque<Integer>();
+					recipients.put(address, positions);
+				}
+				positions.add(i);
+			}
+
+			boolean[] assigned = new boolean[addresses.size()];
+			List<SendMessageResultItem> unmatched = new ArrayList<SendMessageResultItem>();
+			for (SendMessageResultItem item : result.getSendMessageResults()) {
+				ArrayDeque<Integer> positions = recipients.get(normalizeAddress(item.getDestinationAddress()));
+				Integer position = positions != null ? positions.poll() : null;
+				if (position == null) {
+					unmatched.add(item);
+				} else {
+					assigned[position] = true;
+					distributed.get(owners.get(position)).add(item);
+				}
+			}
+
+			int position = 0;
+			for (SendMessageResultItem item : unmatched) {
+				while (position < assigned.length && assigned[position]) {
+					position++;
+				}
+				SMSRequest owner = position < assigned.length ? owners.get(position++) : owners.get(owners.size() - 1);
+				distributed.get(owner).add(item);
+			}
+			return distributed;
+		}
+	}
+
+	private static final class GroupKey {
+		private final String senderAddress;
+		private final String senderName;
+		private final String message;
+		private final String notifyURL;
+		private final String callbackData;
+
+		GroupKey(SMSRequest smsRequest) {
+			this.senderAddress = smsRequest.getSenderAddress();
+			this.senderName = smsRequest.getSenderName();
+			this.message = smsRequest.getMessage();
+			this.notifyURL = smsRequest.getNotifyURL();
+			this.callbackData = smsRequest.getCallbackData();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof GroupKey)) {
+				return false;
+			}
+			GroupKey other = (GroupKey) obj;
+			return equal(senderAddress, other.senderAddress) && equal(senderName, other.senderName) && equal(message, other.message)
+					&& equal(notifyURL, other.notifyURL) && equal(callbackData, other.callbackData);
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = 17;
+			hash = 31 * hash + (senderAddress != null ? senderAddress.hashCode() : 0);
+			hash = 31 * hash + (senderName != null ? senderName.hashCode() : 0);
+			hash = 31 * hash + (message != null ? message.hashCode() : 0);
+			hash = 31 * hash + (notifyURL != null ? notifyURL.hashCode() : 0);
+			hash = 31 * hash + (callbackData != null ? callbackData.hashCode() : 0);
+			return hash;
+		}
+
+		private static boolean equal(String a, String b) {
+			return a == null ? b == null : a.equals(b);
+		}
+	}
+}
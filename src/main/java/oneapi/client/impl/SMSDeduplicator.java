@@ -0,0 +1,352 @@
+package oneapi.client.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import oneapi.config.SMSDedupSettings;
+import oneapi.model.SMSRequest;
+import oneapi.model.SendMessageResult;
+import oneapi.util.AddressNormalizer;
+
+/**
+ * Remembers recently sent SMS requests by their client correlator and by a hash of their content (sender, recipients
+ * and message), so that duplicates get the result of the original request instead of being sent again.
+ * Only 64-bit hashes of the keys are kept, in independently locked segments. Each segment is a ring of entries in
+ * insertion order, indexed by an open addressing table of ring slots, so expiring and evicting the oldest keys is
+ * cheap and no objects are allocated per key.
+ */
+class SMSDeduplicator {
+	private static final int SEGMENT_COUNT = 16;
+	private static final int SEGMENT_SHIFT = 60;
+	private static final int INITIAL_CAPACITY = 256;
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	private static final char CORRELATOR_KEY = 'C';
+	private static final char CONTENT_KEY = 'M';
+
+	private final Segment[] segments = new Segment[SEGMENT_COUNT];
+	private final SingleFlight inFlight = new SingleFlight();
+	private final AtomicLong suppressedCount = new AtomicLong();
+
+	/**
+	 * @param maxEntries maximum number of remembered keys
+	 */
+	SMSDeduplicator(int maxEntries) {
+		int segmentMaxEntries = Math.max(1, (maxEntries + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+		for (int i = 0; i < SEGMENT_COUNT; i++) {
+			segments[i] = new Segment(segmentMaxEntries);
+		}
+	}
+
+	/**
+	 * Keys the request is remembered by, the client correlator first
+	 * @param smsRequest
+	 * @param settings
+	 * @return long[] empty if the request has no client correlator and content is not compared
+	 */
+	long[] getKeys(SMSRequest smsRequest, SMSDedupSettings settings) {
+		String clientCorrelator = smsRequest.getClientCorrelator();
+		boolean hasCorrelator = clientCorrelator != null && clientCorrelator.length() > 0;
+		long[] keys = new long[(hasCorrelator ? 1 : 0) + (settings.isMatchContent() ? 1 : 0)];
+
+		int i = 0;
+		if (hasCorrelator) {
+			keys[i++] = finish(hash(FNV_OFFSET_BASIS, CORRELATOR_KEY, clientCorrelator));
+		}
+		if (settings.isMatchContent()) {
+			keys[i] = getContentKey(smsRequest);
+		}
+		return keys;
+	}
+
+	/**
+	 * Get the result of the remembered request
+	 * @param keys
+	 * @return SendMessageResult or null if none of the keys is remembered
+	 */
+	SendMessageResult get(long[] keys) {
+		long now = System.currentTimeMillis();
+		for (long key : keys) {
+			SendMessageResult result = segmentFor(key).get(key, now);
+			if (result != null) {
+				suppressedCount.incrementAndGet();
+				return result;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Remember the sent request under all its keys
+	 * @param keys
+	 * @param result
+	 * @param settings
+	 */
+	void put(long[] keys, SendMessageResult result, SMSDedupSettings settings) {
+		if (result == null || settings.getTimeToLive() <= 0) {
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+		long expiresAt = now + settings.getTimeToLive();
+		for (long key : keys) {
+			segmentFor(key).put(key, result, expiresAt, now);
+		}
+	}
+
+	/**
+	 * Register the request as in flight under all its keys, duplicates sent meanwhile join it
+	 * @param keys
+	 * @return Flight - the caller has to send the request and complete the flight, or null if one of the keys is already in flight
+	 */
+	SingleFlight.Flight startFlight(long[] keys) {
+		String[] flightKeys = new String[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			flightKeys[i] = getFlightKey(keys[i]);
+		}
+		return inFlight.start(flightKeys);
+	}
+
+	/**
+	 * Find the flight of the original request, matching any of the keys
+	 * @param keys
+	 * @return Flight or null if the original request is not in flight (anymore)
+	 */
+	SingleFlight.Flight findFlight(long[] keys) {
+		for (long key : keys) {
+			SingleFlight.Flight flight = inFlight.find(getFlightKey(key));
+			if (flight != null) {
+				suppressedCount.incrementAndGet();
+				return flight;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Number of duplicates which got the result of the original request
+	 * @return long
+	 */
+	long getSuppressedCount() {
+		return suppressedCount.get();
+	}
+
+	int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	private Segment segmentFor(long key) {
+		return segments[(int) (key >>> SEGMENT_SHIFT) & (SEGMENT_COUNT - 1)];
+	}
+
+	private static String getFlightKey(long key) {
+		return Long.toHexString(key);
+	}
+
+	/**
+	 * Hash of the sender address, sender name, message and the normalized recipients in sorted order
+	 */
+	private static long getContentKey(SMSRequest smsRequest) {
+		long hash = hash(FNV_OFFSET_BASIS, CONTENT_KEY, AddressNormalizer.normalize(smsRequest.getSenderAddress()));
+		hash = hash(hash, CONTENT_KEY, smsRequest.getSenderName());
+		hash = hash(hash, CONTENT_KEY, smsRequest.getMessage());
+
+		String[] addresses = smsRequest.getAddress();
+		if (addresses != null) {
+			String[] recipients = new String[addresses.length];
+			for (int i = 0; i < addresses.length; i++) {
+				recipients[i] = AddressNormalizer.normalize(addresses[i]);
+				if (recipients[i] == null) {
+					recipients[i] = "";
+				}
+			}
+			Arrays.sort(recipients);
+			for (String recipient : recipients) {
+				hash = hash(hash, CONTENT_KEY, recipient);
+			}
+		}
+		return finish(hash);
+	}
+
+	/**
+	 * FNV-1a over the separator and the characters of the value, null values hash differently from empty ones
+	 */
+	private static long hash(long hash, char separator, String value) {
+		hash = (hash ^ separator) * FNV_PRIME;
+		if (value == null) {
+			return (hash ^ 0xffff) * FNV_PRIME;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+			hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+		}
+		return hash;
+	}
+
+	/**
+	 * Spread the bits so the segment and the table slot can be taken from any part of the key
+	 */
+	private static long finish(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	/**
+	 * Remembered keys in insertion order. The ring arrays grow up to maxEntries, the index holds ring slot + 1
+	 * (0 = free) and is at most half full.
+	 */
+	private static final class Segment {
+		private final int maxEntries;
+		private long[] keys;
+		private long[] expiresAt;
+		private SendMessageResult[] results;
+		private int head = 0;
+		private int size = 0;
+		private int[] index;
+
+		private Segment(int maxEntries) {
+			this.maxEntries = maxEntries;
+			allocate(Math.min(INITIAL_CAPACITY, maxEntries));
+		}
+
+		synchronized SendMessageResult get(long key, long now) {
+			int slot = find(key);
+			if (slot < 0 || expiresAt[slot] <= now) {
+				return null;
+			}
+			return results[slot];
+		}
+
+		synchronized void put(long key, SendMessageResult result, long expires, long now) {
+			expire(now);
+
+			int slot = find(key);
+			if (slot >= 0) {
+				results[slot] = result;
+				expiresAt[slot] = Math.max(expiresAt[slot], expires);
+				return;
+			}
+
+			if (size == maxEntries) {
+				removeOldest();
+			} else if (size == keys.length) {
+				grow();
+			}
+
+			slot = ringSlot(size);
+			keys[slot] = key;
+			expiresAt[slot] = expires;
+			results[slot] = result;
+			size++;
+
+			int mask = index.length - 1;
+			int position = (int) key & mask;
+			while (index[position] != 0) {
+				position = (position + 1) & mask;
+			}
+			index[position] = slot + 1;
+		}
+
+		synchronized int size() {
+			return size;
+		}
+
+		/**
+		 * Forget the oldest keys which expired, the ones behind an unexpired key are forgotten later or evicted
+		 */
+		private void expire(long now) {
+			while (size > 0 && expiresAt[head] <= now) {
+				removeOldest();
+			}
+		}
+
+		private int find(long key) {
+			int mask = index.length - 1;
+			int position = (int) key & mask;
+			while (index[position] != 0) {
+				int slot = index[position] - 1;
+				if (keys[slot] == key) {
+					return slot;
+				}
+				position = (position + 1) & mask;
+			}
+			return -1;
+		}
+
+		private void removeOldest() {
+			int slot = head;
+			int mask = index.length - 1;
+			int position = (int) keys[slot] & mask;
+			while (index[position] != slot + 1) {
+				position = (position + 1) & mask;
+			}
+
+			// shift the following keys of the probe sequence back so lookups don't stop at the freed position
+			int next = position;
+			while (true) {
+				next = (next + 1) & mask;
+				if (index[next] == 0) {
+					break;
+				}
+				int home = (int) keys[index[next] - 1] & mask;
+				boolean between = position <= next ? (position < home && home <= next) : (position < home || home <= next);
+				if (!between) {
+					index[position] = index[next];
+					position = next;
+				}
+			}
+			index[position] = 0;
+
+			results[slot] = null;
+			head = ringSlot(1);
+			size--;
+		}
+
+		private void grow() {
+			long[] oldKeys = keys;
+			long[] oldExpiresAt = expiresAt;
+			SendMessageResult[] oldResults = results;
+			int oldHead = head;
+			int oldSize = size;
+
+			allocate((int) Math.min((long) oldKeys.length * 2, maxEntries));
+			for (int i = 0; i < oldSize; i++) {
+				int oldSlot = (oldHead + i) % oldKeys.length;
+				keys[i] = oldKeys[oldSlot];
+				expiresAt[i] = oldExpiresAt[oldSlot];
+				results[i] = oldResults[oldSlot];
+
+				int mask = index.length - 1;
+				int position = (int) keys[i] & mask;
+				while (index[position] != 0) {
+					position = (position + 1) & mask;
+				}
+				index[position] = i + 1;
+			}
+			size = oldSize;
+		}
+
+		private void allocate(int capacity) {
+			keys = new long[capacity];
+			expiresAt = new long[capacity];
+			results = new SendMessageResult[capacity];
+			index = new int[Integer.highestOneBit(Math.max(1, capacity - 1)) << 2];
+			head = 0;
+			size = 0;
+		}
+
+		private int ringSlot(int offset) {
+			int slot = head + offset;
+			return slot >= keys.length ? slot - keys.length : slot;
+		}
+	}
+}
@@ -1,22 +1,44 @@
 package oneapi.client.impl;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import oneapi.client.SMSMessagingClient;
+import oneapi.config.CampaignSettings;
 import oneapi.config.Configuration;
+import oneapi.config.ConfigurationProvider;
+import oneapi.config.ResponseCacheSettings;
+import oneapi.config.SMSBatchSettings;
+import oneapi.config.SMSDedupSettings;
+import oneapi.config.SuppressionListSettings;
+import oneapi.exception.ConfigurationException;
+import oneapi.exception.RequestException;
+import oneapi.listener.CampaignListener;
+import oneapi.listener.ConfigurationListener;
 import oneapi.listener.DeliveryReportListener;
 import oneapi.listener.DeliveryStatusNotificationsListener;
 import oneapi.listener.InboundMessageListener;
 import oneapi.listener.InboundMessageNotificationsListener;
 import oneapi.listener.ResponseListener;
+import oneapi.model.CampaignSummary;
 import oneapi.model.DeliveryInfoNotification;
 import oneapi.model.DeliveryReportList;
 import oneapi.model.MoNumberType;
 import oneapi.model.RequestData;
 import oneapi.model.RequestData.Method;
+import oneapi.model.SMSBatchResult;
 import oneapi.model.SMSRequest;
+import oneapi.model.SMSTemplate;
 import oneapi.model.SendMessageResult;
+import oneapi.model.SendMessageResultItem;
 import oneapi.model.SubscribeToDeliveryNotificationsRequest;
 import oneapi.model.SubscribeToInboundMessagesRequest;
 import oneapi.model.common.DeliveryInfoList;
@@ -28,14 +50,16 @@ import oneapi.model.common.ResourceReference;
 import oneapi.pushserver.PushServerSimulator;
 import oneapi.retriever.DeliveryReportRetriever;
 import oneapi.retriever.InboundMessageRetriever;
+import oneapi.util.AddressNormalizer;
+import oneapi.util.AddressSet;
 
 
 public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSMessagingClient {
 	private static final String SMS_MESSAGING_OUTBOUND_URL_BASE = "/smsmessaging/outbound";
 	private static final String SMS_MESSAGING_INBOUND_URL_BASE = "/smsmessaging/inbound";
 	
-	private DeliveryReportRetriever deliveryReportRetriever = null;
-    private InboundMessageRetriever inboundMessageRetriever = null;
+	private volatile DeliveryReportRetriever deliveryReportRetriever = null;
+    private volatile InboundMessageRetriever inboundMessageRetriever = null;
     private volatile List<DeliveryReportListener> deliveryReportPullListenerList = null;
     private volatile List<InboundMessageListener> inboundMessagePullListenerList = null;
 
@@ -43,41 +67,314 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
     private volatile List<InboundMessageNotificationsListener> inboundMessagePushListenerList = null;
     private PushServerSimulator dlrStatusPushServerSimulator;
     private PushServerSimulator inboundMessagesPushServerSimulator;
+    private volatile AccountBalanceTracker accountBalanceTracker = null;
+    private volatile SMSDeduplicator smsDeduplicator = null;
+    private volatile SuppressionList suppressionList = null;
+    private final AtomicLong suppressedRecipientCount = new AtomicLong();
     
     //*************************SMSMessagingClientImpl Initialization******************************************************************************************************************************************************
     public SMSMessagingClientImpl(Configuration configuration) {
         super(configuration);
+        watchConfiguration();
+    }
+
+    SMSMessagingClientImpl(ConfigurationProvider configurationProvider, IBSSOSessionManager sessionManager, Tenant tenant) {
+        super(configurationProvider, sessionManager, tenant);
+        watchConfiguration();
     }
 
     //*************************SMSMessagingClientImpl public******************************************************************************************************************************************************
     /**
      * Send an SMS over OneAPI to one or more mobile terminals using the customized 'SMSRequest' object
-     * @param smsRequest (mandatory) object containing data needed to be filled in order to send the SMS
+     * @param originalRequest (mandatory) object containing data needed to be filled in order to send the SMS
      * @return String Request Id
      */
     @Override
-    public SendMessageResult sendSMS(SMSRequest smsRequest){
-        StringBuilder urlBuilder = new StringBuilder(SMS_MESSAGING_OUTBOUND_URL_BASE).append("/");
-        urlBuilder.append(encodeURLParam(smsRequest.getSenderAddress()));
-        urlBuilder.append("/requests");
-        
-        RequestData requestData = new RequestData(urlBuilder.toString(), Method.POST, null, smsRequest, URL_ENCODED_CONTENT_TYPE);
-        return executeMethod(requestData, SendMessageResult.class);
+    public SendMessageResult sendSMS(SMSRequest originalRequest){
+        SMSRequest smsRequest = removeSuppressedRecipients(originalRequest);
+        int suppressedCount = countSuppressedRecipients(originalRequest, smsRequest);
+        //Only a request emptied by the suppression list is answered here, an empty request of the caller goes to the server
+        if (smsRequest != originalRequest && smsRequest.getAddress() != null && smsRequest.getAddress().length == 0) {
+            return createSuppressedResult(originalRequest, suppressedCount);
+        }
+
+        SMSDedupSettings dedupSettings = getConfiguration().getSmsDedup();
+        SMSDeduplicator deduplicator = getSMSDeduplicator(dedupSettings);
+        long[] keys = deduplicator != null ? deduplicator.getKeys(smsRequest, dedupSettings) : null;
+        if (keys == null || keys.length == 0) {
+            return executeSendSMS(smsRequest, suppressedCount);
+        }
+
+        //Duplicates of a recently sent request get its result, duplicates of a request in flight wait for it
+        while (true) {
+            SendMessageResult sentResult = deduplicator.get(keys);
+            if (sentResult != null) {
+                return sentResult;
+            }
+
+            SingleFlight.Flight flight = deduplicator.startFlight(keys);
+            if (flight != null) {
+                SendMessageResult sendMessageResult = null;
+                Throwable error = null;
+                try {
+                    sendMessageResult = executeSendSMS(smsRequest, suppressedCount);
+                    deduplicator.put(keys, sendMessageResult, dedupSettings);
+                    return sendMessageResult;
+                } catch (RuntimeException e) {
+                    error = e;
+                    throw e;
+                } catch (Error e) {
+                    error = e;
+                    throw e;
+                } finally {
+                    flight.complete(sendMessageResult, error);
+                }
+            }
+
+            flight = deduplicator.findFlight(keys);
+            if (flight != null) {
+                return flight.await(SendMessageResult.class);
+            }
+            // the original request completed in the meantime
+        }
     }
     
     /**
      * Send an SMS asynchronously over OneAPI to one or more mobile terminals using the customized 'SMSRequest' object
-     * @param smsRequest (mandatory) object containing data needed to be filled in order to send the SMS
+     * @param originalRequest (mandatory) object containing data needed to be filled in order to send the SMS
      * @param responseListener (mandatory) method to call after receiving sent SMS response
      */   
    
-	public void sendSMSAsync(SMSRequest smsRequest, final ResponseListener<SendMessageResult> responseListener) {
-        StringBuilder urlBuilder = new StringBuilder(SMS_MESSAGING_OUTBOUND_URL_BASE).append("/");
-        urlBuilder.append(encodeURLParam(smsRequest.getSenderAddress()));
-        urlBuilder.append("/requests");
- 
-        RequestData requestData = new RequestData(urlBuilder.toString(), Method.POST, null, smsRequest, URL_ENCODED_CONTENT_TYPE);        
-        executeMethodAsync(requestData, SendMessageResult.class, responseListener);
+	public void sendSMSAsync(final SMSRequest originalRequest, final ResponseListener<SendMessageResult> responseListener) {
+        final SMSRequest smsRequest = removeSuppressedRecipients(originalRequest);
+        final int suppressedCount = countSuppressedRecipients(originalRequest, smsRequest);
+        if (smsRequest != originalRequest && smsRequest.getAddress() != null && smsRequest.getAddress().length == 0) {
+            responseListener.onGotResponse(createSuppressedResult(originalRequest, suppressedCount), null);
+            return;
+        }
+
+        final SMSDedupSettings dedupSettings = getConfiguration().getSmsDedup();
+        final SMSDeduplicator deduplicator = getSMSDeduplicator(dedupSettings);
+        final long[] keys = deduplicator != null ? deduplicator.getKeys(smsRequest, dedupSettings) : null;
+        if (keys == null || keys.length == 0) {
+            executeSendSMSAsync(smsRequest, suppressedCount, responseListener);
+            return;
+        }
+
+        while (true) {
+            SendMessageResult sentResult = deduplicator.get(keys);
+            if (sentResult != null) {
+                responseListener.onGotResponse(sentResult, null);
+                return;
+            }
+
+            final SingleFlight.Flight newFlight = deduplicator.startFlight(keys);
+            if (newFlight != null) {
+                //A listener which throws is called again with its own exception, only the first response completes the flight
+                final AtomicBoolean responded = new AtomicBoolean(false);
+                try {
+                    executeSendSMSAsync(smsRequest, suppressedCount, new ResponseListener<SendMessageResult>() {
+                        @Override
+                        public void onGotResponse(SendMessageResult sendMessageResult, Throwable error) {
+                            if (!responded.compareAndSet(false, true)) {
+                                return;
+                            }
+                            if (error == null) {
+                                deduplicator.put(keys, sendMessageResult, dedupSettings);
+                            }
+                            newFlight.complete(sendMessageResult, error);
+                            responseListener.onGotResponse(sendMessageResult, error);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    if (responded.compareAndSet(false, true)) {
+                        newFlight.complete(null, e);
+                    }
+                    throw e;
+                }
+                return;
+            }
+
+            SingleFlight.Flight flight = deduplicator.findFlight(keys);
+            if (flight != null) {
+                flight.addListener(responseListener);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get the number of duplicate SMS requests which got the result of the original request instead of being sent (see 'smsDedup' configuration)
+     * @return long
+     */
+    @Override
+    public long getSuppressedDuplicateCount() {
+        SMSDeduplicator deduplicator = smsDeduplicator;
+        return deduplicator != null ? deduplicator.getSuppressedCount() : 0;
+    }
+
+    /**
+     * Load the new version of the suppression list files (see 'suppressionList' configuration), requests being sent
+     * keep using the previous version and the following requests use the new one
+     */
+    @Override
+    public void reloadSuppressionList() {
+        SuppressionListSettings settings = getConfiguration().getSuppressionList();
+        if (settings == null) {
+            throw new ConfigurationException("Suppression list is not configured.");
+        }
+
+        SuppressionList reloaded = loadSuppressionList(settings);
+        synchronized (this) {
+            suppressionList = reloaded;
+        }
+    }
+
+    /**
+     * Get the number of recipients removed from sent requests because they are on the suppression list (see 'suppressionList' configuration)
+     * @return long
+     */
+    @Override
+    public long getSuppressedRecipientCount() {
+        return suppressedRecipientCount.get();
+    }
+
+    /**
+     * Send a campaign to the recipients streamed from a CSV file with a header line or a newline delimited JSON file
+     * ('.ndjson', '.jsonl' or '.json'), the call returns when all requests are completed. Recipients of a batch with the
+     * same rendered message are sent in one request, an interrupted campaign resumes from its checkpoint file.
+     * @param recipientFile (mandatory) file with the 'address' of every recipient and the values of the template variables
+     * @param template (mandatory) message template
+     * @param senderAddress (mandatory) address to whom a responding SMS may be sent
+     * @param settings (mandatory) batch, parallelism, rate and checkpoint settings
+     * @param listener (optional) receives send results in completion order and progress reports
+     * @return CampaignSummary
+     */
+    @Override
+    public CampaignSummary sendCampaign(File recipientFile, SMSTemplate template, String senderAddress, CampaignSettings settings, CampaignListener listener) {
+        SMSCampaign.RecipientReader recipients = null;
+        try {
+            SMSBatchSettings batchSettings = getConfiguration().getSmsBatch();
+            int maxRecipients = batchSettings != null ? batchSettings.getMaxRecipients() : new SMSBatchSettings().getMaxRecipients();
+            recipients = SMSCampaign.RecipientReader.open(recipientFile, template);
+            return new SMSCampaign(this, template, senderAddress, settings, maxRecipients, listener).run(recipients);
+        } catch (IOException e) {
+            throw new RequestException("Recipient file '" + recipientFile + "' could not be opened.", e);
+        } finally {
+            try {
+                if (recipients != null) {
+                    recipients.close();
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Recipient file '" + recipientFile + "' could not be closed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Send many SMS requests merging the ones with the same sender address, sender name, message, notify url and callback data
+     * into multi-recipient requests (see 'smsBatch' configuration)
+     * @param smsRequests (mandatory) requests to send, requests with a client correlator are sent as they are
+     * @return SMSBatchResult result or error of every request
+     */
+    @Override
+    public SMSBatchResult sendSMSBatch(Collection<SMSRequest> smsRequests) {
+        SMSBatchSettings settings = getConfiguration().getSmsBatch();
+        int maxRecipients = settings != null ? settings.getMaxRecipients() : new SMSBatchSettings().getMaxRecipients();
+        List<SMSCoalescer.Chunk> chunks = SMSCoalescer.coalesce(smsRequests, maxRecipients);
+
+        Map<SMSRequest, SendMessageResult> results = new LinkedHashMap<SMSRequest, SendMessageResult>();
+        Map<SMSRequest, Throwable> errors = new LinkedHashMap<SMSRequest, Throwable>();
+        for (SMSCoalescer.Chunk chunk : chunks) {
+            try {
+                SendMessageResult chunkResult = sendSMS(chunk.toRequest());
+                for (Map.Entry<SMSRequest, List<SendMessageResultItem>> distributed : chunk.distribute(chunkResult).entrySet()) {
+                    SMSRequest smsRequest = distributed.getKey();
+                    results.put(smsRequest, SMSCoalescer.appendResult(results.get(smsRequest), chunkResult, distributed.getValue()));
+                }
+            } catch (RequestException e) {
+                for (SMSRequest smsRequest : chunk.getRequests()) {
+                    if (!errors.containsKey(smsRequest)) {
+                        errors.put(smsRequest, e);
+                    }
+                }
+            }
+        }
+
+        //Keep the batch order
+        Map<SMSRequest, SendMessageResult> orderedResults = new LinkedHashMap<SMSRequest, SendMessageResult>();
+        Map<SMSRequest, Throwable> orderedErrors = new LinkedHashMap<SMSRequest, Throwable>();
+        for (SMSRequest smsRequest : smsRequests) {
+            if (results.containsKey(smsRequest)) {
+                //The parts of a split request are sent with their own correlators
+                SendMessageResult result = results.get(smsRequest);
+                if (smsRequest.getClientCorrelator() != null) {
+                    result.setClientCorrelator(smsRequest.getClientCorrelator());
+                }
+                orderedResults.put(smsRequest, result);
+            }
+            if (errors.containsKey(smsRequest)) {
+                orderedErrors.put(smsRequest, errors.get(smsRequest));
+            }
+        }
+        return new SMSBatchResult(orderedResults, orderedErrors, chunks.size());
+    }
+
+    /**
+     * Send the SMS to a stream of recipient addresses in any format accepted by AddressNormalizer.toE164(). Addresses are
+     * normalized to E.164 numbers and deduplicated while they are read, and sent in multi-recipient requests of at most
+     * 'maxRecipients' numbers (see 'smsBatch' configuration), so the recipient list is never held in memory as strings
+     * @param smsRequest (mandatory) sender, message and notification data of the SMS, its recipient addresses are ignored
+     * @param addresses (mandatory) recipient addresses, e.g. lines of a file
+     * @param sentAddresses (optional) numbers already sent to, they are skipped and the numbers of the requests sent without
+     * error are added, pass the same set to several calls to skip numbers across them. Numbers are always deduplicated within the call
+     * @return SMSBatchResult result or error of every sent request and the number of invalid and duplicate addresses
+     */
+    @Override
+    public SMSBatchResult sendSMSToRecipients(SMSRequest smsRequest, Iterator<? extends CharSequence> addresses, AddressSet sentAddresses) {
+        SMSBatchSettings settings = getConfiguration().getSmsBatch();
+        int maxRecipients = settings != null ? settings.getMaxRecipients() : new SMSBatchSettings().getMaxRecipients();
+        //Numbers are added to sentAddresses only once their request is sent, a failed chunk can be sent again by a later call
+        AddressSet seen = new AddressSet();
+
+        Map<SMSRequest, SendMessageResult> results = new LinkedHashMap<SMSRequest, SendMessageResult>();
+        Map<SMSRequest, Throwable> errors = new LinkedHashMap<SMSRequest, Throwable>();
+        long[] numbers = new long[maxRecipients];
+        int count = 0;
+        long invalidCount = 0;
+        long duplicateCount = 0;
+        while (addresses.hasNext()) {
+            long number = AddressNormalizer.toE164(addresses.next());
+            if (number < 0) {
+                invalidCount++;
+            } else if ((sentAddresses != null && sentAddresses.contains(number)) || !seen.add(number)) {
+                duplicateCount++;
+            } else {
+                numbers[count++] = number;
+            }
+
+            if (count == maxRecipients || (count > 0 && !addresses.hasNext())) {
+                String[] recipients = new String[count];
+                for (int i = 0; i < count; i++) {
+                    recipients[i] = Long.toString(numbers[i]);
+                }
+
+                SMSRequest chunk = new SMSRequest(smsRequest.getSenderAddress(), smsRequest.getMessage(), null, smsRequest.getNotifyURL(),
+                        smsRequest.getSenderName(), smsRequest.getCallbackData(), recipients);
+                try {
+                    results.put(chunk, sendSMS(chunk));
+                    if (sentAddresses != null) {
+                        for (int i = 0; i < count; i++) {
+                            sentAddresses.add(numbers[i]);
+                        }
+                    }
+                } catch (RequestException e) {
+                    errors.put(chunk, e);
+                }
+                count = 0;
+            }
+        }
+        return new SMSBatchResult(results, errors, results.size() + errors.size(), invalidCount, duplicateCount);
     }
 
     /**
@@ -95,6 +392,7 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
         urlBuilder.append("/deliveryInfos");
 
         RequestData requestData = new RequestData(urlBuilder.toString(), Method.GET, "deliveryInfoList");
+        requestData.setIdempotent(true);
         return executeMethod(requestData, DeliveryInfoList.class);
     }
     
@@ -112,6 +410,7 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
         urlBuilder.append("/deliveryInfos");
 
         RequestData requestData = new RequestData(urlBuilder.toString(), Method.GET, "deliveryInfoList");
+        requestData.setIdempotent(true);
         executeMethodAsync(requestData, DeliveryInfoList.class, responseListener);
     }
 
@@ -141,6 +440,7 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
 
         RequestData requestData = new RequestData(urlBuilder.toString(), Method.POST, "deliveryReceiptSubscription", subscribeToDeliveryNotificationsRequest, URL_ENCODED_CONTENT_TYPE);
         DeliveryReceiptSubscription deliveryReceiptSubscription = executeMethod(requestData, DeliveryReceiptSubscription.class);
+        invalidateResponseCache(ResponseCacheSettings.DELIVERY_NOTIFICATIONS_SUBSCRIPTIONS);
         return getIdFromResourceUrl(deliveryReceiptSubscription.getResourceURL()); 
     }
     
@@ -156,6 +456,8 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
         urlBuilder.append("/subscriptions");
 
         RequestData requestData = new RequestData(urlBuilder.toString(), Method.GET, "deliveryReceiptSubscriptions");
+        requestData.setIdempotent(true);
+        requestData.setCacheRegion(ResponseCacheSettings.DELIVERY_NOTIFICATIONS_SUBSCRIPTIONS);
         return executeMethod(requestData, DeliveryReportSubscription[].class);
     }
 
@@ -170,6 +472,8 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
         urlBuilder.append(encodeURLParam(subscriptionId));
 
         RequestData requestData = new RequestData(urlBuilder.toString(), Method.GET, "deliveryReceiptSubscription");
+        requestData.setIdempotent(true);
+        requestData.setCacheRegion(ResponseCacheSettings.DELIVERY_NOTIFICATIONS_SUBSCRIPTIONS);
         return executeMethod(requestData, DeliveryReportSubscription.class);
     }
 
@@ -180,6 +484,8 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
     @Override
     public DeliveryReportSubscription[] getDeliveryNotificationsSubscriptions() {
     	RequestData requestData = new RequestData(SMS_MESSAGING_OUTBOUND_URL_BASE + "/subscriptions", Method.GET, "deliveryReceiptSubscriptions");
+    	requestData.setIdempotent(true);
+    	requestData.setCacheRegion(ResponseCacheSettings.DELIVERY_NOTIFICATIONS_SUBSCRIPTIONS);
         return executeMethod(requestData, DeliveryReportSubscription[].class);
     }
 
@@ -194,6 +500,7 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
 
         RequestData requestData = new RequestData(urlBuilder.toString(), Method.DELETE);
         executeMethod(requestData);
+        invalidateResponseCache(ResponseCacheSettings.DELIVERY_NOTIFICATIONS_SUBSCRIPTIONS);
     }
 
     /**
@@ -265,6 +572,7 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
     public String subscribeToInboundMessagesNotifications(SubscribeToInboundMessagesRequest subscribeToInboundMessagesRequest) {
     	RequestData requestData = new RequestData(SMS_MESSAGING_INBOUND_URL_BASE + "/subscriptions", Method.POST, "resourceReference", subscribeToInboundMessagesRequest, URL_ENCODED_CONTENT_TYPE);
     	ResourceReference resourceReference = executeMethod(requestData, ResourceReference.class);
+    	invalidateResponseCache(ResponseCacheSettings.INBOUND_MESSAGES_NOTIFICATIONS_SUBSCRIPTIONS);
         return getIdFromResourceUrl(resourceReference.getResourceURL()); 
     }
     
@@ -281,6 +589,8 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
     	urlBuilder.append(encodeURLParam(String.valueOf(pageSize)));
 
     	RequestData requestData = new RequestData(urlBuilder.toString(), Method.GET, "subscriptions");
+    	requestData.setIdempotent(true);
+    	requestData.setCacheRegion(ResponseCacheSettings.INBOUND_MESSAGES_NOTIFICATIONS_SUBSCRIPTIONS);
     	return executeMethod(requestData, MoSubscription[].class);	
     }
     
@@ -304,6 +614,7 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
 
         RequestData requestData = new RequestData(urlBuilder.toString(), Method.DELETE);
         executeMethod(requestData); 
+        invalidateResponseCache(ResponseCacheSettings.INBOUND_MESSAGES_NOTIFICATIONS_SUBSCRIPTIONS);
     }
     
     /**
@@ -314,6 +625,8 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
     	StringBuilder urlBuilder = new StringBuilder(SMS_MESSAGING_INBOUND_URL_BASE).append("/numberTypes");
     
     	RequestData requestData = new RequestData(urlBuilder.toString(), Method.GET, "moNoTypes");
+    	requestData.setIdempotent(true);
+    	requestData.setCacheRegion(ResponseCacheSettings.MO_NUMBER_TYPES);
     	return executeMethod(requestData, MoNumberType[].class);	
     }
   
@@ -569,6 +882,156 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
     }
     
     //*************************SMSMessagingClientImpl private******************************************************************************************************************************************************
+    /**
+     * Set tracker charged for sent messages
+     * @param accountBalanceTracker
+     */
+    void setAccountBalanceTracker(AccountBalanceTracker accountBalanceTracker) {
+        this.accountBalanceTracker = accountBalanceTracker;
+    }
+
+    /**
+     * Send the SMS without duplicate send suppression
+     * @param smsRequest
+     * @param suppressedCount number of recipients removed from the request by the suppression list
+     * @return SendMessageResult
+     */
+    private SendMessageResult executeSendSMS(SMSRequest smsRequest, int suppressedCount) {
+        StringBuilder urlBuilder = new StringBuilder(SMS_MESSAGING_OUTBOUND_URL_BASE).append("/");
+        urlBuilder.append(encodeURLParam(smsRequest.getSenderAddress()));
+        urlBuilder.append("/requests");
+        
+        RequestData requestData = new RequestData(urlBuilder.toString(), Method.POST, null, smsRequest, URL_ENCODED_CONTENT_TYPE);
+        SendMessageResult sendMessageResult = executeMethod(requestData, SendMessageResult.class);
+        if (sendMessageResult != null) {
+            sendMessageResult.setSuppressedCount(suppressedCount);
+        }
+        recordSentMessages(smsRequest, sendMessageResult);
+        return sendMessageResult;
+    }
+
+    /**
+     * Send the SMS asynchronously without duplicate send suppression
+     * @param smsRequest
+     * @param suppressedCount number of recipients removed from the request by the suppression list
+     * @param responseListener
+     */
+    private void executeSendSMSAsync(final SMSRequest smsRequest, final int suppressedCount, final ResponseListener<SendMessageResult> responseListener) {
+        StringBuilder urlBuilder = new StringBuilder(SMS_MESSAGING_OUTBOUND_URL_BASE).append("/");
+        urlBuilder.append(encodeURLParam(smsRequest.getSenderAddress()));
+        urlBuilder.append("/requests");
+ 
+        RequestData requestData = new RequestData(urlBuilder.toString(), Method.POST, null, smsRequest, URL_ENCODED_CONTENT_TYPE);        
+        executeMethodAsync(requestData, SendMessageResult.class, new ResponseListener<SendMessageResult>() {
+            @Override
+            public void onGotResponse(SendMessageResult sendMessageResult, Throwable error) {
+                if (error == null) {
+                    if (sendMessageResult != null) {
+                        sendMessageResult.setSuppressedCount(suppressedCount);
+                    }
+                    recordSentMessages(smsRequest, sendMessageResult);
+                }
+                responseListener.onGotResponse(sendMessageResult, error);
+            }
+        });
+    }
+
+    /**
+     * Duplicate send suppression is created on first use once it is configured
+     * @param dedupSettings
+     * @return SMSDeduplicator or null if duplicate send suppression is not configured
+     */
+    private SMSDeduplicator getSMSDeduplicator(SMSDedupSettings dedupSettings) {
+        if (dedupSettings == null) {
+            return null;
+        }
+
+        if (smsDeduplicator == null) {
+            synchronized (this) {
+                if (smsDeduplicator == null) {
+                    smsDeduplicator = new SMSDeduplicator(dedupSettings.getMaxEntries());
+                }
+            }
+        }
+        return smsDeduplicator;
+    }
+
+    /**
+     * Remove the recipients on the suppression list, the suppression list is loaded on first use once it is configured
+     * @param smsRequest
+     * @return the same request if no recipient is suppressed, otherwise a copy of the request without the suppressed recipients
+     */
+    private SMSRequest removeSuppressedRecipients(SMSRequest smsRequest) {
+        SuppressionListSettings settings = getConfiguration().getSuppressionList();
+        if (settings == null || smsRequest.getAddress() == null) {
+            return smsRequest;
+        }
+
+        SuppressionList suppression = suppressionList;
+        if (suppression == null) {
+            synchronized (this) {
+                if (suppressionList == null) {
+                    suppressionList = loadSuppressionList(settings);
+                }
+                suppression = suppressionList;
+            }
+        }
+
+        String[] addresses = suppression.filter(smsRequest.getAddress());
+        if (addresses == smsRequest.getAddress()) {
+            return smsRequest;
+        }
+        suppressedRecipientCount.addAndGet(smsRequest.getAddress().length - addresses.length);
+        return new SMSRequest(smsRequest.getSenderAddress(), smsRequest.getMessage(), smsRequest.getClientCorrelator(), smsRequest.getNotifyURL(),
+                smsRequest.getSenderName(), smsRequest.getCallbackData(), addresses);
+    }
+
+    private static int countSuppressedRecipients(SMSRequest originalRequest, SMSRequest smsRequest) {
+        return originalRequest == smsRequest ? 0 : originalRequest.getAddress().length - smsRequest.getAddress().length;
+    }
+
+    /**
+     * Result of a request whose recipients are all suppressed, it is not sent and has no resource reference
+     * @param smsRequest
+     * @param suppressedCount
+     * @return SendMessageResult
+     */
+    private static SendMessageResult createSuppressedResult(SMSRequest smsRequest, int suppressedCount) {
+        SendMessageResult sendMessageResult = new SendMessageResult();
+        sendMessageResult.setClientCorrelator(smsRequest.getClientCorrelator());
+        sendMessageResult.setSendMessageResults(new SendMessageResultItem[0]);
+        sendMessageResult.setSuppressedCount(suppressedCount);
+        return sendMessageResult;
+    }
+
+    private SuppressionList loadSuppressionList(SuppressionListSettings settings) {
+        try {
+            SuppressionList loaded = SuppressionList.load(settings);
+            LOGGER.info("Suppression list is loaded: " + loaded);
+            return loaded;
+        } catch (IOException e) {
+            throw new ConfigurationException("Suppression list files can't be loaded.", e);
+        }
+    }
+
+    /**
+     * Charge the account balance tracker for the messages accepted by the server, one per recipient
+     * @param smsRequest
+     * @param sendMessageResult
+     */
+    private void recordSentMessages(SMSRequest smsRequest, SendMessageResult sendMessageResult) {
+        AccountBalanceTracker tracker = accountBalanceTracker;
+        if (tracker == null) {
+            return;
+        }
+
+        if (sendMessageResult != null && sendMessageResult.getSendMessageResults() != null && sendMessageResult.getSendMessageResults().length > 0) {
+            tracker.recordSentMessages(sendMessageResult.getSendMessageResults().length);
+        } else if (smsRequest.getAddress() != null) {
+            tracker.recordSentMessages(smsRequest.getAddress().length);
+        }
+    }
+
     /**
      * START DLR Retriever
      */
@@ -579,7 +1042,7 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
 
         this.deliveryReportRetriever = new DeliveryReportRetriever();
         int intervalMs = getConfiguration().getDlrRetrievingInterval();
-        this.deliveryReportRetriever.start(intervalMs, this);
+        this.deliveryReportRetriever.start(intervalMs, this, getSharedScheduler());
     }
 
     /**
@@ -604,7 +1067,7 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
 
         this.inboundMessageRetriever = new InboundMessageRetriever();
         int intervalMs = getConfiguration().getInboundMessagesRetrievingInterval();
-        this.inboundMessageRetriever.start(intervalMs, this);
+        this.inboundMessageRetriever.start(intervalMs, this, getSharedScheduler());
     }
 
     /**
@@ -619,7 +1082,44 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
         inboundMessageRetriever = null;
     }
     
-    private void StartDlrStatusPushServerSimulator()
+    private void watchConfiguration() {
+        getConfigurationProvider().addListener(new ConfigurationListener() {
+            @Override
+            public void onConfigurationChanged(Configuration previous, Configuration current) {
+                applyConfiguration(previous, current);
+            }
+        });
+    }
+
+    /**
+     * Apply changed intervals and ports to the running retrievers and push servers, their schedulers keep running
+     */
+    private synchronized void applyConfiguration(Configuration previous, Configuration current) {
+        DeliveryReportRetriever dlrRetriever = deliveryReportRetriever;
+        if (dlrRetriever != null) {
+            dlrRetriever.setInterval(current.getDlrRetrievingInterval());
+        }
+        InboundMessageRetriever inboundRetriever = inboundMessageRetriever;
+        if (inboundRetriever != null) {
+            inboundRetriever.setInterval(current.getInboundMessagesRetrievingInterval());
+        }
+        // a changed suppression list is loaded on the next send, every snapshot has its own copy of the settings
+        SuppressionListSettings suppressionListSettings = current.getSuppressionList();
+        if (suppressionListSettings == null ? previous.getSuppressionList() != null : !suppressionListSettings.equals(previous.getSuppressionList())) {
+            suppressionList = null;
+        }
+
+        if (dlrStatusPushServerSimulator != null && previous.getDlrStatusPushServerSimulatorPort() != current.getDlrStatusPushServerSimulatorPort()) {
+            stopDlrStatusPushServerSimulator();
+            StartDlrStatusPushServerSimulator();
+        }
+        if (inboundMessagesPushServerSimulator != null && previous.getInboundMessagesPushServerSimulatorPort() != current.getInboundMessagesPushServerSimulatorPort()) {
+            stopInboundMessagesPushServerSimulator();
+            startInboundMessagesPushServerSimulator();
+        }
+    }
+
+    private synchronized void StartDlrStatusPushServerSimulator()
     {
         if (dlrStatusPushServerSimulator == null)
         {
@@ -628,15 +1128,16 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
         } 
     }
 
-    private void stopDlrStatusPushServerSimulator()
+    private synchronized void stopDlrStatusPushServerSimulator()
     {
         if (dlrStatusPushServerSimulator != null)
         {               
             dlrStatusPushServerSimulator.stop(); 
+            dlrStatusPushServerSimulator = null;
         }
     }
 
-    private void startInboundMessagesPushServerSimulator()
+    private synchronized void startInboundMessagesPushServerSimulator()
     {
         if (inboundMessagesPushServerSimulator == null)
         {
@@ -645,11 +1146,12 @@ public class SMSMessagingClientImpl extends OneAPIBaseClientImpl implements SMSM
         } 
     }
 
-    private void stopInboundMessagesPushServerSimulator()
+    private synchronized void stopInboundMessagesPushServerSimulator()
     {
         if (inboundMessagesPushServerSimulator != null)
         {
             inboundMessagesPushServerSimulator.stop();   
+            inboundMessagesPushServerSimulator = null;
         }
     }
 }
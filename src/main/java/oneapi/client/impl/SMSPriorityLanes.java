@@ -0,0 +1,455 @@
+package oneapi.client.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import oneapi.client.SMSMessagingClient;
+import oneapi.config.SMSBatchSettings;
+import oneapi.config.SMSLaneSettings;
+import oneapi.config.SMSPriorityLanesSettings;
+import oneapi.exception.ConfigurationException;
+import oneapi.exception.RequestException;
+import oneapi.listener.ResponseListener;
+import oneapi.model.SMSLaneStatistics;
+import oneapi.model.SMSRequest;
+import oneapi.model.SendMessageResult;
+import oneapi.model.SendMessageResultItem;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Named priority lanes in front of SMSMessagingClient.sendSMSAsync(). Every lane has its own bounded queue, a dispatcher
+ * thread takes the requests from the lanes onto the shared in-flight slots and send rate.
+ * <p>
+ * Lanes share the budget by start-time fair queuing: a request is tagged with the virtual time at which its lane may
+ * send it, its recipients divided by the lane weight, and the request with the lowest tag is sent first. A lane with
+ * weight 100 therefore sends 100 recipients for every recipient of a lane with weight 1 while both have queued requests,
+ * and an idle lane doesn't save up credit. A request which waited longer than its lane's 'maxDelay' is sent before all
+ * tagged requests, earliest deadline first.
+ * <p>
+ * A request with more than 'maxRecipients' recipients is queued as several requests, so a large bulk request takes the
+ * send rate one part at a time and the other lanes are sent between its parts. Its listener gets the merged result once
+ * all parts are sent, or the error of the first failed part. Parts of a request with a client correlator are sent with
+ * the correlator followed by the part number, so they aren't taken for duplicates of each other.
+ */
+public class SMSPriorityLanes {
+	private static final Logger LOGGER = LoggerFactory.getLogger(SMSPriorityLanes.class);
+
+	private final SMSMessagingClient smsMessagingClient;
+	private final Map<String, Lane> lanes = new LinkedHashMap<String, Lane>();
+	private final int maxInFlight;
+	private final int maxRecipients;
+	private final long sendInterval;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition changed = lock.newCondition();
+	private final Thread dispatcher;
+
+	// guarded by lock
+	private int inFlight = 0;
+	private int queuedCount = 0;
+	private double virtualTime = 0;
+	private long nextSendTime = System.nanoTime();
+	private boolean closed = false;
+
+	/**
+	 * Initialize the lanes and start the dispatcher, requests are split by the default SMSBatchSettings 'maxRecipients'
+	 * @param smsMessagingClient - client the queued requests are sent with
+	 * @param settings - lanes, in-flight slots and send rate, null = default SMSPriorityLanesSettings
+	 */
+	public SMSPriorityLanes(SMSMessagingClient smsMessagingClient, SMSPriorityLanesSettings settings) {
+		this(smsMessagingClient, settings, new SMSBatchSettings().getMaxRecipients());
+	}
+
+	/**
+	 * Initialize the lanes and start the dispatcher
+	 * @param smsMessagingClient - client the queued requests are sent with
+	 * @param settings - lanes, in-flight slots and send rate, null = default SMSPriorityLanesSettings
+	 * @param maxRecipients - maximum number of recipients of a queued request, larger requests are split
+	 */
+	public SMSPriorityLanes(SMSMessagingClient smsMessagingClient, SMSPriorityLanesSettings settings, int maxRecipients) {
+		SMSPriorityLanesSettings lanesSettings = settings != null ? settings : new SMSPriorityLanesSettings();
+		if (lanesSettings.getLanes() == null || lanesSettings.getLanes().isEmpty()) {
+			throw new ConfigurationException("SMS priority lanes are not configured.");
+		}
+
+		this.smsMessagingClient = smsMessagingClient;
+		this.maxInFlight = Math.max(1, lanesSettings.getMaxInFlight());
+		this.maxRecipients = Math.max(1, maxRecipients);
+		this.sendInterval = lanesSettings.getMessagesPerSecond() > 0 ? TimeUnit.SECONDS.toNanos(1) / lanesSettings.getMessagesPerSecond() : 0;
+		for (Map.Entry<String, SMSLaneSettings> lane : lanesSettings.getLanes().entrySet()) {
+			lanes.put(lane.getKey(), new Lane(lane.getKey(), lane.getValue()));
+		}
+
+		dispatcher = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				dispatch();
+			}
+		}, "oneapi-sms-priority-lanes");
+		dispatcher.setDaemon(true);
+		dispatcher.start();
+	}
+
+	/**
+	 * Queue the SMS in the lane
+	 * @param lane (mandatory) name of the lane, e.g. 'otp', 'transactional' or 'bulk'
+	 * @param smsRequest (mandatory) object containing data needed to be filled in order to send the SMS
+	 * @param responseListener (mandatory) method to call after receiving sent SMS response
+	 */
+	public void send(String lane, SMSRequest smsRequest, ResponseListener<SendMessageResult> responseListener) {
+		Lane queue = lanes.get(lane);
+		if (queue == null) {
+			throw new RequestException("SMS priority lane '" + lane + "' is not configured.");
+		}
+
+		List<SMSCoalescer.Chunk> chunks = SMSCoalescer.coalesce(Collections.singletonList(smsRequest), maxRecipients);
+		ResponseListener<SendMessageResult> listener = chunks.size() > 1 ? new SplitResponse(chunks.size(), smsRequest.getClientCorrelator(), responseListener) : responseListener;
+
+		lock.lock();
+		try {
+			if (closed) {
+				throw new RequestException("SMS priority lanes are closed.");
+			}
+			// a split request is accepted as a whole, an empty lane accepts it even if it has more parts than the capacity
+			if (!queue.requests.isEmpty() && queue.requests.size() + chunks.size() > queue.capacity) {
+				queue.rejectedCount++;
+				throw new RequestException("SMS priority lane '" + lane + "' is full.");
+			}
+
+			long now = System.nanoTime();
+			for (SMSCoalescer.Chunk chunk : chunks) {
+				// a lane which was idle starts at the current virtual time, it doesn't get credit for the time it was idle
+				double startTag = Math.max(virtualTime, queue.lastFinishTag);
+				QueuedSMS queuedSMS = new QueuedSMS(queue, chunk.toRequest(), listener, now, startTag);
+				queue.lastFinishTag = startTag + (double) queuedSMS.recipients / queue.weight;
+				queue.requests.add(queuedSMS);
+				queue.acceptedCount++;
+				queuedCount++;
+			}
+			changed.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Queue the SMS in the lane
+	 * @param lane (mandatory) name of the lane, e.g. 'otp', 'transactional' or 'bulk'
+	 * @param smsRequest (mandatory) object containing data needed to be filled in order to send the SMS
+	 * @return Future<SendMessageResult> completed with the send response
+	 */
+	public Future<SendMessageResult> send(String lane, SMSRequest smsRequest) {
+		SMSSendQueue.SendFuture future = new SMSSendQueue.SendFuture();
+		send(lane, smsRequest, future);
+		return future;
+	}
+
+	/**
+	 * Get queue depth and latency statistics of the lane
+	 * @param lane
+	 * @return SMSLaneStatistics or null if the lane is not configured
+	 */
+	public SMSLaneStatistics getStatistics(String lane) {
+		Lane queue = lanes.get(lane);
+		if (queue == null) {
+			return null;
+		}
+
+		lock.lock();
+		try {
+			return queue.getStatistics();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Get statistics of all lanes
+	 * @return List<SMSLaneStatistics> in the configured order of the lanes
+	 */
+	public List<SMSLaneStatistics> getStatistics() {
+		lock.lock();
+		try {
+			List<SMSLaneStatistics> statistics = new ArrayList<SMSLaneStatistics>(lanes.size());
+			for (Lane lane : lanes.values()) {
+				statistics.add(lane.getStatistics());
+			}
+			return statistics;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Stop the dispatcher: new requests are rejected and the queued requests fail with a RequestException, requests
+	 * already passed to the client complete normally
+	 */
+	public void close() {
+		lock.lock();
+		try {
+			closed = true;
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		if (Thread.currentThread() != dispatcher) {
+			try {
+				dispatcher.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		List<QueuedSMS> unsent = new ArrayList<QueuedSMS>();
+		lock.lock();
+		try {
+			for (Lane lane : lanes.values()) {
+				lane.failedCount += lane.requests.size();
+				unsent.addAll(lane.requests);
+				lane.requests.clear();
+			}
+			queuedCount = 0;
+		} finally {
+			lock.unlock();
+		}
+		for (QueuedSMS queuedSMS : unsent) {
+			try {
+				queuedSMS.responseListener.onGotResponse(null, new RequestException("SMS priority lanes are closed."));
+			} catch (RuntimeException e) {
+				LOGGER.warn("SMS priority lane listener failed: " + e.getMessage());
+			}
+		}
+	}
+
+	//*************************SMSPriorityLanes private***********************************************************************************************************************************************
+	private void dispatch() {
+		while (true) {
+			QueuedSMS queuedSMS;
+			lock.lock();
+			try {
+				queuedSMS = next();
+				if (queuedSMS == null) {
+					return;
+				}
+			} catch (InterruptedException e) {
+				return;
+			} finally {
+				lock.unlock();
+			}
+
+			send(queuedSMS);
+		}
+	}
+
+	/**
+	 * Wait for a queued request, a free slot and the send rate, then take the request to send next
+	 * @return QueuedSMS or null when the lanes are closed
+	 */
+	private QueuedSMS next() throws InterruptedException {
+		while (true) {
+			if (closed) {
+				return null;
+			}
+			if (queuedCount == 0) {
+				changed.await();
+				continue;
+			}
+			if (inFlight >= maxInFlight) {
+				changed.await();
+				continue;
+			}
+			// the request is chosen when the rate allows sending, so a request queued meanwhile may still go first
+			long wait = nextSendTime - System.nanoTime();
+			if (sendInterval > 0 && wait > 0) {
+				changed.awaitNanos(wait);
+				continue;
+			}
+
+			Lane lane = selectLane(System.nanoTime());
+			QueuedSMS queuedSMS = lane.requests.poll();
+			queuedCount--;
+			inFlight++;
+			virtualTime = Math.max(virtualTime, queuedSMS.startTag);
+
+			long now = System.nanoTime();
+			long queueTime = TimeUnit.NANOSECONDS.toMillis(now - queuedSMS.queuedAt);
+			lane.dispatchedCount++;
+			lane.totalQueueTime += queueTime;
+			lane.maxQueueTime = Math.max(lane.maxQueueTime, queueTime);
+			if (sendInterval > 0) {
+				nextSendTime = Math.max(nextSendTime, now - sendInterval) + queuedSMS.recipients * sendInterval;
+			}
+			return queuedSMS;
+		}
+	}
+
+	/**
+	 * Lane with the earliest overdue request, otherwise the lane whose first request has the lowest start tag
+	 */
+	private Lane selectLane(long now) {
+		Lane overdue = null;
+		Lane fair = null;
+		for (Lane lane : lanes.values()) {
+			QueuedSMS head = lane.requests.peek();
+			if (head == null) {
+				continue;
+			}
+			if (lane.maxDelay > 0 && now - head.deadline >= 0 && (overdue == null || head.deadline - overdue.requests.peek().deadline < 0)) {
+				overdue = lane;
+			}
+			if (fair == null || head.startTag < fair.requests.peek().startTag) {
+				fair = lane;
+			}
+		}
+		return overdue != null ? overdue : fair;
+	}
+
+	private void send(final QueuedSMS queuedSMS) {
+		ResponseListener<SendMessageResult> listener = new ResponseListener<SendMessageResult>() {
+			@Override
+			public void onGotResponse(SendMessageResult result, Throwable error) {
+				completed(queuedSMS, error == null);
+				try {
+					queuedSMS.responseListener.onGotResponse(result, error);
+				} catch (RuntimeException e) {
+					LOGGER.warn("SMS priority lane listener failed: " + e.getMessage());
+				}
+			}
+		};
+
+		try {
+			smsMessagingClient.sendSMSAsync(queuedSMS.smsRequest, listener);
+		} catch (RuntimeException e) {
+			listener.onGotResponse(null, e);
+		}
+	}
+
+	private void completed(QueuedSMS queuedSMS, boolean sent) {
+		long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedSMS.queuedAt);
+		Lane lane = queuedSMS.lane;
+		lock.lock();
+		try {
+			inFlight--;
+			if (sent) {
+				lane.sentCount++;
+			} else {
+				lane.failedCount++;
+			}
+			lane.totalLatency += latency;
+			lane.maxLatency = Math.max(lane.maxLatency, latency);
+			changed.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Merges the results of the parts of a split request and calls the listener once all parts are completed
+	 */
+	private static final class SplitResponse implements ResponseListener<SendMessageResult> {
+		private final String clientCorrelator;
+		private final ResponseListener<SendMessageResult> responseListener;
+		private int remaining;
+		private SendMessageResult result = null;
+		private Throwable error = null;
+
+		private SplitResponse(int parts, String clientCorrelator, ResponseListener<SendMessageResult> responseListener) {
+			this.remaining = parts;
+			this.clientCorrelator = clientCorrelator;
+			this.responseListener = responseListener;
+		}
+
+		@Override
+		public void onGotResponse(SendMessageResult partResult, Throwable partError) {
+			synchronized (this) {
+				if (partError != null) {
+					if (error == null) {
+						error = partError;
+					}
+				} else {
+					SendMessageResultItem[] items = partResult != null ? partResult.getSendMessageResults() : null;
+					result = SMSCoalescer.appendResult(result, partResult,
+							items != null ? Arrays.asList(items) : Collections.<SendMessageResultItem> emptyList());
+				}
+				if (--remaining > 0) {
+					return;
+				}
+			}
+			if (error != null) {
+				responseListener.onGotResponse(null, error);
+			} else {
+				// the parts are sent with their own correlators, the caller gets the correlator of its request
+				if (clientCorrelator != null) {
+					result.setClientCorrelator(clientCorrelator);
+				}
+				responseListener.onGotResponse(result, null);
+			}
+		}
+	}
+
+	/**
+	 * Queue of one lane and its statistics, guarded by the lock
+	 */
+	private static final class Lane {
+		private final String name;
+		private final int weight;
+		private final int capacity;
+		private final long maxDelay;
+		private final ArrayDeque<QueuedSMS> requests = new ArrayDeque<QueuedSMS>();
+		private double lastFinishTag = 0;
+		private long acceptedCount = 0;
+		private long rejectedCount = 0;
+		private long dispatchedCount = 0;
+		private long sentCount = 0;
+		private long failedCount = 0;
+		private long totalQueueTime = 0;
+		private long maxQueueTime = 0;
+		private long totalLatency = 0;
+		private long maxLatency = 0;
+
+		private Lane(String name, SMSLaneSettings settings) {
+			this.name = name;
+			this.weight = Math.max(1, settings.getWeight());
+			this.capacity = Math.max(1, settings.getCapacity());
+			this.maxDelay = TimeUnit.MILLISECONDS.toNanos(Math.max(0, settings.getMaxDelay()));
+		}
+
+		private SMSLaneStatistics getStatistics() {
+			return new SMSLaneStatistics(name, requests.size(), acceptedCount, rejectedCount, dispatchedCount, sentCount, failedCount,
+					totalQueueTime, maxQueueTime, totalLatency, maxLatency);
+		}
+	}
+
+	/**
+	 * Queued send
+	 */
+	private static final class QueuedSMS {
+		private final Lane lane;
+		private final SMSRequest smsRequest;
+		private final ResponseListener<SendMessageResult> responseListener;
+		private final int recipients;
+		private final long queuedAt;
+		private final long deadline;
+		private final double startTag;
+
+		private QueuedSMS(Lane lane, SMSRequest smsRequest, ResponseListener<SendMessageResult> responseListener, long queuedAt, double startTag) {
+			this.lane = lane;
+			this.smsRequest = smsRequest;
+			this.responseListener = responseListener;
+			this.recipients = smsRequest.getAddress() != null ? Math.max(1, smsRequest.getAddress().length) : 1;
+			this.queuedAt = queuedAt;
+			this.deadline = queuedAt + lane.maxDelay;
+			this.startTag = startTag;
+		}
+	}
+}
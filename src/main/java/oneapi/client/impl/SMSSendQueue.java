@@ -0,0 +1,276 @@
+package oneapi.client.impl;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import oneapi.client.SMSMessagingClient;
+import oneapi.config.SMSBatchSettings;
+import oneapi.exception.RequestException;
+import oneapi.listener.ResponseListener;
+import oneapi.model.SMSRequest;
+import oneapi.model.SendMessageResult;
+import oneapi.model.SendMessageResultItem;
+
+/**
+ * Auto-batching front end of SMSMessagingClient.sendSMSAsync(). Sends are collected for a short window, or until they
+ * reach the maximum number of recipients, then the compatible ones are merged into multi-recipient requests and sent
+ * together. Every caller gets the result items of its own recipients.
+ */
+public class SMSSendQueue {
+	private final SMSMessagingClient smsMessagingClient;
+	private final int window;
+	private final int maxRecipients;
+	private final ScheduledExecutorService scheduler;
+	private final boolean ownScheduler;
+	private final Object lock = new Object();
+
+	// guarded by lock
+	private List<QueuedSMS> queued = new ArrayList<QueuedSMS>();
+	private int queuedRecipients = 0;
+	private ScheduledFuture<?> scheduledFlush = null;
+	private boolean closed = false;
+
+	/**
+	 * Initialize SMS send queue
+	 * @param smsMessagingClient - client the merged requests are sent with
+	 * @param settings - window and maximum number of recipients, null = default SMSBatchSettings
+	 */
+	public SMSSendQueue(SMSMessagingClient smsMessagingClient, SMSBatchSettings settings) {
+		SMSBatchSettings batchSettings = settings != null ? settings : new SMSBatchSettings();
+		this.smsMessagingClient = smsMessagingClient;
+		this.window = batchSettings.getWindow();
+		this.maxRecipients = Math.max(1, batchSettings.getMaxRecipients());
+
+		ScheduledExecutorService sharedScheduler = null;
+		if (smsMessagingClient instanceof OneAPIBaseClientImpl) {
+			sharedScheduler = ((OneAPIBaseClientImpl) smsMessagingClient).getSharedScheduler();
+		}
+		if (sharedScheduler != null) {
+			this.scheduler = sharedScheduler;
+			this.ownScheduler = false;
+		} else {
+			this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "oneapi-sms-send-queue");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			this.ownScheduler = true;
+		}
+	}
+
+	/**
+	 * Queue the SMS, the listener is called with the result items of the request's recipients
+	 * @param smsRequest (mandatory) object containing data needed to be filled in order to send the SMS
+	 * @param responseListener (mandatory) method to call after receiving sent SMS response
+	 */
+	public void send(SMSRequest smsRequest, ResponseListener<SendMessageResult> responseListener) {
+		List<QueuedSMS> ready = null;
+		synchronized (lock) {
+			if (closed) {
+				throw new RequestException("SMS send queue is closed.");
+			}
+
+			queued.add(new QueuedSMS(smsRequest, responseListener));
+			queuedRecipients += smsRequest.getAddress() != null ? smsRequest.getAddress().length : 0;
+			if (queuedRecipients >= maxRecipients || window <= 0) {
+				ready = takeQueued();
+			} else if (scheduledFlush == null) {
+				scheduledFlush = scheduler.schedule(new Runnable() {
+					@Override
+					public void run() {
+						flush();
+					}
+				}, window, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		if (ready != null) {
+			dispatch(ready);
+		}
+	}
+
+	/**
+	 * Queue the SMS
+	 * @param smsRequest (mandatory) object containing data needed to be filled in order to send the SMS
+	 * @return Future<SendMessageResult> completed with the result items of the request's recipients
+	 */
+	public Future<SendMessageResult> send(SMSRequest smsRequest) {
+		SendFuture future = new SendFuture();
+		send(smsRequest, future);
+		return future;
+	}
+
+	/**
+	 * Send the queued requests without waiting for the window to pass
+	 */
+	public void flush() {
+		List<QueuedSMS> ready;
+		synchronized (lock) {
+			ready = takeQueued();
+		}
+		dispatch(ready);
+	}
+
+	/**
+	 * Send the queued requests and reject new ones
+	 */
+	public void close() {
+		synchronized (lock) {
+			closed = true;
+		}
+		flush();
+		if (ownScheduler) {
+			scheduler.shutdown();
+		}
+	}
+
+	private List<QueuedSMS> takeQueued() {
+		List<QueuedSMS> ready = queued;
+		queued = new ArrayList<QueuedSMS>();
+		queuedRecipients = 0;
+		if (scheduledFlush != null) {
+			scheduledFlush.cancel(false);
+			scheduledFlush = null;
+		}
+		return ready;
+	}
+
+	private void dispatch(List<QueuedSMS> ready) {
+		if (ready.isEmpty()) {
+			return;
+		}
+
+		//The same request object may be queued more than once, every queued send is merged as its own request
+		final Map<SMSRequest, QueuedSMS> byRequest = new IdentityHashMap<SMSRequest, QueuedSMS>();
+		List<SMSRequest> smsRequests = new ArrayList<SMSRequest>(ready.size());
+		for (QueuedSMS queuedSMS : ready) {
+			SMSRequest smsRequest = queuedSMS.smsRequest;
+			if (byRequest.containsKey(smsRequest)) {
+				smsRequest = new SMSRequest(smsRequest.getSenderAddress(), smsRequest.getMessage(), smsRequest.getClientCorrelator(), smsRequest.getNotifyURL(),
+						smsRequest.getSenderName(), smsRequest.getCallbackData(), smsRequest.getAddress());
+			}
+			byRequest.put(smsRequest, queuedSMS);
+			smsRequests.add(smsRequest);
+		}
+
+		List<SMSCoalescer.Chunk> chunks = SMSCoalescer.coalesce(smsRequests, maxRecipients);
+		for (SMSCoalescer.Chunk chunk : chunks) {
+			for (SMSRequest smsRequest : chunk.getRequests()) {
+				byRequest.get(smsRequest).expectPart();
+			}
+		}
+
+		for (final SMSCoalescer.Chunk chunk : chunks) {
+			ResponseListener<SendMessageResult> chunkListener = new ResponseListener<SendMessageResult>() {
+				@Override
+				public void onGotResponse(SendMessageResult chunkResult, Throwable error) {
+					if (error != null) {
+						for (SMSRequest smsRequest : chunk.getRequests()) {
+							byRequest.get(smsRequest).partFailed(error);
+						}
+						return;
+					}
+					for (Map.Entry<SMSRequest, List<SendMessageResultItem>> distributed : chunk.distribute(chunkResult).entrySet()) {
+						byRequest.get(distributed.getKey()).partSent(chunkResult, distributed.getValue());
+					}
+				}
+			};
+
+			try {
+				smsMessagingClient.sendSMSAsync(chunk.toRequest(), chunkListener);
+			} catch (RuntimeException e) {
+				chunkListener.onGotResponse(null, e);
+			}
+		}
+	}
+
+	/**
+	 * Queued send, its listener is called once all merged requests carrying its recipients are answered
+	 */
+	private static final class QueuedSMS {
+		private final SMSRequest smsRequest;
+		private final ResponseListener<SendMessageResult> responseListener;
+		private int remainingParts = 0;
+		private SendMessageResult result = null;
+		private Throwable error = null;
+
+		QueuedSMS(SMSRequest smsRequest, ResponseListener<SendMessageResult> responseListener) {
+			this.smsRequest = smsRequest;
+			this.responseListener = responseListener;
+		}
+
+		synchronized void expectPart() {
+			remainingParts++;
+		}
+
+		void partSent(SendMessageResult chunkResult, List<SendMessageResultItem> items) {
+			synchronized (this) {
+				result = SMSCoalescer.appendResult(result, chunkResult, items);
+				if (--remainingParts > 0) {
+					return;
+				}
+			}
+			notifyListener();
+		}
+
+		void partFailed(Throwable partError) {
+			synchronized (this) {
+				if (error == null) {
+					error = partError;
+				}
+				if (--remainingParts > 0) {
+					return;
+				}
+			}
+			notifyListener();
+		}
+
+		private void notifyListener() {
+			if (error != null) {
+				responseListener.onGotResponse(null, error);
+			} else {
+				// a split request's parts are sent with their own correlators, the caller gets the correlator of its request
+				if (result != null && smsRequest.getClientCorrelator() != null) {
+					result.setClientCorrelator(smsRequest.getClientCorrelator());
+				}
+				responseListener.onGotResponse(result, null);
+			}
+		}
+	}
+
+	/**
+	 * Future completed by the send response
+	 */
+	static final class SendFuture extends FutureTask<SendMessageResult> implements ResponseListener<SendMessageResult> {
+		SendFuture() {
+			super(new Callable<SendMessageResult>() {
+				@Override
+				public SendMessageResult call() {
+					throw new IllegalStateException("SMS send future is completed by the send response.");
+				}
+			});
+		}
+
+		@Override
+		public void onGotResponse(SendMessageResult response, Throwable error) {
+			if (error != null) {
+				setException(error);
+			} else {
+				set(response);
+			}
+		}
+	}
+}
@@ -0,0 +1,544 @@
+package oneapi.client.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import oneapi.exception.RequestException;
+import oneapi.model.SMSRequest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only log of queued SMS requests and their acknowledgements, written to memory mapped segment files of a fixed size.
+ * <p>
+ * Appended records become durable in groups: a committer thread syncs the segments written since the last commit and
+ * wakes all writers waiting for it, so concurrent writers share one sync. A record is its length, CRC32 checksum, type,
+ * sequence and payload; reading a segment stops at the first record which is incomplete or fails the checksum. The oldest
+ * segments are deleted as soon as all requests in them are acknowledged.
+ * <p>
+ * The log holds an exclusive lock on a lock file in its directory while it is open, a second log opened on the same
+ * directory, by this or another process, fails instead of appending to the same segments.
+ */
+class SendLog {
+	private static final Logger LOGGER = LoggerFactory.getLogger(SendLog.class);
+
+	private static final byte ENTRY = 1;
+	private static final byte ACK = 2;
+
+	private static final int MAGIC = 0x534E4C31;
+	private static final int FILE_VERSION = 1;
+	private static final int SEGMENT_HEADER_SIZE = 16;
+	private static final int RECORD_HEADER_SIZE = 17;
+	private static final String SEGMENT_PREFIX = "send-log-";
+	private static final String SEGMENT_SUFFIX = ".dat";
+	private static final String LOCK_FILE = "send-log.lock";
+
+	// record layout
+	private static final int RECORD_LENGTH = 0;
+	private static final int RECORD_CHECKSUM = 4;
+	private static final int RECORD_TYPE = 8;
+	private static final int RECORD_SEQUENCE = 9;
+
+	private final File directory;
+	private final int segmentSize;
+	private final long commitInterval;
+	private final LinkedList<Segment> segments = new LinkedList<Segment>();
+	private final Map<Long, Segment> unacknowledged = new HashMap<Long, Segment>();
+	private final Set<Segment> uncommittedSegments = new LinkedHashSet<Segment>();
+	private final List<Entry> recovered = new ArrayList<Entry>();
+	private final Thread committer;
+	private final RandomAccessFile lockFile;
+	private Segment current;
+	private long nextSequence = 1;
+	private long appendedPosition = 0;
+	private long committedPosition = 0;
+	private boolean closed = false;
+
+	/**
+	 * Open the log in the directory, the requests which were not acknowledged are returned by getRecovered()
+	 * @param directory
+	 * @param segmentSize size of a segment file in bytes
+	 * @param commitInterval time in milliseconds appended records are collected before they are synced
+	 * @throws IOException if the log can't be opened or is open by another send log
+	 */
+	SendLog(File directory, int segmentSize, long commitInterval) throws IOException {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.commitInterval = commitInterval;
+
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Send log directory '" + directory + "' can't be created.");
+		}
+
+		lockFile = new RandomAccessFile(new File(directory, LOCK_FILE), "rw");
+		try {
+			lockDirectory();
+			recover();
+		} catch (IOException e) {
+			closeFiles();
+			throw e;
+		}
+
+		committer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				commitLoop();
+			}
+		}, "oneapi-send-log-committer");
+		committer.setDaemon(true);
+		committer.start();
+	}
+
+	/**
+	 * Requests found unacknowledged when the log was opened, in the order they were appended
+	 * @return List<Entry>
+	 */
+	List<Entry> getRecovered() {
+		return recovered;
+	}
+
+	/**
+	 * Append the request, it is durable when awaitCommit() for the entry returns
+	 * @param smsRequest
+	 * @return Entry
+	 * @throws IOException
+	 */
+	synchronized Entry append(SMSRequest smsRequest) throws IOException {
+		Entry entry = new Entry(nextSequence, smsRequest);
+		write(ENTRY, entry.sequence, encode(smsRequest));
+		nextSequence++;
+		unacknowledged.put(entry.sequence, current);
+		current.unacknowledged++;
+		entry.logPosition = appendedPosition;
+		return entry;
+	}
+
+	/**
+	 * Wait until the entry is synced to disk
+	 * @param entry
+	 * @throws IOException if the log was closed before the entry was synced
+	 */
+	synchronized void awaitCommit(Entry entry) throws IOException {
+		notifyAll();
+		while (committedPosition < entry.logPosition) {
+			if (closed) {
+				throw new IOException("Send log is closed.");
+			}
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for the send log commit.");
+			}
+		}
+	}
+
+	/**
+	 * Acknowledge the request, it is not recovered after a restart once the acknowledgement is committed
+	 * @param sequence
+	 * @throws IOException
+	 */
+	synchronized void acknowledge(long sequence) throws IOException {
+		Segment segment = unacknowledged.remove(sequence);
+		if (segment == null) {
+			return;
+		}
+
+		write(ACK, sequence, new byte[0]);
+		segment.unacknowledged--;
+		deleteAcknowledgedSegments();
+		notifyAll();
+	}
+
+	/**
+	 * Number of appended requests which are not acknowledged
+	 * @return int
+	 */
+	synchronized int getUnacknowledgedCount() {
+		return unacknowledged.size();
+	}
+
+	/**
+	 * Commit the appended records, close the segment files and release the directory lock
+	 */
+	void close() {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			notifyAll();
+		}
+		try {
+			committer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		synchronized (this) {
+			for (Segment segment : segments) {
+				segment.buffer.force();
+			}
+			closeFiles();
+		}
+	}
+
+	//*************************SendLog private***********************************************************************************************************************************************
+	private void write(byte type, long sequence, byte[] payload) throws IOException {
+		if (closed) {
+			throw new IOException("Send log is closed.");
+		}
+
+		int recordSize = RECORD_HEADER_SIZE + payload.length;
+		if (recordSize > segmentSize - SEGMENT_HEADER_SIZE) {
+			throw new RequestException("SMS request of " + recordSize + " bytes doesn't fit into a send log segment.");
+		}
+		if (current == null || current.writePosition + recordSize > current.buffer.capacity()) {
+			current = createSegment(current == null ? 1 : current.index + 1);
+			segments.add(current);
+		}
+
+		CRC32 checksum = new CRC32();
+		checksum.update(type);
+		checksum.update(longBytes(sequence));
+		checksum.update(payload);
+
+		int position = current.writePosition;
+		ByteBuffer view = current.buffer.duplicate();
+		view.position(position + RECORD_TYPE);
+		view.put(type);
+		view.putLong(sequence);
+		view.put(payload);
+		view.putInt(position + RECORD_CHECKSUM, (int) checksum.getValue());
+		view.putInt(position + RECORD_LENGTH, payload.length);
+
+		current.writePosition += recordSize;
+		appendedPosition += recordSize;
+		uncommittedSegments.add(current);
+	}
+
+	/**
+	 * Sync the segments written since the last commit, writers appending meanwhile join the next commit
+	 */
+	private void commitLoop() {
+		while (true) {
+			synchronized (this) {
+				while (!closed && committedPosition == appendedPosition) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (closed && committedPosition == appendedPosition) {
+					return;
+				}
+			}
+
+			if (commitInterval > 0) {
+				try {
+					Thread.sleep(commitInterval);
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+
+			long position;
+			List<Segment> dirty;
+			synchronized (this) {
+				position = appendedPosition;
+				dirty = new ArrayList<Segment>(uncommittedSegments);
+				uncommittedSegments.clear();
+			}
+			for (Segment segment : dirty) {
+				segment.buffer.force();
+			}
+			synchronized (this) {
+				committedPosition = position;
+				notifyAll();
+			}
+		}
+	}
+
+	private void lockDirectory() throws IOException {
+		FileLock fileLock;
+		try {
+			fileLock = lockFile.getChannel().tryLock();
+		} catch (OverlappingFileLockException e) {
+			fileLock = null;
+		}
+		if (fileLock == null) {
+			throw new IOException("Send log directory '" + directory + "' is used by another send log.");
+		}
+	}
+
+	private void closeFiles() {
+		for (Segment segment : segments) {
+			segment.close();
+		}
+		segments.clear();
+		current = null;
+
+		try {
+			// closing the file releases the lock
+			lockFile.close();
+		} catch (IOException e) {
+			if (LOGGER.isWarnEnabled()) {
+				LOGGER.warn("Send log lock file in '" + directory + "' can't be closed. Message: " + e.getMessage());
+			}
+		}
+	}
+
+	private void deleteAcknowledgedSegments() {
+		while (segments.size() > 1 && segments.getFirst() != current && segments.getFirst().unacknowledged == 0) {
+			Segment segment = segments.removeFirst();
+			uncommittedSegments.remove(segment);
+			segment.close();
+			if (!segment.file.delete() && LOGGER.isWarnEnabled()) {
+				LOGGER.warn("Acknowledged send log segment '" + segment.file + "' can't be deleted.");
+			}
+		}
+	}
+
+	private void recover() throws IOException {
+		File[] files = directory.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+			}
+		});
+		if (files == null) {
+			files = new File[0];
+		}
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(File a, File b) {
+				long indexA = segmentIndex(a);
+				long indexB = segmentIndex(b);
+				return indexA < indexB ? -1 : (indexA == indexB ? 0 : 1);
+			}
+		});
+
+		Map<Long, Entry> pending = new LinkedHashMap<Long, Entry>();
+		for (File file : files) {
+			Segment segment = openSegment(file);
+			segments.add(segment);
+			current = segment;
+
+			int position = SEGMENT_HEADER_SIZE;
+			ByteBuffer buffer = segment.buffer;
+			while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+				int length = buffer.getInt(position + RECORD_LENGTH);
+				if (length < 0 || (length == 0 && buffer.get(position + RECORD_TYPE) == 0)
+						|| position + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+					break;
+				}
+
+				byte type = buffer.get(position + RECORD_TYPE);
+				long sequence = buffer.getLong(position + RECORD_SEQUENCE);
+				byte[] payload = new byte[length];
+				ByteBuffer view = buffer.duplicate();
+				view.position(position + RECORD_HEADER_SIZE);
+				view.get(payload);
+
+				CRC32 checksum = new CRC32();
+				checksum.update(type);
+				checksum.update(longBytes(sequence));
+				checksum.update(payload);
+				if ((int) checksum.getValue() != buffer.getInt(position + RECORD_CHECKSUM)) {
+					break;
+				}
+
+				if (type == ENTRY) {
+					pending.put(sequence, new Entry(sequence, decode(payload)));
+					unacknowledged.put(sequence, segment);
+					segment.unacknowledged++;
+				} else if (type == ACK) {
+					pending.remove(sequence);
+					Segment entrySegment = unacknowledged.remove(sequence);
+					if (entrySegment != null) {
+						entrySegment.unacknowledged--;
+					}
+				}
+				nextSequence = Math.max(nextSequence, sequence + 1);
+				position += RECORD_HEADER_SIZE + length;
+			}
+			segment.writePosition = position;
+		}
+
+		recovered.addAll(pending.values());
+		deleteAcknowledgedSegments();
+		if (LOGGER.isInfoEnabled() && !recovered.isEmpty()) {
+			LOGGER.info("Send log '" + directory + "' recovered " + recovered.size() + " unacknowledged requests.");
+		}
+	}
+
+	private Segment createSegment(long index) throws IOException {
+		File file = new File(directory, SEGMENT_PREFIX + index + SEGMENT_SUFFIX);
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			randomAccessFile.setLength(segmentSize);
+			FileChannel channel = randomAccessFile.getChannel();
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, FILE_VERSION);
+			buffer.putLong(8, index);
+			return new Segment(file, index, randomAccessFile, buffer, SEGMENT_HEADER_SIZE);
+		} catch (IOException e) {
+			randomAccessFile.close();
+			throw e;
+		}
+	}
+
+	private Segment openSegment(File file) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+			if (buffer.capacity() < SEGMENT_HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FILE_VERSION) {
+				throw new IOException("File '" + file + "' is not a send log segment.");
+			}
+			return new Segment(file, buffer.getLong(8), randomAccessFile, buffer, SEGMENT_HEADER_SIZE);
+		} catch (IOException e) {
+			randomAccessFile.close();
+			throw e;
+		}
+	}
+
+	private static long segmentIndex(File file) {
+		String name = file.getName();
+		try {
+			return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+		} catch (NumberFormatException e) {
+			return Long.MAX_VALUE;
+		}
+	}
+
+	private static byte[] longBytes(long value) {
+		return ByteBuffer.allocate(8).putLong(value).array();
+	}
+
+	static byte[] encode(SMSRequest smsRequest) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+		DataOutputStream out = new DataOutputStream(bytes);
+		writeString(out, smsRequest.getSenderAddress());
+		writeString(out, smsRequest.getMessage());
+		writeString(out, smsRequest.getClientCorrelator());
+		writeString(out, smsRequest.getNotifyURL());
+		writeString(out, smsRequest.getSenderName());
+		writeString(out, smsRequest.getCallbackData());
+		String[] addresses = smsRequest.getAddress();
+		out.writeInt(addresses == null ? -1 : addresses.length);
+		if (addresses != null) {
+			for (String address : addresses) {
+				writeString(out, address);
+			}
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	static SMSRequest decode(byte[] payload) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+		SMSRequest smsRequest = new SMSRequest();
+		smsRequest.setSenderAddress(readString(in));
+		smsRequest.setMessage(readString(in));
+		smsRequest.setClientCorrelator(readString(in));
+		smsRequest.setNotifyURL(readString(in));
+		smsRequest.setSenderName(readString(in));
+		smsRequest.setCallbackData(readString(in));
+		int addressCount = in.readInt();
+		if (addressCount >= 0) {
+			String[] addresses = new String[addressCount];
+			for (int i = 0; i < addressCount; i++) {
+				addresses[i] = readString(in);
+			}
+			smsRequest.setAddress(addresses);
+		}
+		return smsRequest;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	/**
+	 * Request appended to the log
+	 */
+	static final class Entry {
+		private final long sequence;
+		private final SMSRequest smsRequest;
+		private long logPosition = 0;
+
+		Entry(long sequence, SMSRequest smsRequest) {
+			this.sequence = sequence;
+			this.smsRequest = smsRequest;
+		}
+
+		long getSequence() {
+			return sequence;
+		}
+
+		SMSRequest getSMSRequest() {
+			return smsRequest;
+		}
+	}
+
+	private static final class Segment {
+		private final File file;
+		private final long index;
+		private final RandomAccessFile randomAccessFile;
+		private final MappedByteBuffer buffer;
+		private int writePosition;
+		private int unacknowledged = 0;
+
+		Segment(File file, long index, RandomAccessFile randomAccessFile, MappedByteBuffer buffer, int writePosition) {
+			this.file = file;
+			this.index = index;
+			this.randomAccessFile = randomAccessFile;
+			this.buffer = buffer;
+			this.writePosition = writePosition;
+		}
+
+		void close() {
+			try {
+				randomAccessFile.close();
+			} catch (IOException e) {
+				if (LOGGER.isWarnEnabled()) {
+					LOGGER.warn("Send log segment '" + file + "' can't be closed. Message: " + e.getMessage());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package oneapi.client.impl;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import oneapi.config.MultiTenantSettings;
+
+import com.ning.http.client.AsyncHttpClient;
+import com.ning.http.client.AsyncHttpClientConfig;
+
+/**
+ * Transport resources shared by all tenants of MultiTenantSMSClient: asynchronous http client with its connection pool
+ * and IO threads, scheduler for retrievers and session refreshes, notification timer wheel and the scheduler of request slots.
+ */
+class SharedTransport {
+	private final MultiTenantSettings settings;
+	private final TenantScheduler tenantScheduler;
+	private final ScheduledExecutorService scheduler;
+	private AsyncHttpClient asyncHttpClient = null;
+	private TimerWheel timerWheel = null;
+
+	SharedTransport(MultiTenantSettings settings) {
+		this.settings = settings;
+		this.tenantScheduler = new TenantScheduler(settings.getMaxInFlight());
+		final AtomicInteger threadNumber = new AtomicInteger();
+		this.scheduler = Executors.newScheduledThreadPool(Math.max(1, settings.getSchedulerThreads()), new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "oneapi-shared-scheduler-" + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	TenantScheduler getTenantScheduler() {
+		return tenantScheduler;
+	}
+
+	ScheduledExecutorService getScheduler() {
+		return scheduler;
+	}
+
+	synchronized AsyncHttpClient getAsyncHttpClient() {
+		if (asyncHttpClient == null) {
+			asyncHttpClient = new AsyncHttpClient(new AsyncHttpClientConfig.Builder()
+					.setMaximumConnectionsTotal(settings.getMaxConnections())
+					.setMaximumConnectionsPerHost(settings.getMaxConnections())
+					.build());
+		}
+		return asyncHttpClient;
+	}
+
+	synchronized TimerWheel getTimerWheel() {
+		if (timerWheel == null) {
+			timerWheel = new TimerWheel("oneapi-notification-timeouts", 100, 512);
+		}
+		return timerWheel;
+	}
+
+	/**
+	 * Stop the scheduler and close the http client
+	 */
+	synchronized void close() {
+		scheduler.shutdownNow();
+		if (asyncHttpClient != null) {
+			asyncHttpClient.close();
+			asyncHttpClient = null;
+		}
+		if (timerWheel != null) {
+			timerWheel.stop();
+			timerWheel = null;
+		}
+	}
+}
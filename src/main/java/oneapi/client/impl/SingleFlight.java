@@ -0,0 +1,137 @@
+package oneapi.client.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+import oneapi.exception.RequestException;
+import oneapi.listener.ResponseListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces identical in-flight requests so that concurrent callers share one outstanding call and its result
+ */
+class SingleFlight {
+	private static final Logger LOGGER = LoggerFactory.getLogger(SingleFlight.class);
+
+	private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<String, Flight>();
+
+	/**
+	 * Register a new flight under all the keys, requests matching any of them join it
+	 * @param keys
+	 * @return Flight - the caller has to execute the request and complete the flight, or null if one of the keys is already in flight
+	 */
+	synchronized Flight start(String... keys) {
+		// flights are only registered here, so no key can be taken between the check and the registration
+		for (String key : keys) {
+			if (flights.containsKey(key)) {
+				return null;
+			}
+		}
+
+		Flight flight = new Flight(keys);
+		for (String key : keys) {
+			flights.put(key, flight);
+		}
+		return flight;
+	}
+
+	/**
+	 * Find the outstanding flight registered under the key
+	 * @param key
+	 * @return Flight or null if nothing is in flight (anymore)
+	 */
+	Flight find(String key) {
+		return flights.get(key);
+	}
+
+	/**
+	 * Single outstanding request shared by all callers which joined it
+	 */
+	final class Flight {
+		private final String[] keys;
+		private final CountDownLatch done = new CountDownLatch(1);
+		private List<ResponseListener<Object>> listeners = new ArrayList<ResponseListener<Object>>();
+		private Object result;
+		private Throwable error;
+		private boolean completed = false;
+
+		private Flight(String[] keys) {
+			this.keys = keys;
+		}
+
+		/**
+		 * Complete the flight and notify everyone waiting for it, only the first completion counts
+		 * @param result
+		 * @param error
+		 */
+		void complete(Object result, Throwable error) {
+			List<ResponseListener<Object>> waitingListeners;
+			synchronized (this) {
+				if (completed) {
+					return;
+				}
+				completed = true;
+				this.result = result;
+				this.error = error;
+				waitingListeners = listeners;
+				listeners = null;
+			}
+			// late joiners must start a new flight from now on
+			for (String key : keys) {
+				flights.remove(key, this);
+			}
+			done.countDown();
+
+			// a failing listener must not keep the others from being notified
+			for (ResponseListener<Object> listener : waitingListeners) {
+				try {
+					listener.onGotResponse(result, error);
+				} catch (RuntimeException e) {
+					LOGGER.warn("Flight listener failed: " + e.getMessage());
+				}
+			}
+		}
+
+		/**
+		 * Get notified when the flight completes (immediately if it is already completed)
+		 * @param listener
+		 */
+		@SuppressWarnings("unchecked")
+		<T> void addListener(ResponseListener<T> listener) {
+			synchronized (this) {
+				if (listeners != null) {
+					listeners.add((ResponseListener<Object>) listener);
+					return;
+				}
+			}
+			listener.onGotResponse((T) result, error);
+		}
+
+		/**
+		 * Block until the flight completes and return its result
+		 * @param clazz
+		 * @return T
+		 * @throws RequestException
+		 */
+		<T> T await(Class<T> clazz) {
+			try {
+				done.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RequestException(e);
+			}
+
+			if (error instanceof RequestException) {
+				throw (RequestException) error;
+			} else if (error != null) {
+				throw new RequestException(error);
+			}
+			return clazz.cast(result);
+		}
+	}
+}
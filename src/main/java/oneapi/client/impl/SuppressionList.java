@@ -0,0 +1,306 @@
+package oneapi.client.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import oneapi.config.SuppressionListSettings;
+import oneapi.exception.ConfigurationException;
+import oneapi.util.AddressNormalizer;
+
+/**
+ * Immutable snapshot of the suppressed numbers of one or more list files.
+ * <p>
+ * Every list file is converted once to an index file of its distinct E.164 numbers sorted ascending, which is memory
+ * mapped and binary searched, so tens of millions of numbers take no heap and are shared with the page cache of other
+ * processes. An optional Bloom filter in front of the indexes answers most lookups of numbers which are not suppressed
+ * without touching the mapped pages. A reload builds a new snapshot which replaces the old one.
+ */
+class SuppressionList {
+	private static final int MAGIC = 0x53555031;
+	private static final int FILE_VERSION = 1;
+	private static final int HEADER_SIZE = 32;
+	private static final long MAX_ENTRIES = (Integer.MAX_VALUE - HEADER_SIZE) / 8;
+	private static final long MAX_BLOOM_FILTER_BITS = 1L << 31;
+	private static final int MAX_HASHES = 8;
+	private static final String INDEX_SUFFIX = ".idx";
+
+	// header layout
+	private static final int HEADER_MAGIC = 0;
+	private static final int HEADER_VERSION = 4;
+	private static final int HEADER_COUNT = 8;
+	private static final int HEADER_SOURCE_LENGTH = 16;
+	private static final int HEADER_SOURCE_MODIFIED = 24;
+
+	private final LongBuffer[] indexes;
+	private final long size;
+	private final long[] bloomFilter;
+	private final long bloomMask;
+	private final int hashCount;
+
+	private SuppressionList(LongBuffer[] indexes, int bitsPerEntry) {
+		this.indexes = indexes;
+		long count = 0;
+		for (LongBuffer index : indexes) {
+			count += index.limit();
+		}
+		this.size = count;
+
+		if (bitsPerEntry <= 0 || count == 0) {
+			bloomFilter = null;
+			bloomMask = 0;
+			hashCount = 0;
+			return;
+		}
+
+		long bits = 64;
+		while (bits < MAX_BLOOM_FILTER_BITS && bits < count * bitsPerEntry) {
+			bits <<= 1;
+		}
+		bloomFilter = new long[(int) (bits >>> 6)];
+		bloomMask = bits - 1;
+		hashCount = Math.max(1, Math.min(MAX_HASHES, Math.round(bitsPerEntry * 0.693f)));
+		for (LongBuffer index : indexes) {
+			for (int i = 0, n = index.limit(); i < n; i++) {
+				long hash = mix(index.get(i));
+				long increment = (hash >>> 32) | 1;
+				for (int k = 0; k < hashCount; k++, hash += increment) {
+					long bit = hash & bloomMask;
+					bloomFilter[(int) (bit >>> 6)] |= 1L << bit;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Load the list files, building the index files which are missing or older than their list file
+	 * @param settings
+	 * @return SuppressionList
+	 * @throws IOException
+	 */
+	static SuppressionList load(SuppressionListSettings settings) throws IOException {
+		String[] files = settings.getFiles();
+		if (files == null || files.length == 0) {
+			throw new ConfigurationException("Suppression list files are not set.");
+		}
+
+		LongBuffer[] indexes = new LongBuffer[files.length];
+		for (int i = 0; i < files.length; i++) {
+			File source = new File(files[i]);
+			File directory = settings.getIndexDirectory() != null ? new File(settings.getIndexDirectory()) : source.getAbsoluteFile().getParentFile();
+			indexes[i] = openIndex(source, new File(directory, source.getName() + INDEX_SUFFIX));
+		}
+		return new SuppressionList(indexes, settings.getBloomFilterBitsPerEntry());
+	}
+
+	/**
+	 * Number of suppressed numbers, a number on several lists counts once per list
+	 * @return long
+	 */
+	long size() {
+		return size;
+	}
+
+	/**
+	 * @param number E.164 number
+	 * @return true if the number is suppressed
+	 */
+	boolean contains(long number) {
+		if (number <= 0) {
+			return false;
+		}
+
+		if (bloomFilter != null) {
+			long hash = mix(number);
+			long increment = (hash >>> 32) | 1;
+			for (int k = 0; k < hashCount; k++, hash += increment) {
+				long bit = hash & bloomMask;
+				if ((bloomFilter[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+					return false;
+				}
+			}
+		}
+
+		for (LongBuffer index : indexes) {
+			if (binarySearch(index, number)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Remove the suppressed addresses, addresses which are not E.164 numbers are kept
+	 * @param addresses
+	 * @return the same array if no address is suppressed, otherwise a new array of the addresses which are not suppressed
+	 */
+	String[] filter(String[] addresses) {
+		if (addresses == null) {
+			return null;
+		}
+
+		String[] kept = null;
+		int count = 0;
+		for (int i = 0; i < addresses.length; i++) {
+			boolean suppressed = contains(AddressNormalizer.toE164(addresses[i]));
+			if (suppressed && kept == null) {
+				kept = new String[addresses.length - 1];
+				System.arraycopy(addresses, 0, kept, 0, i);
+				count = i;
+			} else if (!suppressed && kept != null) {
+				kept[count++] = addresses[i];
+			}
+		}
+		return kept == null ? addresses : Arrays.copyOf(kept, count);
+	}
+
+	private static boolean binarySearch(LongBuffer index, long number) {
+		int low = 0;
+		int high = index.limit() - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long value = index.get(middle);
+			if (value < number) {
+				low = middle + 1;
+			} else if (value > number) {
+				high = middle - 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static long mix(long number) {
+		long hash = number;
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		hash *= 0xC4CEB9FE1A85EC53L;
+		return hash ^ (hash >>> 33);
+	}
+
+	//*************************Index files******************************************************************************************************************************************************
+	private static LongBuffer openIndex(File source, File indexFile) throws IOException {
+		if (!source.isFile()) {
+			throw new ConfigurationException("Suppression list file '" + source + "' doesn't exist.");
+		}
+
+		LongBuffer index = mapIndex(source, indexFile);
+		if (index == null) {
+			buildIndex(source, indexFile);
+			index = mapIndex(source, indexFile);
+			if (index == null) {
+				throw new IOException("Suppression list index file '" + indexFile + "' is invalid.");
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Map the index file
+	 * @param source
+	 * @param indexFile
+	 * @return LongBuffer of the sorted numbers or null if the index file is missing or was built from another version of the list file
+	 * @throws IOException
+	 */
+	private static LongBuffer mapIndex(File source, File indexFile) throws IOException {
+		if (!indexFile.isFile() || indexFile.length() < HEADER_SIZE) {
+			return null;
+		}
+
+		RandomAccessFile randomAccessFile = new RandomAccessFile(indexFile, "r");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			long count = header.getLong(HEADER_COUNT);
+			if (header.getInt(HEADER_MAGIC) != MAGIC || header.getInt(HEADER_VERSION) != FILE_VERSION
+					|| header.getLong(HEADER_SOURCE_LENGTH) != source.length() || header.getLong(HEADER_SOURCE_MODIFIED) != source.lastModified()
+					|| count < 0 || count > MAX_ENTRIES || channel.size() != HEADER_SIZE + count * 8) {
+				return null;
+			}
+			// the mapping stays valid after the file is closed
+			return channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, count * 8).asLongBuffer();
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	private static void buildIndex(File source, File indexFile) throws IOException {
+		long[] numbers = new long[1024];
+		int count = 0;
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(source), "UTF-8"));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				long number = AddressNormalizer.toE164(line);
+				if (number < 0) {
+					continue;
+				}
+				if (count == numbers.length) {
+					if (count == MAX_ENTRIES) {
+						throw new ConfigurationException("Suppression list file '" + source + "' has more than " + MAX_ENTRIES + " numbers.");
+					}
+					numbers = Arrays.copyOf(numbers, (int) Math.min(MAX_ENTRIES, (long) count * 2));
+				}
+				numbers[count++] = number;
+			}
+		} finally {
+			reader.close();
+		}
+
+		Arrays.sort(numbers, 0, count);
+		int distinct = 0;
+		for (int i = 0; i < count; i++) {
+			if (distinct == 0 || numbers[distinct - 1] != numbers[i]) {
+				numbers[distinct++] = numbers[i];
+			}
+		}
+
+		// write a temporary file and rename it, so a concurrent reader never maps a partly written index
+		File directory = indexFile.getAbsoluteFile().getParentFile();
+		if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Suppression list index directory '" + directory + "' can't be created.");
+		}
+		File temporaryFile = File.createTempFile(indexFile.getName(), ".tmp", directory);
+		try {
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile), 65536));
+			try {
+				output.writeInt(MAGIC);
+				output.writeInt(FILE_VERSION);
+				output.writeLong(distinct);
+				output.writeLong(source.length());
+				output.writeLong(source.lastModified());
+				for (int i = 0; i < distinct; i++) {
+					output.writeLong(numbers[i]);
+				}
+			} finally {
+				output.close();
+			}
+
+			if (!temporaryFile.renameTo(indexFile)) {
+				indexFile.delete();
+				if (!temporaryFile.renameTo(indexFile)) {
+					throw new IOException("Suppression list index file '" + indexFile + "' can't be written.");
+				}
+			}
+		} finally {
+			temporaryFile.delete();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SuppressionList {size=" + size + ", files=" + indexes.length + ", bloomFilterBits=" + (bloomFilter != null ? bloomMask + 1 : 0) + "}";
+	}
+}
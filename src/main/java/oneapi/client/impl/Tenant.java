@@ -0,0 +1,67 @@
+package oneapi.client.impl;
+
+import java.util.ArrayDeque;
+
+/**
+ * Account served by the shared transport of MultiTenantSMSClient. Requests of the tenant take a slot of the
+ * transport's TenantScheduler for the duration of the http exchange.
+ */
+class Tenant {
+	private final String id;
+	private final int maxInFlight;
+	private final SharedTransport transport;
+
+	// guarded by the TenantScheduler lock
+	int inFlight = 0;
+	boolean queued = false;
+	boolean removed = false;
+	final ArrayDeque<TenantScheduler.Waiter> waiters = new ArrayDeque<TenantScheduler.Waiter>();
+
+	Tenant(String id, int maxInFlight, SharedTransport transport) {
+		this.id = id;
+		this.maxInFlight = Math.max(1, maxInFlight);
+		this.transport = transport;
+	}
+
+	String getId() {
+		return id;
+	}
+
+	int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	SharedTransport getTransport() {
+		return transport;
+	}
+
+	/**
+	 * Start the asynchronous request in a slot, now or when a slot is released, the calling thread never waits
+	 * @param request
+	 */
+	void submit(TenantScheduler.Waiter request) {
+		transport.getTenantScheduler().submit(this, request);
+	}
+
+	/**
+	 * Wait for a slot to send a synchronous request, RequestException is thrown if the thread is interrupted while waiting
+	 * or the tenant is removed
+	 */
+	void acquire() {
+		transport.getTenantScheduler().acquire(this);
+	}
+
+	/**
+	 * Return the slot after the response is received
+	 */
+	void release() {
+		transport.getTenantScheduler().release(this);
+	}
+
+	/**
+	 * Reject the waiting and later requests of the tenant
+	 */
+	void remove() {
+		transport.getTenantScheduler().remove(this);
+	}
+}
@@ -0,0 +1,252 @@
+package oneapi.client.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import oneapi.exception.RequestException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Admits requests of many tenants to a limited number of slots. A tenant never holds more slots than its quota,
+ * and when requests have to wait the tenants with waiting requests are served round robin, one request per turn,
+ * so a tenant with a long queue can't starve the others.
+ * <p>
+ * Admission never blocks the submitting thread: a request which can't take a slot is queued and started by the thread
+ * which releases the slot given to it, usually an http client IO thread. Only synchronous requests wait, on their own
+ * caller's thread.
+ */
+class TenantScheduler {
+	private static final Logger LOGGER = LoggerFactory.getLogger(TenantScheduler.class);
+
+	private final Object lock = new Object();
+	private final ArrayDeque<Tenant> ready = new ArrayDeque<Tenant>();
+	private final int maxInFlight;
+	private final ThreadLocal<ArrayDeque<Waiter>> admittedOnThread = new ThreadLocal<ArrayDeque<Waiter>>();
+
+	// guarded by lock
+	private int inFlight = 0;
+
+	/**
+	 * @param maxInFlight number of slots shared by all tenants
+	 */
+	TenantScheduler(int maxInFlight) {
+		this.maxInFlight = Math.max(1, maxInFlight);
+	}
+
+	/**
+	 * Start the request in a slot of the tenant: on the calling thread if a slot is free, otherwise on the thread
+	 * which releases the slot given to it
+	 * @param tenant
+	 * @param waiter - request to start, it has to release its slot when the response is received
+	 */
+	void submit(Tenant tenant, Waiter waiter) {
+		if (admitOrQueue(tenant, waiter)) {
+			start(waiter);
+		}
+	}
+
+	/**
+	 * Wait for a slot of the tenant, used by synchronous requests on their caller's thread
+	 * @param tenant
+	 */
+	void acquire(Tenant tenant) {
+		final CountDownLatch admitted = new CountDownLatch(1);
+		Waiter waiter = new Waiter() {
+			@Override
+			void admitted() {
+				admitted.countDown();
+			}
+
+			@Override
+			void rejected(RequestException e) {
+				admitted.countDown();
+			}
+		};
+		if (admitOrQueue(tenant, waiter)) {
+			if (waiter.rejectedWith != null) {
+				throw waiter.rejectedWith;
+			}
+			return;
+		}
+
+		boolean interrupted = false;
+		while (true) {
+			try {
+				admitted.await();
+				break;
+			} catch (InterruptedException e) {
+				synchronized (lock) {
+					if (tenant.waiters.remove(waiter)) {
+						throw new RequestException(e);
+					}
+				}
+				// the slot was already given to this request, keep it
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		if (waiter.rejectedWith != null) {
+			throw waiter.rejectedWith;
+		}
+	}
+
+	/**
+	 * Return the slot and start the requests of the next waiting tenants
+	 * @param tenant
+	 */
+	void release(Tenant tenant) {
+		List<Waiter> admitted;
+		synchronized (lock) {
+			inFlight--;
+			tenant.inFlight--;
+			enqueue(tenant);
+			admitted = dispatch();
+		}
+
+		for (Waiter waiter : admitted) {
+			start(waiter);
+		}
+	}
+
+	/**
+	 * Reject the waiting and all later requests of the tenant, its requests already in flight are completed
+	 * @param tenant
+	 */
+	void remove(Tenant tenant) {
+		List<Waiter> rejected;
+		synchronized (lock) {
+			tenant.removed = true;
+			rejected = new ArrayList<Waiter>(tenant.waiters);
+			tenant.waiters.clear();
+		}
+
+		RequestException error = new RequestException("Tenant '" + tenant.getId() + "' is removed.");
+		for (Waiter waiter : rejected) {
+			waiter.rejectedWith = error;
+			start(waiter);
+		}
+	}
+
+	/**
+	 * Number of slots currently taken by all tenants
+	 * @return int
+	 */
+	int getInFlight() {
+		synchronized (lock) {
+			return inFlight;
+		}
+	}
+
+	/**
+	 * Take a slot for the request or queue it
+	 * @return true if the request has to be started (or rejected) now, false if it is queued
+	 */
+	private boolean admitOrQueue(Tenant tenant, Waiter waiter) {
+		synchronized (lock) {
+			if (tenant.removed) {
+				waiter.rejectedWith = new RequestException("Tenant '" + tenant.getId() + "' is removed.");
+				return true;
+			}
+			if (ready.isEmpty() && inFlight < maxInFlight && tenant.inFlight < tenant.getMaxInFlight()) {
+				admit(tenant);
+				return true;
+			}
+			tenant.waiters.add(waiter);
+			enqueue(tenant);
+			return false;
+		}
+	}
+
+	private void admit(Tenant tenant) {
+		inFlight++;
+		tenant.inFlight++;
+	}
+
+	/**
+	 * Put the tenant at the end of the round if it has waiting requests and is under its quota
+	 */
+	private void enqueue(Tenant tenant) {
+		if (!tenant.queued && !tenant.waiters.isEmpty() && tenant.inFlight < tenant.getMaxInFlight()) {
+			tenant.queued = true;
+			ready.add(tenant);
+		}
+	}
+
+	/**
+	 * Give the free slots to the waiting tenants in turn
+	 * @return List<Waiter> admitted requests, started after the lock is released
+	 */
+	private List<Waiter> dispatch() {
+		List<Waiter> admitted = null;
+		while (inFlight < maxInFlight && !ready.isEmpty()) {
+			Tenant tenant = ready.poll();
+			tenant.queued = false;
+			Waiter waiter = tenant.waiters.poll();
+			if (waiter == null) {
+				continue;
+			}
+
+			admit(tenant);
+			if (admitted == null) {
+				admitted = new ArrayList<Waiter>();
+			}
+			admitted.add(waiter);
+			enqueue(tenant);
+		}
+		return admitted != null ? admitted : new ArrayList<Waiter>(0);
+	}
+
+	/**
+	 * Start the request outside of the lock. A request which fails immediately releases its slot and starts the next one
+	 * from within start(), those are run by the outermost call on the thread so the stack doesn't grow with the queue.
+	 */
+	private void start(Waiter waiter) {
+		ArrayDeque<Waiter> starting = admittedOnThread.get();
+		if (starting != null) {
+			starting.add(waiter);
+			return;
+		}
+
+		starting = new ArrayDeque<Waiter>();
+		admittedOnThread.set(starting);
+		try {
+			do {
+				try {
+					if (waiter.rejectedWith != null) {
+						waiter.rejected(waiter.rejectedWith);
+					} else {
+						waiter.admitted();
+					}
+				} catch (RuntimeException e) {
+					LOGGER.warn("Admitted tenant request failed: " + e.getMessage());
+				}
+			} while ((waiter = starting.poll()) != null);
+		} finally {
+			admittedOnThread.remove();
+		}
+	}
+
+	/**
+	 * Request waiting for a slot
+	 */
+	abstract static class Waiter {
+		private RequestException rejectedWith = null;
+
+		/**
+		 * Called with a slot of the tenant taken, must not block and has to release the slot when the request is done
+		 */
+		abstract void admitted();
+
+		/**
+		 * Called instead of admitted() when the tenant is removed, no slot is taken
+		 * @param e
+		 */
+		abstract void rejected(RequestException e);
+	}
+}
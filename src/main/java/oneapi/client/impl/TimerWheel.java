@@ -0,0 +1,189 @@
+package oneapi.client.impl;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed timer wheel for large numbers of timeouts which are mostly cancelled before they expire.
+ * Scheduling and cancelling cost O(1) and take no lock; a single daemon thread advances the wheel once per tick
+ * and runs the expired tasks, so the tasks must be short. Expiry is accurate to one tick.
+ */
+class TimerWheel {
+	private static final Logger LOGGER = LoggerFactory.getLogger(TimerWheel.class);
+
+	private final String name;
+	private final long tickNanos;
+	private final int mask;
+	private final Timeout[] buckets;
+	private final ConcurrentLinkedQueue<Timeout> scheduled = new ConcurrentLinkedQueue<Timeout>();
+	private volatile Thread worker = null;
+	private volatile boolean stopped = false;
+
+	// accessed by the worker thread only
+	private long startTime;
+	private long tick;
+
+	/**
+	 * @param name worker thread name
+	 * @param tickMillis duration of one tick in milliseconds
+	 * @param wheelSize number of buckets, rounded up to a power of two
+	 */
+	TimerWheel(String name, long tickMillis, int wheelSize) {
+		int size = 1;
+		while (size < wheelSize) {
+			size <<= 1;
+		}
+		this.name = name;
+		this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+		this.mask = size - 1;
+		this.buckets = new Timeout[size];
+	}
+
+	/**
+	 * Run the task once the delay elapses, unless the returned timeout is cancelled first
+	 * @param task
+	 * @param delayMillis
+	 * @return Timeout
+	 */
+	Timeout schedule(Runnable task, long delayMillis) {
+		Timeout timeout = new Timeout(task, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis)));
+		scheduled.add(timeout);
+		start();
+		return timeout;
+	}
+
+	/**
+	 * Stop the worker thread, timeouts which did not expire yet are never run
+	 */
+	void stop() {
+		stopped = true;
+		Thread thread = worker;
+		if (thread != null) {
+			thread.interrupt();
+		}
+	}
+
+	private void start() {
+		if (worker != null || stopped) {
+			return;
+		}
+
+		synchronized (this) {
+			if (worker == null) {
+				Thread thread = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						runWorker();
+					}
+				}, name);
+				thread.setDaemon(true);
+				startTime = System.nanoTime();
+				worker = thread;
+				thread.start();
+			}
+		}
+	}
+
+	private void runWorker() {
+		while (!stopped) {
+			long sleepNanos = startTime + (tick + 1) * tickNanos - System.nanoTime();
+			if (sleepNanos > 0) {
+				try {
+					TimeUnit.NANOSECONDS.sleep(sleepNanos);
+				} catch (InterruptedException e) {
+					if (stopped) {
+						return;
+					}
+				}
+				continue;
+			}
+
+			transferScheduled();
+			expireBucket();
+			tick++;
+		}
+	}
+
+	/**
+	 * Move newly scheduled timeouts into their buckets, the number of full wheel turns is kept as 'rounds'
+	 */
+	private void transferScheduled() {
+		Timeout timeout;
+		while ((timeout = scheduled.poll()) != null) {
+			if (timeout.cancelled) {
+				continue;
+			}
+
+			long expiryTick = Math.max(tick, (timeout.deadline - startTime) / tickNanos);
+			timeout.rounds = (expiryTick - tick) / buckets.length;
+			int index = (int) (expiryTick & mask);
+			timeout.next = buckets[index];
+			buckets[index] = timeout;
+		}
+	}
+
+	private void expireBucket() {
+		int index = (int) (tick & mask);
+		Timeout previous = null;
+		Timeout timeout = buckets[index];
+		while (timeout != null) {
+			Timeout next = timeout.next;
+			boolean remove = timeout.cancelled || timeout.rounds == 0;
+			if (remove) {
+				if (previous == null) {
+					buckets[index] = next;
+				} else {
+					previous.next = next;
+				}
+				timeout.next = null;
+				if (!timeout.cancelled) {
+					timeout.expire();
+				}
+			} else {
+				timeout.rounds--;
+				previous = timeout;
+			}
+			timeout = next;
+		}
+	}
+
+	/**
+	 * Scheduled task handle
+	 */
+	static final class Timeout {
+		private final Runnable task;
+		private final long deadline;
+		private volatile boolean cancelled = false;
+
+		// accessed by the worker thread only
+		private long rounds;
+		private Timeout next;
+
+		private Timeout(Runnable task, long deadline) {
+			this.task = task;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * Cancel the task, the timeout is dropped from the wheel when its bucket is visited next time
+		 */
+		void cancel() {
+			cancelled = true;
+		}
+
+		boolean isCancelled() {
+			return cancelled;
+		}
+
+		private void expire() {
+			try {
+				task.run();
+			} catch (RuntimeException e) {
+				LOGGER.warn("Timeout task failed: " + e.getMessage());
+			}
+		}
+	}
+}
@@ -2,6 +2,8 @@ package oneapi.client.impl;
 
 import oneapi.client.USSDClient;
 import oneapi.config.Configuration;
+import oneapi.config.ConfigurationProvider;
+import oneapi.listener.ResponseListener;
 import oneapi.model.RequestData;
 import oneapi.model.USSDRequest;
 import oneapi.model.RequestData.Method;
@@ -15,6 +17,10 @@ public class USSDClientImpl extends OneAPIBaseClientImpl implements USSDClient {
 		super(configuration);
 	}
 
+	USSDClientImpl(ConfigurationProvider configurationProvider, IBSSOSessionManager sessionManager, Tenant tenant) {
+		super(configurationProvider, sessionManager, tenant);
+	}
+
 	/**
 	 * Send an USSD over OneAPI to one mobile terminal '
 	 * @param address
@@ -41,4 +47,32 @@ public class USSDClientImpl extends OneAPIBaseClientImpl implements USSDClient {
 		requestData.setContentType(URL_ENCODED_CONTENT_TYPE);
 	    executeMethod(requestData);
 	}
+
+	/**
+	 * Send an USSD over OneAPI to one mobile terminal asynchronously
+	 * @param address
+	 * @param message
+	 * @param responseListener - called with the subscriber's reply
+	 */
+	@Override
+	public void sendMessageAsync(String address, String message, ResponseListener<InboundSMSMessage> responseListener) {
+		RequestData requestData = new RequestData(USSD_URL_BASE, Method.POST);
+		requestData.setFormParams(new USSDRequest(address, message));
+		requestData.setContentType(URL_ENCODED_CONTENT_TYPE);
+		executeMethodAsync(requestData, InboundSMSMessage.class, responseListener);
+	}
+
+	/**
+	 * Stop USSD session asynchronously
+	 * @param address
+	 * @param message
+	 * @param responseListener - called when the session is stopped
+	 */
+	@Override
+	public void stopSessionAsync(String address, String message, ResponseListener<Void> responseListener) {
+		RequestData requestData = new RequestData(USSD_URL_BASE, Method.POST);
+		requestData.setFormParams(new USSDRequest(address, message, true));
+		requestData.setContentType(URL_ENCODED_CONTENT_TYPE);
+		executeMethodAsync(requestData, Void.class, responseListener);
+	}
 }
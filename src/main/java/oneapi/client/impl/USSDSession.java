@@ -0,0 +1,111 @@
+package oneapi.client.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * State of one subscriber's walk through a USSD menu. A session has at most one message exchange outstanding,
+ * the engine changes it only while holding the session's lock.
+ */
+public class USSDSession {
+	/**
+	 * Why the session ended
+	 */
+	public enum EndReason {
+		COMPLETED, TIMED_OUT, FAILED, STOPPED;
+	};
+
+	private final String address;
+	private final long startTime;
+	private final Map<String, String> replies = new HashMap<String, String>();
+	private volatile String state;
+	private volatile int stepCount = 0;
+	private volatile EndReason endReason = null;
+
+	// accessed while holding the session lock
+	long stepStartTime;
+	TimerWheel.Timeout idleTimeout;
+
+	USSDSession(String address, String startState) {
+		this.address = address;
+		this.state = startState;
+		this.startTime = System.currentTimeMillis();
+	}
+
+	public String getAddress() {
+		return address;
+	}
+
+	/**
+	 * Name of the menu state the session is in
+	 * @return String
+	 */
+	public String getState() {
+		return state;
+	}
+
+	/**
+	 * Session start time in milliseconds
+	 * @return long
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * Number of replies received from the subscriber
+	 * @return int
+	 */
+	public int getStepCount() {
+		return stepCount;
+	}
+
+	/**
+	 * Subscriber's last reply in each visited state
+	 * @return Map<String, String> state name to reply
+	 */
+	public synchronized Map<String, String> getReplies() {
+		return Collections.unmodifiableMap(new HashMap<String, String>(replies));
+	}
+
+	/**
+	 * Subscriber's last reply in the state
+	 * @param state
+	 * @return String or null if the state was not answered
+	 */
+	public synchronized String getReply(String state) {
+		return replies.get(state);
+	}
+
+	/**
+	 * Why the session ended
+	 * @return EndReason or null while the session is active
+	 */
+	public EndReason getEndReason() {
+		return endReason;
+	}
+
+	public boolean isEnded() {
+		return endReason != null;
+	}
+
+	void setState(String state) {
+		this.state = state;
+	}
+
+	void putReply(String state, String reply) {
+		replies.put(state, reply);
+		stepCount++;
+	}
+
+	void end(EndReason endReason) {
+		this.endReason = endReason;
+	}
+
+	@Override
+	public String toString() {
+		return "USSDSession {address=" + address + ", state=" + state + ", stepCount=" + stepCount
+				+ ", endReason=" + endReason + "}";
+	}
+}
@@ -0,0 +1,278 @@
+package oneapi.client.impl;
+
+import java.util.ArrayList;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import oneapi.client.USSDClient;
+import oneapi.exception.RequestException;
+import oneapi.listener.ResponseListener;
+import oneapi.listener.USSDSessionListener;
+import oneapi.model.USSDMenu;
+import oneapi.model.USSDSessionStatistics;
+import oneapi.model.common.InboundSMSMessage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs USSD menu sessions for many subscribers concurrently. Sessions are kept per address in a concurrent map and
+ * exchange messages asynchronously, so no thread waits for a subscriber's reply. A session which gets no reply within
+ * the idle timeout is stopped from the timer wheel.
+ */
+public class USSDSessionEngine {
+	private static final Logger LOGGER = LoggerFactory.getLogger(USSDSessionEngine.class);
+
+	private final USSDClient ussdClient;
+	private final USSDMenu menu;
+	private final long idleTimeout;
+	private final USSDSessionListener listener;
+	private final TimerWheel timerWheel;
+	private final boolean ownTimerWheel;
+	private final ConcurrentMap<String, USSDSession> sessions = new ConcurrentHashMap<String, USSDSession>();
+	private final AtomicLong startedCount = new AtomicLong();
+	private final AtomicLong completedCount = new AtomicLong();
+	private final AtomicLong timedOutCount = new AtomicLong();
+	private final AtomicLong failedCount = new AtomicLong();
+	private final AtomicLong stepCount = new AtomicLong();
+	private final AtomicLong totalStepLatency = new AtomicLong();
+	private final AtomicLong maxStepLatency = new AtomicLong();
+
+	/**
+	 * Initialize USSD session engine
+	 * @param ussdClient - client the messages are exchanged with
+	 * @param menu - menu state machine, it must not be changed while the engine runs
+	 * @param idleTimeout - time to wait for the subscriber's reply in milliseconds
+	 * @param listener - (optional) notified when sessions end
+	 */
+	public USSDSessionEngine(USSDClient ussdClient, USSDMenu menu, long idleTimeout, USSDSessionListener listener) {
+		menu.validate();
+		this.ussdClient = ussdClient;
+		this.menu = menu;
+		this.idleTimeout = idleTimeout;
+		this.listener = listener;
+		if (ussdClient instanceof OneAPIBaseClientImpl) {
+			this.timerWheel = ((OneAPIBaseClientImpl) ussdClient).getTimerWheel();
+			this.ownTimerWheel = false;
+		} else {
+			this.timerWheel = new TimerWheel("oneapi-ussd-session-timeouts", 100, 512);
+			this.ownTimerWheel = true;
+		}
+	}
+
+	/**
+	 * Start a session with the subscriber in the start state of the menu
+	 * @param address
+	 * @return USSDSession
+	 */
+	public USSDSession startSession(String address) {
+		USSDSession session = new USSDSession(address, menu.getStartState());
+		if (sessions.putIfAbsent(address, session) != null) {
+			throw new RequestException("USSD session with '" + address + "' is already active.");
+		}
+
+		startedCount.incrementAndGet();
+		synchronized (session) {
+			enterState(session, menu.getStartState(), null);
+		}
+		return session;
+	}
+
+	/**
+	 * Get the active session with the subscriber
+	 * @param address
+	 * @return USSDSession or null if there is no active session
+	 */
+	public USSDSession getSession(String address) {
+		return sessions.get(address);
+	}
+
+	/**
+	 * Stop the active session with the subscriber
+	 * @param address
+	 * @param message - message the session is stopped with
+	 * @return false if there is no active session
+	 */
+	public boolean stopSession(String address, String message) {
+		USSDSession session = sessions.get(address);
+		if (session == null) {
+			return false;
+		}
+
+		synchronized (session) {
+			if (session.isEnded()) {
+				return false;
+			}
+			endSession(session, USSDSession.EndReason.STOPPED, null);
+		}
+		sendStopSession(address, message);
+		return true;
+	}
+
+	/**
+	 * Stop all active sessions with the menu's timeout message
+	 */
+	public void shutdown() {
+		for (String address : new ArrayList<String>(sessions.keySet())) {
+			stopSession(address, menu.getTimeoutMessage());
+		}
+		if (ownTimerWheel) {
+			timerWheel.stop();
+		}
+	}
+
+	public USSDSessionStatistics getStatistics() {
+		return new USSDSessionStatistics(sessions.size(), startedCount.get(), completedCount.get(), timedOutCount.get(), failedCount.get(),
+				stepCount.get(), totalStepLatency.get(), maxStepLatency.get());
+	}
+
+	/**
+	 * Send the message of the state, or stop the session with it if the state is final. Called holding the session lock.
+	 */
+	private void enterState(final USSDSession session, String stateName, String invalidInputMessage) {
+		USSDMenu.State state = menu.getState(stateName);
+		session.setState(stateName);
+		String message = render(state.getMessage(), session);
+		if (invalidInputMessage != null) {
+			message = invalidInputMessage + "\n" + message;
+		}
+
+		if (state.isFinal()) {
+			endSession(session, USSDSession.EndReason.COMPLETED, null);
+			sendStopSession(session.getAddress(), message);
+			return;
+		}
+
+		final long stepStartTime = System.nanoTime();
+		session.stepStartTime = stepStartTime;
+		session.idleTimeout = timerWheel.schedule(new Runnable() {
+			@Override
+			public void run() {
+				onIdleTimeout(session, stepStartTime);
+			}
+		}, idleTimeout);
+
+		try {
+			ussdClient.sendMessageAsync(session.getAddress(), message, new ResponseListener<InboundSMSMessage>() {
+				@Override
+				public void onGotResponse(InboundSMSMessage reply, Throwable error) {
+					onReply(session, stepStartTime, reply, error);
+				}
+			});
+		} catch (RuntimeException e) {
+			endSession(session, USSDSession.EndReason.FAILED, e);
+		}
+	}
+
+	private void onReply(USSDSession session, long stepStartTime, InboundSMSMessage reply, Throwable error) {
+		synchronized (session) {
+			if (session.isEnded() || session.stepStartTime != stepStartTime) {
+				return;
+			}
+			if (error != null) {
+				endSession(session, USSDSession.EndReason.FAILED, error);
+				return;
+			}
+
+			recordStepLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stepStartTime));
+			String input = reply != null ? reply.getMessage() : null;
+			USSDMenu.State state = menu.getState(session.getState());
+			String nextState = state.getNextState(input);
+			if (nextState == null) {
+				enterState(session, state.getName(), menu.getInvalidInputMessage());
+				return;
+			}
+
+			session.putReply(state.getName(), input);
+			enterState(session, nextState, null);
+		}
+	}
+
+	private void onIdleTimeout(USSDSession session, long stepStartTime) {
+		synchronized (session) {
+			if (session.isEnded() || session.stepStartTime != stepStartTime) {
+				return;
+			}
+			endSession(session, USSDSession.EndReason.TIMED_OUT, null);
+		}
+		sendStopSession(session.getAddress(), menu.getTimeoutMessage());
+	}
+
+	/**
+	 * Mark the session ended, drop it from the active sessions and notify the listener. Called holding the session lock.
+	 */
+	private void endSession(USSDSession session, USSDSession.EndReason endReason, Throwable error) {
+		session.end(endReason);
+		if (session.idleTimeout != null) {
+			session.idleTimeout.cancel();
+			session.idleTimeout = null;
+		}
+		sessions.remove(session.getAddress(), session);
+
+		switch (endReason) {
+			case COMPLETED:
+				completedCount.incrementAndGet();
+				break;
+			case TIMED_OUT:
+				timedOutCount.incrementAndGet();
+				break;
+			case FAILED:
+				failedCount.incrementAndGet();
+				break;
+			default:
+				break;
+		}
+
+		if (listener != null) {
+			try {
+				listener.onSessionEnded(session, error);
+			} catch (RuntimeException e) {
+				LOGGER.warn("USSD session listener failed: " + e.getMessage());
+			}
+		}
+	}
+
+	private void sendStopSession(final String address, String message) {
+		try {
+			ussdClient.stopSessionAsync(address, message, new ResponseListener<Void>() {
+				@Override
+				public void onGotResponse(Void response, Throwable error) {
+					if (error != null && LOGGER.isWarnEnabled()) {
+						LOGGER.warn("Error occured while stopping USSD session with " + address + ". Message: " + error.getMessage());
+					}
+				}
+			});
+		} catch (RuntimeException e) {
+			LOGGER.warn("Error occured while stopping USSD session with " + address + ". Message: " + e.getMessage());
+		}
+	}
+
+	private void recordStepLatency(long latency) {
+		stepCount.incrementAndGet();
+		totalStepLatency.addAndGet(latency);
+		long max;
+		while (latency > (max = maxStepLatency.get())) {
+			if (maxStepLatency.compareAndSet(max, latency)) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Replace '{state}' placeholders with the subscriber's replies
+	 */
+	private static String render(String message, USSDSession session) {
+		if (message == null || message.indexOf('{') < 0) {
+			return message;
+		}
+
+		String rendered = message;
+		for (Entry<String, String> reply : session.getReplies().entrySet()) {
+			rendered = rendered.replace("{" + reply.getKey() + "}", reply.getValue() != null ? reply.getValue() : "");
+		}
+		return rendered;
+	}
+}
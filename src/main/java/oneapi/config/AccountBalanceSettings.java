@@ -0,0 +1,58 @@
+package oneapi.config;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize.Inclusion;
+
+/**
+ * Account balance tracker settings, the balance is refreshed in the background and estimated locally between refreshes
+ */
+@JsonSerialize(include = Inclusion.NON_NULL)
+public class AccountBalanceSettings {
+	private int refreshInterval = 60000;
+	private double pricePerMessage = 0;
+
+	public AccountBalanceSettings() {
+	}
+
+	/**
+	 * Initialize account balance tracker settings
+	 * @param refreshInterval - interval of account balance refreshes in milliseconds
+	 * @param pricePerMessage - price of one sent message, 0 = learned from the balance refreshes
+	 */
+	public AccountBalanceSettings(int refreshInterval, double pricePerMessage) {
+		this.refreshInterval = refreshInterval;
+		this.pricePerMessage = pricePerMessage;
+	}
+
+	/**
+	 * Interval of account balance refreshes in milliseconds (default = 60000)
+	 * @return refreshInterval
+	 */
+	public int getRefreshInterval() {
+		return refreshInterval;
+	}
+
+	/**
+	 * Interval of account balance refreshes in milliseconds (default = 60000)
+	 * @param refreshInterval
+	 */
+	public void setRefreshInterval(int refreshInterval) {
+		this.refreshInterval = refreshInterval;
+	}
+
+	/**
+	 * Price of one sent message in the account currency, 0 = learned from the balance refreshes (default = 0)
+	 * @return pricePerMessage
+	 */
+	public double getPricePerMessage() {
+		return pricePerMessage;
+	}
+
+	/**
+	 * Price of one sent message in the account currency, 0 = learned from the balance refreshes (default = 0)
+	 * @param pricePerMessage
+	 */
+	public void setPricePerMessage(double pricePerMessage) {
+		this.pricePerMessage = pricePerMessage;
+	}
+}
@@ -0,0 +1,149 @@
+package oneapi.config;
+
+/**
+ * SMS campaign settings
+ */
+public class CampaignSettings {
+	private int parallelism = 10;
+	private int messagesPerSecond = 0;
+	private int batchSize = 100;
+	private String checkpointFile = null;
+	private int checkpointInterval = 10;
+	private int progressInterval = 5000;
+	private String campaignId = null;
+
+	public CampaignSettings() {
+	}
+
+	/**
+	 * Initialize campaign settings
+	 * @param messagesPerSecond - maximum number of messages sent per second, 0 = unlimited
+	 * @param checkpointFile - path of the file where the campaign progress is saved, an interrupted campaign resumes from it
+	 * @param campaignId - identifies the campaign in the client correlators of its requests
+	 */
+	public CampaignSettings(int messagesPerSecond, String checkpointFile, String campaignId) {
+		this.messagesPerSecond = messagesPerSecond;
+		this.checkpointFile = checkpointFile;
+		this.campaignId = campaignId;
+	}
+
+	/**
+	 * Maximum number of requests in flight (default = 10)
+	 * @return parallelism
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Maximum number of requests in flight (default = 10)
+	 * @param parallelism
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Maximum number of messages sent per second, a request counts once per recipient (default = 0, unlimited)
+	 * @return messagesPerSecond
+	 */
+	public int getMessagesPerSecond() {
+		return messagesPerSecond;
+	}
+
+	/**
+	 * Maximum number of messages sent per second, a request counts once per recipient (default = 0, unlimited)
+	 * @param messagesPerSecond
+	 */
+	public void setMessagesPerSecond(int messagesPerSecond) {
+		this.messagesPerSecond = messagesPerSecond;
+	}
+
+	/**
+	 * Number of consecutive recipients rendered together, recipients of a batch with the same message are sent in
+	 * requests of at most 'smsBatch.maxRecipients' recipients (default = 100)
+	 * @return batchSize
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Number of consecutive recipients rendered together, recipients of a batch with the same message are sent in
+	 * requests of at most 'smsBatch.maxRecipients' recipients (default = 100)
+	 * @param batchSize
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Path of the file where the campaign progress is saved, an interrupted campaign started again with the same
+	 * checkpoint file skips the requests already sent and sends the failed ones again. The file is deleted when every
+	 * request was sent (default = null, no checkpoints)
+	 * @return checkpointFile
+	 */
+	public String getCheckpointFile() {
+		return checkpointFile;
+	}
+
+	/**
+	 * Path of the file where the campaign progress is saved, an interrupted campaign started again with the same
+	 * checkpoint file skips the requests already sent and sends the failed ones again. The file is deleted when every
+	 * request was sent (default = null, no checkpoints)
+	 * @param checkpointFile
+	 */
+	public void setCheckpointFile(String checkpointFile) {
+		this.checkpointFile = checkpointFile;
+	}
+
+	/**
+	 * Number of completed requests between two checkpoints (default = 10)
+	 * @return checkpointInterval
+	 */
+	public int getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	/**
+	 * Number of completed requests between two checkpoints (default = 10)
+	 * @param checkpointInterval
+	 */
+	public void setCheckpointInterval(int checkpointInterval) {
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	/**
+	 * Interval of the progress reports in milliseconds (default = 5000)
+	 * @return progressInterval
+	 */
+	public int getProgressInterval() {
+		return progressInterval;
+	}
+
+	/**
+	 * Interval of the progress reports in milliseconds (default = 5000)
+	 * @param progressInterval
+	 */
+	public void setProgressInterval(int progressInterval) {
+		this.progressInterval = progressInterval;
+	}
+
+	/**
+	 * Identifies the campaign in the client correlators of its requests ('campaignId-batch-request'), so the server
+	 * recognizes requests sent again after a resume (default = null, requests are sent without client correlator)
+	 * @return campaignId
+	 */
+	public String getCampaignId() {
+		return campaignId;
+	}
+
+	/**
+	 * Identifies the campaign in the client correlators of its requests ('campaignId-batch-request'), so the server
+	 * recognizes requests sent again after a resume (default = null, requests are sent without client correlator)
+	 * @param campaignId
+	 */
+	public void setCampaignId(String campaignId) {
+		this.campaignId = campaignId;
+	}
+}
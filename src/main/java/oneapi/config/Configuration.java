@@ -1,6 +1,8 @@
 package oneapi.config;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
 
 import oneapi.exception.ConfigurationException;
 import oneapi.model.Authentication;
@@ -27,6 +29,16 @@ public class Configuration  {
 	private int dlrStatusPushServerSimulatorPort = 3000;
 	private int inboundMessagesPushServerSimulatorPort = 3001;
 	private int hlrPushServerSimulatorPort = 3002;
+	private Map<String, ResponseCacheSettings> responseCache = new HashMap<String, ResponseCacheSettings>();
+	private HLRCacheSettings hlrCache = null;
+	private NetworkPrefixSettings networkPrefixTable = null;
+	private IBSSOSessionSettings ibssoSession = null;
+	private AccountBalanceSettings accountBalance = null;
+	private SMSBatchSettings smsBatch = null;
+	private SendLogSettings sendLog = null;
+	private SMSDedupSettings smsDedup = null;
+	private SuppressionListSettings suppressionList = null;
+	private SMSPriorityLanesSettings smsPriorityLanes = null;
 	
 	/**
 	 * Initialize configuration object, Login have to be done after initialization 
@@ -98,14 +110,10 @@ public class Configuration  {
 			ObjectMapper mapper = new ObjectMapper();
 			mapper.configure(JsonParser.Feature.ALLOW_COMMENTS, true);
 
-			String configFileName = System.getProperty(CONFIG_FILE_SYSTEM_PROPERTY, DEFAULT_CONFIG_FILE);	
+			String configFileName = getConfigFileName();	
 			Configuration tmpConfig = mapper.readValue(new File(configFileName), Configuration.class);
 
-			authentication = tmpConfig.authentication;
-			apiUrl = tmpConfig.apiUrl;
-			versionOneAPISMS = tmpConfig.versionOneAPISMS;
-			inboundMessagesRetrievingInterval = tmpConfig.inboundMessagesRetrievingInterval;
-			dlrRetrievingInterval = tmpConfig.dlrRetrievingInterval;
+			copyFrom(tmpConfig);
 			
 			if (LOGGER.isInfoEnabled()) LOGGER.info("Data successfully loaded from '{}' configuration file.", configFileName);
 			
@@ -114,6 +122,49 @@ public class Configuration  {
 		}
 	}
 	
+	/**
+	 * Create a detached deep copy, the authentication and all nested settings are copied through their JSON form
+	 * (as they are saved and loaded), so changes of the copy don't affect this configuration and vice versa
+	 * @return Configuration
+	 */
+	public Configuration copy() {
+		try {
+			ObjectMapper mapper = new ObjectMapper();
+			return mapper.readValue(mapper.writeValueAsBytes(this), Configuration.class);
+		} catch (Exception e) {
+			throw new ConfigurationException(e);
+		}
+	}
+
+	/**
+	 * Name of the configuration file, set by the 'sms.client.config' system property (default = etc/client.cfg)
+	 * @return String
+	 */
+	static String getConfigFileName() {
+		return System.getProperty(CONFIG_FILE_SYSTEM_PROPERTY, DEFAULT_CONFIG_FILE);
+	}
+
+	private void copyFrom(Configuration source) {
+		authentication = source.authentication;
+		apiUrl = source.apiUrl;
+		versionOneAPISMS = source.versionOneAPISMS;
+		inboundMessagesRetrievingInterval = source.inboundMessagesRetrievingInterval;
+		dlrRetrievingInterval = source.dlrRetrievingInterval;
+		dlrStatusPushServerSimulatorPort = source.dlrStatusPushServerSimulatorPort;
+		inboundMessagesPushServerSimulatorPort = source.inboundMessagesPushServerSimulatorPort;
+		hlrPushServerSimulatorPort = source.hlrPushServerSimulatorPort;
+		responseCache = source.responseCache;
+		hlrCache = source.hlrCache;
+		networkPrefixTable = source.networkPrefixTable;
+		ibssoSession = source.ibssoSession;
+		accountBalance = source.accountBalance;
+		smsBatch = source.smsBatch;
+		sendLog = source.sendLog;
+		smsDedup = source.smsDedup;
+		suppressionList = source.suppressionList;
+		smsPriorityLanes = source.smsPriorityLanes;
+	}
+	
 	/**
 	 * Save data to the configuration file 
 	 */
@@ -259,5 +310,176 @@ public class Configuration  {
 	public void setHlrPushServerSimulatorPort(int hlrPushServerSimulatorPort) {
 		this.hlrPushServerSimulatorPort = hlrPushServerSimulatorPort;
 	}
-}
 
+	/**
+	 * Response cache settings per cacheable endpoint (see ResponseCacheSettings constants), endpoints without settings are not cached
+	 * @return responseCache
+	 */
+	public Map<String, ResponseCacheSettings> getResponseCache() {
+		return responseCache;
+	}
+
+	/**
+	 * Response cache settings per cacheable endpoint (see ResponseCacheSettings constants), endpoints without settings are not cached
+	 * @param responseCache
+	 */
+	public void setResponseCache(Map<String, ResponseCacheSettings> responseCache) {
+		this.responseCache = responseCache;
+	}
+
+	/**
+	 * Enable response caching for the endpoint
+	 * @param endpoint - one of ResponseCacheSettings constants
+	 * @param settings
+	 */
+	public void setResponseCacheSettings(String endpoint, ResponseCacheSettings settings) {
+		if (responseCache == null) {
+			responseCache = new HashMap<String, ResponseCacheSettings>();
+		}
+		responseCache.put(endpoint, settings);
+	}
+
+	/**
+	 * HLR lookup result cache settings (null = HLR results are not cached)
+	 * @return hlrCache
+	 */
+	public HLRCacheSettings getHlrCache() {
+		return hlrCache;
+	}
+
+	/**
+	 * HLR lookup result cache settings (null = HLR results are not cached)
+	 * @param hlrCache
+	 */
+	public void setHlrCache(HLRCacheSettings hlrCache) {
+		this.hlrCache = hlrCache;
+	}
+
+	/**
+	 * Network prefix table settings (null = network lookups always query HLR and no prefixes are learned)
+	 * @return networkPrefixTable
+	 */
+	public NetworkPrefixSettings getNetworkPrefixTable() {
+		return networkPrefixTable;
+	}
+
+	/**
+	 * Network prefix table settings (null = network lookups always query HLR and no prefixes are learned)
+	 * @param networkPrefixTable
+	 */
+	public void setNetworkPrefixTable(NetworkPrefixSettings networkPrefixTable) {
+		this.networkPrefixTable = networkPrefixTable;
+	}
+
+	/**
+	 * IBSSO session settings (null = IBSSO session is started only by CustomerProfileClient.login() and not refreshed ahead of expiry)
+	 * @return ibssoSession
+	 */
+	public IBSSOSessionSettings getIbssoSession() {
+		return ibssoSession;
+	}
+
+	/**
+	 * IBSSO session settings (null = IBSSO session is started only by CustomerProfileClient.login() and not refreshed ahead of expiry)
+	 * @param ibssoSession
+	 */
+	public void setIbssoSession(IBSSOSessionSettings ibssoSession) {
+		this.ibssoSession = ibssoSession;
+	}
+
+	/**
+	 * Account balance tracker settings (null = account balance is not tracked)
+	 * @return accountBalance
+	 */
+	public AccountBalanceSettings getAccountBalance() {
+		return accountBalance;
+	}
+
+	/**
+	 * Account balance tracker settings (null = account balance is not tracked)
+	 * @param accountBalance
+	 */
+	public void setAccountBalance(AccountBalanceSettings accountBalance) {
+		this.accountBalance = accountBalance;
+	}
+
+	/**
+	 * SMS batch settings used by SMSMessagingClient.sendSMSBatch() and SMSSendQueue (null = default SMSBatchSettings)
+	 * @return smsBatch
+	 */
+	public SMSBatchSettings getSmsBatch() {
+		return smsBatch;
+	}
+
+	/**
+	 * SMS batch settings used by SMSMessagingClient.sendSMSBatch() and SMSSendQueue (null = default SMSBatchSettings)
+	 * @param smsBatch
+	 */
+	public void setSmsBatch(SMSBatchSettings smsBatch) {
+		this.smsBatch = smsBatch;
+	}
+
+	/**
+	 * Send log settings of the durable SMS queue (null = durable SMS queue disabled)
+	 * @return sendLog
+	 */
+	public SendLogSettings getSendLog() {
+		return sendLog;
+	}
+
+	/**
+	 * Send log settings of the durable SMS queue (null = durable SMS queue disabled)
+	 * @param sendLog
+	 */
+	public void setSendLog(SendLogSettings sendLog) {
+		this.sendLog = sendLog;
+	}
+
+	/**
+	 * Duplicate send suppression settings used by SMSMessagingClient.sendSMS() and sendSMSAsync() (null = duplicates are sent)
+	 * @return smsDedup
+	 */
+	public SMSDedupSettings getSmsDedup() {
+		return smsDedup;
+	}
+
+	/**
+	 * Duplicate send suppression settings used by SMSMessagingClient.sendSMS() and sendSMSAsync() (null = duplicates are sent)
+	 * @param smsDedup
+	 */
+	public void setSmsDedup(SMSDedupSettings smsDedup) {
+		this.smsDedup = smsDedup;
+	}
+
+	/**
+	 * Suppression list settings used by SMSMessagingClient.sendSMS() and sendSMSAsync() (null = no recipients are suppressed)
+	 * @return suppressionList
+	 */
+	public SuppressionListSettings getSuppressionList() {
+		return suppressionList;
+	}
+
+	/**
+	 * Suppression list settings used by SMSMessagingClient.sendSMS() and sendSMSAsync() (null = no recipients are suppressed)
+	 * @param suppressionList
+	 */
+	public void setSuppressionList(SuppressionListSettings suppressionList) {
+		this.suppressionList = suppressionList;
+	}
+
+	/**
+	 * Settings of the SMS priority lanes created by SMSClient (null = priority lanes disabled)
+	 * @return smsPriorityLanes
+	 */
+	public SMSPriorityLanesSettings getSmsPriorityLanes() {
+		return smsPriorityLanes;
+	}
+
+	/**
+	 * Settings of the SMS priority lanes created by SMSClient (null = priority lanes disabled)
+	 * @param smsPriorityLanes
+	 */
+	public void setSmsPriorityLanes(SMSPriorityLanesSettings smsPriorityLanes) {
+		this.smsPriorityLanes = smsPriorityLanes;
+	}
+}
@@ -0,0 +1,180 @@
+package oneapi.config;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import oneapi.listener.ConfigurationListener;
+import oneapi.model.Authentication;
+import oneapi.model.Authentication.AuthType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes Configuration snapshots to the clients. Clients read the current snapshot on every request, so a change
+ * published by update() or reload() is used by the next request without restarting the clients or their connections.
+ * Snapshots published by update() and reload() are private deep copies which must not be changed, every snapshot has its
+ * own settings objects; the configuration passed to the constructor is published as it is. Login and
+ * logout publish a new snapshot with the changed IBSSO token instead of changing the current one.
+ */
+public class ConfigurationProvider {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ConfigurationProvider.class);
+
+	private final AtomicReference<Configuration> snapshot;
+	private final List<ConfigurationListener> listeners = new CopyOnWriteArrayList<ConfigurationListener>();
+	private ScheduledExecutorService watcher = null;
+	private ScheduledFuture<?> watcherTask = null;
+	private long lastModified = 0;
+	private long lastLength = 0;
+
+	/**
+	 * Initialize configuration provider
+	 * @param configuration - initial configuration
+	 */
+	public ConfigurationProvider(Configuration configuration) {
+		this.snapshot = new AtomicReference<Configuration>(configuration);
+	}
+
+	/**
+	 * Get the current configuration snapshot
+	 * @return Configuration
+	 */
+	public Configuration get() {
+		return snapshot.get();
+	}
+
+	/**
+	 * Publish a copy of the configuration. The IBSSO token of the current snapshot is kept if the credentials didn't change.
+	 * @param configuration
+	 */
+	public synchronized void update(Configuration configuration) {
+		Configuration current = configuration.copy();
+		keepIbssoToken(snapshot.get().getAuthentication(), current.getAuthentication());
+		publish(current);
+	}
+
+	/**
+	 * Publish a copy of the current snapshot with the IBSSO token obtained by login, or with an empty token after logout
+	 * @param ibssoToken
+	 */
+	public synchronized void updateIbssoToken(String ibssoToken) {
+		Configuration current = snapshot.get().copy();
+		if (ibssoToken != null && ibssoToken.length() != 0) {
+			current.getAuthentication().setType(AuthType.IBSSO);
+		}
+		current.getAuthentication().setIbssoToken(ibssoToken);
+		publish(current);
+	}
+
+	private void publish(Configuration current) {
+		Configuration previous = snapshot.getAndSet(current);
+		for (ConfigurationListener listener : listeners) {
+			try {
+				listener.onConfigurationChanged(previous, current);
+			} catch (RuntimeException e) {
+				LOGGER.warn("Configuration listener failed: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Load the configuration file and publish it, the current snapshot is kept if the file can't be loaded
+	 */
+	public void reload() {
+		Configuration configuration = new Configuration();
+		configuration.load();
+		update(configuration);
+	}
+
+	/**
+	 * Reload the configuration file whenever it changes. Invalid files are logged and the current snapshot is kept.
+	 * @param interval - how often the file is checked in milliseconds
+	 */
+	public synchronized void startWatching(long interval) {
+		stopWatching();
+
+		File configFile = new File(Configuration.getConfigFileName());
+		lastModified = configFile.lastModified();
+		lastLength = configFile.length();
+
+		watcher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "oneapi-config-watcher");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		watcherTask = watcher.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				checkConfigFile();
+			}
+		}, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	public synchronized void stopWatching() {
+		if (watcherTask != null) {
+			watcherTask.cancel(false);
+			watcherTask = null;
+		}
+		if (watcher != null) {
+			watcher.shutdown();
+			watcher = null;
+		}
+	}
+
+	public void addListener(ConfigurationListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(ConfigurationListener listener) {
+		listeners.remove(listener);
+	}
+
+	private void checkConfigFile() {
+		File configFile = new File(Configuration.getConfigFileName());
+		long modified = configFile.lastModified();
+		long length = configFile.length();
+		if (modified == 0 || (modified == lastModified && length == lastLength)) {
+			return;
+		}
+
+		lastModified = modified;
+		lastLength = length;
+		try {
+			reload();
+		} catch (Exception e) {
+			if (LOGGER.isWarnEnabled()) {
+				LOGGER.warn("Configuration file '" + configFile + "' wasn't reloaded. Message: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Carry the IBSSO token obtained by login over to the new snapshot
+	 */
+	private static void keepIbssoToken(Authentication previous, Authentication current) {
+		if (previous == null || current == null || !AuthType.IBSSO.equals(previous.getType())) {
+			return;
+		}
+		if (current.getIbssoToken() != null && current.getIbssoToken().length() != 0) {
+			return;
+		}
+		if (equal(previous.getUsername(), current.getUsername()) && equal(previous.getPassword(), current.getPassword())) {
+			current.setType(AuthType.IBSSO);
+			current.setIbssoToken(previous.getIbssoToken());
+		}
+	}
+
+	private static boolean equal(String a, String b) {
+		return a == null ? b == null : a.equals(b);
+	}
+}
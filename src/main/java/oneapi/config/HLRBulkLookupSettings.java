@@ -0,0 +1,102 @@
+package oneapi.config;
+
+/**
+ * Bulk HLR lookup job settings
+ */
+public class HLRBulkLookupSettings {
+	private int parallelism = 10;
+	private int requestsPerSecond = 0;
+	private String checkpointFile = null;
+	private int checkpointInterval = 1000;
+
+	public HLRBulkLookupSettings() {
+	}
+
+	/**
+	 * Initialize bulk HLR lookup settings
+	 * @param parallelism - maximum number of lookups in flight
+	 * @param requestsPerSecond - maximum number of lookups started per second, 0 = unlimited
+	 */
+	public HLRBulkLookupSettings(int parallelism, int requestsPerSecond) {
+		this.parallelism = parallelism;
+		this.requestsPerSecond = requestsPerSecond;
+	}
+
+	/**
+	 * Initialize bulk HLR lookup settings
+	 * @param parallelism - maximum number of lookups in flight
+	 * @param requestsPerSecond - maximum number of lookups started per second, 0 = unlimited
+	 * @param checkpointFile - path of the file where the job progress is saved, an interrupted job resumes from it
+	 */
+	public HLRBulkLookupSettings(int parallelism, int requestsPerSecond, String checkpointFile) {
+		this.parallelism = parallelism;
+		this.requestsPerSecond = requestsPerSecond;
+		this.checkpointFile = checkpointFile;
+	}
+
+	/**
+	 * Maximum number of lookups in flight (default = 10)
+	 * @return parallelism
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Maximum number of lookups in flight (default = 10)
+	 * @param parallelism
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Maximum number of lookups started per second (default = 0, unlimited)
+	 * @return requestsPerSecond
+	 */
+	public int getRequestsPerSecond() {
+		return requestsPerSecond;
+	}
+
+	/**
+	 * Maximum number of lookups started per second (default = 0, unlimited)
+	 * @param requestsPerSecond
+	 */
+	public void setRequestsPerSecond(int requestsPerSecond) {
+		this.requestsPerSecond = requestsPerSecond;
+	}
+
+	/**
+	 * Path of the file where the job progress is saved, an interrupted job started again with the same checkpoint file
+	 * skips the addresses already looked up. The file is deleted when the job completes (default = null, no checkpoints)
+	 * @return checkpointFile
+	 */
+	public String getCheckpointFile() {
+		return checkpointFile;
+	}
+
+	/**
+	 * Path of the file where the job progress is saved, an interrupted job started again with the same checkpoint file
+	 * skips the addresses already looked up. The file is deleted when the job completes (default = null, no checkpoints)
+	 * @param checkpointFile
+	 */
+	public void setCheckpointFile(String checkpointFile) {
+		this.checkpointFile = checkpointFile;
+	}
+
+	/**
+	 * Number of completed lookups between two checkpoints (default = 1000)
+	 * @return checkpointInterval
+	 */
+	public int getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	/**
+	 * Number of completed lookups between two checkpoints (default = 1000)
+	 * @param checkpointInterval
+	 */
+	public void setCheckpointInterval(int checkpointInterval) {
+		this.checkpointInterval = checkpointInterval;
+	}
+}
@@ -0,0 +1,130 @@
+package oneapi.config;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize.Inclusion;
+
+/**
+ * HLR lookup result cache settings
+ */
+@JsonSerialize(include = Inclusion.NON_NULL)
+public class HLRCacheSettings {
+	private int timeToLive = 3600000;
+	private int errorTimeToLive = 30000;
+	private int incorrectNumberTimeToLive = 300000;
+	private int maxEntries = 100000;
+	private String storeFile = null;
+	private int storeMaxEntries = 100000;
+
+	public HLRCacheSettings() {
+	}
+
+	/**
+	 * Initialize HLR cache settings
+	 * @param timeToLive - time in milliseconds a successful HLR result is cached
+	 * @param errorTimeToLive - time in milliseconds a failed lookup is cached
+	 * @param incorrectNumberTimeToLive - time in milliseconds an HLR result with 'isNumberCorrect' = false is cached
+	 * @param maxEntries - maximum number of cached addresses (least recently used are evicted first)
+	 */
+	public HLRCacheSettings(int timeToLive, int errorTimeToLive, int incorrectNumberTimeToLive, int maxEntries) {
+		this.timeToLive = timeToLive;
+		this.errorTimeToLive = errorTimeToLive;
+		this.incorrectNumberTimeToLive = incorrectNumberTimeToLive;
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Time in milliseconds a successful HLR result is cached (default = 1 hour)
+	 * @return timeToLive
+	 */
+	public int getTimeToLive() {
+		return timeToLive;
+	}
+
+	/**
+	 * Time in milliseconds a successful HLR result is cached (default = 1 hour)
+	 * @param timeToLive
+	 */
+	public void setTimeToLive(int timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Time in milliseconds a failed lookup (error response or 'Error' retrieval status) is cached (default = 30 seconds)
+	 * @return errorTimeToLive
+	 */
+	public int getErrorTimeToLive() {
+		return errorTimeToLive;
+	}
+
+	/**
+	 * Time in milliseconds a failed lookup (error response or 'Error' retrieval status) is cached (default = 30 seconds)
+	 * @param errorTimeToLive
+	 */
+	public void setErrorTimeToLive(int errorTimeToLive) {
+		this.errorTimeToLive = errorTimeToLive;
+	}
+
+	/**
+	 * Time in milliseconds an HLR result with 'isNumberCorrect' = false is cached (default = 5 minutes)
+	 * @return incorrectNumberTimeToLive
+	 */
+	public int getIncorrectNumberTimeToLive() {
+		return incorrectNumberTimeToLive;
+	}
+
+	/**
+	 * Time in milliseconds an HLR result with 'isNumberCorrect' = false is cached (default = 5 minutes)
+	 * @param incorrectNumberTimeToLive
+	 */
+	public void setIncorrectNumberTimeToLive(int incorrectNumberTimeToLive) {
+		this.incorrectNumberTimeToLive = incorrectNumberTimeToLive;
+	}
+
+	/**
+	 * Maximum number of cached addresses, least recently used are evicted first (default = 100000)
+	 * @return maxEntries
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * Maximum number of cached addresses, least recently used are evicted first (default = 100000)
+	 * @param maxEntries
+	 */
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Path of the file where HLR results are persisted, shared by all processes using the same file (default = null, results are kept in memory only)
+	 * @return storeFile
+	 */
+	public String getStoreFile() {
+		return storeFile;
+	}
+
+	/**
+	 * Path of the file where HLR results are persisted, shared by all processes using the same file (default = null, results are kept in memory only)
+	 * @param storeFile
+	 */
+	public void setStoreFile(String storeFile) {
+		this.storeFile = storeFile;
+	}
+
+	/**
+	 * Number of results the store file can hold when it is created, each takes 1 KB of disk (default = 100000)
+	 * @return storeMaxEntries
+	 */
+	public int getStoreMaxEntries() {
+		return storeMaxEntries;
+	}
+
+	/**
+	 * Number of results the store file can hold when it is created, each takes 1 KB of disk (default = 100000)
+	 * @param storeMaxEntries
+	 */
+	public void setStoreMaxEntries(int storeMaxEntries) {
+		this.storeMaxEntries = storeMaxEntries;
+	}
+}
@@ -0,0 +1,58 @@
+package oneapi.config;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize.Inclusion;
+
+/**
+ * IBSSO session settings, the session is started by the first request which needs it and refreshed before it expires
+ */
+@JsonSerialize(include = Inclusion.NON_NULL)
+public class IBSSOSessionSettings {
+	private int timeToLive = 1800000;
+	private int refreshAhead = 60000;
+
+	public IBSSOSessionSettings() {
+	}
+
+	/**
+	 * Initialize IBSSO session settings
+	 * @param timeToLive - lifetime of the IBSSO token in milliseconds
+	 * @param refreshAhead - how long before the token expires a new login is made in milliseconds
+	 */
+	public IBSSOSessionSettings(int timeToLive, int refreshAhead) {
+		this.timeToLive = timeToLive;
+		this.refreshAhead = refreshAhead;
+	}
+
+	/**
+	 * Lifetime of the IBSSO token in milliseconds, 0 = the token is never refreshed ahead of expiry (default = 1800000)
+	 * @return timeToLive
+	 */
+	public int getTimeToLive() {
+		return timeToLive;
+	}
+
+	/**
+	 * Lifetime of the IBSSO token in milliseconds, 0 = the token is never refreshed ahead of expiry (default = 1800000)
+	 * @param timeToLive
+	 */
+	public void setTimeToLive(int timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * How long before the token expires a new login is made in the background in milliseconds (default = 60000)
+	 * @return refreshAhead
+	 */
+	public int getRefreshAhead() {
+		return refreshAhead;
+	}
+
+	/**
+	 * How long before the token expires a new login is made in the background in milliseconds (default = 60000)
+	 * @param refreshAhead
+	 */
+	public void setRefreshAhead(int refreshAhead) {
+		this.refreshAhead = refreshAhead;
+	}
+}
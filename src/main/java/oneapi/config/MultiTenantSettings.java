@@ -0,0 +1,92 @@
+package oneapi.config;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize.Inclusion;
+
+/**
+ * Settings of the transport shared by the tenants of MultiTenantSMSClient
+ */
+@JsonSerialize(include = Inclusion.NON_NULL)
+public class MultiTenantSettings {
+	private int maxInFlight = 200;
+	private int tenantMaxInFlight = 20;
+	private int maxConnections = 100;
+	private int schedulerThreads = 2;
+
+	public MultiTenantSettings() {
+	}
+
+	/**
+	 * Initialize multi-tenant settings
+	 * @param maxInFlight - maximum number of requests in flight for all tenants together
+	 * @param tenantMaxInFlight - maximum number of requests in flight for one tenant
+	 */
+	public MultiTenantSettings(int maxInFlight, int tenantMaxInFlight) {
+		this.maxInFlight = maxInFlight;
+		this.tenantMaxInFlight = tenantMaxInFlight;
+	}
+
+	/**
+	 * Maximum number of requests in flight for all tenants together, waiting tenants are served in turn (default = 200)
+	 * @return maxInFlight
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * Maximum number of requests in flight for all tenants together, waiting tenants are served in turn (default = 200)
+	 * @param maxInFlight
+	 */
+	public void setMaxInFlight(int maxInFlight) {
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * Default maximum number of requests in flight for one tenant (default = 20)
+	 * @return tenantMaxInFlight
+	 */
+	public int getTenantMaxInFlight() {
+		return tenantMaxInFlight;
+	}
+
+	/**
+	 * Default maximum number of requests in flight for one tenant (default = 20)
+	 * @param tenantMaxInFlight
+	 */
+	public void setTenantMaxInFlight(int tenantMaxInFlight) {
+		this.tenantMaxInFlight = tenantMaxInFlight;
+	}
+
+	/**
+	 * Maximum number of connections of the shared asynchronous http client (default = 100)
+	 * @return maxConnections
+	 */
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	/**
+	 * Maximum number of connections of the shared asynchronous http client (default = 100)
+	 * @param maxConnections
+	 */
+	public void setMaxConnections(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+
+	/**
+	 * Number of threads of the shared scheduler running retrievers and session refreshes (default = 2)
+	 * @return schedulerThreads
+	 */
+	public int getSchedulerThreads() {
+		return schedulerThreads;
+	}
+
+	/**
+	 * Number of threads of the shared scheduler running retrievers and session refreshes (default = 2)
+	 * @param schedulerThreads
+	 */
+	public void setSchedulerThreads(int schedulerThreads) {
+		this.schedulerThreads = schedulerThreads;
+	}
+}
@@ -0,0 +1,58 @@
+package oneapi.config;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize.Inclusion;
+
+/**
+ * Network prefix table settings, the table is learned from HLR results and answers network lookups locally
+ */
+@JsonSerialize(include = Inclusion.NON_NULL)
+public class NetworkPrefixSettings {
+	private int minObservations = 3;
+	private int maxPortedPercent = 5;
+
+	public NetworkPrefixSettings() {
+	}
+
+	/**
+	 * Initialize network prefix table settings
+	 * @param minObservations - number of HLR results with the prefix needed before the prefix answers lookups
+	 * @param maxPortedPercent - prefix doesn't answer lookups if more of its HLR results were ported numbers
+	 */
+	public NetworkPrefixSettings(int minObservations, int maxPortedPercent) {
+		this.minObservations = minObservations;
+		this.maxPortedPercent = maxPortedPercent;
+	}
+
+	/**
+	 * Number of HLR results with the prefix needed before the prefix answers lookups (default = 3)
+	 * @return minObservations
+	 */
+	public int getMinObservations() {
+		return minObservations;
+	}
+
+	/**
+	 * Number of HLR results with the prefix needed before the prefix answers lookups (default = 3)
+	 * @param minObservations
+	 */
+	public void setMinObservations(int minObservations) {
+		this.minObservations = minObservations;
+	}
+
+	/**
+	 * Prefix doesn't answer lookups if more than this percentage of its HLR results were ported numbers (default = 5)
+	 * @return maxPortedPercent
+	 */
+	public int getMaxPortedPercent() {
+		return maxPortedPercent;
+	}
+
+	/**
+	 * Prefix doesn't answer lookups if more than this percentage of its HLR results were ported numbers (default = 5)
+	 * @param maxPortedPercent
+	 */
+	public void setMaxPortedPercent(int maxPortedPercent) {
+		this.maxPortedPercent = maxPortedPercent;
+	}
+}
@@ -0,0 +1,83 @@
+package oneapi.config;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize.Inclusion;
+
+/**
+ * Response cache settings of a single cacheable endpoint
+ */
+@JsonSerialize(include = Inclusion.NON_NULL)
+public class ResponseCacheSettings {
+	public static final String MO_NUMBER_TYPES = "moNumberTypes";
+	public static final String CUSTOMER_PROFILE = "customerProfile";
+	public static final String CUSTOMER_PROFILES = "customerProfiles";
+	public static final String DELIVERY_NOTIFICATIONS_SUBSCRIPTIONS = "deliveryNotificationsSubscriptions";
+	public static final String INBOUND_MESSAGES_NOTIFICATIONS_SUBSCRIPTIONS = "inboundMessagesNotificationsSubscriptions";
+
+	private int timeToLive = 0;
+	private int staleWhileRevalidate = 0;
+	private int maxEntries = 100;
+
+	public ResponseCacheSettings() {
+	}
+
+	/**
+	 * Initialize response cache settings
+	 * @param timeToLive - time in milliseconds a cached response is served without going to the server
+	 * @param staleWhileRevalidate - time in milliseconds after 'timeToLive' during which the stale response is still served while it is refreshed in the background
+	 * @param maxEntries - maximum number of cached responses for the endpoint (least recently used are evicted first)
+	 */
+	public ResponseCacheSettings(int timeToLive, int staleWhileRevalidate, int maxEntries) {
+		this.timeToLive = timeToLive;
+		this.staleWhileRevalidate = staleWhileRevalidate;
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Time in milliseconds a cached response is served without going to the server (0 = caching disabled)
+	 * @return timeToLive
+	 */
+	public int getTimeToLive() {
+		return timeToLive;
+	}
+
+	/**
+	 * Time in milliseconds a cached response is served without going to the server (0 = caching disabled)
+	 * @param timeToLive
+	 */
+	public void setTimeToLive(int timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Time in milliseconds after 'timeToLive' during which the stale response is still served while it is refreshed in the background
+	 * @return staleWhileRevalidate
+	 */
+	public int getStaleWhileRevalidate() {
+		return staleWhileRevalidate;
+	}
+
+	/**
+	 * Time in milliseconds after 'timeToLive' during which the stale response is still served while it is refreshed in the background
+	 * @param staleWhileRevalidate
+	 */
+	public void setStaleWhileRevalidate(int staleWhileRevalidate) {
+		this.staleWhileRevalidate = staleWhileRevalidate;
+	}
+
+	/**
+	 * Maximum number of cached responses for the endpoint (least recently used are evicted first)
+	 * @return maxEntries
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * Maximum number of cached responses for the endpoint (least recently used are evicted first)
+	 * @param maxEntries
+	 */
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+}
@@ -0,0 +1,69 @@
+package oneapi.config;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize.Inclusion;
+
+/**
+ * SMS batch settings, requests with the same sender, message, notify url and callback data are merged into
+ * multi-recipient requests by SMSMessagingClient.sendSMSBatch() and SMSSendQueue
+ */
+@JsonSerialize(include = Inclusion.NON_NULL)
+public class SMSBatchSettings {
+	private int maxRecipients = 1000;
+	private int window = 20;
+
+	public SMSBatchSettings() {
+	}
+
+	/**
+	 * Initialize SMS batch settings
+	 * @param maxRecipients - maximum number of recipients of a merged request
+	 */
+	public SMSBatchSettings(int maxRecipients) {
+		this.maxRecipients = maxRecipients;
+	}
+
+	/**
+	 * Initialize SMS batch settings
+	 * @param maxRecipients - maximum number of recipients of a merged request
+	 * @param window - how long SMSSendQueue collects requests before sending them in milliseconds
+	 */
+	public SMSBatchSettings(int maxRecipients, int window) {
+		this.maxRecipients = maxRecipients;
+		this.window = window;
+	}
+
+	/**
+	 * Maximum number of recipients of a merged request, also of a request queued in the SMS priority lanes (default = 1000)
+	 * @return maxRecipients
+	 */
+	public int getMaxRecipients() {
+		return maxRecipients;
+	}
+
+	/**
+	 * Maximum number of recipients of a merged request, also of a request queued in the SMS priority lanes (default = 1000)
+	 * @param maxRecipients
+	 */
+	public void setMaxRecipients(int maxRecipients) {
+		this.maxRecipients = maxRecipients;
+	}
+
+	/**
+	 * How long SMSSendQueue collects requests before sending them in milliseconds, the queue is sent earlier when it
+	 * reaches maxRecipients recipients (default = 20)
+	 * @return window
+	 */
+	public int getWindow() {
+		return window;
+	}
+
+	/**
+	 * How long SMSSendQueue collects requests before sending them in milliseconds, the queue is sent earlier when it
+	 * reaches maxRecipients recipients (default = 20)
+	 * @param window
+	 */
+	public void setWindow(int window) {
+		this.window = window;
+	}
+}
@@ -0,0 +1,80 @@
+package oneapi.config;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize.Inclusion;
+
+/**
+ * Duplicate send suppression settings, a request with the client correlator or the content (sender, recipients and
+ * message) of a recently sent request gets the result of the original request instead of being sent again
+ */
+@JsonSerialize(include = Inclusion.NON_NULL)
+public class SMSDedupSettings {
+	private int timeToLive = 60000;
+	private int maxEntries = 1000000;
+	private boolean matchContent = true;
+
+	public SMSDedupSettings() {
+	}
+
+	/**
+	 * Initialize duplicate send suppression settings
+	 * @param timeToLive - time in milliseconds a sent request is remembered
+	 * @param maxEntries - maximum number of remembered keys (oldest are forgotten first)
+	 */
+	public SMSDedupSettings(int timeToLive, int maxEntries) {
+		this.timeToLive = timeToLive;
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Time in milliseconds a sent request is remembered (default = 1 minute)
+	 * @return timeToLive
+	 */
+	public int getTimeToLive() {
+		return timeToLive;
+	}
+
+	/**
+	 * Time in milliseconds a sent request is remembered (default = 1 minute)
+	 * @param timeToLive
+	 */
+	public void setTimeToLive(int timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Maximum number of remembered keys, a request is remembered by its client correlator and by its content
+	 * (default = 1000000)
+	 * @return maxEntries
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * Maximum number of remembered keys, a request is remembered by its client correlator and by its content
+	 * (default = 1000000)
+	 * @param maxEntries
+	 */
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Suppress requests with the same sender, recipients and message, otherwise only the client correlator is
+	 * compared (default = true)
+	 * @return matchContent
+	 */
+	public boolean isMatchContent() {
+		return matchContent;
+	}
+
+	/**
+	 * Suppress requests with the same sender, recipients and message, otherwise only the client correlator is
+	 * compared (default = true)
+	 * @param matchContent
+	 */
+	public void setMatchContent(boolean matchContent) {
+		this.matchContent = matchContent;
+	}
+}
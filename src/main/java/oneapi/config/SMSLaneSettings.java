@@ -0,0 +1,81 @@
+package oneapi.config;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize.Inclusion;
+
+/**
+ * Settings of one priority lane of SMSPriorityLanes
+ */
+@JsonSerialize(include = Inclusion.NON_NULL)
+public class SMSLaneSettings {
+	private int weight = 1;
+	private int capacity = 10000;
+	private int maxDelay = 0;
+
+	public SMSLaneSettings() {
+	}
+
+	/**
+	 * Initialize lane settings
+	 * @param weight - share of the send budget the lane gets while other lanes have queued requests
+	 * @param capacity - maximum number of queued requests
+	 * @param maxDelay - queueing time in milliseconds after which a request is sent before the requests of all other lanes, 0 = no deadline
+	 */
+	public SMSLaneSettings(int weight, int capacity, int maxDelay) {
+		this.weight = weight;
+		this.capacity = capacity;
+		this.maxDelay = maxDelay;
+	}
+
+	/**
+	 * Share of the send budget (recipients) the lane gets while other lanes have queued requests, a lane with weight 10
+	 * sends ten recipients for every recipient of a lane with weight 1 (default = 1)
+	 * @return weight
+	 */
+	public int getWeight() {
+		return weight;
+	}
+
+	/**
+	 * Share of the send budget (recipients) the lane gets while other lanes have queued requests, a lane with weight 10
+	 * sends ten recipients for every recipient of a lane with weight 1 (default = 1)
+	 * @param weight
+	 */
+	public void setWeight(int weight) {
+		this.weight = weight;
+	}
+
+	/**
+	 * Maximum number of queued requests, requests sent to a full lane are rejected (default = 10000)
+	 * @return capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Maximum number of queued requests, requests sent to a full lane are rejected (default = 10000)
+	 * @param capacity
+	 */
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Queueing time in milliseconds after which a request is sent before the requests of all other lanes, overdue requests
+	 * are sent earliest deadline first (default = 0, no deadline)
+	 * @return maxDelay
+	 */
+	public int getMaxDelay() {
+		return maxDelay;
+	}
+
+	/**
+	 * Queueing time in milliseconds after which a request is sent before the requests of all other lanes, overdue requests
+	 * are sent earliest deadline first (default = 0, no deadline)
+	 * @param maxDelay
+	 */
+	public void setMaxDelay(int maxDelay) {
+		this.maxDelay = maxDelay;
+	}
+}
@@ -0,0 +1,83 @@
+package oneapi.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize.Inclusion;
+
+/**
+ * SMS priority lanes settings, requests queued in named lanes share the in-flight slots and the send rate by the
+ * weights of the lanes, so one-time passwords are not stuck behind a marketing campaign
+ */
+@JsonSerialize(include = Inclusion.NON_NULL)
+public class SMSPriorityLanesSettings {
+	private int maxInFlight = 20;
+	private int messagesPerSecond = 0;
+	private Map<String, SMSLaneSettings> lanes = new LinkedHashMap<String, SMSLaneSettings>();
+
+	public SMSPriorityLanesSettings() {
+		lanes.put("otp", new SMSLaneSettings(100, 1000, 1000));
+		lanes.put("transactional", new SMSLaneSettings(10, 10000, 10000));
+		lanes.put("bulk", new SMSLaneSettings(1, 100000, 0));
+	}
+
+	/**
+	 * Initialize priority lanes settings with the default lanes
+	 * @param maxInFlight - maximum number of requests in flight for all lanes together
+	 * @param messagesPerSecond - maximum number of messages (recipients) sent per second by all lanes together, 0 = unlimited
+	 */
+	public SMSPriorityLanesSettings(int maxInFlight, int messagesPerSecond) {
+		this();
+		this.maxInFlight = maxInFlight;
+		this.messagesPerSecond = messagesPerSecond;
+	}
+
+	/**
+	 * Maximum number of requests in flight for all lanes together (default = 20)
+	 * @return maxInFlight
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * Maximum number of requests in flight for all lanes together (default = 20)
+	 * @param maxInFlight
+	 */
+	public void setMaxInFlight(int maxInFlight) {
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * Maximum number of messages sent per second by all lanes together, a request counts once per recipient (default = 0, unlimited)
+	 * @return messagesPerSecond
+	 */
+	public int getMessagesPerSecond() {
+		return messagesPerSecond;
+	}
+
+	/**
+	 * Maximum number of messages sent per second by all lanes together, a request counts once per recipient (default = 0, unlimited)
+	 * @param messagesPerSecond
+	 */
+	public void setMessagesPerSecond(int messagesPerSecond) {
+		this.messagesPerSecond = messagesPerSecond;
+	}
+
+	/**
+	 * Lanes by name (default = 'otp' weight 100 with 1 s deadline, 'transactional' weight 10 with 10 s deadline, 'bulk' weight 1)
+	 * @return lanes
+	 */
+	public Map<String, SMSLaneSettings> getLanes() {
+		return lanes;
+	}
+
+	/**
+	 * Lanes by name (default = 'otp' weight 100 with 1 s deadline, 'transactional' weight 10 with 10 s deadline, 'bulk' weight 1)
+	 * @param lanes
+	 */
+	public void setLanes(Map<String, SMSLaneSettings> lanes) {
+		this.lanes = lanes;
+	}
+}
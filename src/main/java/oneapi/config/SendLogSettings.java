@@ -0,0 +1,127 @@
+package oneapi.config;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize.Inclusion;
+
+/**
+ * Durable SMS queue settings, queued requests are kept in an append-only log of memory mapped segment files until
+ * they are acknowledged, so a restarted client sends only the requests which were not sent
+ */
+@JsonSerialize(include = Inclusion.NON_NULL)
+public class SendLogSettings {
+	private String directory = null;
+	private int segmentSize = 16777216;
+	private int commitInterval = 5;
+	private int messagesPerSecond = 0;
+	private int retryDelay = 5000;
+	private int maxAttempts = 10;
+
+	public SendLogSettings() {
+	}
+
+	/**
+	 * Initialize durable SMS queue settings
+	 * @param directory - directory of the send log segment files
+	 * @param messagesPerSecond - maximum number of messages (recipients) sent per second, 0 = unlimited
+	 */
+	public SendLogSettings(String directory, int messagesPerSecond) {
+		this.directory = directory;
+		this.messagesPerSecond = messagesPerSecond;
+	}
+
+	/**
+	 * Directory of the send log segment files (mandatory)
+	 * @return directory
+	 */
+	public String getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Directory of the send log segment files (mandatory)
+	 * @param directory
+	 */
+	public void setDirectory(String directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Size of a send log segment file in bytes, acknowledged segments are deleted (default = 16 MB)
+	 * @return segmentSize
+	 */
+	public int getSegmentSize() {
+		return segmentSize;
+	}
+
+	/**
+	 * Size of a send log segment file in bytes, acknowledged segments are deleted (default = 16 MB)
+	 * @param segmentSize
+	 */
+	public void setSegmentSize(int segmentSize) {
+		this.segmentSize = segmentSize;
+	}
+
+	/**
+	 * Time in milliseconds appended requests are collected before they are synced to disk together, 0 = every request is synced as soon as it is appended (default = 5)
+	 * @return commitInterval
+	 */
+	public int getCommitInterval() {
+		return commitInterval;
+	}
+
+	/**
+	 * Time in milliseconds appended requests are collected before they are synced to disk together, 0 = every request is synced as soon as it is appended (default = 5)
+	 * @param commitInterval
+	 */
+	public void setCommitInterval(int commitInterval) {
+		this.commitInterval = commitInterval;
+	}
+
+	/**
+	 * Maximum number of messages (recipients) sent per second, 0 = unlimited (default = 0)
+	 * @return messagesPerSecond
+	 */
+	public int getMessagesPerSecond() {
+		return messagesPerSecond;
+	}
+
+	/**
+	 * Maximum number of messages (recipients) sent per second, 0 = unlimited (default = 0)
+	 * @param messagesPerSecond
+	 */
+	public void setMessagesPerSecond(int messagesPerSecond) {
+		this.messagesPerSecond = messagesPerSecond;
+	}
+
+	/**
+	 * Time in milliseconds before a failed request is sent again (default = 5000)
+	 * @return retryDelay
+	 */
+	public int getRetryDelay() {
+		return retryDelay;
+	}
+
+	/**
+	 * Time in milliseconds before a failed request is sent again (default = 5000)
+	 * @param retryDelay
+	 */
+	public void setRetryDelay(int retryDelay) {
+		this.retryDelay = retryDelay;
+	}
+
+	/**
+	 * Number of attempts after which a failing request is acknowledged as failed, 0 = retried until it is sent (default = 10)
+	 * @return maxAttempts
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * Number of attempts after which a failing request is acknowledged as failed, 0 = retried until it is sent (default = 10)
+	 * @param maxAttempts
+	 */
+	public void setMaxAttempts(int maxAttempts) {
+		this.maxAttempts = maxAttempts;
+	}
+}
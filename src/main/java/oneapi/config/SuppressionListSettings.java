@@ -0,0 +1,103 @@
+package oneapi.config;
+
+import java.util.Arrays;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize.Inclusion;
+
+/**
+ * Suppression list settings, recipients found on the opt-out and blacklist files are removed from every request sent by
+ * SMSMessagingClient.sendSMS() and sendSMSAsync()
+ */
+@JsonSerialize(include = Inclusion.NON_NULL)
+public class SuppressionListSettings {
+	private String[] files = null;
+	private String indexDirectory = null;
+	private int bloomFilterBitsPerEntry = 10;
+
+	public SuppressionListSettings() {
+	}
+
+	/**
+	 * Initialize suppression list settings
+	 * @param files - text files with one suppressed address per line
+	 */
+	public SuppressionListSettings(String... files) {
+		this.files = files;
+	}
+
+	/**
+	 * Text files with one suppressed address per line in any format accepted by AddressNormalizer.toE164(), lines which
+	 * are not E.164 numbers are ignored (mandatory)
+	 * @return files
+	 */
+	public String[] getFiles() {
+		return files;
+	}
+
+	/**
+	 * Text files with one suppressed address per line in any format accepted by AddressNormalizer.toE164(), lines which
+	 * are not E.164 numbers are ignored (mandatory)
+	 * @param files
+	 */
+	public void setFiles(String[] files) {
+		this.files = files;
+	}
+
+	/**
+	 * Directory of the sorted index files ('<file name>.idx') built from the list files and memory mapped, an index is
+	 * rebuilt when its list file is newer (default = null, next to the list file)
+	 * @return indexDirectory
+	 */
+	public String getIndexDirectory() {
+		return indexDirectory;
+	}
+
+	/**
+	 * Directory of the sorted index files ('<file name>.idx') built from the list files and memory mapped, an index is
+	 * rebuilt when its list file is newer (default = null, next to the list file)
+	 * @param indexDirectory
+	 */
+	public void setIndexDirectory(String indexDirectory) {
+		this.indexDirectory = indexDirectory;
+	}
+
+	/**
+	 * Size of the Bloom filter checked before the index in bits per suppressed number, 10 bits give about 1% false
+	 * positives (default = 10, 0 = no Bloom filter)
+	 * @return bloomFilterBitsPerEntry
+	 */
+	public int getBloomFilterBitsPerEntry() {
+		return bloomFilterBitsPerEntry;
+	}
+
+	/**
+	 * Size of the Bloom filter checked before the index in bits per suppressed number, 10 bits give about 1% false
+	 * positives (default = 10, 0 = no Bloom filter)
+	 * @param bloomFilterBitsPerEntry
+	 */
+	public void setBloomFilterBitsPerEntry(int bloomFilterBitsPerEntry) {
+		this.bloomFilterBitsPerEntry = bloomFilterBitsPerEntry;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+
+		SuppressionListSettings that = (SuppressionListSettings) o;
+
+		if (!Arrays.equals(files, that.files)) return false;
+		if (indexDirectory != null ? !indexDirectory.equals(that.indexDirectory) : that.indexDirectory != null) return false;
+		if (bloomFilterBitsPerEntry != that.bloomFilterBitsPerEntry) return false;
+
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Arrays.hashCode(files);
+		result = 31 * result + (indexDirectory != null ? indexDirectory.hashCode() : 0);
+		return 31 * result + bloomFilterBitsPerEntry;
+	}
+}
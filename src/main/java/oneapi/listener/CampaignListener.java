@@ -0,0 +1,24 @@
+package oneapi.listener;
+
+import java.util.EventListener;
+
+import oneapi.model.CampaignSummary;
+import oneapi.model.SMSRequest;
+import oneapi.model.SendMessageResult;
+
+public interface CampaignListener extends EventListener {
+	/**
+	 * Called in completion order, one call at a time
+	 * @param batchIndex position of the batch in the campaign input
+	 * @param smsRequest request carrying the recipients of the batch with the same message
+	 * @param result send result or null if the request failed
+	 * @param error send error or null
+	 */
+	public void onSMSResult(long batchIndex, SMSRequest smsRequest, SendMessageResult result, Throwable error);
+
+	/**
+	 * Called every 'progressInterval' milliseconds while the campaign runs
+	 * @param progress
+	 */
+	public void onProgress(CampaignSummary progress);
+}
@@ -0,0 +1,14 @@
+package oneapi.listener;
+
+import java.util.EventListener;
+
+import oneapi.config.Configuration;
+
+public interface ConfigurationListener extends EventListener {
+	/**
+	 * Called after a new configuration snapshot is published
+	 * @param previous snapshot replaced by the change
+	 * @param current published snapshot
+	 */
+	public void onConfigurationChanged(Configuration previous, Configuration current);
+}
@@ -0,0 +1,16 @@
+package oneapi.listener;
+
+import java.util.EventListener;
+
+import oneapi.model.SMSRequest;
+import oneapi.model.SendMessageResult;
+
+public interface DurableSMSQueueListener extends EventListener {
+	/**
+	 * Called when a queued request is acknowledged, either sent or failed after the last attempt
+	 * @param smsRequest queued request, its client correlator identifies it
+	 * @param result send result, null if the request failed
+	 * @param error error of the last attempt, null if the request was sent
+	 */
+	public void onSMSAcknowledged(SMSRequest smsRequest, SendMessageResult result, Throwable error);
+}
@@ -0,0 +1,16 @@
+package oneapi.listener;
+
+import java.util.EventListener;
+
+import oneapi.model.common.Roaming;
+
+public interface HLRBulkLookupListener extends EventListener {
+	/**
+	 * Called in completion order, one call at a time
+	 * @param index position of the address in the job input
+	 * @param address
+	 * @param roaming HLR result or null if the lookup failed
+	 * @param error lookup error or null
+	 */
+	public void onHLRResult(long index, String address, Roaming roaming, Throwable error);
+}
@@ -0,0 +1,14 @@
+package oneapi.listener;
+
+import java.util.EventListener;
+
+import oneapi.client.impl.USSDSession;
+
+public interface USSDSessionListener extends EventListener {
+	/**
+	 * Called once when the session ends, the call must be short because it can run on the timer thread
+	 * @param session ended session, its end reason and the subscriber's replies
+	 * @param error request error if the session failed, otherwise null
+	 */
+	public void onSessionEnded(USSDSession session, Throwable error);
+}
@@ -0,0 +1,104 @@
+package oneapi.model;
+
+/**
+ * SMS campaign progress, reported while the campaign runs and returned when it ends
+ */
+public class CampaignSummary {
+	private long totalCount;
+	private long sentCount;
+	private long failedCount;
+	private long skippedCount;
+	private long elapsedTime;
+
+	public CampaignSummary(long totalCount, long sentCount, long failedCount, long skippedCount, long elapsedTime) {
+		this.totalCount = totalCount;
+		this.sentCount = sentCount;
+		this.failedCount = failedCount;
+		this.skippedCount = skippedCount;
+		this.elapsedTime = elapsedTime;
+	}
+
+	/**
+	 * Number of recipients in the campaign input
+	 * @return totalCount
+	 */
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * Number of recipients whose message was accepted by the server
+	 * @return sentCount
+	 */
+	public long getSentCount() {
+		return sentCount;
+	}
+
+	/**
+	 * Number of recipients whose request failed
+	 * @return failedCount
+	 */
+	public long getFailedCount() {
+		return failedCount;
+	}
+
+	/**
+	 * Number of recipients skipped because they were sent before the campaign was resumed from a checkpoint
+	 * @return skippedCount
+	 */
+	public long getSkippedCount() {
+		return skippedCount;
+	}
+
+	/**
+	 * Time since the campaign was started or resumed in milliseconds
+	 * @return elapsedTime
+	 */
+	public long getElapsedTime() {
+		return elapsedTime;
+	}
+
+	/**
+	 * Number of recipients still to be sent
+	 * @return long
+	 */
+	public long getRemainingCount() {
+		return Math.max(0, totalCount - sentCount - failedCount - skippedCount);
+	}
+
+	/**
+	 * Sent and failed recipients per second since the campaign was started or resumed
+	 * @return double
+	 */
+	public double getThroughput() {
+		return elapsedTime > 0 ? (sentCount + failedCount) * 1000.0 / elapsedTime : 0;
+	}
+
+	/**
+	 * Share of the completed recipients which failed
+	 * @return double between 0 and 1
+	 */
+	public double getErrorRate() {
+		long completed = sentCount + failedCount;
+		return completed > 0 ? (double) failedCount / completed : 0;
+	}
+
+	/**
+	 * Estimated time until the campaign ends in milliseconds, at the throughput so far
+	 * @return long or -1 if nothing was sent yet
+	 */
+	public long getEstimatedTimeRemaining() {
+		double throughput = getThroughput();
+		if (throughput <= 0) {
+			return -1;
+		}
+		return (long) (getRemainingCount() * 1000 / throughput);
+	}
+
+	@Override
+	public String toString() {
+		return "CampaignSummary {totalCount=" + totalCount + ", sentCount=" + sentCount + ", failedCount=" + failedCount
+				+ ", skippedCount=" + skippedCount + ", elapsedTime=" + elapsedTime + ", throughput=" + String.format("%.1f", getThroughput())
+				+ ", estimatedTimeRemaining=" + getEstimatedTimeRemaining() + "}";
+	}
+}
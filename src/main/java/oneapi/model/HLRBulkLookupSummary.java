@@ -0,0 +1,57 @@
+package oneapi.model;
+
+/**
+ * Bulk HLR lookup job summary
+ */
+public class HLRBulkLookupSummary {
+	private long succeededCount;
+	private long failedCount;
+	private long skippedCount;
+	private long elapsedTime;
+
+	public HLRBulkLookupSummary(long succeededCount, long failedCount, long skippedCount, long elapsedTime) {
+		this.succeededCount = succeededCount;
+		this.failedCount = failedCount;
+		this.skippedCount = skippedCount;
+		this.elapsedTime = elapsedTime;
+	}
+
+	/**
+	 * Number of lookups which returned the HLR result
+	 * @return succeededCount
+	 */
+	public long getSucceededCount() {
+		return succeededCount;
+	}
+
+	/**
+	 * Number of lookups which failed
+	 * @return failedCount
+	 */
+	public long getFailedCount() {
+		return failedCount;
+	}
+
+	/**
+	 * Number of addresses skipped because they were looked up before the job was resumed from a checkpoint
+	 * @return skippedCount
+	 */
+	public long getSkippedCount() {
+		return skippedCount;
+	}
+
+	/**
+	 * Job duration in milliseconds
+	 * @return elapsedTime
+	 */
+	public long getElapsedTime() {
+		return elapsedTime;
+	}
+
+	@Override
+	public String toString() {
+		return "HLRBulkLookupSummary {succeededCount=" + succeededCount
+				+ ", failedCount=" + failedCount + ", skippedCount="
+				+ skippedCount + ", elapsedTime=" + elapsedTime + "}";
+	}
+}
@@ -0,0 +1,87 @@
+package oneapi.model;
+
+/**
+ * Snapshot of the HLR lookup cache statistics
+ */
+public class HLRCacheStatistics {
+	private long hitCount;
+	private long negativeHitCount;
+	private long storeHitCount;
+	private long missCount;
+	private long evictionCount;
+	private long size;
+
+	public HLRCacheStatistics(long hitCount, long negativeHitCount, long storeHitCount, long missCount, long evictionCount, long size) {
+		this.hitCount = hitCount;
+		this.negativeHitCount = negativeHitCount;
+		this.storeHitCount = storeHitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+		this.size = size;
+	}
+
+	/**
+	 * Number of lookups served from the cache (including negative hits)
+	 * @return hitCount
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Number of lookups served from cached failures and incorrect numbers
+	 * @return negativeHitCount
+	 */
+	public long getNegativeHitCount() {
+		return negativeHitCount;
+	}
+
+	/**
+	 * Number of lookups served from the store file because the address was not cached in memory (included in hits)
+	 * @return storeHitCount
+	 */
+	public long getStoreHitCount() {
+		return storeHitCount;
+	}
+
+	/**
+	 * Number of lookups sent to the server
+	 * @return missCount
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Number of entries evicted because the cache was full
+	 * @return evictionCount
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Number of currently cached addresses
+	 * @return size
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Ratio of lookups served from the cache
+	 * @return double between 0 and 1
+	 */
+	public double getHitRate() {
+		long requestCount = hitCount + missCount;
+		return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+	}
+
+	@Override
+	public String toString() {
+		return "HLRCacheStatistics {hitCount=" + hitCount + ", negativeHitCount="
+				+ negativeHitCount + ", storeHitCount=" + storeHitCount + ", missCount=" + missCount
+				+ ", evictionCount=" + evictionCount + ", size=" + size
+				+ ", hitRate=" + getHitRate() + "}";
+	}
+}
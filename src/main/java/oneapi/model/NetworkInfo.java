@@ -0,0 +1,67 @@
+package oneapi.model;
+
+/**
+ * Network serving the mobile number
+ */
+public class NetworkInfo {
+	private String address;
+	private String mccMnc;
+	private String networkName;
+	private String prefix;
+	private boolean resolvedLocally;
+
+	public NetworkInfo(String address, String mccMnc, String networkName, String prefix, boolean resolvedLocally) {
+		this.address = address;
+		this.mccMnc = mccMnc;
+		this.networkName = networkName;
+		this.prefix = prefix;
+		this.resolvedLocally = resolvedLocally;
+	}
+
+	/**
+	 * Looked up address
+	 * @return address
+	 */
+	public String getAddress() {
+		return address;
+	}
+
+	/**
+	 * MCC and MNC of the network
+	 * @return mccMnc
+	 */
+	public String getMccMnc() {
+		return mccMnc;
+	}
+
+	/**
+	 * Network name
+	 * @return networkName
+	 */
+	public String getNetworkName() {
+		return networkName;
+	}
+
+	/**
+	 * Longest learned prefix matching the address (null if the address matched no prefix)
+	 * @return prefix
+	 */
+	public String getPrefix() {
+		return prefix;
+	}
+
+	/**
+	 * True if the network was resolved from the prefix table, false if HLR was queried
+	 * @return resolvedLocally
+	 */
+	public boolean isResolvedLocally() {
+		return resolvedLocally;
+	}
+
+	@Override
+	public String toString() {
+		return "NetworkInfo {address=" + address + ", mccMnc=" + mccMnc
+				+ ", networkName=" + networkName + ", prefix=" + prefix
+				+ ", resolvedLocally=" + resolvedLocally + "}";
+	}
+}
@@ -0,0 +1,67 @@
+package oneapi.model;
+
+/**
+ * Snapshot of the network prefix table statistics
+ */
+public class NetworkPrefixStatistics {
+	private long hitCount;
+	private long missCount;
+	private long ambiguousCount;
+	private long prefixCount;
+
+	public NetworkPrefixStatistics(long hitCount, long missCount, long ambiguousCount, long prefixCount) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.ambiguousCount = ambiguousCount;
+		this.prefixCount = prefixCount;
+	}
+
+	/**
+	 * Number of network lookups answered from the prefix table (HLR queries saved)
+	 * @return hitCount
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Number of network lookups which queried HLR, including the ambiguous ones
+	 * @return missCount
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Number of network lookups which matched a prefix, but queried HLR because the prefix maps to more networks,
+	 * has too few HLR results or too many ported numbers
+	 * @return ambiguousCount
+	 */
+	public long getAmbiguousCount() {
+		return ambiguousCount;
+	}
+
+	/**
+	 * Number of learned prefixes
+	 * @return prefixCount
+	 */
+	public long getPrefixCount() {
+		return prefixCount;
+	}
+
+	/**
+	 * Ratio of network lookups answered from the prefix table
+	 * @return double between 0 and 1
+	 */
+	public double getHitRate() {
+		long requestCount = hitCount + missCount;
+		return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+	}
+
+	@Override
+	public String toString() {
+		return "NetworkPrefixStatistics {hitCount=" + hitCount + ", missCount="
+				+ missCount + ", ambiguousCount=" + ambiguousCount
+				+ ", prefixCount=" + prefixCount + ", hitRate=" + getHitRate() + "}";
+	}
+}
@@ -7,6 +7,9 @@ public class RequestData {
 	private String rootElement = "";
 	private Object formParams = null;
 	private String contentType = "";
+	private boolean idempotent = false;
+	private String cacheRegion = null;
+	private boolean sessionRequired = true;
 
 	/**
 	 * Supported protocol types
@@ -77,5 +80,42 @@ public class RequestData {
 
 	public void setContentType(String contentType) {
 		this.contentType = contentType;
-	}     
+	}
+
+	/**
+	 * Idempotent requests (reads without side effects) can be shared with identical requests already in flight
+	 * @return boolean
+	 */
+	public boolean isIdempotent() {
+		return idempotent;
+	}
+
+	public void setIdempotent(boolean idempotent) {
+		this.idempotent = idempotent;
+	}
+
+	/**
+	 * Name of the response cache region (endpoint) the response can be cached in, see ResponseCacheSettings
+	 * @return String
+	 */
+	public String getCacheRegion() {
+		return cacheRegion;
+	}
+
+	public void setCacheRegion(String cacheRegion) {
+		this.cacheRegion = cacheRegion;
+	}
+
+	/**
+	 * Requests which need an IBSSO session start it on demand and are repeated once with a new session when the session expires.
+	 * Login request doesn't need a session.
+	 * @return boolean
+	 */
+	public boolean isSessionRequired() {
+		return sessionRequired;
+	}
+
+	public void setSessionRequired(boolean sessionRequired) {
+		this.sessionRequired = sessionRequired;
+	}
 }
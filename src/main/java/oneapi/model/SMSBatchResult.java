@@ -0,0 +1,92 @@
+package oneapi.model;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Results of SMSMessagingClient.sendSMSBatch() mapped back to the original requests
+ */
+public class SMSBatchResult {
+	private final Map<SMSRequest, SendMessageResult> results;
+	private final Map<SMSRequest, Throwable> errors;
+	private final int sentRequestCount;
+	private final long invalidAddressCount;
+	private final long duplicateAddressCount;
+
+	public SMSBatchResult(Map<SMSRequest, SendMessageResult> results, Map<SMSRequest, Throwable> errors, int sentRequestCount) {
+		this(results, errors, sentRequestCount, 0, 0);
+	}
+
+	public SMSBatchResult(Map<SMSRequest, SendMessageResult> results, Map<SMSRequest, Throwable> errors, int sentRequestCount,
+			long invalidAddressCount, long duplicateAddressCount) {
+		this.results = results;
+		this.errors = errors;
+		this.sentRequestCount = sentRequestCount;
+		this.invalidAddressCount = invalidAddressCount;
+		this.duplicateAddressCount = duplicateAddressCount;
+	}
+
+	/**
+	 * Result of the original request, it contains only the result items of the request's recipients
+	 * @param smsRequest
+	 * @return SendMessageResult or null if the request failed
+	 */
+	public SendMessageResult getResult(SMSRequest smsRequest) {
+		return results.get(smsRequest);
+	}
+
+	/**
+	 * Error of the original request
+	 * @param smsRequest
+	 * @return Throwable or null if the request was sent
+	 */
+	public Throwable getError(SMSRequest smsRequest) {
+		return errors.get(smsRequest);
+	}
+
+	/**
+	 * Results of the sent requests in the order of the batch
+	 * @return Map<SMSRequest, SendMessageResult>
+	 */
+	public Map<SMSRequest, SendMessageResult> getResults() {
+		return Collections.unmodifiableMap(results);
+	}
+
+	/**
+	 * Errors of the failed requests in the order of the batch, a request split between merged requests may have both a partial result and an error
+	 * @return Map<SMSRequest, Throwable>
+	 */
+	public Map<SMSRequest, Throwable> getErrors() {
+		return Collections.unmodifiableMap(errors);
+	}
+
+	/**
+	 * Number of merged requests sent to the server
+	 * @return sentRequestCount
+	 */
+	public int getSentRequestCount() {
+		return sentRequestCount;
+	}
+
+	/**
+	 * Number of recipient addresses skipped by SMSMessagingClient.sendSMSToRecipients() because they are not E.164 numbers
+	 * @return invalidAddressCount
+	 */
+	public long getInvalidAddressCount() {
+		return invalidAddressCount;
+	}
+
+	/**
+	 * Number of recipient addresses skipped by SMSMessagingClient.sendSMSToRecipients() because the number was already sent to
+	 * @return duplicateAddressCount
+	 */
+	public long getDuplicateAddressCount() {
+		return duplicateAddressCount;
+	}
+
+	@Override
+	public String toString() {
+		return "SMSBatchResult {results=" + results.size() + ", errors=" + errors.size() + ", sentRequestCount=" + sentRequestCount
+				+ ", invalidAddressCount=" + invalidAddressCount + ", duplicateAddressCount=" + duplicateAddressCount + "}";
+	}
+}
@@ -0,0 +1,130 @@
+package oneapi.model;
+
+/**
+ * Snapshot of the statistics of one SMS priority lane
+ */
+public class SMSLaneStatistics {
+	private String lane;
+	private int queueDepth;
+	private long acceptedCount;
+	private long rejectedCount;
+	private long dispatchedCount;
+	private long sentCount;
+	private long failedCount;
+	private long totalQueueTime;
+	private long maxQueueTime;
+	private long totalLatency;
+	private long maxLatency;
+
+	public SMSLaneStatistics(String lane, int queueDepth, long acceptedCount, long rejectedCount, long dispatchedCount, long sentCount, long failedCount,
+			long totalQueueTime, long maxQueueTime, long totalLatency, long maxLatency) {
+		this.lane = lane;
+		this.queueDepth = queueDepth;
+		this.acceptedCount = acceptedCount;
+		this.rejectedCount = rejectedCount;
+		this.dispatchedCount = dispatchedCount;
+		this.sentCount = sentCount;
+		this.failedCount = failedCount;
+		this.totalQueueTime = totalQueueTime;
+		this.maxQueueTime = maxQueueTime;
+		this.totalLatency = totalLatency;
+		this.maxLatency = maxLatency;
+	}
+
+	/**
+	 * Name of the lane
+	 * @return lane
+	 */
+	public String getLane() {
+		return lane;
+	}
+
+	/**
+	 * Number of requests currently queued in the lane
+	 * @return queueDepth
+	 */
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	/**
+	 * Number of requests queued in the lane
+	 * @return acceptedCount
+	 */
+	public long getAcceptedCount() {
+		return acceptedCount;
+	}
+
+	/**
+	 * Number of requests rejected because the lane was full
+	 * @return rejectedCount
+	 */
+	public long getRejectedCount() {
+		return rejectedCount;
+	}
+
+	/**
+	 * Number of requests taken from the lane and sent to the server
+	 * @return dispatchedCount
+	 */
+	public long getDispatchedCount() {
+		return dispatchedCount;
+	}
+
+	/**
+	 * Number of requests accepted by the server
+	 * @return sentCount
+	 */
+	public long getSentCount() {
+		return sentCount;
+	}
+
+	/**
+	 * Number of requests which failed
+	 * @return failedCount
+	 */
+	public long getFailedCount() {
+		return failedCount;
+	}
+
+	/**
+	 * Average time a request waited in the lane in milliseconds
+	 * @return double
+	 */
+	public double getAverageQueueTime() {
+		return dispatchedCount == 0 ? 0 : (double) totalQueueTime / dispatchedCount;
+	}
+
+	/**
+	 * Longest time a request waited in the lane in milliseconds
+	 * @return maxQueueTime
+	 */
+	public long getMaxQueueTime() {
+		return maxQueueTime;
+	}
+
+	/**
+	 * Average time from queueing a request to receiving its response in milliseconds
+	 * @return double
+	 */
+	public double getAverageLatency() {
+		long completedCount = sentCount + failedCount;
+		return completedCount == 0 ? 0 : (double) totalLatency / completedCount;
+	}
+
+	/**
+	 * Longest time from queueing a request to receiving its response in milliseconds
+	 * @return maxLatency
+	 */
+	public long getMaxLatency() {
+		return maxLatency;
+	}
+
+	@Override
+	public String toString() {
+		return "SMSLaneStatistics {lane=" + lane + ", queueDepth=" + queueDepth + ", acceptedCount=" + acceptedCount
+				+ ", rejectedCount=" + rejectedCount + ", dispatchedCount=" + dispatchedCount + ", sentCount=" + sentCount
+				+ ", failedCount=" + failedCount + ", averageQueueTime=" + getAverageQueueTime() + ", maxQueueTime=" + maxQueueTime
+				+ ", averageLatency=" + getAverageLatency() + ", maxLatency=" + maxLatency + "}";
+	}
+}
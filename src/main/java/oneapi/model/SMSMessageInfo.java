@@ -0,0 +1,100 @@
+package oneapi.model;
+
+/**
+ * Encoding and segmentation of an SMS message text, see SMSMessageAnalyzer
+ */
+public class SMSMessageInfo {
+	/**
+	 * Alphabet the message is encoded with
+	 */
+	public enum Encoding {
+		GSM7, UCS2;
+	};
+
+	private Encoding encoding;
+	private int characterCount;
+	private int length;
+	private int segmentCount;
+	private int charactersPerSegment;
+	private int remaining;
+	private int firstUCS2Index;
+
+	public SMSMessageInfo(Encoding encoding, int characterCount, int length, int segmentCount, int charactersPerSegment, int remaining, int firstUCS2Index) {
+		this.encoding = encoding;
+		this.characterCount = characterCount;
+		this.length = length;
+		this.segmentCount = segmentCount;
+		this.charactersPerSegment = charactersPerSegment;
+		this.remaining = remaining;
+		this.firstUCS2Index = firstUCS2Index;
+	}
+
+	public Encoding getEncoding() {
+		return encoding;
+	}
+
+	/**
+	 * Number of characters of the text, a character outside the basic multilingual plane (e.g. an emoji) counts once
+	 * @return characterCount
+	 */
+	public int getCharacterCount() {
+		return characterCount;
+	}
+
+	/**
+	 * Encoded length in septets for GSM7 (extension table characters take two) or 16-bit code units for UCS2
+	 * @return length
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Number of messages the text is sent as
+	 * @return segmentCount
+	 */
+	public int getSegmentCount() {
+		return segmentCount;
+	}
+
+	/**
+	 * Septets or code units per segment: 160 or 153 for GSM7, 70 or 67 for UCS2 when the text is split
+	 * @return charactersPerSegment
+	 */
+	public int getCharactersPerSegment() {
+		return charactersPerSegment;
+	}
+
+	/**
+	 * Septets or code units left in the last segment
+	 * @return remaining
+	 */
+	public int getRemaining() {
+		return remaining;
+	}
+
+	/**
+	 * Index of the first character which is not in the GSM 03.38 alphabet
+	 * @return firstUCS2Index or -1 if the text is GSM7
+	 */
+	public int getFirstUCS2Index() {
+		return firstUCS2Index;
+	}
+
+	/**
+	 * Estimated price of sending the text, every segment is charged as one message
+	 * @param pricePerMessage - price of one message
+	 * @param recipientCount - number of recipients
+	 * @return double
+	 */
+	public double estimateCost(double pricePerMessage, int recipientCount) {
+		return pricePerMessage * segmentCount * recipientCount;
+	}
+
+	@Override
+	public String toString() {
+		return "SMSMessageInfo {encoding=" + encoding + ", characterCount=" + characterCount + ", length=" + length
+				+ ", segmentCount=" + segmentCount + ", charactersPerSegment=" + charactersPerSegment + ", remaining=" + remaining
+				+ ", firstUCS2Index=" + firstUCS2Index + "}";
+	}
+}
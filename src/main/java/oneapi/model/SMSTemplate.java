@@ -0,0 +1,165 @@
+package oneapi.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import oneapi.exception.ConfigurationException;
+import oneapi.exception.RequestException;
+
+/**
+ * Message text with '{name}' placeholders, parsed once and rendered for many recipients. '{{' and '}}' stand for
+ * literal braces. Values are passed in the order of getVariableNames() and rendered into a caller supplied buffer,
+ * so rendering a message allocates nothing until its text is needed as a String.
+ * A template is immutable and can be shared between threads.
+ */
+public class SMSTemplate {
+	private final String template;
+	private final String[] literals;
+	private final int[] variables;
+	private final String[] variableNames;
+	private final int literalLength;
+
+	/**
+	 * Parse the template
+	 * @param template - message text with '{name}' placeholders, a name may be used more than once
+	 */
+	public SMSTemplate(String template) {
+		if (template == null) {
+			throw new ConfigurationException("SMS template is missing.");
+		}
+
+		List<String> literalList = new ArrayList<String>();
+		List<Integer> variableList = new ArrayList<Integer>();
+		List<String> nameList = new ArrayList<String>();
+		StringBuilder literal = new StringBuilder();
+		int i = 0;
+		while (i < template.length()) {
+			char c = template.charAt(i);
+			if ((c == '{' || c == '}') && i + 1 < template.length() && template.charAt(i + 1) == c) {
+				literal.append(c);
+				i += 2;
+			} else if (c == '{') {
+				int end = template.indexOf('}', i + 1);
+				if (end < 0) {
+					throw new ConfigurationException("SMS template placeholder at " + i + " is not closed.");
+				}
+				String name = template.substring(i + 1, end).trim();
+				if (name.length() == 0) {
+					throw new ConfigurationException("SMS template placeholder at " + i + " has no name.");
+				}
+				int variable = nameList.indexOf(name);
+				if (variable < 0) {
+					variable = nameList.size();
+					nameList.add(name);
+				}
+				literalList.add(literal.toString());
+				variableList.add(variable);
+				literal.setLength(0);
+				i = end + 1;
+			} else if (c == '}') {
+				throw new ConfigurationException("SMS template has an unmatched '}' at " + i + ".");
+			} else {
+				literal.append(c);
+				i++;
+			}
+		}
+		literalList.add(literal.toString());
+
+		this.template = template;
+		this.literals = literalList.toArray(new String[literalList.size()]);
+		this.variables = new int[variableList.size()];
+		for (int v = 0; v < variables.length; v++) {
+			variables[v] = variableList.get(v);
+		}
+		this.variableNames = nameList.toArray(new String[nameList.size()]);
+		int length = 0;
+		for (String part : literals) {
+			length += part.length();
+		}
+		this.literalLength = length;
+	}
+
+	/**
+	 * Template text as it was parsed
+	 * @return String
+	 */
+	public String getTemplate() {
+		return template;
+	}
+
+	/**
+	 * Names of the placeholders in the order of their first use, values are passed in this order
+	 * @return String[]
+	 */
+	public String[] getVariableNames() {
+		return variableNames.clone();
+	}
+
+	/**
+	 * Position of the variable in the values passed to render()
+	 * @param name
+	 * @return int or -1 if the template has no such placeholder
+	 */
+	public int indexOfVariable(String name) {
+		for (int i = 0; i < variableNames.length; i++) {
+			if (variableNames[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Render the values into the buffer, the buffer is cleared first so it can be reused for every recipient
+	 * @param out - buffer the message is rendered into
+	 * @param values - values in the order of getVariableNames()
+	 */
+	public void render(StringBuilder out, CharSequence... values) {
+		if (values.length < variableNames.length) {
+			throw new RequestException("SMS template needs " + variableNames.length + " values " + Arrays.toString(variableNames) + ", got " + values.length + ".");
+		}
+
+		out.setLength(0);
+		out.ensureCapacity(literalLength + 16 * variables.length);
+		for (int i = 0; i < variables.length; i++) {
+			out.append(literals[i]);
+			CharSequence value = values[variables[i]];
+			if (value == null) {
+				throw new RequestException("Value of SMS template variable '" + variableNames[variables[i]] + "' is missing.");
+			}
+			out.append(value);
+		}
+		out.append(literals[variables.length]);
+	}
+
+	/**
+	 * Render the message
+	 * @param values - values in the order of getVariableNames()
+	 * @return String
+	 */
+	public String render(CharSequence... values) {
+		StringBuilder out = new StringBuilder(literalLength + 16 * variables.length);
+		render(out, values);
+		return out.toString();
+	}
+
+	/**
+	 * Render the message with values looked up by placeholder name
+	 * @param values - placeholder name to value
+	 * @return String
+	 */
+	public String render(Map<String, ? extends CharSequence> values) {
+		CharSequence[] orderedValues = new CharSequence[variableNames.length];
+		for (int i = 0; i < variableNames.length; i++) {
+			orderedValues[i] = values.get(variableNames[i]);
+		}
+		return render(orderedValues);
+	}
+
+	@Override
+	public String toString() {
+		return "SMSTemplate {template=" + template + ", variableNames=" + Arrays.toString(variableNames) + "}";
+	}
+}
@@ -0,0 +1,158 @@
+package oneapi.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recipients of an SMSTemplate grouped by their rendered message. Every recipient's message is rendered into one
+ * reusable buffer and matched against the messages rendered so far, a String is created only for a message which was
+ * not seen before. getRequests() returns one multi-recipient request per distinct message, send them with
+ * SMSMessagingClient.sendSMSBatch() which splits them by the maximum number of recipients.
+ * A batch is not thread safe.
+ */
+public class SMSTemplateBatch {
+	private static final int INITIAL_TABLE_SIZE = 64;
+
+	private final SMSTemplate template;
+	private final String senderAddress;
+	private final String senderName;
+	private final String notifyURL;
+	private final String callbackData;
+	private final StringBuilder buffer = new StringBuilder();
+	private final List<Group> groups = new ArrayList<Group>();
+	private Group[] table = new Group[INITIAL_TABLE_SIZE];
+	private int recipientCount = 0;
+
+	/**
+	 * Initialize template batch
+	 * @param template - message template
+	 * @param senderAddress - address to whom a responding SMS may be sent
+	 */
+	public SMSTemplateBatch(SMSTemplate template, String senderAddress) {
+		this(template, senderAddress, null, null, null);
+	}
+
+	/**
+	 * Initialize template batch
+	 * @param template - message template
+	 * @param senderAddress - address to whom a responding SMS may be sent
+	 * @param senderName - name to appear on the user's terminal as the sender of the message
+	 * @param notifyURL - URL to which delivery notifications are sent
+	 * @param callbackData - data passed back to the notifyURL location
+	 */
+	public SMSTemplateBatch(SMSTemplate template, String senderAddress, String senderName, String notifyURL, String callbackData) {
+		this.template = template;
+		this.senderAddress = senderAddress;
+		this.senderName = senderName;
+		this.notifyURL = notifyURL;
+		this.callbackData = callbackData;
+	}
+
+	/**
+	 * Render the recipient's message and add the recipient to the group of recipients with the same message
+	 * @param address - recipient address
+	 * @param values - values in the order of SMSTemplate.getVariableNames()
+	 */
+	public void add(String address, CharSequence... values) {
+		template.render(buffer, values);
+		int hash = hash(buffer);
+		int mask = table.length - 1;
+		int position = hash & mask;
+		Group group;
+		while ((group = table[position]) != null) {
+			if (group.hash == hash && group.message.contentEquals(buffer)) {
+				break;
+			}
+			position = (position + 1) & mask;
+		}
+
+		if (group == null) {
+			group = new Group(buffer.toString(), hash);
+			groups.add(group);
+			table[position] = group;
+			if (groups.size() * 2 > table.length) {
+				resize();
+			}
+		}
+		group.addresses.add(address);
+		recipientCount++;
+	}
+
+	/**
+	 * One request per distinct message carrying all its recipients, in the order the messages were first rendered
+	 * @return List<SMSRequest>
+	 */
+	public List<SMSRequest> getRequests() {
+		List<SMSRequest> smsRequests = new ArrayList<SMSRequest>(groups.size());
+		for (Group group : groups) {
+			smsRequests.add(new SMSRequest(senderAddress, group.message, null, notifyURL, senderName, callbackData,
+					group.addresses.toArray(new String[group.addresses.size()])));
+		}
+		return smsRequests;
+	}
+
+	/**
+	 * Number of added recipients
+	 * @return int
+	 */
+	public int getRecipientCount() {
+		return recipientCount;
+	}
+
+	/**
+	 * Number of distinct rendered messages
+	 * @return int
+	 */
+	public int getMessageCount() {
+		return groups.size();
+	}
+
+	/**
+	 * Remove all recipients, the template and sender stay
+	 */
+	public void clear() {
+		groups.clear();
+		table = new Group[INITIAL_TABLE_SIZE];
+		recipientCount = 0;
+	}
+
+	private void resize() {
+		table = new Group[table.length * 2];
+		int mask = table.length - 1;
+		for (Group group : groups) {
+			int position = group.hash & mask;
+			while (table[position] != null) {
+				position = (position + 1) & mask;
+			}
+			table[position] = group;
+		}
+	}
+
+	private static int hash(CharSequence text) {
+		int hash = 0;
+		for (int i = 0, n = text.length(); i < n; i++) {
+			hash = 31 * hash + text.charAt(i);
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	@Override
+	public String toString() {
+		return "SMSTemplateBatch {template=" + template.getTemplate() + ", senderAddress=" + senderAddress + ", recipientCount=" + recipientCount
+				+ ", messageCount=" + groups.size() + "}";
+	}
+
+	/**
+	 * Recipients of one distinct message
+	 */
+	private static final class Group {
+		private final String message;
+		private final int hash;
+		private final List<String> addresses = new ArrayList<String>();
+
+		private Group(String message, int hash) {
+			this.message = message;
+			this.hash = hash;
+		}
+	}
+}
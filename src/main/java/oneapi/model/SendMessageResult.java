@@ -2,6 +2,8 @@ package oneapi.model;
 
 import java.util.Arrays;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import oneapi.model.common.ResourceReference;
 
 public class SendMessageResult {
@@ -9,6 +11,7 @@ public class SendMessageResult {
 	private String clientCorrelator;
 	private SendMessageResultItem[] sendMessageResults;
 	private ResourceReference resourceReference;
+	private int suppressedCount = 0;
 	
 	public SendMessageResult() {
 		super();
@@ -38,10 +41,25 @@ public class SendMessageResult {
 		this.resourceReference = resourceReference;
 	}
 
+	/**
+	 * Number of recipients removed from the request because they are on the suppression list, the request is not
+	 * sent when all its recipients are suppressed
+	 * @return suppressedCount
+	 */
+	@JsonIgnore
+	public int getSuppressedCount() {
+		return suppressedCount;
+	}
+
+	@JsonIgnore
+	public void setSuppressedCount(int suppressedCount) {
+		this.suppressedCount = suppressedCount;
+	}
+
 	@Override
 	public String toString() {
 		return "SendMessageResult {clientCorrelator=" + clientCorrelator
 				+ ", sendMessageResults=" + Arrays.toString(sendMessageResults)
-				+ ", resourceReference=" + resourceReference + "}";
+				+ ", resourceReference=" + resourceReference + ", suppressedCount=" + suppressedCount + "}";
 	}	
 }
@@ -0,0 +1,189 @@
+package oneapi.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import oneapi.exception.ConfigurationException;
+
+/**
+ * Declarative USSD menu state machine. Every state has a message sent to the subscriber; the subscriber's reply selects
+ * the transition to the next state, and the session is stopped with the message of the final state it reaches.
+ * Messages may contain '{state}' placeholders which are replaced by the reply the subscriber gave in that state.
+ */
+public class USSDMenu {
+	private final String startState;
+	private final Map<String, State> states = new HashMap<String, State>();
+	private String invalidInputMessage = null;
+	private String timeoutMessage = "Session timed out.";
+
+	/**
+	 * Initialize USSD menu
+	 * @param startState - name of the state sessions start in
+	 */
+	public USSDMenu(String startState) {
+		this.startState = startState;
+	}
+
+	/**
+	 * Add a state waiting for the subscriber's reply
+	 * @param name
+	 * @param message - message sent to the subscriber
+	 * @return USSDMenu
+	 */
+	public USSDMenu addState(String name, String message) {
+		states.put(name, new State(name, message, false));
+		return this;
+	}
+
+	/**
+	 * Add a state which stops the session
+	 * @param name
+	 * @param message - message the session is stopped with
+	 * @return USSDMenu
+	 */
+	public USSDMenu addFinalState(String name, String message) {
+		states.put(name, new State(name, message, true));
+		return this;
+	}
+
+	/**
+	 * Move from the state to the next state when the subscriber replies with the input
+	 * @param state
+	 * @param input - reply, compared ignoring case and surrounding white space
+	 * @param nextState
+	 * @return USSDMenu
+	 */
+	public USSDMenu addTransition(String state, String input, String nextState) {
+		getExistingState(state).transitions.put(normalizeInput(input), nextState);
+		return this;
+	}
+
+	/**
+	 * Move from the state to the next state on any reply without its own transition
+	 * @param state
+	 * @param nextState
+	 * @return USSDMenu
+	 */
+	public USSDMenu addDefaultTransition(String state, String nextState) {
+		getExistingState(state).defaultTransition = nextState;
+		return this;
+	}
+
+	/**
+	 * Check that the start state and all transition targets exist
+	 * @throws ConfigurationException
+	 */
+	public void validate() {
+		getExistingState(startState);
+		for (State state : states.values()) {
+			for (String nextState : state.transitions.values()) {
+				getExistingState(nextState);
+			}
+			if (state.defaultTransition != null) {
+				getExistingState(state.defaultTransition);
+			}
+			if (!state.isFinal() && state.transitions.isEmpty() && state.defaultTransition == null) {
+				throw new ConfigurationException("USSD menu state '" + state.getName() + "' has no transitions.");
+			}
+		}
+	}
+
+	public String getStartState() {
+		return startState;
+	}
+
+	/**
+	 * Get the state
+	 * @param name
+	 * @return State or null if the menu has no such state
+	 */
+	public State getState(String name) {
+		return states.get(name);
+	}
+
+	/**
+	 * Message prepended to the state message when the reply matches no transition (null = state message is repeated alone)
+	 * @return invalidInputMessage
+	 */
+	public String getInvalidInputMessage() {
+		return invalidInputMessage;
+	}
+
+	public USSDMenu setInvalidInputMessage(String invalidInputMessage) {
+		this.invalidInputMessage = invalidInputMessage;
+		return this;
+	}
+
+	/**
+	 * Message the session is stopped with when the subscriber doesn't reply in time
+	 * @return timeoutMessage
+	 */
+	public String getTimeoutMessage() {
+		return timeoutMessage;
+	}
+
+	public USSDMenu setTimeoutMessage(String timeoutMessage) {
+		this.timeoutMessage = timeoutMessage;
+		return this;
+	}
+
+	static String normalizeInput(String input) {
+		return input == null ? "" : input.trim().toLowerCase();
+	}
+
+	private State getExistingState(String name) {
+		State state = states.get(name);
+		if (state == null) {
+			throw new ConfigurationException("USSD menu has no state '" + name + "'.");
+		}
+		return state;
+	}
+
+	/**
+	 * USSD menu state
+	 */
+	public static final class State {
+		private final String name;
+		private final String message;
+		private final boolean finalState;
+		private final Map<String, String> transitions = new HashMap<String, String>();
+		private String defaultTransition = null;
+
+		private State(String name, String message, boolean finalState) {
+			this.name = name;
+			this.message = message;
+			this.finalState = finalState;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		public boolean isFinal() {
+			return finalState;
+		}
+
+		public Map<String, String> getTransitions() {
+			return Collections.unmodifiableMap(transitions);
+		}
+
+		public String getDefaultTransition() {
+			return defaultTransition;
+		}
+
+		/**
+		 * Get the state selected by the reply
+		 * @param input
+		 * @return String or null if the reply matches no transition
+		 */
+		public String getNextState(String input) {
+			String nextState = transitions.get(normalizeInput(input));
+			return nextState != null ? nextState : defaultTransition;
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package oneapi.model;
+
+/**
+ * Snapshot of the USSD session engine statistics
+ */
+public class USSDSessionStatistics {
+	private long activeSessions;
+	private long startedSessions;
+	private long completedSessions;
+	private long timedOutSessions;
+	private long failedSessions;
+	private long stepCount;
+	private long totalStepLatency;
+	private long maxStepLatency;
+
+	public USSDSessionStatistics(long activeSessions, long startedSessions, long completedSessions, long timedOutSessions, long failedSessions,
+			long stepCount, long totalStepLatency, long maxStepLatency) {
+		this.activeSessions = activeSessions;
+		this.startedSessions = startedSessions;
+		this.completedSessions = completedSessions;
+		this.timedOutSessions = timedOutSessions;
+		this.failedSessions = failedSessions;
+		this.stepCount = stepCount;
+		this.totalStepLatency = totalStepLatency;
+		this.maxStepLatency = maxStepLatency;
+	}
+
+	/**
+	 * Number of sessions currently waiting for the subscriber
+	 * @return activeSessions
+	 */
+	public long getActiveSessions() {
+		return activeSessions;
+	}
+
+	/**
+	 * Number of started sessions
+	 * @return startedSessions
+	 */
+	public long getStartedSessions() {
+		return startedSessions;
+	}
+
+	/**
+	 * Number of sessions which reached a final state
+	 * @return completedSessions
+	 */
+	public long getCompletedSessions() {
+		return completedSessions;
+	}
+
+	/**
+	 * Number of sessions stopped because the subscriber didn't reply in time
+	 * @return timedOutSessions
+	 */
+	public long getTimedOutSessions() {
+		return timedOutSessions;
+	}
+
+	/**
+	 * Number of sessions ended by a request error
+	 * @return failedSessions
+	 */
+	public long getFailedSessions() {
+		return failedSessions;
+	}
+
+	/**
+	 * Number of menu steps, a step is one message and the subscriber's reply to it
+	 * @return stepCount
+	 */
+	public long getStepCount() {
+		return stepCount;
+	}
+
+	/**
+	 * Average time from sending a menu message to receiving the reply in milliseconds
+	 * @return double
+	 */
+	public double getAverageStepLatency() {
+		return stepCount == 0 ? 0 : (double) totalStepLatency / stepCount;
+	}
+
+	/**
+	 * Longest time from sending a menu message to receiving the reply in milliseconds
+	 * @return maxStepLatency
+	 */
+	public long getMaxStepLatency() {
+		return maxStepLatency;
+	}
+
+	@Override
+	public String toString() {
+		return "USSDSessionStatistics {activeSessions=" + activeSessions + ", startedSessions="
+				+ startedSessions + ", completedSessions=" + completedSessions + ", timedOutSessions=" + timedOutSessions
+				+ ", failedSessions=" + failedSessions + ", stepCount=" + stepCount
+				+ ", averageStepLatency=" + getAverageStepLatency() + ", maxStepLatency=" + maxStepLatency + "}";
+	}
+}
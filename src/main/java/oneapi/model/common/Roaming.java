@@ -79,6 +79,9 @@ public class Roaming implements java.io.Serializable {
 		 */
 		public void setMnc(String mnc) { this.mnc=mnc; }
 
+		public ServingMccMnc() {
+		}
+
 		/**
 		 * utility constructor to create a Roaming.ServingMccMnc object with all fields set
 		 */
@@ -0,0 +1,285 @@
+package oneapi.model.lazy;
+
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import oneapi.exception.RequestException;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Field offset index over a single JSON object held as raw bytes.
+ * The index is built with one pass over the bytes which records where each field value starts and ends,
+ * nested objects and arrays are skipped, not bound. The offsets are scanned here instead of taken from the parser
+ * locations, which don't carry byte offsets in every Jackson version. Values are decoded only when they are taken from the index,
+ * so every field is decoded at most once.
+ * <p>
+ * The index is not thread safe. Taking a field removes it, and the lazy views check and take a field in two steps,
+ * so an index and the views over it must be read by one thread at a time. Hand other threads a decoded copy.
+ */
+public class JsonFieldIndex implements Serializable {
+	private static final long serialVersionUID = 2519473205716372154L;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+	static {
+		OBJECT_MAPPER.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+	}
+
+	private final byte[] data;
+	private final Map<String, int[]> pendingFields;
+
+	/**
+	 * Index the JSON object starting at 'start' and ending before 'end'
+	 * @param data raw JSON bytes (not copied)
+	 * @param start offset of the opening brace
+	 * @param end offset after the closing brace
+	 */
+	private JsonFieldIndex(byte[] data, int start, int end) {
+		this.data = data;
+		this.pendingFields = new HashMap<String, int[]>();
+		indexFields(start, end);
+	}
+
+	/**
+	 * Index the top level object of the JSON document
+	 * @param json raw JSON bytes
+	 * @return JsonFieldIndex
+	 */
+	public static JsonFieldIndex parse(byte[] json) {
+		int start = skipWhitespace(json, 0, json.length);
+		int end = trimWhitespace(json, start, json.length);
+		if (start >= end || json[start] != '{') {
+			throw new RequestException("Unexpected JSON content, object expected.");
+		}
+		return new JsonFieldIndex(json, start, end);
+	}
+
+	/**
+	 * Check if the field is present and was not taken yet
+	 * @param name
+	 * @return boolean
+	 */
+	public boolean isPending(String name) {
+		return pendingFields.containsKey(name);
+	}
+
+	/**
+	 * Drop the field from the index so it will never be decoded (used when the value is set explicitly)
+	 * @param name
+	 */
+	public void discard(String name) {
+		pendingFields.remove(name);
+	}
+
+	/**
+	 * Decode the field value and remove it from the index
+	 * @param name
+	 * @param clazz
+	 * @return T or null if the field is missing or JSON null
+	 */
+	public <T> T take(String name, Class<T> clazz) {
+		int[] range = pendingFields.remove(name);
+		if (range == null || isNull(range)) {
+			return null;
+		}
+
+		try {
+			return OBJECT_MAPPER.readValue(data, range[0], range[1] - range[0], clazz);
+		} catch (Exception e) {
+			throw new RequestException(e);
+		}
+	}
+
+	/**
+	 * Remove the nested object field from the index and index its own fields
+	 * @param name
+	 * @return JsonFieldIndex or null if the field is missing or JSON null
+	 */
+	public JsonFieldIndex takeObject(String name) {
+		int[] range = pendingFields.remove(name);
+		if (range == null || isNull(range)) {
+			return null;
+		}
+		return new JsonFieldIndex(data, range[0], range[1]);
+	}
+
+	/**
+	 * Remove the array field from the index and index each of its object elements
+	 * @param name
+	 * @return JsonFieldIndex[] or null if the field is missing or JSON null
+	 */
+	public JsonFieldIndex[] takeObjectArray(String name) {
+		int[] range = pendingFields.remove(name);
+		if (range == null || isNull(range)) {
+			return null;
+		}
+
+		List<int[]> elementRanges = indexElements(range[0], range[1]);
+		JsonFieldIndex[] elements = new JsonFieldIndex[elementRanges.size()];
+		for (int i = 0; i < elements.length; i++) {
+			int[] elementRange = elementRanges.get(i);
+			elements[i] = isNull(elementRange) ? null : new JsonFieldIndex(data, elementRange[0], elementRange[1]);
+		}
+		return elements;
+	}
+
+	private void indexFields(int start, int end) {
+		int position = skipWhitespace(data, expect(start, end, '{', "object"), end);
+		if (position < end && data[position] == '}') {
+			return;
+		}
+
+		while (true) {
+			int nameStart = skipWhitespace(data, position, end);
+			int nameEnd = skipString(nameStart, end);
+			String name = decodeName(nameStart, nameEnd);
+			int valueStart = skipWhitespace(data, expect(nameEnd, end, ':', "':'"), end);
+			int valueEnd = skipValue(valueStart, end);
+			pendingFields.put(name, new int[] { valueStart, valueEnd });
+
+			position = skipWhitespace(data, valueEnd, end);
+			if (position < end && data[position] == ',') {
+				position++;
+			} else if (position < end && data[position] == '}') {
+				return;
+			} else {
+				throw new RequestException("Unexpected JSON content, ',' or '}' expected.");
+			}
+		}
+	}
+
+	private List<int[]> indexElements(int start, int end) {
+		List<int[]> elementRanges = new ArrayList<int[]>();
+		int position = skipWhitespace(data, expect(start, end, '[', "array"), end);
+		if (position < end && data[position] == ']') {
+			return elementRanges;
+		}
+
+		while (true) {
+			int valueStart = skipWhitespace(data, position, end);
+			int valueEnd = skipValue(valueStart, end);
+			elementRanges.add(new int[] { valueStart, valueEnd });
+
+			position = skipWhitespace(data, valueEnd, end);
+			if (position < end && data[position] == ',') {
+				position++;
+			} else if (position < end && data[position] == ']') {
+				return elementRanges;
+			} else {
+				throw new RequestException("Unexpected JSON content, ',' or ']' expected.");
+			}
+		}
+	}
+
+	/**
+	 * Skip whitespace and the expected character
+	 * @return offset after the character
+	 */
+	private int expect(int start, int end, char expected, String description) {
+		int position = skipWhitespace(data, start, end);
+		if (position >= end || data[position] != expected) {
+			throw new RequestException("Unexpected JSON content, " + description + " expected.");
+		}
+		return position + 1;
+	}
+
+	/**
+	 * @return offset after the closing quote of the string starting at 'start'
+	 */
+	private int skipString(int start, int end) {
+		if (start >= end || data[start] != '"') {
+			throw new RequestException("Unexpected JSON content, string expected.");
+		}
+		for (int position = start + 1; position < end; position++) {
+			if (data[position] == '\\') {
+				position++;
+			} else if (data[position] == '"') {
+				return position + 1;
+			}
+		}
+		throw new RequestException("Unexpected end of JSON content, string is not closed.");
+	}
+
+	/**
+	 * @return offset after the value starting at 'start', nested objects and arrays are skipped as a whole
+	 */
+	private int skipValue(int start, int end) {
+		if (start >= end) {
+			throw new RequestException("Unexpected end of JSON content, value expected.");
+		}
+
+		byte first = data[start];
+		if (first == '"') {
+			return skipString(start, end);
+		}
+		if (first == '{' || first == '[') {
+			int depth = 0;
+			int position = start;
+			while (position < end) {
+				byte b = data[position];
+				if (b == '"') {
+					position = skipString(position, end);
+					continue;
+				}
+				if (b == '{' || b == '[') {
+					depth++;
+				} else if ((b == '}' || b == ']') && --depth == 0) {
+					return position + 1;
+				}
+				position++;
+			}
+			throw new RequestException("Unexpected end of JSON content, " + (first == '{' ? "object" : "array") + " is not closed.");
+		}
+
+		// number, true, false or null
+		int position = start;
+		while (position < end && !isWhitespace(data[position]) && data[position] != ',' && data[position] != '}' && data[position] != ']') {
+			position++;
+		}
+		if (position == start) {
+			throw new RequestException("Unexpected JSON content, value expected.");
+		}
+		return position;
+	}
+
+	private String decodeName(int start, int end) {
+		for (int position = start + 1; position < end - 1; position++) {
+			if (data[position] == '\\') {
+				try {
+					return OBJECT_MAPPER.readValue(data, start, end - start, String.class);
+				} catch (Exception e) {
+					throw new RequestException(e);
+				}
+			}
+		}
+		return new String(data, start + 1, end - start - 2, UTF8);
+	}
+
+	private boolean isNull(int[] range) {
+		return range[1] - range[0] == 4 && data[range[0]] == 'n';
+	}
+
+	private static int skipWhitespace(byte[] data, int start, int end) {
+		while (start < end && isWhitespace(data[start])) {
+			start++;
+		}
+		return start;
+	}
+
+	private static int trimWhitespace(byte[] data, int start, int end) {
+		while (end > start && isWhitespace(data[end - 1])) {
+			end--;
+		}
+		return end;
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+	}
+}
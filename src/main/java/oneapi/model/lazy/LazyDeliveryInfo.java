@@ -0,0 +1,72 @@
+package oneapi.model.lazy;
+
+import oneapi.model.common.DeliveryInfoList.DeliveryInfo;
+
+/**
+ * DeliveryInfo view backed by raw JSON, each field is decoded on first access.
+ * Not thread safe, see JsonFieldIndex
+ */
+public class LazyDeliveryInfo extends DeliveryInfo {
+	private final JsonFieldIndex fields;
+
+	public LazyDeliveryInfo(JsonFieldIndex fields) {
+		this.fields = fields;
+	}
+
+	@Override
+	public String getAddress() {
+		if (fields.isPending("address")) super.setAddress(fields.take("address", String.class));
+		return super.getAddress();
+	}
+
+	@Override
+	public void setAddress(String address) {
+		fields.discard("address");
+		super.setAddress(address);
+	}
+
+	@Override
+	public String getDeliveryStatus() {
+		if (fields.isPending("deliveryStatus")) super.setDeliveryStatus(fields.take("deliveryStatus", String.class));
+		return super.getDeliveryStatus();
+	}
+
+	@Override
+	public void setDeliveryStatus(String deliveryStatus) {
+		fields.discard("deliveryStatus");
+		super.setDeliveryStatus(deliveryStatus);
+	}
+
+	@Override
+	public String getMessageId() {
+		if (fields.isPending("messageId")) super.setMessageId(fields.take("messageId", String.class));
+		return super.getMessageId();
+	}
+
+	@Override
+	public void setMessageId(String messageId) {
+		fields.discard("messageId");
+		super.setMessageId(messageId);
+	}
+
+	@Override
+	public String getClientCorrelator() {
+		if (fields.isPending("clientCorrelator")) super.setClientCorrelator(fields.take("clientCorrelator", String.class));
+		return super.getClientCorrelator();
+	}
+
+	@Override
+	public void setClientCorrelator(String clientCorrelator) {
+		fields.discard("clientCorrelator");
+		super.setClientCorrelator(clientCorrelator);
+	}
+
+	@Override
+	public String toString() {
+		getAddress();
+		getDeliveryStatus();
+		getMessageId();
+		getClientCorrelator();
+		return super.toString();
+	}
+}
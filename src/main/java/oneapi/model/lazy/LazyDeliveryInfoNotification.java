@@ -0,0 +1,52 @@
+package oneapi.model.lazy;
+
+import oneapi.model.DeliveryInfoNotification;
+import oneapi.model.common.DeliveryInfoList.DeliveryInfo;
+
+/**
+ * DeliveryInfoNotification view backed by raw JSON, each field is decoded on first access.
+ * Not thread safe, see JsonFieldIndex
+ */
+public class LazyDeliveryInfoNotification extends DeliveryInfoNotification {
+	private static final long serialVersionUID = 4176029357151240786L;
+
+	private final JsonFieldIndex fields;
+
+	public LazyDeliveryInfoNotification(JsonFieldIndex fields) {
+		this.fields = fields;
+	}
+
+	@Override
+	public DeliveryInfo getDeliveryInfo() {
+		if (fields.isPending("deliveryInfo")) {
+			JsonFieldIndex deliveryInfoFields = fields.takeObject("deliveryInfo");
+			super.setDeliveryInfo(deliveryInfoFields == null ? null : new LazyDeliveryInfo(deliveryInfoFields));
+		}
+		return super.getDeliveryInfo();
+	}
+
+	@Override
+	public void setDeliveryInfo(DeliveryInfo deliveryInfo) {
+		fields.discard("deliveryInfo");
+		super.setDeliveryInfo(deliveryInfo);
+	}
+
+	@Override
+	public String getCallbackData() {
+		if (fields.isPending("callbackData")) super.setCallbackData(fields.take("callbackData", String.class));
+		return super.getCallbackData();
+	}
+
+	@Override
+	public void setCallbackData(String callbackData) {
+		fields.discard("callbackData");
+		super.setCallbackData(callbackData);
+	}
+
+	@Override
+	public String toString() {
+		getDeliveryInfo();
+		getCallbackData();
+		return super.toString();
+	}
+}
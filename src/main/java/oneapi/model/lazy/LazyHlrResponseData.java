@@ -0,0 +1,550 @@
+package oneapi.model.lazy;
+
+import java.util.Date;
+
+import oneapi.model.common.HlrResponseData;
+
+/**
+ * HlrResponseData view backed by raw JSON, each field is decoded on first access.
+ * Not thread safe, see JsonFieldIndex
+ */
+public class LazyHlrResponseData extends HlrResponseData {
+	private static final long serialVersionUID = -3526011640283185410L;
+
+	private final JsonFieldIndex fields;
+
+	public LazyHlrResponseData(JsonFieldIndex fields) {
+		this.fields = fields;
+	}
+
+	@Override
+	public String getDestinationAddress() {
+		if (fields.isPending("destinationAddress")) super.setDestinationAddress(fields.take("destinationAddress", String.class));
+		return super.getDestinationAddress();
+	}
+
+	@Override
+	public void setDestinationAddress(String destinationAddress) {
+		fields.discard("destinationAddress");
+		super.setDestinationAddress(destinationAddress);
+	}
+
+	@Override
+	public int getStatusId() {
+		if (fields.isPending("statusId")) {
+			Integer statusId = fields.take("statusId", Integer.class);
+			if (statusId != null) super.setStatusId(statusId);
+		}
+		return super.getStatusId();
+	}
+
+	@Override
+	public void setStatusId(int statusId) {
+		fields.discard("statusId");
+		super.setStatusId(statusId);
+	}
+
+	@Override
+	public Date getSubmitTime() {
+		if (fields.isPending("submitTime")) super.setSubmitTime(fields.take("submitTime", Date.class));
+		return super.getSubmitTime();
+	}
+
+	@Override
+	public void setSubmitTime(Date submitTime) {
+		fields.discard("submitTime");
+		super.setSubmitTime(submitTime);
+	}
+
+	@Override
+	public Date getDoneTime() {
+		if (fields.isPending("doneTime")) super.setDoneTime(fields.take("doneTime", Date.class));
+		return super.getDoneTime();
+	}
+
+	@Override
+	public void setDoneTime(Date doneTime) {
+		fields.discard("doneTime");
+		super.setDoneTime(doneTime);
+	}
+
+	@Override
+	public Double getPricePerMessage() {
+		if (fields.isPending("pricePerMessage")) super.setPricePerMessage(fields.take("pricePerMessage", Double.class));
+		return super.getPricePerMessage();
+	}
+
+	@Override
+	public void setPricePerMessage(Double pricePerMessage) {
+		fields.discard("pricePerMessage");
+		super.setPricePerMessage(pricePerMessage);
+	}
+
+	@Override
+	public String getMccMnc() {
+		if (fields.isPending("mccMnc")) super.setMccMnc(fields.take("mccMnc", String.class));
+		return super.getMccMnc();
+	}
+
+	@Override
+	public void setMccMnc(String mccMnc) {
+		fields.discard("mccMnc");
+		super.setMccMnc(mccMnc);
+	}
+
+	@Override
+	public String getMcc() {
+		if (fields.isPending("mcc")) super.setMcc(fields.take("mcc", String.class));
+		return super.getMcc();
+	}
+
+	@Override
+	public void setMcc(String mcc) {
+		fields.discard("mcc");
+		super.setMcc(mcc);
+	}
+
+	@Override
+	public String getMnc() {
+		if (fields.isPending("mnc")) super.setMnc(fields.take("mnc", String.class));
+		return super.getMnc();
+	}
+
+	@Override
+	public void setMnc(String mnc) {
+		fields.discard("mnc");
+		super.setMnc(mnc);
+	}
+
+	@Override
+	public String getServingMsc() {
+		if (fields.isPending("servingMsc")) super.setServingMsc(fields.take("servingMsc", String.class));
+		return super.getServingMsc();
+	}
+
+	@Override
+	public void setServingMsc(String servingMsc) {
+		fields.discard("servingMsc");
+		super.setServingMsc(servingMsc);
+	}
+
+	@Override
+	public String getCensoredServingMsc() {
+		if (fields.isPending("censoredServingMsc")) super.setCensoredServingMsc(fields.take("censoredServingMsc", String.class));
+		return super.getCensoredServingMsc();
+	}
+
+	@Override
+	public void setCensoredServingMsc(String censoredServingMsc) {
+		fields.discard("censoredServingMsc");
+		super.setCensoredServingMsc(censoredServingMsc);
+	}
+
+	@Override
+	public int getGsmErrorCode() {
+		if (fields.isPending("gsmErrorCode")) {
+			Integer gsmErrorCode = fields.take("gsmErrorCode", Integer.class);
+			if (gsmErrorCode != null) super.setGsmErrorCode(gsmErrorCode);
+		}
+		return super.getGsmErrorCode();
+	}
+
+	@Override
+	public void setGsmErrorCode(int gsmErrorCode) {
+		fields.discard("gsmErrorCode");
+		super.setGsmErrorCode(gsmErrorCode);
+	}
+
+	@Override
+	public String getOriginalNetworkName() {
+		if (fields.isPending("originalNetworkName")) super.setOriginalNetworkName(fields.take("originalNetworkName", String.class));
+		return super.getOriginalNetworkName();
+	}
+
+	@Override
+	public void setOriginalNetworkName(String originalNetworkName) {
+		fields.discard("originalNetworkName");
+		super.setOriginalNetworkName(originalNetworkName);
+	}
+
+	@Override
+	public String getPortedNetworkName() {
+		if (fields.isPending("portedNetworkName")) super.setPortedNetworkName(fields.take("portedNetworkName", String.class));
+		return super.getPortedNetworkName();
+	}
+
+	@Override
+	public void setPortedNetworkName(String portedNetworkName) {
+		fields.discard("portedNetworkName");
+		super.setPortedNetworkName(portedNetworkName);
+	}
+
+	@Override
+	public String getRoamingNetworkName() {
+		if (fields.isPending("roamingNetworkName")) super.setRoamingNetworkName(fields.take("roamingNetworkName", String.class));
+		return super.getRoamingNetworkName();
+	}
+
+	@Override
+	public void setRoamingNetworkName(String roamingNetworkName) {
+		fields.discard("roamingNetworkName");
+		super.setRoamingNetworkName(roamingNetworkName);
+	}
+
+	@Override
+	public String getRoamingCountryCode() {
+		if (fields.isPending("roamingCountryCode")) super.setRoamingCountryCode(fields.take("roamingCountryCode", String.class));
+		return super.getRoamingCountryCode();
+	}
+
+	@Override
+	public void setRoamingCountryCode(String roamingCountryCode) {
+		fields.discard("roamingCountryCode");
+		super.setRoamingCountryCode(roamingCountryCode);
+	}
+
+	@Override
+	public String getRoamingCountryName() {
+		if (fields.isPending("roamingCountryName")) super.setRoamingCountryName(fields.take("roamingCountryName", String.class));
+		return super.getRoamingCountryName();
+	}
+
+	@Override
+	public void setRoamingCountryName(String roamingCountryName) {
+		fields.discard("roamingCountryName");
+		super.setRoamingCountryName(roamingCountryName);
+	}
+
+	@Override
+	public String getServingHlr() {
+		if (fields.isPending("servingHlr")) super.setServingHlr(fields.take("servingHlr", String.class));
+		return super.getServingHlr();
+	}
+
+	@Override
+	public void setServingHlr(String servingHlr) {
+		fields.discard("servingHlr");
+		super.setServingHlr(servingHlr);
+	}
+
+	@Override
+	public String getImsi() {
+		if (fields.isPending("imsi")) super.setImsi(fields.take("imsi", String.class));
+		return super.getImsi();
+	}
+
+	@Override
+	public void setImsi(String imsi) {
+		fields.discard("imsi");
+		super.setImsi(imsi);
+	}
+
+	@Override
+	public String getOriginalNetworkPrefix() {
+		if (fields.isPending("originalNetworkPrefix")) super.setOriginalNetworkPrefix(fields.take("originalNetworkPrefix", String.class));
+		return super.getOriginalNetworkPrefix();
+	}
+
+	@Override
+	public void setOriginalNetworkPrefix(String originalNetworkPrefix) {
+		fields.discard("originalNetworkPrefix");
+		super.setOriginalNetworkPrefix(originalNetworkPrefix);
+	}
+
+	@Override
+	public String getOriginalCountryPrefix() {
+		if (fields.isPending("originalCountryPrefix")) super.setOriginalCountryPrefix(fields.take("originalCountryPrefix", String.class));
+		return super.getOriginalCountryPrefix();
+	}
+
+	@Override
+	public void setOriginalCountryPrefix(String originalCountryPrefix) {
+		fields.discard("originalCountryPrefix");
+		super.setOriginalCountryPrefix(originalCountryPrefix);
+	}
+
+	@Override
+	public String getOriginalCountryCode() {
+		if (fields.isPending("originalCountryCode")) super.setOriginalCountryCode(fields.take("originalCountryCode", String.class));
+		return super.getOriginalCountryCode();
+	}
+
+	@Override
+	public void setOriginalCountryCode(String originalCountryCode) {
+		fields.discard("originalCountryCode");
+		super.setOriginalCountryCode(originalCountryCode);
+	}
+
+	@Override
+	public String getOriginalCountryName() {
+		if (fields.isPending("originalCountryName")) super.setOriginalCountryName(fields.take("originalCountryName", String.class));
+		return super.getOriginalCountryName();
+	}
+
+	@Override
+	public void setOriginalCountryName(String originalCountryName) {
+		fields.discard("originalCountryName");
+		super.setOriginalCountryName(originalCountryName);
+	}
+
+	@Override
+	public String getRoamingNetworkPrefix() {
+		if (fields.isPending("roamingNetworkPrefix")) super.setRoamingNetworkPrefix(fields.take("roamingNetworkPrefix", String.class));
+		return super.getRoamingNetworkPrefix();
+	}
+
+	@Override
+	public void setRoamingNetworkPrefix(String roamingNetworkPrefix) {
+		fields.discard("roamingNetworkPrefix");
+		super.setRoamingNetworkPrefix(roamingNetworkPrefix);
+	}
+
+	@Override
+	public String getRoamingCountryPrefix() {
+		if (fields.isPending("roamingCountryPrefix")) super.setRoamingCountryPrefix(fields.take("roamingCountryPrefix", String.class));
+		return super.getRoamingCountryPrefix();
+	}
+
+	@Override
+	public void setRoamingCountryPrefix(String roamingCountryPrefix) {
+		fields.discard("roamingCountryPrefix");
+		super.setRoamingCountryPrefix(roamingCountryPrefix);
+	}
+
+	@Override
+	public Boolean getIsNumberPorted() {
+		if (fields.isPending("isNumberPorted")) super.setIsNumberPorted(fields.take("isNumberPorted", Boolean.class));
+		return super.getIsNumberPorted();
+	}
+
+	@Override
+	public void setIsNumberPorted(Boolean isNumberPorted) {
+		fields.discard("isNumberPorted");
+		super.setIsNumberPorted(isNumberPorted);
+	}
+
+	@Override
+	public String getPortedNetworkPrefix() {
+		if (fields.isPending("portedNetworkPrefix")) super.setPortedNetworkPrefix(fields.take("portedNetworkPrefix", String.class));
+		return super.getPortedNetworkPrefix();
+	}
+
+	@Override
+	public void setPortedNetworkPrefix(String portedNetworkPrefix) {
+		fields.discard("portedNetworkPrefix");
+		super.setPortedNetworkPrefix(portedNetworkPrefix);
+	}
+
+	@Override
+	public String getPortedCountryCode() {
+		if (fields.isPending("portedCountryCode")) super.setPortedCountryCode(fields.take("portedCountryCode", String.class));
+		return super.getPortedCountryCode();
+	}
+
+	@Override
+	public void setPortedCountryCode(String portedCountryCode) {
+		fields.discard("portedCountryCode");
+		super.setPortedCountryCode(portedCountryCode);
+	}
+
+	@Override
+	public String getPortedCountryPrefix() {
+		if (fields.isPending("portedCountryPrefix")) super.setPortedCountryPrefix(fields.take("portedCountryPrefix", String.class));
+		return super.getPortedCountryPrefix();
+	}
+
+	@Override
+	public void setPortedCountryPrefix(String portedCountryPrefix) {
+		fields.discard("portedCountryPrefix");
+		super.setPortedCountryPrefix(portedCountryPrefix);
+	}
+
+	@Override
+	public String getPortedCountryName() {
+		if (fields.isPending("portedCountryName")) super.setPortedCountryName(fields.take("portedCountryName", String.class));
+		return super.getPortedCountryName();
+	}
+
+	@Override
+	public void setPortedCountryName(String portedCountryName) {
+		fields.discard("portedCountryName");
+		super.setPortedCountryName(portedCountryName);
+	}
+
+	@Override
+	public String getRoamingMccMnc() {
+		if (fields.isPending("roamingMccMnc")) super.setRoamingMccMnc(fields.take("roamingMccMnc", String.class));
+		return super.getRoamingMccMnc();
+	}
+
+	@Override
+	public void setRoamingMccMnc(String roamingMccMnc) {
+		fields.discard("roamingMccMnc");
+		super.setRoamingMccMnc(roamingMccMnc);
+	}
+
+	@Override
+	public String getRoamingMcc() {
+		if (fields.isPending("roamingMcc")) super.setRoamingMcc(fields.take("roamingMcc", String.class));
+		return super.getRoamingMcc();
+	}
+
+	@Override
+	public void setRoamingMcc(String roamingMcc) {
+		fields.discard("roamingMcc");
+		super.setRoamingMcc(roamingMcc);
+	}
+
+	@Override
+	public String getRoamingMnc() {
+		if (fields.isPending("roamingMnc")) super.setRoamingMnc(fields.take("roamingMnc", String.class));
+		return super.getRoamingMnc();
+	}
+
+	@Override
+	public void setRoamingMnc(String roamingMnc) {
+		fields.discard("roamingMnc");
+		super.setRoamingMnc(roamingMnc);
+	}
+
+	@Override
+	public Boolean getNumberInRoaming() {
+		if (fields.isPending("numberInRoaming")) super.setNumberInRoaming(fields.take("numberInRoaming", Boolean.class));
+		return super.getNumberInRoaming();
+	}
+
+	@Override
+	public void setNumberInRoaming(Boolean numberInRoaming) {
+		fields.discard("numberInRoaming");
+		super.setNumberInRoaming(numberInRoaming);
+	}
+
+	@Override
+	public Boolean getIsNumberCorrect() {
+		if (fields.isPending("isNumberCorrect")) super.setIsNumberCorrect(fields.take("isNumberCorrect", Boolean.class));
+		return super.getIsNumberCorrect();
+	}
+
+	@Override
+	public void setIsNumberCorrect(Boolean isNumberCorrect) {
+		fields.discard("isNumberCorrect");
+		super.setIsNumberCorrect(isNumberCorrect);
+	}
+
+	@Override
+	public Integer getOriginalNetworkServiceProviderId() {
+		if (fields.isPending("originalNetworkServiceProviderId")) super.setOriginalNetworkServiceProviderId(fields.take("originalNetworkServiceProviderId", Integer.class));
+		return super.getOriginalNetworkServiceProviderId();
+	}
+
+	@Override
+	public void setOriginalNetworkServiceProviderId(Integer originalNetworkServiceProviderId) {
+		fields.discard("originalNetworkServiceProviderId");
+		super.setOriginalNetworkServiceProviderId(originalNetworkServiceProviderId);
+	}
+
+	@Override
+	public Integer getPortedNetworkServiceProviderId() {
+		if (fields.isPending("portedNetworkServiceProviderId")) super.setPortedNetworkServiceProviderId(fields.take("portedNetworkServiceProviderId", Integer.class));
+		return super.getPortedNetworkServiceProviderId();
+	}
+
+	@Override
+	public void setPortedNetworkServiceProviderId(Integer portedNetworkServiceProviderId) {
+		fields.discard("portedNetworkServiceProviderId");
+		super.setPortedNetworkServiceProviderId(portedNetworkServiceProviderId);
+	}
+
+	@Override
+	public Integer getRoamingNetworkServiceProviderId() {
+		if (fields.isPending("roamingNetworkServiceProviderId")) super.setRoamingNetworkServiceProviderId(fields.take("roamingNetworkServiceProviderId", Integer.class));
+		return super.getRoamingNetworkServiceProviderId();
+	}
+
+	@Override
+	public void setRoamingNetworkServiceProviderId(Integer roamingNetworkServiceProviderId) {
+		fields.discard("roamingNetworkServiceProviderId");
+		super.setRoamingNetworkServiceProviderId(roamingNetworkServiceProviderId);
+	}
+
+	@Override
+	public String getOriginalNetworkServiceProviderName() {
+		if (fields.isPending("originalNetworkServiceProviderName")) super.setOriginalNetworkServiceProviderName(fields.take("originalNetworkServiceProviderName", String.class));
+		return super.getOriginalNetworkServiceProviderName();
+	}
+
+	@Override
+	public void setOriginalNetworkServiceProviderName(String originalNetworkServiceProviderName) {
+		fields.discard("originalNetworkServiceProviderName");
+		super.setOriginalNetworkServiceProviderName(originalNetworkServiceProviderName);
+	}
+
+	@Override
+	public String getPortedNetworkServiceProviderName() {
+		if (fields.isPending("portedNetworkServiceProviderName")) super.setPortedNetworkServiceProviderName(fields.take("portedNetworkServiceProviderName", String.class));
+		return super.getPortedNetworkServiceProviderName();
+	}
+
+	@Override
+	public void setPortedNetworkServiceProviderName(String portedNetworkServiceProviderName) {
+		fields.discard("portedNetworkServiceProviderName");
+		super.setPortedNetworkServiceProviderName(portedNetworkServiceProviderName);
+	}
+
+	@Override
+	public String getRoamingNetworkServiceProviderName() {
+		if (fields.isPending("roamingNetworkServiceProviderName")) super.setRoamingNetworkServiceProviderName(fields.take("roamingNetworkServiceProviderName", String.class));
+		return super.getRoamingNetworkServiceProviderName();
+	}
+
+	@Override
+	public void setRoamingNetworkServiceProviderName(String roamingNetworkServiceProviderName) {
+		fields.discard("roamingNetworkServiceProviderName");
+		super.setRoamingNetworkServiceProviderName(roamingNetworkServiceProviderName);
+	}
+
+	@Override
+	public String toString() {
+		getDestinationAddress();
+		getStatusId();
+		getSubmitTime();
+		getDoneTime();
+		getPricePerMessage();
+		getMccMnc();
+		getMcc();
+		getMnc();
+		getServingMsc();
+		getCensoredServingMsc();
+		getGsmErrorCode();
+		getOriginalNetworkName();
+		getPortedNetworkName();
+		getRoamingNetworkName();
+		getRoamingCountryCode();
+		getRoamingCountryName();
+		getServingHlr();
+		getImsi();
+		getOriginalNetworkPrefix();
+		getOriginalCountryPrefix();
+		getOriginalCountryCode();
+		getOriginalCountryName();
+		getRoamingNetworkPrefix();
+		getRoamingCountryPrefix();
+		getIsNumberPorted();
+		getPortedNetworkPrefix();
+		getPortedCountryCode();
+		getPortedCountryPrefix();
+		getPortedCountryName();
+		getRoamingMccMnc();
+		getRoamingMcc();
+		getRoamingMnc();
+		getNumberInRoaming();
+		getIsNumberCorrect();
+		getOriginalNetworkServiceProviderId();
+		getPortedNetworkServiceProviderId();
+		getRoamingNetworkServiceProviderId();
+		getOriginalNetworkServiceProviderName();
+		getPortedNetworkServiceProviderName();
+		getRoamingNetworkServiceProviderName();
+		return super.toString();
+	}
+}
@@ -0,0 +1,165 @@
+package oneapi.model.lazy;
+
+import java.util.Date;
+
+import oneapi.model.common.InboundSMSMessage;
+
+/**
+ * InboundSMSMessage view backed by raw JSON, each field is decoded on first access.
+ * Not thread safe, see JsonFieldIndex
+ */
+public class LazyInboundSMSMessage extends InboundSMSMessage {
+	private static final long serialVersionUID = -2081467239851047023L;
+
+	private final JsonFieldIndex fields;
+
+	public LazyInboundSMSMessage(JsonFieldIndex fields) {
+		this.fields = fields;
+	}
+
+	@Override
+	public Date getDateTime() {
+		if (fields.isPending("dateTime")) super.setDateTime(fields.take("dateTime", Date.class));
+		return super.getDateTime();
+	}
+
+	@Override
+	public Date getDateTimeAsDate() {
+		return getDateTime();
+	}
+
+	@Override
+	public void setDateTime(Date dateTime) {
+		fields.discard("dateTime");
+		super.setDateTime(dateTime);
+	}
+
+	@Override
+	public String getDestinationAddress() {
+		if (fields.isPending("destinationAddress")) super.setDestinationAddress(fields.take("destinationAddress", String.class));
+		return super.getDestinationAddress();
+	}
+
+	@Override
+	public void setDestinationAddress(String destinationAddress) {
+		fields.discard("destinationAddress");
+		super.setDestinationAddress(destinationAddress);
+	}
+
+	@Override
+	public String getMessageId() {
+		if (fields.isPending("messageId")) super.setMessageId(fields.take("messageId", String.class));
+		return super.getMessageId();
+	}
+
+	@Override
+	public void setMessageId(String messageId) {
+		fields.discard("messageId");
+		super.setMessageId(messageId);
+	}
+
+	@Override
+	public String getMessage() {
+		if (fields.isPending("message")) super.setMessage(fields.take("message", String.class));
+		return super.getMessage();
+	}
+
+	@Override
+	public void setMessage(String message) {
+		fields.discard("message");
+		super.setMessage(message);
+	}
+
+	@Override
+	public String getResourceURL() {
+		if (fields.isPending("resourceURL")) super.setResourceURL(fields.take("resourceURL", String.class));
+		return super.getResourceURL();
+	}
+
+	@Override
+	public void setResourceURL(String resourceURL) {
+		fields.discard("resourceURL");
+		super.setResourceURL(resourceURL);
+	}
+
+	@Override
+	public String getSenderAddress() {
+		if (fields.isPending("senderAddress")) super.setSenderAddress(fields.take("senderAddress", String.class));
+		return super.getSenderAddress();
+	}
+
+	@Override
+	public void setSenderAddress(String senderAddress) {
+		fields.discard("senderAddress");
+		super.setSenderAddress(senderAddress);
+	}
+
+	@Override
+	public int getMoSessionId() {
+		if (fields.isPending("moSessionId")) {
+			Integer moSessionId = fields.take("moSessionId", Integer.class);
+			if (moSessionId != null) super.setMoSessionId(moSessionId);
+		}
+		return super.getMoSessionId();
+	}
+
+	@Override
+	public void setMoSessionId(int moSessionId) {
+		fields.discard("moSessionId");
+		super.setMoSessionId(moSessionId);
+	}
+
+	@Override
+	public String getMoResponseKey() {
+		if (fields.isPending("moResponseKey")) super.setMoResponseKey(fields.take("moResponseKey", String.class));
+		return super.getMoResponseKey();
+	}
+
+	@Override
+	public void setMoResponseKey(String moResponseKey) {
+		fields.discard("moResponseKey");
+		super.setMoResponseKey(moResponseKey);
+	}
+
+	@Override
+	public String getCallbackData() {
+		if (fields.isPending("callbackData")) super.setCallbackData(fields.take("callbackData", String.class));
+		return super.getCallbackData();
+	}
+
+	@Override
+	public void setCallbackData(String callbackData) {
+		fields.discard("callbackData");
+		super.setCallbackData(callbackData);
+	}
+
+	@Override
+	public double getPrice() {
+		if (fields.isPending("price")) {
+			Double price = fields.take("price", Double.class);
+			if (price != null) super.setPrice(price);
+		}
+		return super.getPrice();
+	}
+
+	@Override
+	public void setPrice(double price) {
+		fields.discard("price");
+		super.setPrice(price);
+	}
+
+	@Override
+	public String toString() {
+		getDateTime();
+		getDestinationAddress();
+		getMessageId();
+		getMessage();
+		getResourceURL();
+		getSenderAddress();
+		getMoSessionId();
+		getMoResponseKey();
+		getCallbackData();
+		getPrice();
+		return super.toString();
+	}
+}
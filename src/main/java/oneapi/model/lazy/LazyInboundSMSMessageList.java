@@ -0,0 +1,98 @@
+package oneapi.model.lazy;
+
+import oneapi.model.common.InboundSMSMessage;
+import oneapi.model.common.InboundSMSMessageList;
+
+/**
+ * InboundSMSMessageList view backed by raw JSON, each field (and each message field) is decoded on first access.
+ * Not thread safe, see JsonFieldIndex
+ */
+public class LazyInboundSMSMessageList extends InboundSMSMessageList {
+	private static final long serialVersionUID = 6830941178437095712L;
+
+	private final JsonFieldIndex fields;
+
+	public LazyInboundSMSMessageList(JsonFieldIndex fields) {
+		this.fields = fields;
+	}
+
+	@Override
+	public InboundSMSMessage[] getInboundSMSMessage() {
+		if (fields.isPending("inboundSMSMessage")) {
+			JsonFieldIndex[] messageFields = fields.takeObjectArray("inboundSMSMessage");
+			InboundSMSMessage[] messages = null;
+			if (messageFields != null) {
+				messages = new InboundSMSMessage[messageFields.length];
+				for (int i = 0; i < messageFields.length; i++) {
+					messages[i] = messageFields[i] == null ? null : new LazyInboundSMSMessage(messageFields[i]);
+				}
+			}
+			super.setInboundSMSMessage(messages);
+		}
+		return super.getInboundSMSMessage();
+	}
+
+	@Override
+	public void setInboundSMSMessage(InboundSMSMessage[] inboundSMSMessage) {
+		fields.discard("inboundSMSMessage");
+		super.setInboundSMSMessage(inboundSMSMessage);
+	}
+
+	@Override
+	public Integer getNumberOfMessagesInThisBatch() {
+		if (fields.isPending("numberOfMessagesInThisBatch")) super.setNumberOfMessagesInThisBatch(fields.take("numberOfMessagesInThisBatch", Integer.class));
+		return super.getNumberOfMessagesInThisBatch();
+	}
+
+	@Override
+	public void setNumberOfMessagesInThisBatch(Integer numberOfMessagesInThisBatch) {
+		fields.discard("numberOfMessagesInThisBatch");
+		super.setNumberOfMessagesInThisBatch(numberOfMessagesInThisBatch);
+	}
+
+	@Override
+	public String getResourceURL() {
+		if (fields.isPending("resourceURL")) super.setResourceURL(fields.take("resourceURL", String.class));
+		return super.getResourceURL();
+	}
+
+	@Override
+	public void setResourceURL(String resourceURL) {
+		fields.discard("resourceURL");
+		super.setResourceURL(resourceURL);
+	}
+
+	@Override
+	public Integer getTotalNumberOfPendingMessages() {
+		if (fields.isPending("totalNumberOfPendingMessages")) super.setTotalNumberOfPendingMessages(fields.take("totalNumberOfPendingMessages", Integer.class));
+		return super.getTotalNumberOfPendingMessages();
+	}
+
+	@Override
+	public void setTotalNumberOfPendingMessages(Integer totalNumberOfPendingMessages) {
+		fields.discard("totalNumberOfPendingMessages");
+		super.setTotalNumberOfPendingMessages(totalNumberOfPendingMessages);
+	}
+
+	@Override
+	public String getCallbackData() {
+		if (fields.isPending("callbackData")) super.setCallbackData(fields.take("callbackData", String.class));
+		return super.getCallbackData();
+	}
+
+	@Override
+	public void setCallbackData(String callbackData) {
+		fields.discard("callbackData");
+		super.setCallbackData(callbackData);
+	}
+
+	@Override
+	public String toString() {
+		getInboundSMSMessage();
+		getNumberOfMessagesInThisBatch();
+		getResourceURL();
+		getTotalNumberOfPendingMessages();
+		getCallbackData();
+		return super.toString();
+	}
+}
@@ -0,0 +1,123 @@
+package oneapi.model.lazy;
+
+import oneapi.model.common.HlrResponseData;
+import oneapi.model.common.Roaming;
+
+/**
+ * Roaming view backed by raw JSON, each field (including extended HLR data) is decoded on first access.
+ * Not thread safe, see JsonFieldIndex
+ */
+public class LazyRoaming extends Roaming {
+	private static final long serialVersionUID = 1913265804171740287L;
+
+	private final JsonFieldIndex fields;
+
+	public LazyRoaming(JsonFieldIndex fields) {
+		this.fields = fields;
+	}
+
+	@Override
+	public String getAddress() {
+		if (fields.isPending("address")) super.setAddress(fields.take("address", String.class));
+		return super.getAddress();
+	}
+
+	@Override
+	public void setAddress(String address) {
+		fields.discard("address");
+		super.setAddress(address);
+	}
+
+	@Override
+	public String getCurrentRoaming() {
+		if (fields.isPending("currentRoaming")) super.setCurrentRoaming(fields.take("currentRoaming", String.class));
+		return super.getCurrentRoaming();
+	}
+
+	@Override
+	public void setCurrentRoaming(String currentRoaming) {
+		fields.discard("currentRoaming");
+		super.setCurrentRoaming(currentRoaming);
+	}
+
+	@Override
+	public ServingMccMnc getServingMccMnc() {
+		if (fields.isPending("servingMccMnc")) super.setServingMccMnc(fields.take("servingMccMnc", ServingMccMnc.class));
+		return super.getServingMccMnc();
+	}
+
+	@Override
+	public void setServingMccMnc(ServingMccMnc servingMccMnc) {
+		fields.discard("servingMccMnc");
+		super.setServingMccMnc(servingMccMnc);
+	}
+
+	@Override
+	public void setServingMccMnc(String mccMnc) {
+		fields.discard("servingMccMnc");
+		super.setServingMccMnc(mccMnc);
+	}
+
+	@Override
+	public String getResourceURL() {
+		if (fields.isPending("resourceURL")) super.setResourceURL(fields.take("resourceURL", String.class));
+		return super.getResourceURL();
+	}
+
+	@Override
+	public void setResourceURL(String resourceURL) {
+		fields.discard("resourceURL");
+		super.setResourceURL(resourceURL);
+	}
+
+	@Override
+	public String getRetrievalStatus() {
+		if (fields.isPending("retrievalStatus")) super.setRetrievalStatus(fields.take("retrievalStatus", String.class));
+		return super.getRetrievalStatus();
+	}
+
+	@Override
+	public void setRetrievalStatus(String retrievalStatus) {
+		fields.discard("retrievalStatus");
+		super.setRetrievalStatus(retrievalStatus);
+	}
+
+	@Override
+	public HlrResponseData getExtendedData() {
+		if (fields.isPending("extendedData")) {
+			JsonFieldIndex extendedDataFields = fields.takeObject("extendedData");
+			super.setExtendedData(extendedDataFields == null ? null : new LazyHlrResponseData(extendedDataFields));
+		}
+		return super.getExtendedData();
+	}
+
+	@Override
+	public void setExtendedData(HlrResponseData extendedData) {
+		fields.discard("extendedData");
+		super.setExtendedData(extendedData);
+	}
+
+	@Override
+	public String getCallbackData() {
+		if (fields.isPending("callbackData")) super.setCallbackData(fields.take("callbackData", String.class));
+		return super.getCallbackData();
+	}
+
+	@Override
+	public void setCallbackData(String callbackData) {
+		fields.discard("callbackData");
+		super.setCallbackData(callbackData);
+	}
+
+	@Override
+	public String toString() {
+		getAddress();
+		getCurrentRoaming();
+		getServingMccMnc();
+		getResourceURL();
+		getRetrievalStatus();
+		getExtendedData();
+		getCallbackData();
+		return super.toString();
+	}
+}
@@ -0,0 +1,52 @@
+package oneapi.model.lazy;
+
+import oneapi.model.RoamingNotification;
+import oneapi.model.common.Roaming;
+
+/**
+ * RoamingNotification view backed by raw JSON, each field is decoded on first access.
+ * Not thread safe, see JsonFieldIndex
+ */
+public class LazyRoamingNotification extends RoamingNotification {
+	private static final long serialVersionUID = -6375519905512377430L;
+
+	private final JsonFieldIndex fields;
+
+	public LazyRoamingNotification(JsonFieldIndex fields) {
+		this.fields = fields;
+	}
+
+	@Override
+	public Roaming getRoaming() {
+		if (fields.isPending("roaming")) {
+			JsonFieldIndex roamingFields = fields.takeObject("roaming");
+			super.setRoaming(roamingFields == null ? null : new LazyRoaming(roamingFields));
+		}
+		return super.getRoaming();
+	}
+
+	@Override
+	public void setRoaming(Roaming roaming) {
+		fields.discard("roaming");
+		super.setRoaming(roaming);
+	}
+
+	@Override
+	public String getCallbackData() {
+		if (fields.isPending("callbackData")) super.setCallbackData(fields.take("callbackData", String.class));
+		return super.getCallbackData();
+	}
+
+	@Override
+	public void setCallbackData(String callbackData) {
+		fields.discard("callbackData");
+		super.setCallbackData(callbackData);
+	}
+
+	@Override
+	public String toString() {
+		getRoaming();
+		getCallbackData();
+		return super.toString();
+	}
+}
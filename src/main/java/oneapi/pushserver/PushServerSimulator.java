@@ -1,28 +1,34 @@
 package oneapi.pushserver;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.List;
 
 import oneapi.client.impl.HLRClientImpl;
 import oneapi.client.impl.SMSMessagingClientImpl;
+import oneapi.listener.DeliveryStatusNotificationsListener;
+import oneapi.listener.HLRNotificationsListener;
+import oneapi.listener.InboundMessageNotificationsListener;
 import oneapi.model.DeliveryInfoNotification;
 import oneapi.model.RoamingNotification;
 import oneapi.model.common.InboundSMSMessageList;
+import oneapi.model.lazy.JsonFieldIndex;
+import oneapi.model.lazy.LazyDeliveryInfoNotification;
+import oneapi.model.lazy.LazyInboundSMSMessageList;
+import oneapi.model.lazy.LazyRoamingNotification;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class PushServerSimulator {
 	protected static final Logger LOGGER = LoggerFactory.getLogger(PushServerSimulator.class);
-	private ServerSocket server;
+	private volatile ServerSocket server;
 	private SMSMessagingClientImpl smsMessagingImpl = null;
 	private HLRClientImpl hlrClientImpl = null;	
 	protected int port;
-	private boolean running = false;
+	private volatile boolean running = false;
 
 	public PushServerSimulator(SMSMessagingClientImpl smsMessagingImpl, int port) {
 		this.smsMessagingImpl = smsMessagingImpl;
@@ -66,20 +72,21 @@ public class PushServerSimulator {
 
 							// get content (POST request)
 							int postlen = parseContentLength(request);
-							BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+							byte[] posted = readContent(connection.getInputStream(), postlen);
 
-							char[] posted = new char[postlen];
-							in.read(posted, 0, postlen);
-							String postRequest = new String(posted);
-							in.close();
-
-							processRequestData(postRequest);												
+							processRequestData(posted);												
 						}
 						catch ( IOException ex ) {
-							if (LOGGER.isErrorEnabled()) {
+							if (running && LOGGER.isErrorEnabled()) {
 								LOGGER.error("Error occured. Message: " + ex.getMessage());
 							}		
 						}
+						catch ( RuntimeException ex ) {
+							// a malformed notification or a failing listener must not stop the simulator
+							if (LOGGER.isErrorEnabled()) {
+								LOGGER.error("Error occured while processing push notification. Message: " + ex.getMessage());
+							}
+						}
 						finally {
 							if ( connection != null ) {
 								try {
@@ -114,54 +121,99 @@ public class PushServerSimulator {
 		}
 	}
 
-	private void processRequestData(String json) {
-		if (json.trim().length() != 0)
+	/**
+	 * Dispatch the notification to the listeners as a lazy view over the posted JSON bytes,
+	 * fields are decoded only when listeners access them
+	 * @param json
+	 */
+	private void processRequestData(byte[] json) {
+		if (json.length == 0 || isBlank(json))
 		{
-			if (smsMessagingImpl != null)
+			return;
+		}
+
+		JsonFieldIndex fields = JsonFieldIndex.parse(json);
+		if (smsMessagingImpl != null)
+		{
+			if (fields.isPending("deliveryInfoNotification"))
 			{
-				if (json.contains("deliveryInfoNotification"))
+				List<DeliveryStatusNotificationsListener> listeners = smsMessagingImpl.getDeliveryStatusNotificationPushListeners();
+				if (listeners != null)
 				{
-					DeliveryInfoNotification deliveryInfoNotification = smsMessagingImpl.convertJsonToDeliveryInfoNotification(json);
-					if (smsMessagingImpl.getDeliveryStatusNotificationPushListeners() != null)
+					DeliveryInfoNotification deliveryInfoNotification = toDeliveryInfoNotification(fields.takeObject("deliveryInfoNotification"));
+					for (int i = 0; i < listeners.size(); i++)
 					{
-						for (int i = 0; i < smsMessagingImpl.getDeliveryStatusNotificationPushListeners().size(); i++)
-						{
-							smsMessagingImpl.getDeliveryStatusNotificationPushListeners().get(i).onDeliveryStatusNotificationReceived(deliveryInfoNotification);
-						}
+						listeners.get(i).onDeliveryStatusNotificationReceived(deliveryInfoNotification);
 					}
 				}
-				else if (json.contains("inboundSMSMessage"))
+			}
+			else if (fields.isPending("inboundSMSMessage"))
+			{
+				List<InboundMessageNotificationsListener> listeners = smsMessagingImpl.getInboundMessagePushListeners();
+				if (listeners != null)
 				{
-					if (smsMessagingImpl != null)
+					InboundSMSMessageList smsMessagesList = new LazyInboundSMSMessageList(fields);
+					for (int i = 0; i < listeners.size(); i++)
 					{
-						if (smsMessagingImpl.getInboundMessagePushListeners()  != null)
-						{
-							InboundSMSMessageList smsMessagesList = smsMessagingImpl.convertJsonToInboundSMSMessageNotificationExample(json);
-							for (int i = 0; i < smsMessagingImpl.getInboundMessagePushListeners().size(); i++)
-							{
-								smsMessagingImpl.getInboundMessagePushListeners().get(i).onMessageReceived(smsMessagesList);
-							}
-						}
+						listeners.get(i).onMessageReceived(smsMessagesList);
 					}
 				}
 			}
-			else if (hlrClientImpl != null)
+		}
+		else if (hlrClientImpl != null)
+		{
+			if (fields.isPending("terminalRoamingStatusList"))
 			{
-				if (json.contains("terminalRoamingStatusList"))
+				List<HLRNotificationsListener> listeners = hlrClientImpl.getHLRPushNotificationListeners();
+				if (listeners != null || hlrClientImpl.hasPendingHLRQueries())
 				{
-					if (hlrClientImpl.getHLRPushNotificationListeners() != null)
+					RoamingNotification roamingNotification = toRoamingNotification(fields.takeObject("terminalRoamingStatusList"));
+					hlrClientImpl.completePendingHLRQuery(roamingNotification);
+					for (int i = 0; listeners != null && i < listeners.size(); i++)
 					{
-						RoamingNotification roamingNotification = hlrClientImpl.convertJsonToHLRNotificationExample(json);
-						for (int i = 0; i < hlrClientImpl.getHLRPushNotificationListeners().size(); i++)
-						{
-							hlrClientImpl.getHLRPushNotificationListeners().get(i).OnHLRReceived(roamingNotification);
-						}
+						listeners.get(i).OnHLRReceived(roamingNotification);
 					}
 				}
 			}
 		}
 	}
 
+	private DeliveryInfoNotification toDeliveryInfoNotification(JsonFieldIndex fields) {
+		return fields == null ? null : new LazyDeliveryInfoNotification(fields);
+	}
+
+	private RoamingNotification toRoamingNotification(JsonFieldIndex fields) {
+		return fields == null ? null : new LazyRoamingNotification(fields);
+	}
+
+	private boolean isBlank(byte[] content) {
+		for (byte b : content) {
+			if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private byte[] readContent(InputStream in, int length) throws IOException {
+		byte[] content = new byte[length];
+		int offset = 0;
+		while (offset < length) {
+			int count = in.read(content, offset, length - offset);
+			if (count == -1) {
+				break;
+			}
+			offset += count;
+		}
+
+		if (offset < length) {
+			byte[] truncated = new byte[offset];
+			System.arraycopy(content, 0, truncated, 0, offset);
+			return truncated;
+		}
+		return content;
+	}
+
 	private int parseContentLength(String request) {
 		int position = request.indexOf("Content-Length:");
 		if ( position == -1) {
@@ -186,7 +238,20 @@ public class PushServerSimulator {
 		return request.toString();
 	}
 
+	/**
+	 * Stop the server, its port is released immediately
+	 */
 	public void stop() {	
 		running = false;	
+		ServerSocket serverSocket = server;
+		if (serverSocket != null) {
+			try {
+				serverSocket.close();
+			} catch (IOException e) {
+				if (LOGGER.isErrorEnabled()) {
+					LOGGER.error("Error occured while trying to stop Push Server Simulator on port " + String.valueOf(port) + ". Message: " + e.getMessage());
+				}
+			}
+		}
 	}
 }
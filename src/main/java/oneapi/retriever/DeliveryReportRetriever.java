@@ -3,6 +3,7 @@ package oneapi.retriever;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import oneapi.client.impl.SMSMessagingClientImpl;
 import oneapi.exception.RequestException;
@@ -12,24 +13,76 @@ import oneapi.model.DeliveryReportList;
 
 public class DeliveryReportRetriever {
 	private ScheduledExecutorService fScheduler;
+	private ScheduledExecutorService fSharedScheduler;
+	private SMSMessagingClientImpl fSmsMessagingImpl;
+	private ScheduledFuture<?> fPoller;
+	private long fInterval;
 
 	public void start(long interval, SMSMessagingClientImpl smsMessagingImpl) {
+		start(interval, smsMessagingImpl, null);
+	}
+
+	/**
+	 * Start retrieving on the shared scheduler, the scheduler is not shut down when the retriever stops
+	 * @param interval
+	 * @param smsMessagingImpl
+	 * @param sharedScheduler - null to retrieve on a scheduler of the retriever
+	 */
+	public synchronized void start(long interval, SMSMessagingClientImpl smsMessagingImpl, ScheduledExecutorService sharedScheduler) {
 		this.stop();
 
-		if (interval <= 0)
-			return;
+		fSmsMessagingImpl = smsMessagingImpl;
+		fSharedScheduler = sharedScheduler;
+		fInterval = interval;
+
+		// fire first %s pull attempt after 2 sec and then each interval milliseconds
+		schedule(2000);
+	}
 
-		fScheduler = Executors.newScheduledThreadPool(1);
+	/**
+	 * Change the interval of the started retriever, its scheduler keeps running
+	 * @param interval - 0 to pause retrieving
+	 */
+	public synchronized void setInterval(long interval) {
+		if (fSmsMessagingImpl == null || interval == fInterval) {
+			return;
+		}
 
-		// fire first dlr pull attempt after 2 sec and then each interval milliseconds
-		Runnable poller = new PollerTask(smsMessagingImpl);
-		fScheduler.scheduleWithFixedDelay(poller, 2000, interval, TimeUnit.MILLISECONDS);
+		fInterval = interval;
+		if (fPoller != null) {
+			fPoller.cancel(false);
+			fPoller = null;
+		}
+		schedule(interval);
 	}
 
-	public void stop() {
+	public synchronized void stop() {
+		if (fPoller != null) {
+			fPoller.cancel(false);
+			fPoller = null;
+		}
 		if (fScheduler != null) {
 			fScheduler.shutdown();
+			fScheduler = null;
+		}
+		fSmsMessagingImpl = null;
+		fSharedScheduler = null;
+	}
+
+	private void schedule(long initialDelay) {
+		if (fInterval <= 0)
+			return;
+
+		ScheduledExecutorService scheduler = fSharedScheduler;
+		if (scheduler == null) {
+			if (fScheduler == null) {
+				fScheduler = Executors.newScheduledThreadPool(1);
+			}
+			scheduler = fScheduler;
 		}
+
+		Runnable poller = new PollerTask(fSmsMessagingImpl);
+		fPoller = scheduler.scheduleWithFixedDelay(poller, initialDelay, fInterval, TimeUnit.MILLISECONDS);
 	}
 
 	private static final class PollerTask implements Runnable {
@@ -0,0 +1,101 @@
+package oneapi.util;
+
+/**
+ * Normalizes mobile terminal addresses (MSISDN) written in different formats ('tel:' prefix, '+' or '00' international prefix,
+ * spaces, dashes, dots and brackets) to plain digits so they can be compared and used as keys.
+ */
+public final class AddressNormalizer {
+	private static final int MAX_E164_DIGITS = 15;
+
+	private AddressNormalizer() {
+	}
+
+	/**
+	 * Normalize address to plain digits
+	 * @param address e.g. 'tel:+385 (91) 123-4567'
+	 * @return String e.g. '385911234567' or the trimmed address if it contains characters other than digits and separators
+	 */
+	public static String normalize(String address) {
+		if (address == null) {
+			return null;
+		}
+
+		String value = address.trim();
+		if (value.regionMatches(true, 0, "tel:", 0, 4)) {
+			value = value.substring(4);
+		}
+
+		StringBuilder digits = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digits.append(c);
+			} else if (c == '+' && digits.length() == 0) {
+				continue;
+			} else if (c != ' ' && c != '-' && c != '.' && c != '(' && c != ')') {
+				// not a phone number (e.g. alphanumeric sender), keep as it is
+				return value;
+			}
+		}
+
+		if (digits.length() > 2 && digits.charAt(0) == '0' && digits.charAt(1) == '0') {
+			digits.delete(0, 2);
+		}
+		return digits.toString();
+	}
+
+	/**
+	 * Normalize address to its E.164 number held in a long, without creating any objects. National numbers
+	 * (leading '0' not followed by a second '0') are not E.164 and are rejected.
+	 * @param address e.g. 'tel:+385 (91) 123-4567' or '00385911234567'
+	 * @return long e.g. 385911234567 or -1 if the address is not an international number of 1 to 15 digits
+	 */
+	public static long toE164(CharSequence address) {
+		if (address == null) {
+			return -1;
+		}
+
+		int start = 0;
+		int end = address.length();
+		while (start < end && address.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && address.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		if (end - start >= 4 && (address.charAt(start) | 0x20) == 't' && (address.charAt(start + 1) | 0x20) == 'e'
+				&& (address.charAt(start + 2) | 0x20) == 'l' && address.charAt(start + 3) == ':') {
+			start += 4;
+		}
+
+		long value = 0;
+		int digits = 0;
+		int leadingZeros = 0;
+		boolean plus = false;
+		for (int i = start; i < end; i++) {
+			char c = address.charAt(i);
+			if (c >= '0' && c <= '9') {
+				if (value == 0 && c == '0') {
+					if (plus || ++leadingZeros > 2) {
+						return -1;
+					}
+					continue;
+				}
+				if (++digits > MAX_E164_DIGITS) {
+					return -1;
+				}
+				value = value * 10 + (c - '0');
+			} else if (c == '+' && !plus && digits == 0 && leadingZeros == 0) {
+				plus = true;
+			} else if (c != ' ' && c != '-' && c != '.' && c != '(' && c != ')') {
+				return -1;
+			}
+		}
+
+		// a single leading '0' is a national trunk prefix
+		if (digits == 0 || leadingZeros == 1) {
+			return -1;
+		}
+		return value;
+	}
+}
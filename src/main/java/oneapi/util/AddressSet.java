@@ -0,0 +1,131 @@
+package oneapi.util;
+
+import java.util.Arrays;
+
+/**
+ * Set of E.164 numbers held as primitive longs (see AddressNormalizer.toE164) for deduplicating recipient lists of
+ * tens of millions of addresses. Numbers are kept in one long[] with open addressing and linear probing, 11 to 22 bytes
+ * per number and no object per entry, so the set costs the garbage collector nothing to scan.
+ * A set is not thread safe.
+ */
+public class AddressSet {
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	// 0 marks an empty slot, E.164 numbers are never 0
+	private long[] slots;
+	private int size = 0;
+	private int resizeThreshold;
+
+	public AddressSet() {
+		this(1024);
+	}
+
+	/**
+	 * @param expectedSize number of addresses the set holds without growing
+	 */
+	public AddressSet(int expectedSize) {
+		int capacity = 16;
+		while (capacity < MAX_CAPACITY && capacity - (capacity >>> 2) < expectedSize) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	/**
+	 * Add the number
+	 * @param number E.164 number
+	 * @return true if the number was added, false if the set already contains it
+	 */
+	public boolean add(long number) {
+		if (number <= 0) {
+			throw new IllegalArgumentException("Invalid E.164 number " + number + ".");
+		}
+		int slot = findSlot(slots, number);
+		if (slots[slot] == number) {
+			return false;
+		}
+		slots[slot] = number;
+		if (++size > resizeThreshold) {
+			grow();
+		}
+		return true;
+	}
+
+	/**
+	 * @param number E.164 number
+	 * @return true if the set contains the number
+	 */
+	public boolean contains(long number) {
+		return number > 0 && slots[findSlot(slots, number)] == number;
+	}
+
+	/**
+	 * Number of addresses in the set
+	 * @return int
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Remove all addresses, the allocated capacity stays
+	 */
+	public void clear() {
+		Arrays.fill(slots, 0);
+		size = 0;
+	}
+
+	/**
+	 * Addresses in the set, in no particular order
+	 * @return long[]
+	 */
+	public long[] toArray() {
+		long[] numbers = new long[size];
+		int count = 0;
+		for (long number : slots) {
+			if (number != 0) {
+				numbers[count++] = number;
+			}
+		}
+		return numbers;
+	}
+
+	private void grow() {
+		if (slots.length == MAX_CAPACITY) {
+			if (size == MAX_CAPACITY - 1) {
+				throw new IllegalStateException("Address set is full.");
+			}
+			// keep filling the largest table, lookups slow down but stay correct
+			resizeThreshold = MAX_CAPACITY - 1;
+			return;
+		}
+
+		long[] previous = slots;
+		allocate(slots.length << 1);
+		for (long number : previous) {
+			if (number != 0) {
+				slots[findSlot(slots, number)] = number;
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		slots = new long[capacity];
+		resizeThreshold = capacity - (capacity >>> 2);
+	}
+
+	private static int findSlot(long[] slots, long number) {
+		int mask = slots.length - 1;
+		long hash = number * 0x9E3779B97F4A7C15L;
+		int slot = (int) (hash ^ (hash >>> 32)) & mask;
+		while (slots[slot] != 0 && slots[slot] != number) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	@Override
+	public String toString() {
+		return "AddressSet {size=" + size + ", capacity=" + slots.length + "}";
+	}
+}
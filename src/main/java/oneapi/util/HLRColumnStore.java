@@ -0,0 +1,428 @@
+package oneapi.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import oneapi.listener.HLRBulkLookupListener;
+import oneapi.model.common.HlrResponseData;
+import oneapi.model.common.Roaming;
+
+/**
+ * Compact in-memory store of HLR results for millions of numbers.
+ * <p>
+ * Results are kept in columns of primitive arrays instead of Roaming objects: every string is replaced by its code
+ * in a dictionary shared by all columns (network and country names, prefixes, MCC/MNC repeat across numbers),
+ * ints, dates and doubles are kept in int and long columns and the Boolean fields are packed into 2 bits each.
+ * Rows are keyed by the MSISDN encoded as a long. Roaming and HlrResponseData objects are rebuilt on every get.
+ * <p>
+ * The store can be passed as the listener to HLRClient.queryHLRBulk to collect bulk lookup results.
+ */
+public class HLRColumnStore implements HLRBulkLookupListener {
+	private static final int STRING_COLUMNS = 35;
+	private static final int INT_COLUMNS = 5;
+	private static final int LONG_COLUMNS = 3;
+	private static final int MAX_DIGITS = 16;
+
+	private static final int NULL_CODE = 0;
+	private static final int ADDRESS_FROM_KEY = -1;
+	private static final int NULL_INT = Integer.MIN_VALUE;
+	private static final long NULL_DATE = Long.MIN_VALUE;
+	// NaN bit pattern never produced by Double.doubleToLongBits, which returns the canonical NaN
+	private static final long NULL_DOUBLE = 0x7FF0000000000001L;
+
+	private static final int FLAG_EXTENDED_DATA = 0x40;
+	private static final int FLAG_SERVING_MCC_MNC = 0x80;
+
+	// dictionary, code 0 is null
+	private final Map<String, Integer> codes = new HashMap<String, Integer>();
+	private final List<String> values = new ArrayList<String>();
+	private long dictionaryChars = 0;
+
+	// key index, open addressing with linear probing, 0 marks an empty slot
+	private long[] slotKeys;
+	private int[] slotRows;
+
+	// columns
+	private int size = 0;
+	private long[] keys;
+	private int[] addresses;
+	private byte[] flags;
+	private final int[][] strings = new int[STRING_COLUMNS][];
+	private final int[][] ints = new int[INT_COLUMNS][];
+	private final long[][] longs = new long[LONG_COLUMNS][];
+
+	public HLRColumnStore() {
+		this(1024);
+	}
+
+	/**
+	 * @param initialCapacity number of rows allocated up front
+	 */
+	public HLRColumnStore(int initialCapacity) {
+		values.add(null);
+		allocateColumns(Math.max(16, initialCapacity));
+		allocateIndex(tableCapacityFor(Math.max(16, initialCapacity)));
+	}
+
+	/**
+	 * Store the HLR result of the address, the previous result of the same address is replaced
+	 * @param address MSISDN in any format accepted by AddressNormalizer
+	 * @param roaming
+	 * @return false if the address is not a number of at most 16 digits and could not be stored
+	 */
+	public synchronized boolean put(String address, Roaming roaming) {
+		long key = toKey(address);
+		if (key < 0 || roaming == null) {
+			return false;
+		}
+
+		int slot = findSlot(key);
+		int row;
+		if (slotKeys[slot] == key) {
+			row = slotRows[slot];
+		} else {
+			if (size == keys.length) {
+				allocateColumns(size + (size >> 1));
+			}
+			row = size++;
+			keys[row] = key;
+			slotKeys[slot] = key;
+			slotRows[slot] = row;
+			if (size * 2 > slotKeys.length) {
+				allocateIndex(slotKeys.length * 2);
+			}
+		}
+		writeRow(row, key, roaming);
+		return true;
+	}
+
+	/**
+	 * Rebuild the HLR result of the address
+	 * @param address MSISDN in any format accepted by AddressNormalizer
+	 * @return Roaming or null if the address is not stored
+	 */
+	public synchronized Roaming get(String address) {
+		long key = toKey(address);
+		if (key < 0) {
+			return null;
+		}
+
+		int slot = findSlot(key);
+		return slotKeys[slot] == key ? readRow(slotRows[slot]) : null;
+	}
+
+	/**
+	 * Check if the HLR result of the address is stored
+	 * @param address
+	 * @return boolean
+	 */
+	public synchronized boolean contains(String address) {
+		long key = toKey(address);
+		return key >= 0 && slotKeys[findSlot(key)] == key;
+	}
+
+	/**
+	 * Number of stored results
+	 * @return int
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Number of distinct strings in the dictionary
+	 * @return int
+	 */
+	public synchronized int getDictionarySize() {
+		return values.size() - 1;
+	}
+
+	/**
+	 * Estimated heap used by the store in bytes: allocated columns, key index and dictionary
+	 * @return long
+	 */
+	public synchronized long getMemoryUsage() {
+		long rowBytes = 8 + 4 + 1 + 4L * STRING_COLUMNS + 4L * INT_COLUMNS + 8L * LONG_COLUMNS;
+		long columnBytes = rowBytes * keys.length;
+		long indexBytes = 12L * slotKeys.length;
+		// String with its char array, HashMap entry, boxed code and list reference
+		long dictionaryBytes = 92L * (values.size() - 1) + 2 * dictionaryChars;
+		return columnBytes + indexBytes + dictionaryBytes;
+	}
+
+	/**
+	 * Estimated heap used per stored result in bytes
+	 * @return double
+	 */
+	public synchronized double getMemoryUsagePerRecord() {
+		return size == 0 ? 0 : (double) getMemoryUsage() / size;
+	}
+
+	/**
+	 * Remove all results and the dictionary
+	 */
+	public synchronized void clear() {
+		codes.clear();
+		values.clear();
+		values.add(null);
+		dictionaryChars = 0;
+		size = 0;
+		allocateColumns(16);
+		allocateIndex(tableCapacityFor(16));
+	}
+
+	/**
+	 * Store the successful results of a bulk HLR lookup
+	 */
+	@Override
+	public void onHLRResult(long index, String address, Roaming roaming, Throwable error) {
+		if (error == null && roaming != null) {
+			put(address, roaming);
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "HLRColumnStore {size=" + size + ", dictionarySize=" + getDictionarySize()
+				+ ", memoryUsage=" + getMemoryUsage() + ", memoryUsagePerRecord=" + getMemoryUsagePerRecord() + "}";
+	}
+
+	private void writeRow(int row, long key, Roaming roaming) {
+		int rowFlags = 0;
+		String address = roaming.getAddress();
+		addresses[row] = address != null && address.equals(keyToString(key)) ? ADDRESS_FROM_KEY : encode(address);
+		Roaming.ServingMccMnc servingMccMnc = roaming.getServingMccMnc();
+		strings[0][row] = encode(roaming.getCurrentRoaming());
+		strings[1][row] = servingMccMnc == null ? NULL_CODE : encode(servingMccMnc.getMcc());
+		strings[2][row] = servingMccMnc == null ? NULL_CODE : encode(servingMccMnc.getMnc());
+		strings[3][row] = encode(roaming.getResourceURL());
+		strings[4][row] = encode(roaming.getRetrievalStatus());
+		strings[5][row] = encode(roaming.getCallbackData());
+		if (servingMccMnc != null) {
+			rowFlags |= FLAG_SERVING_MCC_MNC;
+		}
+
+		HlrResponseData data = roaming.getExtendedData();
+		if (data != null) {
+			rowFlags |= FLAG_EXTENDED_DATA;
+			rowFlags |= writeExtendedData(row, data);
+		}
+		flags[row] = (byte) rowFlags;
+	}
+
+	private int writeExtendedData(int row, HlrResponseData data) {
+		int rowFlags = 0;
+		strings[6][row] = encode(data.getDestinationAddress());
+		strings[7][row] = encode(data.getMccMnc());
+		strings[8][row] = encode(data.getMcc());
+		strings[9][row] = encode(data.getMnc());
+		strings[10][row] = encode(data.getServingMsc());
+		strings[11][row] = encode(data.getCensoredServingMsc());
+		strings[12][row] = encode(data.getOriginalNetworkName());
+		strings[13][row] = encode(data.getPortedNetworkName());
+		strings[14][row] = encode(data.getRoamingNetworkName());
+		strings[15][row] = encode(data.getRoamingCountryCode());
+		strings[16][row] = encode(data.getRoamingCountryName());
+		strings[17][row] = encode(data.getServingHlr());
+		strings[18][row] = encode(data.getImsi());
+		strings[19][row] = encode(data.getOriginalNetworkPrefix());
+		strings[20][row] = encode(data.getOriginalCountryPrefix());
+		strings[21][row] = encode(data.getOriginalCountryCode());
+		strings[22][row] = encode(data.getOriginalCountryName());
+		strings[23][row] = encode(data.getRoamingNetworkPrefix());
+		strings[24][row] = encode(data.getRoamingCountryPrefix());
+		strings[25][row] = encode(data.getPortedNetworkPrefix());
+		strings[26][row] = encode(data.getPortedCountryCode());
+		strings[27][row] = encode(data.getPortedCountryPrefix());
+		strings[28][row] = encode(data.getPortedCountryName());
+		strings[29][row] = encode(data.getRoamingMccMnc());
+		strings[30][row] = encode(data.getRoamingMcc());
+		strings[31][row] = encode(data.getRoamingMnc());
+		strings[32][row] = encode(data.getOriginalNetworkServiceProviderName());
+		strings[33][row] = encode(data.getPortedNetworkServiceProviderName());
+		strings[34][row] = encode(data.getRoamingNetworkServiceProviderName());
+		ints[0][row] = data.getStatusId();
+		ints[1][row] = data.getGsmErrorCode();
+		ints[2][row] = data.getOriginalNetworkServiceProviderId() == null ? NULL_INT : data.getOriginalNetworkServiceProviderId().intValue();
+		ints[3][row] = data.getPortedNetworkServiceProviderId() == null ? NULL_INT : data.getPortedNetworkServiceProviderId().intValue();
+		ints[4][row] = data.getRoamingNetworkServiceProviderId() == null ? NULL_INT : data.getRoamingNetworkServiceProviderId().intValue();
+		longs[0][row] = data.getSubmitTime() == null ? NULL_DATE : data.getSubmitTime().getTime();
+		longs[1][row] = data.getDoneTime() == null ? NULL_DATE : data.getDoneTime().getTime();
+		longs[2][row] = data.getPricePerMessage() == null ? NULL_DOUBLE : Double.doubleToLongBits(data.getPricePerMessage().doubleValue());
+		rowFlags |= packBoolean(0, data.getIsNumberPorted());
+		rowFlags |= packBoolean(1, data.getNumberInRoaming());
+		rowFlags |= packBoolean(2, data.getIsNumberCorrect());
+		return rowFlags;
+	}
+
+	private Roaming readRow(int row) {
+		Roaming roaming = new Roaming();
+		roaming.setAddress(addresses[row] == ADDRESS_FROM_KEY ? keyToString(keys[row]) : decode(addresses[row]));
+		roaming.setCurrentRoaming(decode(strings[0][row]));
+		if ((flags[row] & FLAG_SERVING_MCC_MNC) != 0) {
+			roaming.setServingMccMnc(new Roaming.ServingMccMnc(decode(strings[1][row]), decode(strings[2][row])));
+		}
+		roaming.setResourceURL(decode(strings[3][row]));
+		roaming.setRetrievalStatus(decode(strings[4][row]));
+		roaming.setCallbackData(decode(strings[5][row]));
+		if ((flags[row] & FLAG_EXTENDED_DATA) != 0) {
+			roaming.setExtendedData(readExtendedData(row));
+		}
+		return roaming;
+	}
+
+	private HlrResponseData readExtendedData(int row) {
+		HlrResponseData data = new HlrResponseData();
+		data.setDestinationAddress(decode(strings[6][row]));
+		data.setMccMnc(decode(strings[7][row]));
+		data.setMcc(decode(strings[8][row]));
+		data.setMnc(decode(strings[9][row]));
+		data.setServingMsc(decode(strings[10][row]));
+		data.setCensoredServingMsc(decode(strings[11][row]));
+		data.setOriginalNetworkName(decode(strings[12][row]));
+		data.setPortedNetworkName(decode(strings[13][row]));
+		data.setRoamingNetworkName(decode(strings[14][row]));
+		data.setRoamingCountryCode(decode(strings[15][row]));
+		data.setRoamingCountryName(decode(strings[16][row]));
+		data.setServingHlr(decode(strings[17][row]));
+		data.setImsi(decode(strings[18][row]));
+		data.setOriginalNetworkPrefix(decode(strings[19][row]));
+		data.setOriginalCountryPrefix(decode(strings[20][row]));
+		data.setOriginalCountryCode(decode(strings[21][row]));
+		data.setOriginalCountryName(decode(strings[22][row]));
+		data.setRoamingNetworkPrefix(decode(strings[23][row]));
+		data.setRoamingCountryPrefix(decode(strings[24][row]));
+		data.setPortedNetworkPrefix(decode(strings[25][row]));
+		data.setPortedCountryCode(decode(strings[26][row]));
+		data.setPortedCountryPrefix(decode(strings[27][row]));
+		data.setPortedCountryName(decode(strings[28][row]));
+		data.setRoamingMccMnc(decode(strings[29][row]));
+		data.setRoamingMcc(decode(strings[30][row]));
+		data.setRoamingMnc(decode(strings[31][row]));
+		data.setOriginalNetworkServiceProviderName(decode(strings[32][row]));
+		data.setPortedNetworkServiceProviderName(decode(strings[33][row]));
+		data.setRoamingNetworkServiceProviderName(decode(strings[34][row]));
+		data.setStatusId(ints[0][row]);
+		data.setGsmErrorCode(ints[1][row]);
+		data.setOriginalNetworkServiceProviderId(ints[2][row] == NULL_INT ? null : Integer.valueOf(ints[2][row]));
+		data.setPortedNetworkServiceProviderId(ints[3][row] == NULL_INT ? null : Integer.valueOf(ints[3][row]));
+		data.setRoamingNetworkServiceProviderId(ints[4][row] == NULL_INT ? null : Integer.valueOf(ints[4][row]));
+		data.setSubmitTime(longs[0][row] == NULL_DATE ? null : new Date(longs[0][row]));
+		data.setDoneTime(longs[1][row] == NULL_DATE ? null : new Date(longs[1][row]));
+		data.setPricePerMessage(longs[2][row] == NULL_DOUBLE ? null : Double.valueOf(Double.longBitsToDouble(longs[2][row])));
+		data.setIsNumberPorted(unpackBoolean(flags[row], 0));
+		data.setNumberInRoaming(unpackBoolean(flags[row], 1));
+		data.setIsNumberCorrect(unpackBoolean(flags[row], 2));
+		return data;
+	}
+
+	private int encode(String value) {
+		if (value == null) {
+			return NULL_CODE;
+		}
+
+		Integer code = codes.get(value);
+		if (code == null) {
+			code = Integer.valueOf(values.size());
+			codes.put(value, code);
+			values.add(value);
+			dictionaryChars += value.length();
+		}
+		return code.intValue();
+	}
+
+	private String decode(int code) {
+		return values.get(code);
+	}
+
+	/**
+	 * Boolean takes 2 bits: 0 = null, 1 = false, 2 = true
+	 */
+	private static int packBoolean(int position, Boolean value) {
+		int bits = value == null ? 0 : (value.booleanValue() ? 2 : 1);
+		return bits << (position * 2);
+	}
+
+	private static Boolean unpackBoolean(byte rowFlags, int position) {
+		int bits = (rowFlags >> (position * 2)) & 3;
+		return bits == 0 ? null : Boolean.valueOf(bits == 2);
+	}
+
+	/**
+	 * Number of digits is kept in the top byte so that leading zeros are preserved
+	 * @return key or -1 if the address is not a number of at most 16 digits
+	 */
+	private static long toKey(String address) {
+		String digits = AddressNormalizer.normalize(address);
+		if (digits == null || digits.length() == 0 || digits.length() > MAX_DIGITS) {
+			return -1;
+		}
+
+		long value = 0;
+		for (int i = 0; i < digits.length(); i++) {
+			char c = digits.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return ((long) digits.length() << 56) | value;
+	}
+
+	private static String keyToString(long key) {
+		int length = (int) (key >>> 56);
+		String digits = Long.toString(key & 0x00FFFFFFFFFFFFFFL);
+		StringBuilder address = new StringBuilder(length);
+		for (int i = digits.length(); i < length; i++) {
+			address.append('0');
+		}
+		return address.append(digits).toString();
+	}
+
+	private int findSlot(long key) {
+		int mask = slotKeys.length - 1;
+		long hash = key * 0x9E3779B97F4A7C15L;
+		int slot = (int) (hash ^ (hash >>> 32)) & mask;
+		while (slotKeys[slot] != 0 && slotKeys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void allocateColumns(int capacity) {
+		keys = keys == null ? new long[capacity] : Arrays.copyOf(keys, capacity);
+		addresses = addresses == null ? new int[capacity] : Arrays.copyOf(addresses, capacity);
+		flags = flags == null ? new byte[capacity] : Arrays.copyOf(flags, capacity);
+		for (int i = 0; i < STRING_COLUMNS; i++) {
+			strings[i] = strings[i] == null ? new int[capacity] : Arrays.copyOf(strings[i], capacity);
+		}
+		for (int i = 0; i < INT_COLUMNS; i++) {
+			ints[i] = ints[i] == null ? new int[capacity] : Arrays.copyOf(ints[i], capacity);
+		}
+		for (int i = 0; i < LONG_COLUMNS; i++) {
+			longs[i] = longs[i] == null ? new long[capacity] : Arrays.copyOf(longs[i], capacity);
+		}
+	}
+
+	private void allocateIndex(int capacity) {
+		slotKeys = new long[capacity];
+		slotRows = new int[capacity];
+		for (int row = 0; row < size; row++) {
+			int slot = findSlot(keys[row]);
+			slotKeys[slot] = keys[row];
+			slotRows[slot] = row;
+		}
+	}
+
+	private static int tableCapacityFor(int rows) {
+		int capacity = 16;
+		while (capacity < rows * 2) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+}
@@ -0,0 +1,242 @@
+package oneapi.util;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import oneapi.exception.RequestException;
+import oneapi.model.common.HlrResponseData;
+import oneapi.model.common.RoamingType;
+
+/**
+ * Classifies large batches of HLR results into roaming types with the same rules and results as
+ * RoamingTypeConverter.convert().
+ * <p>
+ * Batches are split into chunks classified in parallel by the classifier's worker threads. Classification allocates
+ * nothing per record, and string fields are compared by identity first: results rebuilt from HLRColumnStore share
+ * one String instance per distinct value, so equal fields are matched without comparing characters.
+ */
+public class RoamingClassifier {
+	private static final int DEFAULT_CHUNK_SIZE = 4096;
+	private static final RoamingType[] ROAMING_TYPES = RoamingType.values();
+
+	private final ExecutorService executor;
+	private final int parallelism;
+	private final int chunkSize;
+
+	public RoamingClassifier() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param parallelism number of worker threads
+	 * @param chunkSize number of records classified by one task
+	 */
+	public RoamingClassifier(int parallelism, int chunkSize) {
+		this.parallelism = Math.max(1, parallelism);
+		this.chunkSize = Math.max(1, chunkSize);
+		final AtomicInteger threadNumber = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(this.parallelism, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "oneapi-roaming-classifier-" + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Classify the records in parallel
+	 * @param records
+	 * @return RoamingType[] in the order of the records, UNKNOWN for null records
+	 */
+	public RoamingType[] classify(final HlrResponseData[] records) {
+		final RoamingType[] roamingTypes = new RoamingType[records.length];
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int start = 0; start < records.length; start += chunkSize) {
+			final int chunkStart = start;
+			final int chunkEnd = Math.min(records.length, start + chunkSize);
+			futures.add(executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = chunkStart; i < chunkEnd; i++) {
+						roamingTypes[i] = classify(records[i]);
+					}
+				}
+			}));
+		}
+		awaitAll(futures);
+		return roamingTypes;
+	}
+
+	/**
+	 * Classify the records in parallel
+	 * @param records
+	 * @return RoamingType[] in the order of the records, UNKNOWN for null records
+	 */
+	public RoamingType[] classify(List<HlrResponseData> records) {
+		return classify(records.toArray(new HlrResponseData[records.size()]));
+	}
+
+	/**
+	 * Count roaming types of records read from the iterator, at most 'parallelism' chunks are held in memory at a time
+	 * @param records
+	 * @return Map<RoamingType, Long> with a count for every roaming type
+	 */
+	public Map<RoamingType, Long> countRoamingTypes(Iterator<HlrResponseData> records) {
+		long[] counts = new long[ROAMING_TYPES.length];
+		List<Future<long[]>> futures = new ArrayList<Future<long[]>>();
+		while (records.hasNext()) {
+			final List<HlrResponseData> chunkRecords = new ArrayList<HlrResponseData>(chunkSize);
+			while (records.hasNext() && chunkRecords.size() < chunkSize) {
+				chunkRecords.add(records.next());
+			}
+
+			futures.add(executor.submit(new Callable<long[]>() {
+				@Override
+				public long[] call() {
+					long[] chunkCounts = new long[ROAMING_TYPES.length];
+					for (HlrResponseData record : chunkRecords) {
+						chunkCounts[classify(record).ordinal()]++;
+					}
+					return chunkCounts;
+				}
+			}));
+
+			if (futures.size() >= parallelism) {
+				addCounts(counts, await(futures.remove(0)));
+			}
+		}
+		for (Future<long[]> future : futures) {
+			addCounts(counts, await(future));
+		}
+
+		Map<RoamingType, Long> result = new EnumMap<RoamingType, Long>(RoamingType.class);
+		for (RoamingType roamingType : ROAMING_TYPES) {
+			result.put(roamingType, Long.valueOf(counts[roamingType.ordinal()]));
+		}
+		return result;
+	}
+
+	/**
+	 * Stop the worker threads
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	private static void addCounts(long[] counts, long[] chunkCounts) {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += chunkCounts[i];
+		}
+	}
+
+	private static void awaitAll(List<Future<?>> futures) {
+		for (Future<?> future : futures) {
+			await(future);
+		}
+	}
+
+	private static <T> T await(Future<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RequestException(e);
+		} catch (ExecutionException e) {
+			throw new RequestException(e.getCause());
+		}
+	}
+
+	/**
+	 * Classify a single record, gives the same result as RoamingTypeConverter.convert() without creating a converter
+	 * @param data
+	 * @return RoamingType, UNKNOWN for null data
+	 */
+	public static RoamingType classify(HlrResponseData data) {
+		return Rules.classify(data);
+	}
+
+	/**
+	 * Same decision chain as RoamingTypeConverter, comparisons return UNKNOWN when a value is missing
+	 */
+	private static final class Rules {
+		private static final int UNKNOWN = -1;
+		private static final int FALSE = 0;
+		private static final int TRUE = 1;
+
+		static RoamingType classify(HlrResponseData data) {
+			if (data == null) {
+				return RoamingType.UNKNOWN;
+			}
+
+			if (data.getNumberInRoaming() != null) {
+				return data.getNumberInRoaming().booleanValue() ? RoamingType.INTERNATIONAL_ROAMING : RoamingType.NOT_ROAMING;
+			}
+
+			int internationalRoaming = isInternationalRoaming(data);
+			if (internationalRoaming == UNKNOWN) {
+				return RoamingType.UNKNOWN;
+			} else if (internationalRoaming == TRUE) {
+				return RoamingType.INTERNATIONAL_ROAMING;
+			}
+
+			int domesticRoaming = isDomesticRoaming(data);
+			if (domesticRoaming == UNKNOWN) {
+				return RoamingType.UNKNOWN;
+			}
+			return domesticRoaming == TRUE ? RoamingType.DOMESTIC_ROAMING : RoamingType.NOT_ROAMING;
+		}
+
+		private static int isInternationalRoaming(HlrResponseData data) {
+			int differs;
+			if ((differs = differs(data.getRoamingCountryCode(), data.getPortedCountryCode())) != UNKNOWN) return differs;
+			if ((differs = differs(data.getRoamingCountryPrefix(), data.getPortedCountryPrefix())) != UNKNOWN) return differs;
+			if ((differs = differs(data.getRoamingCountryName(), data.getPortedCountryName())) != UNKNOWN) return differs;
+			if ((differs = differs(data.getRoamingCountryCode(), data.getOriginalCountryCode())) != UNKNOWN) return differs;
+			if ((differs = differs(data.getRoamingCountryPrefix(), data.getOriginalCountryPrefix())) != UNKNOWN) return differs;
+			if ((differs = differs(data.getRoamingMcc(), data.getMcc())) != UNKNOWN) return differs;
+			return differs(data.getRoamingCountryName(), data.getOriginalCountryName());
+		}
+
+		private static int isDomesticRoaming(HlrResponseData data) {
+			int differs;
+			if ((differs = differs(data.getRoamingNetworkPrefix(), data.getPortedNetworkPrefix())) != UNKNOWN) return differs;
+			if ((differs = differs(data.getRoamingNetworkName(), data.getPortedNetworkName())) != UNKNOWN) return differs;
+			if ((differs = differs(data.getRoamingNetworkServiceProviderId(), data.getPortedNetworkServiceProviderId())) != UNKNOWN) return differs;
+			if ((differs = differs(data.getRoamingMnc(), data.getMnc())) != UNKNOWN) return differs;
+			if ((differs = differs(data.getRoamingNetworkPrefix(), data.getOriginalNetworkPrefix())) != UNKNOWN) return differs;
+			return differs(data.getRoamingNetworkName(), data.getOriginalNetworkName());
+		}
+
+		private static int differs(String a, String b) {
+			if (a == null || b == null) {
+				return UNKNOWN;
+			}
+			if (a == b) {
+				return FALSE;
+			}
+			return a.length() == b.length() && a.equalsIgnoreCase(b) ? FALSE : TRUE;
+		}
+
+		/**
+		 * RoamingTypeConverter compares the Integer objects by reference, the same comparison is kept to give the same results
+		 */
+		private static int differs(Integer a, Integer b) {
+			if (a == null || b == null) {
+				return UNKNOWN;
+			}
+			return a == b ? FALSE : TRUE;
+		}
+	}
+}
@@ -0,0 +1,266 @@
+package oneapi.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import oneapi.model.SMSMessageInfo;
+
+/**
+ * Classifies SMS message text as GSM 03.38 7-bit (GSM7) or UCS-2 and counts the segments it is sent as. A single GSM7
+ * message carries 160 septets and every part of a split one 153, extension table characters take two septets and are
+ * not split between parts. UCS-2 messages carry 70 or 67 code units and surrogate pairs are not split.
+ * <p>
+ * Characters are looked up in a static table indexed by the character, counting allocates nothing, so the analyzer can
+ * run on every message of a campaign.
+ */
+public final class SMSMessageAnalyzer {
+	private static final int GSM7_SINGLE = 160;
+	private static final int GSM7_MULTI = 153;
+	private static final int UCS2_SINGLE = 70;
+	private static final int UCS2_MULTI = 67;
+	private static final char EURO = '€';
+
+	private static final String GSM7_BASIC = "@£$¥èéùìòÇ\nØø\rÅå"
+			+ "Δ_ΦΓΛΩΠΨΣΘΞÆæßÉ"
+			+ " !\"#¤%&'()*+,-./0123456789:;<=>?"
+			+ "¡ABCDEFGHIJKLMNOPQRSTUVWXYZÄÖÑÜ§"
+			+ "¿abcdefghijklmnopqrstuvwxyzäöñüà";
+	private static final String GSM7_EXTENSION = "\f^{}\\[~]|";
+
+	/** septets per character below 0x400, 0 = not in the GSM7 alphabet (the euro sign is checked separately) */
+	private static final byte[] SEPTETS = new byte[0x400];
+
+	private static final char[] TRANSLITERATION_KEYS;
+	private static final String[] TRANSLITERATION_VALUES;
+
+	static {
+		for (int i = 0; i < GSM7_BASIC.length(); i++) {
+			SEPTETS[GSM7_BASIC.charAt(i)] = 1;
+		}
+		for (int i = 0; i < GSM7_EXTENSION.length(); i++) {
+			SEPTETS[GSM7_EXTENSION.charAt(i)] = 2;
+		}
+
+		Map<Character, String> transliterations = new TreeMap<Character, String>();
+		put(transliterations, "ÀÁÂÃĀĂĄ", "A");
+		put(transliterations, "áâãāăą", "a");
+		put(transliterations, "ĆĈĊČ", "C");
+		put(transliterations, "ćĉċč", "c");
+		put(transliterations, "ç", "Ç");
+		put(transliterations, "ĎĐÐ", "D");
+		put(transliterations, "ďđð", "d");
+		put(transliterations, "ÈÊËĒĖĘĚ", "E");
+		put(transliterations, "êëēėęě", "e");
+		put(transliterations, "Ğ", "G");
+		put(transliterations, "ğ", "g");
+		put(transliterations, "ÌÍÎÏĪĮİ", "I");
+		put(transliterations, "íîïīįı", "i");
+		put(transliterations, "ĹĽŁ", "L");
+		put(transliterations, "ĺľł", "l");
+		put(transliterations, "ŃŇ", "N");
+		put(transliterations, "ńň", "n");
+		put(transliterations, "ÒÓÔÕŌŐ", "O");
+		put(transliterations, "óôõōő", "o");
+		put(transliterations, "ŔŘ", "R");
+		put(transliterations, "ŕř", "r");
+		put(transliterations, "ŚŞŠȘ", "S");
+		put(transliterations, "śşšș", "s");
+		put(transliterations, "ŢŤȚ", "T");
+		put(transliterations, "ţťț", "t");
+		put(transliterations, "ÙÚÛŪŮŰŲ", "U");
+		put(transliterations, "úûūůűų", "u");
+		put(transliterations, "ÝŸ", "Y");
+		put(transliterations, "ýÿ", "y");
+		put(transliterations, "ŹŻŽ", "Z");
+		put(transliterations, "źżž", "z");
+		put(transliterations, "Œ", "OE");
+		put(transliterations, "œ", "oe");
+		put(transliterations, "Þ", "Th");
+		put(transliterations, "þ", "th");
+		put(transliterations, "`´‘’‚‛′", "'");
+		put(transliterations, "«»“”„″", "\"");
+		put(transliterations, "‐‑‒–—―−", "-");
+		put(transliterations, "…", "...");
+		put(transliterations, "\t\u00A0\u2002\u2003\u2004\u2005\u2006\u2007\u2008\u2009\u200A\u202F", " ");
+		put(transliterations, "\u00AD\u200B\uFEFF", "");
+		put(transliterations, "•", "*");
+		put(transliterations, "×", "x");
+		put(transliterations, "©", "(c)");
+		put(transliterations, "®", "(R)");
+		put(transliterations, "™", "TM");
+		put(transliterations, "ˆ", "^");
+		put(transliterations, "˜", "~");
+
+		TRANSLITERATION_KEYS = new char[transliterations.size()];
+		TRANSLITERATION_VALUES = new String[transliterations.size()];
+		int i = 0;
+		for (Map.Entry<Character, String> transliteration : transliterations.entrySet()) {
+			TRANSLITERATION_KEYS[i] = transliteration.getKey();
+			TRANSLITERATION_VALUES[i] = transliteration.getValue();
+			i++;
+		}
+	}
+
+	private SMSMessageAnalyzer() {
+	}
+
+	/**
+	 * Analyze the message text
+	 * @param text
+	 * @return SMSMessageInfo
+	 */
+	public static SMSMessageInfo analyze(CharSequence text) {
+		int firstUCS2Index = indexOfUCS2(text);
+		int length = firstUCS2Index < 0 ? getGSM7Length(text) : text.length();
+		int characterCount = firstUCS2Index < 0 ? text.length() : Character.codePointCount(text, 0, text.length());
+		long segmentation = segment(text, firstUCS2Index < 0, length);
+		int segmentCount = (int) (segmentation >>> 32);
+		int used = (int) segmentation;
+		int charactersPerSegment = perSegment(firstUCS2Index < 0, segmentCount);
+
+		return new SMSMessageInfo(firstUCS2Index < 0 ? SMSMessageInfo.Encoding.GSM7 : SMSMessageInfo.Encoding.UCS2, characterCount,
+				length, segmentCount, charactersPerSegment, charactersPerSegment - used, firstUCS2Index);
+	}
+
+	/**
+	 * Number of messages the text is sent as
+	 * @param text
+	 * @return int
+	 */
+	public static int countSegments(CharSequence text) {
+		boolean gsm7 = indexOfUCS2(text) < 0;
+		return (int) (segment(text, gsm7, gsm7 ? getGSM7Length(text) : text.length()) >>> 32);
+	}
+
+	/**
+	 * Check whether all characters are in the GSM 03.38 alphabet, including the extension table
+	 * @param text
+	 * @return boolean
+	 */
+	public static boolean isGSM7(CharSequence text) {
+		return indexOfUCS2(text) < 0;
+	}
+
+	/**
+	 * Check whether the character is in the GSM 03.38 alphabet, including the extension table
+	 * @param c
+	 * @return boolean
+	 */
+	public static boolean isGSM7(char c) {
+		return septets(c) > 0;
+	}
+
+	/**
+	 * Index of the first character which is not in the GSM 03.38 alphabet
+	 * @param text
+	 * @return int or -1 if the text is GSM7
+	 */
+	public static int indexOfUCS2(CharSequence text) {
+		for (int i = 0, n = text.length(); i < n; i++) {
+			if (septets(text.charAt(i)) == 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Replace accented letters, typographic quotes, dashes and spaces which are not in the GSM 03.38 alphabet with their
+	 * closest GSM7 equivalents, other characters are kept as they are
+	 * @param text
+	 * @return String, the same instance if nothing was replaced
+	 */
+	public static String transliterate(String text) {
+		int first = indexOfUCS2(text);
+		if (first < 0) {
+			return text;
+		}
+
+		StringBuilder transliterated = null;
+		for (int i = first, n = text.length(); i < n; i++) {
+			char c = text.charAt(i);
+			if (septets(c) > 0) {
+				if (transliterated != null) {
+					transliterated.append(c);
+				}
+				continue;
+			}
+
+			int key = Arrays.binarySearch(TRANSLITERATION_KEYS, c);
+			if (key >= 0 && transliterated == null) {
+				transliterated = new StringBuilder(text.length() + 16);
+				transliterated.append(text, 0, i);
+			}
+			if (key >= 0) {
+				transliterated.append(TRANSLITERATION_VALUES[key]);
+			} else if (transliterated != null) {
+				transliterated.append(c);
+			}
+		}
+		return transliterated != null ? transliterated.toString() : text;
+	}
+
+	private static int septets(char c) {
+		if (c < SEPTETS.length) {
+			return SEPTETS[c];
+		}
+		return c == EURO ? 2 : 0;
+	}
+
+	private static int getGSM7Length(CharSequence text) {
+		int length = 0;
+		for (int i = 0, n = text.length(); i < n; i++) {
+			length += septets(text.charAt(i));
+		}
+		return length;
+	}
+
+	private static int perSegment(boolean gsm7, int segmentCount) {
+		if (gsm7) {
+			return segmentCount > 1 ? GSM7_MULTI : GSM7_SINGLE;
+		}
+		return segmentCount > 1 ? UCS2_MULTI : UCS2_SINGLE;
+	}
+
+	/**
+	 * Split the text into segments without splitting extension characters or surrogate pairs
+	 * @return long - segment count in the high and septets or code units used in the last segment in the low 32 bits
+	 */
+	private static long segment(CharSequence text, boolean gsm7, int length) {
+		if (length <= (gsm7 ? GSM7_SINGLE : UCS2_SINGLE)) {
+			return (1L << 32) | length;
+		}
+
+		int capacity = gsm7 ? GSM7_MULTI : UCS2_MULTI;
+		long segmentCount = 1;
+		int used = 0;
+		for (int i = 0, n = text.length(); i < n; i++) {
+			char c = text.charAt(i);
+			int units;
+			if (gsm7) {
+				units = septets(c);
+			} else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+				units = 2;
+				i++;
+			} else {
+				units = 1;
+			}
+
+			if (used + units > capacity) {
+				segmentCount++;
+				used = 0;
+			}
+			used += units;
+		}
+		return (segmentCount << 32) | used;
+	}
+
+	private static void put(Map<Character, String> transliterations, String characters, String replacement) {
+		for (int i = 0; i < characters.length(); i++) {
+			if (transliterations.put(characters.charAt(i), replacement) != null || septets(characters.charAt(i)) > 0) {
+				throw new IllegalStateException("Invalid transliteration of '" + characters.charAt(i) + "'.");
+			}
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package oneapi.client.impl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import oneapi.client.SMSMessagingClient;
+import oneapi.config.SendLogSettings;
+import oneapi.exception.ConfigurationException;
+import oneapi.listener.DurableSMSQueueListener;
+import oneapi.model.SMSRequest;
+import oneapi.model.SendMessageResult;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestDurableSMSQueue {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final List<RuntimeException> failures = new ArrayList<RuntimeException>();
+	private final BlockingQueue<Object[]> acknowledged = new LinkedBlockingQueue<Object[]>();
+
+	@Test
+	public void testRuntimeExceptionRetried() throws Exception {
+		failures.add(new ConfigurationException("Suppression list can't be loaded."));
+		DurableSMSQueue queue = createQueue(3);
+		try {
+			queue.enqueue(request("q-1"));
+
+			Object[] ack = acknowledged.poll(5, TimeUnit.SECONDS);
+			Assert.assertNotNull(ack);
+			Assert.assertEquals("q-1", ((SMSRequest) ack[0]).getClientCorrelator());
+			Assert.assertNotNull(ack[1]);
+			Assert.assertNull(ack[2]);
+			Assert.assertEquals(0, queue.getPendingCount());
+		} finally {
+			queue.close();
+		}
+	}
+
+	@Test
+	public void testConsumerKeepsSendingAfterFailedRequest() throws Exception {
+		failures.add(new IllegalStateException("failed"));
+		failures.add(new IllegalStateException("failed"));
+		DurableSMSQueue queue = createQueue(2);
+		try {
+			queue.enqueue(request("q-1"));
+			queue.enqueue(request("q-2"));
+
+			Object[] failed = acknowledged.poll(5, TimeUnit.SECONDS);
+			Assert.assertEquals("q-1", ((SMSRequest) failed[0]).getClientCorrelator());
+			Assert.assertTrue(failed[2] instanceof IllegalStateException);
+			Object[] sent = acknowledged.poll(5, TimeUnit.SECONDS);
+			Assert.assertNotNull(sent);
+			Assert.assertEquals("q-2", ((SMSRequest) sent[0]).getClientCorrelator());
+			Assert.assertNull(sent[2]);
+		} finally {
+			queue.close();
+		}
+	}
+
+	private DurableSMSQueue createQueue(int maxAttempts) {
+		SendLogSettings settings = new SendLogSettings(folder.getRoot().getPath(), 0);
+		settings.setRetryDelay(10);
+		settings.setMaxAttempts(maxAttempts);
+		DurableSMSQueue queue = new DurableSMSQueue(createClient(), settings);
+		queue.addListener(new DurableSMSQueueListener() {
+			@Override
+			public void onSMSAcknowledged(SMSRequest smsRequest, SendMessageResult result, Throwable error) {
+				acknowledged.add(new Object[] { smsRequest, result, error });
+			}
+		});
+		return queue;
+	}
+
+	/**
+	 * Client whose sendSMS() throws the exceptions in 'failures' one by one, then succeeds
+	 */
+	private SMSMessagingClient createClient() {
+		return (SMSMessagingClient) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { SMSMessagingClient.class }, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if (!method.getName().equals("sendSMS")) {
+					throw new UnsupportedOperationException(method.getName());
+				}
+				synchronized (failures) {
+					if (!failures.isEmpty()) {
+						throw failures.remove(0);
+					}
+				}
+				return new SendMessageResult();
+			}
+		});
+	}
+
+	private static SMSRequest request(String clientCorrelator) {
+		return new SMSRequest("tel:+385123", "Hello", clientCorrelator, null, null, null, new String[] { "385981" });
+	}
+}
@@ -0,0 +1,101 @@
+package oneapi.client.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import oneapi.model.common.Roaming;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestHLRFileStore {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File storeFile;
+
+	@Before
+	public void setUp() {
+		storeFile = new File(folder.getRoot(), "hlr.store");
+	}
+
+	@Test
+	public void testStoresOfOneFileShared() throws Exception {
+		final HLRFileStore first = HLRFileStore.open(storeFile, 16);
+		final HLRFileStore second = HLRFileStore.open(new File(folder.getRoot(), "./hlr.store"), 16);
+		Assert.assertSame(first, second);
+
+		final long expiresAt = System.currentTimeMillis() + 60000;
+		final List<Throwable> errors = new ArrayList<Throwable>();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 4; i++) {
+			final HLRFileStore store = i % 2 == 0 ? first : second;
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < 200; j++) {
+							String address = "38591" + (j % 8);
+							store.put(address, roaming(address), expiresAt);
+							store.get(address, System.currentTimeMillis());
+						}
+					} catch (Throwable e) {
+						synchronized (errors) {
+							errors.add(e);
+						}
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Assert.assertEquals("[]", errors.toString());
+
+		// the file stays open until its last user releases it
+		first.close();
+		Assert.assertEquals("385913", second.get("385913", System.currentTimeMillis()).getRoaming().getAddress());
+		second.close();
+
+		HLRFileStore reopened = HLRFileStore.open(storeFile, 16);
+		try {
+			Assert.assertNotSame(first, reopened);
+			Assert.assertEquals("385913", reopened.get("385913", System.currentTimeMillis()).getRoaming().getAddress());
+		} finally {
+			reopened.close();
+		}
+	}
+
+	@Test
+	public void testClosedCacheReleasesStore() throws IOException {
+		HLRFileStore store = HLRFileStore.open(storeFile, 16);
+		HLRCache cache = new HLRCache(16, store);
+		HLRCache otherCache = new HLRCache(16, HLRFileStore.open(storeFile, 16));
+
+		cache.close();
+		cache.close();
+		// the other cache still uses the shared store
+		Assert.assertEquals(0, otherCache.compactStore());
+		Assert.assertNull(otherCache.get("385911"));
+		otherCache.close();
+
+		HLRFileStore reopened = HLRFileStore.open(storeFile, 16);
+		Assert.assertNotSame(store, reopened);
+		reopened.close();
+	}
+
+	private static Roaming roaming(String address) {
+		Roaming roaming = new Roaming();
+		roaming.setAddress(address);
+		roaming.setCurrentRoaming("NotRoaming");
+		return roaming;
+	}
+}
@@ -0,0 +1,171 @@
+package oneapi.client.impl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import oneapi.client.SMSMessagingClient;
+import oneapi.config.CampaignSettings;
+import oneapi.exception.RequestException;
+import oneapi.listener.ResponseListener;
+import oneapi.model.CampaignSummary;
+import oneapi.model.SMSRequest;
+import oneapi.model.SMSTemplate;
+import oneapi.model.SendMessageResult;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestSMSCampaign {
+	private static final SMSTemplate TEMPLATE = new SMSTemplate("Hello {name}");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final List<SMSRequest> sent = new ArrayList<SMSRequest>();
+	private final Set<String> failing = new HashSet<String>();
+	private File recipientFile;
+	private File checkpointFile;
+
+	@Before
+	public void setUp() throws IOException {
+		recipientFile = folder.newFile("recipients.csv");
+		checkpointFile = new File(folder.getRoot(), "campaign.checkpoint");
+		writeFile(recipientFile, "address,name\n385981,Ana\n385982,Ana\n385983,Ana\n385984,Ana\n385985,Ana\n385986,Ivo\n");
+	}
+
+	@Test
+	public void testRequestsSplitByMaxRecipients() {
+		CampaignSummary summary = run(2);
+
+		Assert.assertEquals("[c-0-0, c-0-1, c-0-2, c-0-3]", correlators());
+		Assert.assertEquals(Arrays.asList("385981", "385982"), Arrays.asList(sent.get(0).getAddress()));
+		Assert.assertEquals(Arrays.asList("385985"), Arrays.asList(sent.get(2).getAddress()));
+		Assert.assertEquals("Hello Ivo", sent.get(3).getMessage());
+		Assert.assertEquals(6, summary.getSentCount());
+		Assert.assertFalse(checkpointFile.exists());
+	}
+
+	@Test
+	public void testFailedRequestsSentAgainOnResume() throws IOException {
+		failing.add("c-0-1");
+		CampaignSummary summary = run(2);
+		Assert.assertEquals(4, summary.getSentCount());
+		Assert.assertEquals(2, summary.getFailedCount());
+		Assert.assertEquals("1", readCheckpoint().getProperty("failed.0"));
+
+		sent.clear();
+		failing.clear();
+		summary = run(2);
+		Assert.assertEquals("[c-0-1]", correlators());
+		Assert.assertEquals(2, summary.getSentCount());
+		Assert.assertEquals(4, summary.getSkippedCount());
+		Assert.assertFalse(checkpointFile.exists());
+	}
+
+	@Test
+	public void testPartiallySentBatchResumed() throws IOException {
+		writeFile(checkpointFile, "watermark=0\ncompleted=\nsent.0=0,2\n");
+
+		CampaignSummary summary = run(2);
+		Assert.assertEquals("[c-0-1, c-0-3]", correlators());
+		Assert.assertEquals(3, summary.getSentCount());
+		Assert.assertEquals(3, summary.getSkippedCount());
+		Assert.assertFalse(checkpointFile.exists());
+	}
+
+	@Test
+	public void testRecipientFileWithoutTemplateColumn() throws IOException {
+		try {
+			SMSCampaign.RecipientReader.open(recipientFile, new SMSTemplate("Hello {surname}"));
+			Assert.fail("Recipient file without the template column was opened.");
+		} catch (RequestException e) {
+			// expected
+		}
+	}
+
+	private CampaignSummary run(int maxRecipients) {
+		CampaignSettings settings = new CampaignSettings(0, checkpointFile.getPath(), "c");
+		settings.setCheckpointInterval(1);
+		try {
+			SMSCampaign.RecipientReader recipients = SMSCampaign.RecipientReader.open(recipientFile, TEMPLATE);
+			try {
+				return new SMSCampaign(createClient(), TEMPLATE, "tel:+385123", settings, maxRecipients, null).run(recipients);
+			} finally {
+				recipients.close();
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Client completing sendSMSAsync() on the calling thread, requests with a client correlator in 'failing' fail
+	 */
+	private SMSMessagingClient createClient() {
+		return (SMSMessagingClient) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { SMSMessagingClient.class }, new InvocationHandler() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if (!method.getName().equals("sendSMSAsync")) {
+					throw new UnsupportedOperationException(method.getName());
+				}
+
+				SMSRequest smsRequest = (SMSRequest) args[0];
+				ResponseListener<SendMessageResult> listener = (ResponseListener<SendMessageResult>) args[1];
+				synchronized (sent) {
+					sent.add(smsRequest);
+				}
+				if (failing.contains(smsRequest.getClientCorrelator())) {
+					listener.onGotResponse(null, new RequestException("failed"));
+				} else {
+					listener.onGotResponse(new SendMessageResult(), null);
+				}
+				return null;
+			}
+		});
+	}
+
+	private String correlators() {
+		List<String> correlators = new ArrayList<String>();
+		for (SMSRequest smsRequest : sent) {
+			correlators.add(smsRequest.getClientCorrelator());
+		}
+		return correlators.toString();
+	}
+
+	private Properties readCheckpoint() throws IOException {
+		Properties checkpoint = new Properties();
+		FileInputStream in = new FileInputStream(checkpointFile);
+		try {
+			checkpoint.load(in);
+		} finally {
+			in.close();
+		}
+		return checkpoint;
+	}
+
+	private static void writeFile(File file, String content) throws IOException {
+		Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			out.write(content);
+		} finally {
+			out.close();
+		}
+	}
+}
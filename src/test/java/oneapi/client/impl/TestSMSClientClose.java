@@ -0,0 +1,72 @@
+package oneapi.client.impl;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import oneapi.config.Configuration;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSMSClientClose {
+
+	@Test
+	public void testOwnTimerWheelStopped() throws InterruptedException {
+		Set<Thread> before = findThreads("oneapi-notification-timeouts");
+		SMSClient client = new SMSClient(new Configuration("http://localhost:1", "simple", "1", "simple"));
+		((SMSMessagingClientImpl) client.getSMSMessagingClient()).getTimerWheel().schedule(new Runnable() {
+			@Override
+			public void run() {
+			}
+		}, 60000);
+
+		Set<Thread> started = findThreads("oneapi-notification-timeouts");
+		started.removeAll(before);
+		Assert.assertEquals(1, started.size());
+
+		client.close();
+		Thread worker = started.iterator().next();
+		worker.join(5000);
+		Assert.assertFalse(worker.isAlive());
+	}
+
+	@Test
+	public void testResponseCacheRefreshStopped() throws InterruptedException {
+		ResponseCache cache = new ResponseCache();
+		final AtomicReference<Thread> refreshThread = new AtomicReference<Thread>();
+		final CountDownLatch refreshed = new CountDownLatch(1);
+		cache.refresh(new Runnable() {
+			@Override
+			public void run() {
+				refreshThread.set(Thread.currentThread());
+				refreshed.countDown();
+			}
+		});
+		Assert.assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+
+		cache.close();
+		refreshThread.get().join(5000);
+		Assert.assertFalse(refreshThread.get().isAlive());
+
+		// refreshes after close are not run
+		cache.refresh(new Runnable() {
+			@Override
+			public void run() {
+				Assert.fail("Refresh ran after close.");
+			}
+		});
+	}
+
+	private static Set<Thread> findThreads(String name) {
+		Set<Thread> threads = new HashSet<Thread>();
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().equals(name) && thread.isAlive()) {
+				threads.add(thread);
+			}
+		}
+		return threads;
+	}
+}
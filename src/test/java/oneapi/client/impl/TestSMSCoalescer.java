@@ -0,0 +1,124 @@
+package oneapi.client.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import oneapi.model.SMSRequest;
+import oneapi.model.SendMessageResult;
+import oneapi.model.SendMessageResultItem;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSMSCoalescer {
+
+	@Test
+	public void testCoalesce() {
+		SMSRequest first = request("Hello", null, "385981", "385982");
+		SMSRequest other = request("Bye", null, "385983");
+		SMSRequest second = request("Hello", null, "385984", "385985");
+		SMSRequest correlated = request("Hello", "c-1", "385986");
+
+		List<SMSCoalescer.Chunk> chunks = SMSCoalescer.coalesce(Arrays.asList(first, other, second, correlated), 3);
+
+		Assert.assertEquals(4, chunks.size());
+		Assert.assertEquals(Arrays.asList("385981", "385982", "385984"), Arrays.asList(chunks.get(0).toRequest().getAddress()));
+		Assert.assertEquals(Arrays.asList(first, second), chunks.get(0).getRequests());
+		Assert.assertSame(other, chunks.get(1).toRequest());
+		Assert.assertEquals(Arrays.asList("385985"), Arrays.asList(chunks.get(2).toRequest().getAddress()));
+		// a request with a client correlator is never merged
+		Assert.assertSame(correlated, chunks.get(3).toRequest());
+	}
+
+	@Test
+	public void testSplitCorrelatedRequest() {
+		SMSRequest correlated = request("Hello", "c-1", "385981", "385982", "385983", "385984", "385985");
+
+		List<SMSCoalescer.Chunk> chunks = SMSCoalescer.coalesce(Arrays.asList(correlated), 2);
+
+		Assert.assertEquals(3, chunks.size());
+		Assert.assertEquals("c-1-0", chunks.get(0).toRequest().getClientCorrelator());
+		Assert.assertEquals("c-1-1", chunks.get(1).toRequest().getClientCorrelator());
+		Assert.assertEquals("c-1-2", chunks.get(2).toRequest().getClientCorrelator());
+		Assert.assertEquals(Arrays.asList(correlated), chunks.get(2).getRequests());
+		// a request which isn't split keeps its correlator
+		Assert.assertSame(correlated, SMSCoalescer.coalesce(Arrays.asList(correlated), 5).get(0).toRequest());
+	}
+
+	@Test
+	public void testDistributeByAddress() {
+		SMSRequest first = request("Hello", null, "385981", "tel:+385982");
+		SMSRequest second = request("Hello", null, "+385983");
+		SMSCoalescer.Chunk chunk = SMSCoalescer.coalesce(Arrays.asList(first, second), 10).get(0);
+
+		Map<SMSRequest, List<SendMessageResultItem>> distributed = chunk.distribute(result("tel:+385983", "385982", "+385981"));
+
+		Assert.assertEquals("[385982, +385981]", addresses(distributed.get(first)));
+		Assert.assertEquals("[tel:+385983]", addresses(distributed.get(second)));
+	}
+
+	@Test
+	public void testDistributeUnmatchedInRecipientOrder() {
+		SMSRequest first = request("Hello", null, "385981");
+		SMSRequest second = request("Hello", null, "385982", "385983");
+		SMSCoalescer.Chunk chunk = SMSCoalescer.coalesce(Arrays.asList(first, second), 10).get(0);
+
+		// the second item matches the first recipient, the others are assigned to the remaining recipients in order
+		Map<SMSRequest, List<SendMessageResultItem>> distributed = chunk.distribute(result(null, "385981", "unknown", "extra"));
+
+		Assert.assertEquals("[385981]", addresses(distributed.get(first)));
+		Assert.assertEquals("[null, unknown, extra]", addresses(distributed.get(second)));
+	}
+
+	@Test
+	public void testDistributeWithoutItems() {
+		SMSRequest first = request("Hello", null, "385981");
+		SMSRequest second = request("Hello", null, "385982");
+		SMSCoalescer.Chunk chunk = SMSCoalescer.coalesce(Arrays.asList(first, second), 10).get(0);
+
+		Map<SMSRequest, List<SendMessageResultItem>> distributed = chunk.distribute(new SendMessageResult());
+
+		Assert.assertEquals(2, distributed.size());
+		Assert.assertTrue(distributed.get(first).isEmpty());
+		Assert.assertTrue(distributed.get(second).isEmpty());
+	}
+
+	@Test
+	public void testAppendResult() {
+		SendMessageResult firstChunk = result("385981", "385982");
+		firstChunk.setClientCorrelator("c-1");
+		SendMessageResult result = SMSCoalescer.appendResult(null, firstChunk, Arrays.asList(firstChunk.getSendMessageResults()));
+		SendMessageResult secondChunk = result("385983");
+		result = SMSCoalescer.appendResult(result, secondChunk, Arrays.asList(secondChunk.getSendMessageResults()));
+
+		Assert.assertEquals("c-1", result.getClientCorrelator());
+		Assert.assertEquals("[385981, 385982, 385983]", addresses(Arrays.asList(result.getSendMessageResults())));
+	}
+
+	private static SMSRequest request(String message, String clientCorrelator, String... addresses) {
+		return new SMSRequest("tel:+385123", message, clientCorrelator, null, null, null, addresses);
+	}
+
+	private static SendMessageResult result(String... destinationAddresses) {
+		SendMessageResultItem[] items = new SendMessageResultItem[destinationAddresses.length];
+		for (int i = 0; i < items.length; i++) {
+			items[i] = new SendMessageResultItem();
+			items[i].setDestinationAddress(destinationAddresses[i]);
+		}
+		SendMessageResult result = new SendMessageResult();
+		result.setSendMessageResults(items);
+		return result;
+	}
+
+	private static String addresses(List<SendMessageResultItem> items) {
+		StringBuilder builder = new StringBuilder("[");
+		for (SendMessageResultItem item : items) {
+			if (builder.length() > 1) {
+				builder.append(", ");
+			}
+			builder.append(item.getDestinationAddress());
+		}
+		return builder.append("]").toString();
+	}
+}
@@ -0,0 +1,60 @@
+package oneapi.client.impl;
+
+import oneapi.config.SMSDedupSettings;
+import oneapi.model.SMSRequest;
+import oneapi.model.SendMessageResult;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSMSDeduplicator {
+	private final SMSDedupSettings settings = new SMSDedupSettings(60000, 100);
+
+	@Test
+	public void testDuplicateContentJoinsFlight() {
+		SMSDeduplicator deduplicator = new SMSDeduplicator(100);
+		long[] original = deduplicator.getKeys(request("correlator-1", "385981111111"), settings);
+		long[] duplicate = deduplicator.getKeys(request(null, "+385981111111"), settings);
+		Assert.assertEquals(2, original.length);
+		Assert.assertEquals(1, duplicate.length);
+
+		SingleFlight.Flight flight = deduplicator.startFlight(original);
+		Assert.assertNotNull(flight);
+		Assert.assertNull(deduplicator.startFlight(duplicate));
+		Assert.assertSame(flight, deduplicator.findFlight(duplicate));
+
+		flight.complete(new SendMessageResult(), null);
+		Assert.assertNull(deduplicator.findFlight(original));
+		Assert.assertNull(deduplicator.findFlight(duplicate));
+	}
+
+	@Test
+	public void testDuplicateCorrelatorJoinsFlight() {
+		SMSDeduplicator deduplicator = new SMSDeduplicator(100);
+		long[] original = deduplicator.getKeys(request("correlator-1", "385981111111"), settings);
+		long[] duplicate = deduplicator.getKeys(request("correlator-1", "385982222222"), settings);
+
+		SingleFlight.Flight flight = deduplicator.startFlight(original);
+		Assert.assertNull(deduplicator.startFlight(duplicate));
+		Assert.assertSame(flight, deduplicator.findFlight(duplicate));
+		// a rejected start doesn't leave the duplicate's other key registered
+		Assert.assertNull(deduplicator.findFlight(deduplicator.getKeys(request(null, "385982222222"), settings)));
+	}
+
+	@Test
+	public void testRememberedUnderAllKeys() {
+		SMSDeduplicator deduplicator = new SMSDeduplicator(100);
+		long[] original = deduplicator.getKeys(request("correlator-1", "385981111111"), settings);
+		SendMessageResult result = new SendMessageResult();
+		deduplicator.put(original, result, settings);
+
+		Assert.assertSame(result, deduplicator.get(deduplicator.getKeys(request(null, "385981111111"), settings)));
+		Assert.assertSame(result, deduplicator.get(deduplicator.getKeys(request("correlator-1", "385982222222"), settings)));
+		Assert.assertNull(deduplicator.get(deduplicator.getKeys(request("correlator-2", "385982222222"), settings)));
+		Assert.assertEquals(2, deduplicator.getSuppressedCount());
+	}
+
+	private static SMSRequest request(String clientCorrelator, String address) {
+		return new SMSRequest("tel:+385123", "Test message", clientCorrelator, null, null, null, new String[] { address });
+	}
+}
@@ -0,0 +1,228 @@
+package oneapi.client.impl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import oneapi.client.SMSMessagingClient;
+import oneapi.config.SMSLaneSettings;
+import oneapi.config.SMSPriorityLanesSettings;
+import oneapi.exception.RequestException;
+import oneapi.listener.ResponseListener;
+import oneapi.model.SMSRequest;
+import oneapi.model.SendMessageResult;
+import oneapi.model.SendMessageResultItem;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSMSPriorityLanes {
+
+	private final List<SMSRequest> sent = new ArrayList<SMSRequest>();
+	private final List<ResponseListener<SendMessageResult>> pending = new ArrayList<ResponseListener<SendMessageResult>>();
+
+	@Test
+	public void testLaneWeights() throws Exception {
+		SMSPriorityLanes lanes = createLanes(0, 1000);
+		try {
+			lanes.send("bulk", request("b0", "385981"));
+			awaitSent(1);
+			lanes.send("bulk", request("b1", "385981"));
+			lanes.send("bulk", request("b2", "385981"));
+			lanes.send("otp", request("o1", "385982"));
+			lanes.send("otp", request("o2", "385982"));
+
+			releaseAll(5);
+			Assert.assertEquals("[b0, o1, o2, b1, b2]", messages());
+		} finally {
+			lanes.close();
+		}
+	}
+
+	@Test
+	public void testOverdueRequestFirst() throws Exception {
+		SMSPriorityLanes lanes = createLanes(1, 1000);
+		try {
+			lanes.send("bulk", request("b0", "385981"));
+			awaitSent(1);
+			lanes.send("bulk", request("b1", "385981"));
+			Thread.sleep(20);
+			lanes.send("otp", request("o1", "385982"));
+
+			releaseAll(3);
+			Assert.assertEquals("[b0, b1, o1]", messages());
+		} finally {
+			lanes.close();
+		}
+	}
+
+	@Test
+	public void testLargeRequestSplit() throws Exception {
+		SMSPriorityLanes lanes = createLanes(0, 2);
+		try {
+			Future<SendMessageResult> bulk = lanes.send("bulk", request("b", "385981", "385982", "385983", "385984", "385985"));
+			awaitSent(1);
+			lanes.send("otp", request("o", "385986"));
+
+			releaseAll(4);
+			Assert.assertEquals("[b, o, b, b]", messages());
+			Assert.assertEquals(2, sent.get(0).getAddress().length);
+			Assert.assertEquals(1, sent.get(3).getAddress().length);
+
+			SendMessageResultItem[] items = bulk.get(5, TimeUnit.SECONDS).getSendMessageResults();
+			Assert.assertEquals(5, items.length);
+			Assert.assertEquals("385985", items[4].getDestinationAddress());
+			Assert.assertEquals(3, lanes.getStatistics("bulk").getSentCount());
+		} finally {
+			lanes.close();
+		}
+	}
+
+	@Test
+	public void testCorrelatedRequestSplit() throws Exception {
+		SMSPriorityLanes lanes = createLanes(0, 2);
+		try {
+			Future<SendMessageResult> bulk = lanes.send("bulk", new SMSRequest("tel:+385123", "b", "c-1", null, null, null,
+					new String[] { "385981", "385982", "385983" }));
+
+			releaseAll(2);
+			Assert.assertEquals("c-1-0", sent.get(0).getClientCorrelator());
+			Assert.assertEquals("c-1-1", sent.get(1).getClientCorrelator());
+
+			SendMessageResult result = bulk.get(5, TimeUnit.SECONDS);
+			Assert.assertEquals("c-1", result.getClientCorrelator());
+			Assert.assertEquals(3, result.getSendMessageResults().length);
+		} finally {
+			lanes.close();
+		}
+	}
+
+	@Test
+	public void testCloseStopsDispatcher() throws Exception {
+		SMSPriorityLanes lanes = createLanes(0, 1000);
+		Future<SendMessageResult> inFlight = lanes.send("bulk", request("b0", "385981"));
+		awaitSent(1);
+		Future<SendMessageResult> queued = lanes.send("bulk", request("b1", "385981"));
+
+		lanes.close();
+		Assert.assertFalse(isDispatcherAlive());
+		try {
+			queued.get(5, TimeUnit.SECONDS);
+			Assert.fail("Queued request was sent after close.");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof RequestException);
+		}
+		try {
+			lanes.send("bulk", request("b2", "385981"));
+			Assert.fail("Request was accepted after close.");
+		} catch (RequestException e) {
+			// expected
+		}
+
+		releaseAll(1);
+		Assert.assertNotNull(inFlight.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals("[b0]", messages());
+	}
+
+	/**
+	 * Lanes 'otp' (weight 100) and 'bulk' (weight 1) sending one request at a time
+	 */
+	private SMSPriorityLanes createLanes(int bulkMaxDelay, int maxRecipients) {
+		Map<String, SMSLaneSettings> laneSettings = new LinkedHashMap<String, SMSLaneSettings>();
+		laneSettings.put("otp", new SMSLaneSettings(100, 100, 0));
+		laneSettings.put("bulk", new SMSLaneSettings(1, 100, bulkMaxDelay));
+		SMSPriorityLanesSettings settings = new SMSPriorityLanesSettings(1, 0);
+		settings.setLanes(laneSettings);
+		return new SMSPriorityLanes(createClient(), settings, maxRecipients);
+	}
+
+	/**
+	 * Client recording the sent requests, a request is completed by releaseAll()
+	 */
+	private SMSMessagingClient createClient() {
+		return (SMSMessagingClient) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { SMSMessagingClient.class }, new InvocationHandler() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if (!method.getName().equals("sendSMSAsync")) {
+					throw new UnsupportedOperationException(method.getName());
+				}
+
+				synchronized (sent) {
+					sent.add((SMSRequest) args[0]);
+					pending.add((ResponseListener<SendMessageResult>) args[1]);
+					sent.notifyAll();
+				}
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Complete the sent requests one at a time, waiting for the dispatcher to send the next one
+	 */
+	private void releaseAll(int count) throws InterruptedException {
+		for (int i = 0; i < count; i++) {
+			awaitSent(i + 1);
+			SMSRequest smsRequest;
+			ResponseListener<SendMessageResult> listener;
+			synchronized (sent) {
+				smsRequest = sent.get(i);
+				listener = pending.get(i);
+			}
+
+			SendMessageResultItem[] items = new SendMessageResultItem[smsRequest.getAddress().length];
+			for (int j = 0; j < items.length; j++) {
+				items[j] = new SendMessageResultItem();
+				items[j].setDestinationAddress(smsRequest.getAddress()[j]);
+			}
+			SendMessageResult result = new SendMessageResult();
+			result.setClientCorrelator(smsRequest.getClientCorrelator());
+			result.setSendMessageResults(items);
+			listener.onGotResponse(result, null);
+		}
+	}
+
+	private void awaitSent(int count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		synchronized (sent) {
+			while (sent.size() < count) {
+				long wait = deadline - System.currentTimeMillis();
+				if (wait <= 0) {
+					Assert.fail("Expected " + count + " sent requests, got " + sent.size() + ".");
+				}
+				sent.wait(wait);
+			}
+		}
+	}
+
+	private String messages() {
+		List<String> messages = new ArrayList<String>();
+		synchronized (sent) {
+			for (SMSRequest smsRequest : sent) {
+				messages.add(smsRequest.getMessage());
+			}
+		}
+		return messages.toString();
+	}
+
+	private static boolean isDispatcherAlive() {
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().equals("oneapi-sms-priority-lanes") && thread.isAlive()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static SMSRequest request(String message, String... addresses) {
+		return new SMSRequest("tel:+385123", message, null, null, null, null, addresses);
+	}
+}
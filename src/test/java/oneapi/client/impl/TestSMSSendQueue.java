@@ -0,0 +1,91 @@
+package oneapi.client.impl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import oneapi.client.SMSMessagingClient;
+import oneapi.config.SMSBatchSettings;
+import oneapi.listener.ResponseListener;
+import oneapi.model.SMSRequest;
+import oneapi.model.SendMessageResult;
+import oneapi.model.SendMessageResultItem;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSMSSendQueue {
+
+	private final List<SMSRequest> sent = new ArrayList<SMSRequest>();
+
+	@Test
+	public void testRequestsMerged() throws Exception {
+		SMSSendQueue queue = new SMSSendQueue(createClient(), new SMSBatchSettings(3, 1000));
+		try {
+			Future<SendMessageResult> first = queue.send(request(null, "385981"));
+			Future<SendMessageResult> second = queue.send(request(null, "385982", "385983"));
+
+			Assert.assertEquals(1, sent.size());
+			Assert.assertEquals(1, first.get(5, TimeUnit.SECONDS).getSendMessageResults().length);
+			Assert.assertEquals("385983", second.get(5, TimeUnit.SECONDS).getSendMessageResults()[1].getDestinationAddress());
+		} finally {
+			queue.close();
+		}
+	}
+
+	@Test
+	public void testCorrelatedRequestSplit() throws Exception {
+		SMSSendQueue queue = new SMSSendQueue(createClient(), new SMSBatchSettings(2, 0));
+		try {
+			Future<SendMessageResult> future = queue.send(request("c-1", "385981", "385982", "385983"));
+
+			Assert.assertEquals(2, sent.size());
+			Assert.assertEquals("c-1-0", sent.get(0).getClientCorrelator());
+			Assert.assertEquals("c-1-1", sent.get(1).getClientCorrelator());
+
+			SendMessageResult result = future.get(5, TimeUnit.SECONDS);
+			Assert.assertEquals("c-1", result.getClientCorrelator());
+			Assert.assertEquals(3, result.getSendMessageResults().length);
+		} finally {
+			queue.close();
+		}
+	}
+
+	/**
+	 * Client completing sendSMSAsync() on the calling thread with a result item for every recipient
+	 */
+	private SMSMessagingClient createClient() {
+		return (SMSMessagingClient) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { SMSMessagingClient.class }, new InvocationHandler() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if (!method.getName().equals("sendSMSAsync")) {
+					throw new UnsupportedOperationException(method.getName());
+				}
+
+				SMSRequest smsRequest = (SMSRequest) args[0];
+				synchronized (sent) {
+					sent.add(smsRequest);
+				}
+				SendMessageResultItem[] items = new SendMessageResultItem[smsRequest.getAddress().length];
+				for (int i = 0; i < items.length; i++) {
+					items[i] = new SendMessageResultItem();
+					items[i].setDestinationAddress(smsRequest.getAddress()[i]);
+				}
+				SendMessageResult result = new SendMessageResult();
+				result.setClientCorrelator(smsRequest.getClientCorrelator());
+				result.setSendMessageResults(items);
+				((ResponseListener<SendMessageResult>) args[1]).onGotResponse(result, null);
+				return null;
+			}
+		});
+	}
+
+	private static SMSRequest request(String clientCorrelator, String... addresses) {
+		return new SMSRequest("tel:+385123", "Hello", clientCorrelator, null, null, null, addresses);
+	}
+}
@@ -0,0 +1,141 @@
+package oneapi.client.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import oneapi.model.SMSRequest;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestSendLog {
+	private static final int SEGMENT_SIZE = 4096;
+	// segment header and record header sizes of the segment file layout
+	private static final int SEGMENT_HEADER_SIZE = 16;
+	private static final int RECORD_HEADER_SIZE = 17;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private SendLog sendLog = null;
+
+	@After
+	public void tearDown() {
+		if (sendLog != null) {
+			sendLog.close();
+		}
+	}
+
+	@Test
+	public void testRecoversUnacknowledgedRequests() throws IOException {
+		File directory = folder.newFolder("send-log");
+		sendLog = new SendLog(directory, SEGMENT_SIZE, 0);
+		SendLog.Entry first = append(request("1", "38598111111"));
+		SendLog.Entry second = append(request("2", "38598222222"));
+		SendLog.Entry third = append(request("3", "38598333333", "38598444444"));
+		sendLog.acknowledge(second.getSequence());
+		sendLog.close();
+
+		sendLog = new SendLog(directory, SEGMENT_SIZE, 0);
+		List<SendLog.Entry> recovered = sendLog.getRecovered();
+		Assert.assertEquals(2, recovered.size());
+		Assert.assertEquals(first.getSequence(), recovered.get(0).getSequence());
+		Assert.assertEquals("1", recovered.get(0).getSMSRequest().getClientCorrelator());
+		Assert.assertEquals(third.getSequence(), recovered.get(1).getSequence());
+		Assert.assertArrayEquals(new String[] { "38598333333", "38598444444" }, recovered.get(1).getSMSRequest().getAddress());
+		Assert.assertEquals(2, sendLog.getUnacknowledgedCount());
+
+		SendLog.Entry next = append(request("4", "38598555555"));
+		Assert.assertEquals(third.getSequence() + 1, next.getSequence());
+	}
+
+	@Test
+	public void testTornRecordIsNotRecovered() throws IOException {
+		File directory = folder.newFolder("send-log");
+		sendLog = new SendLog(directory, SEGMENT_SIZE, 0);
+		SMSRequest firstRequest = request("1", "38598111111");
+		append(firstRequest);
+		append(request("2", "38598222222"));
+		sendLog.close();
+
+		// the process died while the second record was written
+		int secondPayload = SEGMENT_HEADER_SIZE + RECORD_HEADER_SIZE + SendLog.encode(firstRequest).length + RECORD_HEADER_SIZE;
+		RandomAccessFile segment = new RandomAccessFile(new File(directory, "send-log-1.dat"), "rw");
+		try {
+			segment.seek(secondPayload);
+			int value = segment.read();
+			segment.seek(secondPayload);
+			segment.write(value ^ 0xFF);
+		} finally {
+			segment.close();
+		}
+
+		sendLog = new SendLog(directory, SEGMENT_SIZE, 0);
+		List<SendLog.Entry> recovered = sendLog.getRecovered();
+		Assert.assertEquals(1, recovered.size());
+		Assert.assertEquals("1", recovered.get(0).getSMSRequest().getClientCorrelator());
+
+		// the torn record is overwritten by the next append
+		append(request("3", "38598333333"));
+		sendLog.close();
+		sendLog = new SendLog(directory, SEGMENT_SIZE, 0);
+		Assert.assertEquals(2, sendLog.getRecovered().size());
+		Assert.assertEquals("3", sendLog.getRecovered().get(1).getSMSRequest().getClientCorrelator());
+	}
+
+	@Test
+	public void testAcknowledgedSegmentsAreDeleted() throws IOException {
+		File directory = folder.newFolder("send-log");
+		sendLog = new SendLog(directory, 256, 0);
+		for (int i = 0; i < 20; i++) {
+			SendLog.Entry entry = append(request(String.valueOf(i), "38598111111"));
+			sendLog.acknowledge(entry.getSequence());
+		}
+
+		Assert.assertEquals(0, sendLog.getUnacknowledgedCount());
+		// only the current segment is left beside the lock file
+		Assert.assertTrue(new File(directory, "send-log.lock").isFile());
+		Assert.assertEquals(2, directory.list().length);
+	}
+
+	@Test
+	public void testDirectoryUsedByOneLog() throws IOException {
+		File directory = folder.newFolder("send-log");
+		sendLog = new SendLog(directory, SEGMENT_SIZE, 0);
+		try {
+			new SendLog(directory, SEGMENT_SIZE, 0);
+			Assert.fail("Second send log opened on the same directory.");
+		} catch (IOException e) {
+			// expected
+		}
+
+		sendLog.close();
+		sendLog = new SendLog(directory, SEGMENT_SIZE, 0);
+	}
+
+	@Test
+	public void testCloseStopsCommitter() throws IOException {
+		sendLog = new SendLog(folder.newFolder("send-log"), SEGMENT_SIZE, 0);
+		append(request("1", "38598111111"));
+		sendLog.close();
+
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			Assert.assertFalse(thread.getName().equals("oneapi-send-log-committer") && thread.isAlive());
+		}
+	}
+
+	private SendLog.Entry append(SMSRequest smsRequest) throws IOException {
+		SendLog.Entry entry = sendLog.append(smsRequest);
+		sendLog.awaitCommit(entry);
+		return entry;
+	}
+
+	private static SMSRequest request(String clientCorrelator, String... addresses) {
+		return new SMSRequest("tel:+385123", "Test message", clientCorrelator, null, null, null, addresses);
+	}
+}
@@ -0,0 +1,136 @@
+package oneapi.client.impl;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import oneapi.exception.RequestException;
+import oneapi.listener.ResponseListener;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSingleFlight {
+
+	@Test
+	public void testJoinersShareResult() {
+		SingleFlight singleFlight = new SingleFlight();
+		SingleFlight.Flight flight = singleFlight.start("key");
+		Assert.assertNotNull(flight);
+		Assert.assertNull(singleFlight.start("key"));
+		Assert.assertSame(flight, singleFlight.find("key"));
+
+		CountingListener listener = new CountingListener();
+		singleFlight.find("key").addListener(listener);
+		flight.complete("result", null);
+
+		Assert.assertEquals(1, listener.calls.get());
+		Assert.assertEquals("result", listener.result);
+		Assert.assertEquals("result", flight.await(String.class));
+		Assert.assertNull(singleFlight.find("key"));
+		Assert.assertNotNull(singleFlight.start("key"));
+	}
+
+	@Test
+	public void testFlightUnderSeveralKeys() {
+		SingleFlight singleFlight = new SingleFlight();
+		SingleFlight.Flight flight = singleFlight.start("a", "b");
+		Assert.assertNotNull(flight);
+		Assert.assertSame(flight, singleFlight.find("b"));
+
+		Assert.assertNull(singleFlight.start("b", "c"));
+		Assert.assertNull(singleFlight.find("c"));
+
+		flight.complete("result", null);
+		Assert.assertNull(singleFlight.find("a"));
+		Assert.assertNull(singleFlight.find("b"));
+	}
+
+	@Test
+	public void testDoubleCompletion() {
+		SingleFlight singleFlight = new SingleFlight();
+		SingleFlight.Flight flight = singleFlight.start("key");
+		CountingListener listener = new CountingListener();
+		flight.addListener(listener);
+
+		flight.complete("first", null);
+		flight.complete(null, new RequestException("second"));
+
+		Assert.assertEquals(1, listener.calls.get());
+		Assert.assertEquals("first", listener.result);
+		Assert.assertEquals("first", flight.await(String.class));
+	}
+
+	@Test
+	public void testDoubleCompletionDoesNotRemoveNewFlight() {
+		SingleFlight singleFlight = new SingleFlight();
+		SingleFlight.Flight flight = singleFlight.start("key");
+		flight.complete("first", null);
+
+		SingleFlight.Flight next = singleFlight.start("key");
+		flight.complete("second", null);
+		Assert.assertSame(next, singleFlight.find("key"));
+	}
+
+	@Test
+	public void testFailingListener() {
+		SingleFlight singleFlight = new SingleFlight();
+		SingleFlight.Flight flight = singleFlight.start("key");
+		flight.addListener(new ResponseListener<String>() {
+			@Override
+			public void onGotResponse(String result, Throwable error) {
+				throw new IllegalStateException("listener failed");
+			}
+		});
+		CountingListener listener = new CountingListener();
+		flight.addListener(listener);
+
+		flight.complete("result", null);
+		Assert.assertEquals(1, listener.calls.get());
+	}
+
+	@Test
+	public void testConcurrentCompletion() throws InterruptedException {
+		for (int round = 0; round < 100; round++) {
+			SingleFlight singleFlight = new SingleFlight();
+			final SingleFlight.Flight flight = singleFlight.start("key");
+			CountingListener listener = new CountingListener();
+			flight.addListener(listener);
+
+			final CountDownLatch start = new CountDownLatch(1);
+			Thread[] threads = new Thread[4];
+			for (int i = 0; i < threads.length; i++) {
+				final String result = "result" + i;
+				threads[i] = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							start.await();
+						} catch (InterruptedException e) {
+							return;
+						}
+						flight.complete(result, null);
+					}
+				});
+				threads[i].start();
+			}
+			start.countDown();
+			for (Thread thread : threads) {
+				thread.join();
+			}
+
+			Assert.assertEquals(1, listener.calls.get());
+			Assert.assertEquals(listener.result, flight.await(String.class));
+		}
+	}
+
+	private static class CountingListener implements ResponseListener<String> {
+		private final AtomicInteger calls = new AtomicInteger();
+		private volatile String result;
+
+		@Override
+		public void onGotResponse(String result, Throwable error) {
+			this.result = result;
+			calls.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package oneapi.client.impl;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import oneapi.config.Configuration;
+import oneapi.config.SuppressionListSettings;
+import oneapi.exception.RequestException;
+import oneapi.model.SMSRequest;
+import oneapi.model.SendMessageResult;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestSuppressionList {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File listFile;
+	private SuppressionListSettings settings;
+
+	@Before
+	public void setUp() throws IOException {
+		listFile = folder.newFile("opt-out.txt");
+		writeFile(listFile, "385911111111\n+385 91 222-2222\n\nnot a number\n0911234567\n00385911111111\ntel:+385913333333\n");
+		settings = new SuppressionListSettings(listFile.getPath());
+		settings.setIndexDirectory(folder.newFolder("index").getPath());
+	}
+
+	@Test
+	public void testLoad() throws IOException {
+		SuppressionList suppressionList = SuppressionList.load(settings);
+
+		Assert.assertEquals(3, suppressionList.size());
+		Assert.assertTrue(suppressionList.contains(385911111111L));
+		Assert.assertTrue(suppressionList.contains(385912222222L));
+		Assert.assertTrue(suppressionList.contains(385913333333L));
+		Assert.assertFalse(suppressionList.contains(385914444444L));
+		Assert.assertFalse(suppressionList.contains(-1));
+		Assert.assertTrue(new File(settings.getIndexDirectory(), "opt-out.txt.idx").isFile());
+	}
+
+	@Test
+	public void testWithoutBloomFilter() throws IOException {
+		settings.setBloomFilterBitsPerEntry(0);
+		SuppressionList suppressionList = SuppressionList.load(settings);
+
+		Assert.assertTrue(suppressionList.contains(385912222222L));
+		Assert.assertFalse(suppressionList.contains(385914444444L));
+	}
+
+	@Test
+	public void testReloadAfterListChanges() throws IOException {
+		SuppressionList suppressionList = SuppressionList.load(settings);
+		Assert.assertTrue(suppressionList.contains(385911111111L));
+
+		long modified = listFile.lastModified();
+		writeFile(listFile, "385914444444\n385912222222\n");
+		listFile.setLastModified(modified + 2000);
+
+		SuppressionList reloaded = SuppressionList.load(settings);
+		Assert.assertEquals(2, reloaded.size());
+		Assert.assertFalse(reloaded.contains(385911111111L));
+		Assert.assertTrue(reloaded.contains(385914444444L));
+		// the previous snapshot keeps its numbers
+		Assert.assertTrue(suppressionList.contains(385911111111L));
+	}
+
+	@Test
+	public void testAllRecipientsSuppressed() {
+		// nothing listens on the port, the request must not be sent
+		Configuration config = new Configuration("http://localhost:1", "simple", "1", "simple");
+		config.setSuppressionList(settings);
+		SMSClient client = new SMSClient(config);
+		try {
+			SendMessageResult result = client.getSMSMessagingClient().sendSMS(new SMSRequest("TestSender", "TestMessageText", "suppressed-1", null, null, null,
+					new String[] { "385911111111", "+385912222222" }));
+
+			Assert.assertNull(result.getResourceReference());
+			Assert.assertEquals("suppressed-1", result.getClientCorrelator());
+			Assert.assertEquals(0, result.getSendMessageResults().length);
+			Assert.assertEquals(2, result.getSuppressedCount());
+		} finally {
+			client.close();
+		}
+	}
+
+	@Test
+	public void testEmptyRequestNotTakenForSuppressed() {
+		// nothing listens on the port, a request without recipients must still go to the server and fail there
+		Configuration config = new Configuration("http://localhost:1", "simple", "1", "simple");
+		SMSClient client = new SMSClient(config);
+		try {
+			client.getSMSMessagingClient().sendSMS(new SMSRequest("TestSender", "TestMessageText", null, null, null, null, new String[0]));
+			Assert.fail("Request without recipients got a suppressed result.");
+		} catch (RequestException e) {
+			// expected
+		} finally {
+			client.close();
+		}
+	}
+
+	private static void writeFile(File file, String content) throws IOException {
+		Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			out.write(content);
+		} finally {
+			out.close();
+		}
+	}
+}
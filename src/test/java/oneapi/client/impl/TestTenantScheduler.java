@@ -0,0 +1,180 @@
+package oneapi.client.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import oneapi.config.MultiTenantSettings;
+import oneapi.exception.RequestException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestTenantScheduler {
+	private SharedTransport transport;
+	private TenantScheduler scheduler;
+	private List<String> started;
+
+	@Before
+	public void setUp() {
+		transport = new SharedTransport(new MultiTenantSettings(2, 2));
+		scheduler = transport.getTenantScheduler();
+		started = new ArrayList<String>();
+	}
+
+	@After
+	public void tearDown() {
+		transport.close();
+	}
+
+	@Test
+	public void testSubmitNeverBlocks() {
+		Tenant tenant = new Tenant("a", 2, transport);
+		for (int i = 0; i < 5; i++) {
+			tenant.submit(new RecordingRequest("a" + i));
+		}
+
+		Assert.assertEquals(2, started.size());
+		Assert.assertEquals(2, scheduler.getInFlight());
+
+		tenant.release();
+		Assert.assertEquals(3, started.size());
+		Assert.assertEquals(2, scheduler.getInFlight());
+	}
+
+	@Test
+	public void testWaitingTenantsServedInTurn() {
+		Tenant a = new Tenant("a", 2, transport);
+		Tenant b = new Tenant("b", 2, transport);
+		a.submit(new RecordingRequest("a0"));
+		a.submit(new RecordingRequest("a1"));
+		a.submit(new RecordingRequest("a2"));
+		a.submit(new RecordingRequest("a3"));
+		b.submit(new RecordingRequest("b0"));
+		b.submit(new RecordingRequest("b1"));
+
+		a.release();
+		a.release();
+		Assert.assertEquals("[a0, a1, b0, a2]", started.toString());
+	}
+
+	@Test
+	public void testRequestStartedByReleasingThread() throws InterruptedException {
+		final Tenant tenant = new Tenant("a", 1, transport);
+		tenant.submit(new RecordingRequest("a0"));
+		final List<String> startedOn = new ArrayList<String>();
+		tenant.submit(new TenantScheduler.Waiter() {
+			@Override
+			void admitted() {
+				startedOn.add(Thread.currentThread().getName());
+			}
+
+			@Override
+			void rejected(RequestException e) {
+			}
+		});
+		Assert.assertTrue(startedOn.isEmpty());
+
+		Thread releasing = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				tenant.release();
+			}
+		}, "releasing-thread");
+		releasing.start();
+		releasing.join();
+		Assert.assertEquals("[releasing-thread]", startedOn.toString());
+	}
+
+	@Test
+	public void testImmediateFailureStartsNextRequest() {
+		final Tenant tenant = new Tenant("a", 1, transport);
+		tenant.submit(new RecordingRequest("a0"));
+		for (int i = 1; i < 10000; i++) {
+			tenant.submit(new TenantScheduler.Waiter() {
+				@Override
+				void admitted() {
+					// the request fails before it is sent and returns its slot
+					tenant.release();
+				}
+
+				@Override
+				void rejected(RequestException e) {
+				}
+			});
+		}
+		tenant.submit(new RecordingRequest("last"));
+
+		tenant.release();
+		Assert.assertEquals("[a0, last]", started.toString());
+	}
+
+	@Test
+	public void testRemovedTenantRejectsRequests() {
+		Tenant tenant = new Tenant("a", 1, transport);
+		RecordingRequest first = new RecordingRequest("a0");
+		RecordingRequest waiting = new RecordingRequest("a1");
+		tenant.submit(first);
+		tenant.submit(waiting);
+
+		tenant.remove();
+		Assert.assertNotNull(waiting.rejected);
+		Assert.assertNull(first.rejected);
+
+		RecordingRequest later = new RecordingRequest("a2");
+		tenant.submit(later);
+		Assert.assertNotNull(later.rejected);
+		try {
+			tenant.acquire();
+			Assert.fail("Removed tenant acquired a slot.");
+		} catch (RequestException e) {
+			// expected
+		}
+
+		tenant.release();
+		Assert.assertEquals(0, scheduler.getInFlight());
+		Assert.assertEquals("[a0]", started.toString());
+	}
+
+	@Test
+	public void testAcquireWaitsForRelease() throws InterruptedException {
+		final Tenant tenant = new Tenant("a", 1, transport);
+		tenant.acquire();
+
+		Thread waiting = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				tenant.acquire();
+				tenant.release();
+			}
+		});
+		waiting.start();
+		waiting.join(200);
+		Assert.assertTrue(waiting.isAlive());
+
+		tenant.release();
+		waiting.join(5000);
+		Assert.assertFalse(waiting.isAlive());
+		Assert.assertEquals(0, scheduler.getInFlight());
+	}
+
+	private class RecordingRequest extends TenantScheduler.Waiter {
+		private final String name;
+		private RequestException rejected;
+
+		private RecordingRequest(String name) {
+			this.name = name;
+		}
+
+		@Override
+		void admitted() {
+			started.add(name);
+		}
+
+		@Override
+		void rejected(RequestException e) {
+			rejected = e;
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package oneapi.examples.hlr;
+
+import java.io.File;
+
+import org.apache.log4j.BasicConfigurator;
+import oneapi.PropertyLoader;
+import oneapi.client.impl.SMSClient;
+import oneapi.config.Configuration;
+import oneapi.config.HLRBulkLookupSettings;
+import oneapi.model.HLRBulkLookupSummary;
+
+/**
+ * To run this example follow these 3 steps:
+ *
+ *  1.) Download 'OneApi Java library' - available at github.com/infobip
+ *
+ *  2.) Open 'examples.QueryHLRBulk' class to edit where you should populate the following fields: 
+ *		'ADDRESS_FILE'  'PASSWORD'    
+ *		'USERNAME'          
+ *		
+ *  3.) Run the example class by right click it and select 'Run As -> Java Application' 
+ **/
+
+public class QueryHLRBulk {
+
+	// ----------------------------------------------------------------------------------------------------
+	// TODO: Fill you own values here or create/change the example.properties file:
+	// ----------------------------------------------------------------------------------------------------
+
+	private static final String USERNAME = PropertyLoader.loadProperty("example.properties", "username");
+	private static final String PASSWORD = PropertyLoader.loadProperty("example.properties", "password");
+	private static final String ADDRESS_FILE = "addresses.txt";
+
+	public static void main(String[] args) {
+
+		// Configure logger
+		BasicConfigurator.configure();
+
+
+		// example:data-connection-client
+		Configuration configuration = new Configuration(USERNAME, PASSWORD);
+		SMSClient smsClient = new SMSClient(configuration);
+		// ----------------------------------------------------------------------------------------------------
+
+		// example:retrieve-roaming-status-bulk
+		// 20 lookups in flight, at most 100 per second, progress saved to the checkpoint file so an interrupted job can be resumed
+		HLRBulkLookupSettings settings = new HLRBulkLookupSettings(20, 100, ADDRESS_FILE + ".checkpoint");
+		HLRBulkLookupSummary summary = smsClient.getHLRClient().queryHLRBulk(new File(ADDRESS_FILE), new File(ADDRESS_FILE + ".hlr.ndjson"), settings);
+		// ----------------------------------------------------------------------------------------------------
+		System.out.println(summary);
+
+	}
+}
@@ -0,0 +1,58 @@
+package oneapi.examples.smsmessaging;
+
+import org.apache.log4j.BasicConfigurator;
+import oneapi.PropertyLoader;
+import oneapi.client.impl.MultiTenantSMSClient;
+import oneapi.client.impl.SMSClient;
+import oneapi.config.Configuration;
+import oneapi.config.MultiTenantSettings;
+import oneapi.model.SMSRequest;
+import oneapi.model.SendMessageResult;
+
+/**
+ * To run this example follow these 3 steps:
+ *
+ *  1.) Download 'OneApi Java library' - available at github.com/infobip
+ *
+ *  2.) Open 'examples.SendSMS_MultiTenant' class to edit where you should populate the following fields: 
+ *		'SENDER'    'USERNAME'
+ *		'MESSAGE'   'PASSWORD' 
+ *		'DESTINATION'	
+ *
+ *  3.) Run the example class by right click it and select 'Run As -> Java Application'     
+ **/
+
+public class SendSMS_MultiTenant {
+
+	// ----------------------------------------------------------------------------------------------------
+	// TODO: Fill you own values here or create/change the example.properties file:
+	// ----------------------------------------------------------------------------------------------------
+
+	private static final String USERNAME = PropertyLoader.loadProperty("example.properties", "username");
+	private static final String PASSWORD = PropertyLoader.loadProperty("example.properties", "password");
+	private static String SENDER = PropertyLoader.loadProperty("example.properties", "sender");
+	private static final String DESTINATION = PropertyLoader.loadProperty("example.properties", "destination");
+	private static final String MESSAGE = "Hello"; 
+
+	public static void main(String[] args) throws Exception {
+
+		// Configure logger
+		BasicConfigurator.configure();
+
+
+		// example:multi-tenant-client
+		// 200 requests in flight for all accounts together, at most 20 of them for one account
+		MultiTenantSMSClient multiTenantClient = new MultiTenantSMSClient(new MultiTenantSettings(200, 20));
+		multiTenantClient.addTenant("customer-1", new Configuration(USERNAME, PASSWORD));
+		multiTenantClient.addTenant("customer-2", new Configuration(USERNAME, PASSWORD), 5);
+		// ----------------------------------------------------------------------------------------------------
+
+		for (String tenantId : multiTenantClient.getTenantIds()) {
+			SMSClient smsClient = multiTenantClient.getTenant(tenantId);
+			SendMessageResult sendMessageResult = smsClient.getSMSMessagingClient().sendSMS(new SMSRequest(SENDER, MESSAGE, DESTINATION));
+			System.out.println(tenantId + ": " + sendMessageResult);
+		}
+
+		multiTenantClient.shutdown();
+	}
+}
@@ -0,0 +1,77 @@
+package oneapi.examples.ussd;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.log4j.BasicConfigurator;
+
+import oneapi.PropertyLoader;
+import oneapi.client.impl.SMSClient;
+import oneapi.client.impl.USSDSession;
+import oneapi.client.impl.USSDSessionEngine;
+import oneapi.config.Configuration;
+import oneapi.listener.USSDSessionListener;
+import oneapi.model.USSDMenu;
+
+
+/**
+ * To run this example follow these 3 steps:
+ *
+ *  1.) Download 'OneApi Java library' - available at github.com/infobip
+ *
+ *  2.) Open 'examples.USSDMenuSession' class to edit where you should populate the following fields: 
+ *		'DESTINATION'
+ *		'USERNAME'                     
+ *		'PASSWORD'           
+ *
+ *  3.) Run the example class by right click it and select 'Run As -> Java Application' 
+ **/
+
+public class USSDMenuSession {
+
+	// ----------------------------------------------------------------------------------------------------
+	// TODO: Fill you own values here or create/change the example.properties file:
+	// ----------------------------------------------------------------------------------------------------
+
+	private static final String USERNAME = PropertyLoader.loadProperty("example.properties", "username");
+	private static final String PASSWORD = PropertyLoader.loadProperty("example.properties", "password");
+	private static final String DESTINATION = PropertyLoader.loadProperty("example.properties", "destination");
+	private static final long IDLE_TIMEOUT = 60000; 
+	
+	public static void main(String[] args) throws InterruptedException {
+		
+		// Configure logger
+		BasicConfigurator.configure();
+		
+
+		// Initialize Configuration object 
+		Configuration configuration = new Configuration(USERNAME, PASSWORD);
+
+		// Initialize SMSClient using the Configuration object
+		SMSClient smsClient = new SMSClient(configuration);
+
+		// Describe the menu
+		USSDMenu menu = new USSDMenu("language")
+			.addState("language", "You language of choice?\n1. Java\n2. .NET")
+			.addState("experience", "Years of experience with {language}?")
+			.addFinalState("done", "Thank you!")
+			.addTransition("language", "1", "experience")
+			.addTransition("language", "2", "experience")
+			.addDefaultTransition("experience", "done")
+			.setInvalidInputMessage("Please choose 1 or 2.");
+
+		// Run the session and wait for it to end
+		final CountDownLatch sessionEnded = new CountDownLatch(1);
+		USSDSessionEngine sessionEngine = new USSDSessionEngine(smsClient.getUSSDClient(), menu, IDLE_TIMEOUT, new USSDSessionListener() {
+			@Override
+			public void onSessionEnded(USSDSession session, Throwable error) {
+				System.out.println("Session ended: " + session.getEndReason() + ", replies: " + session.getReplies());
+				sessionEnded.countDown();
+			}
+		});
+		sessionEngine.startSession(DESTINATION);
+		sessionEnded.await();
+		
+		System.out.println(sessionEngine.getStatistics());
+		sessionEngine.shutdown();
+	}
+}
@@ -0,0 +1,84 @@
+package oneapi.test;
+
+import java.util.Arrays;
+
+import oneapi.util.AddressNormalizer;
+import oneapi.util.AddressSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestAddressSet {
+
+	@Test
+	public void testToE164() {
+		Assert.assertEquals(385911234567L, AddressNormalizer.toE164("385911234567"));
+		Assert.assertEquals(385911234567L, AddressNormalizer.toE164("+385911234567"));
+		Assert.assertEquals(385911234567L, AddressNormalizer.toE164("00385911234567"));
+		Assert.assertEquals(385911234567L, AddressNormalizer.toE164(" tel:+385 (91) 123-4567 "));
+		Assert.assertEquals(385911234567L, AddressNormalizer.toE164("TEL:385.91.123.4567"));
+		Assert.assertEquals(999999999999999L, AddressNormalizer.toE164("999999999999999"));
+	}
+
+	@Test
+	public void testToE164Invalid() {
+		Assert.assertEquals(-1, AddressNormalizer.toE164(null));
+		Assert.assertEquals(-1, AddressNormalizer.toE164(""));
+		Assert.assertEquals(-1, AddressNormalizer.toE164("tel:"));
+		// national number
+		Assert.assertEquals(-1, AddressNormalizer.toE164("0911234567"));
+		Assert.assertEquals(-1, AddressNormalizer.toE164("000385911234567"));
+		Assert.assertEquals(-1, AddressNormalizer.toE164("+0385911234567"));
+		Assert.assertEquals(-1, AddressNormalizer.toE164("++385911234567"));
+		Assert.assertEquals(-1, AddressNormalizer.toE164("3859+11234567"));
+		Assert.assertEquals(-1, AddressNormalizer.toE164("1234567890123456"));
+		Assert.assertEquals(-1, AddressNormalizer.toE164("TestSender"));
+	}
+
+	@Test
+	public void testAddAndContains() {
+		AddressSet set = new AddressSet(4);
+		Assert.assertTrue(set.add(385911234567L));
+		Assert.assertFalse(set.add(385911234567L));
+		Assert.assertTrue(set.contains(385911234567L));
+		Assert.assertFalse(set.contains(385911234568L));
+		Assert.assertFalse(set.contains(0));
+		Assert.assertEquals(1, set.size());
+	}
+
+	@Test
+	public void testGrow() {
+		AddressSet set = new AddressSet(4);
+		for (long number = 1; number <= 100000; number++) {
+			Assert.assertTrue(set.add(385910000000L + number * 7919));
+		}
+		Assert.assertEquals(100000, set.size());
+		for (long number = 1; number <= 100000; number++) {
+			Assert.assertTrue(set.contains(385910000000L + number * 7919));
+			Assert.assertFalse(set.add(385910000000L + number * 7919));
+		}
+		Assert.assertFalse(set.contains(385910000000L));
+	}
+
+	@Test
+	public void testToArrayAndClear() {
+		AddressSet set = new AddressSet();
+		set.add(385911111111L);
+		set.add(385912222222L);
+		set.add(385911111111L);
+
+		long[] numbers = set.toArray();
+		Arrays.sort(numbers);
+		Assert.assertArrayEquals(new long[] { 385911111111L, 385912222222L }, numbers);
+
+		set.clear();
+		Assert.assertEquals(0, set.size());
+		Assert.assertFalse(set.contains(385911111111L));
+		Assert.assertTrue(set.add(385911111111L));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidNumber() {
+		new AddressSet().add(-1);
+	}
+}
@@ -0,0 +1,117 @@
+package oneapi.test;
+
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import oneapi.client.impl.SMSClient;
+import oneapi.config.Configuration;
+import oneapi.exception.RequestException;
+import oneapi.model.common.Roaming;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestHLRPushQuery {
+
+	public static final int SERVERPORT = 8082;
+	public static final int HLR_PUSH_PORT = 3012;
+	public static final String URL = "http://localhost:8082";
+	public static final String NOTIFY_URL = "http://localhost:3012";
+	public static final String ADDRESS = "38598123456";
+	public static final String CLIENT_CORRELATOR = "TestHLRCorrelator";
+	private static SMSClient client = null;
+	private static OneAPIServerSimulator server = null;
+
+	@BeforeClass
+	public static void startSimulator() throws Exception {
+		server = new OneAPIServerSimulator(SERVERPORT);
+		new Thread(server).start();
+
+		Configuration config = new Configuration(URL, "simple", "1", "simple");
+		config.setHlrPushServerSimulatorPort(HLR_PUSH_PORT);
+		client = new SMSClient(config);
+	}
+
+	@AfterClass
+	public static void stopSimulator() {
+		client.getHLRClient().removePushHLRNotificationsListeners();
+		server.release();
+		server = null;
+		client = null;
+	}
+
+	@Test
+	public void testFutureCompletedByNotification() throws Exception {
+		Future<Roaming> future = client.getHLRClient().queryHLRAsync(ADDRESS, NOTIFY_URL, CLIENT_CORRELATOR, 10000);
+		Assert.assertFalse(future.isDone());
+
+		pushNotification("{\"terminalRoamingStatusList\":{\"roaming\":{\"address\":\"" + ADDRESS + "\",\"currentRoaming\":null,"
+				+ "\"servingMccMnc\":{\"mcc\":\"219\",\"mnc\":\"01\"},\"resourceURL\":null,\"retrievalStatus\":\"Retrieved\",\"callbackData\":null},"
+				+ "\"callbackData\":\"" + CLIENT_CORRELATOR + "\"}}");
+
+		Roaming roaming = future.get(10, TimeUnit.SECONDS);
+		// a decoded copy, not the lazy view read by the push listeners on the simulator thread
+		Assert.assertEquals(Roaming.class, roaming.getClass());
+		Assert.assertEquals(ADDRESS, roaming.getAddress());
+		Assert.assertEquals("219", roaming.getServingMccMnc().getMcc());
+		Assert.assertEquals("Retrieved", roaming.getRetrievalStatus());
+	}
+
+	@Test
+	public void testFutureFailsWithoutNotification() throws Exception {
+		Future<Roaming> future = client.getHLRClient().queryHLRAsync(ADDRESS, NOTIFY_URL, 200);
+		try {
+			future.get(10, TimeUnit.SECONDS);
+			Assert.fail("HLR query future completed without notification.");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof RequestException);
+		}
+	}
+
+	@Test
+	public void testFutureFailsWhenQueryFails() throws Exception {
+		// nothing listens on the port, the query fails long before the notification timeout
+		Configuration config = new Configuration("http://localhost:1", "simple", "1", "simple");
+		config.setHlrPushServerSimulatorPort(HLR_PUSH_PORT + 1);
+		SMSClient failingClient = new SMSClient(config);
+		try {
+			Future<Roaming> future = failingClient.getHLRClient().queryHLRAsync(ADDRESS, NOTIFY_URL, 60000);
+			future.get(10, TimeUnit.SECONDS);
+			Assert.fail("HLR query future completed although the query failed.");
+		} catch (ExecutionException e) {
+			Assert.assertNotNull(e.getCause());
+		} finally {
+			failingClient.getHLRClient().removePushHLRNotificationsListeners();
+		}
+	}
+
+	private static void pushNotification(String json) throws Exception {
+		byte[] content = json.getBytes("UTF-8");
+		// the push server simulator is started by the query, it may not accept connections yet
+		for (int attempt = 0; ; attempt++) {
+			try {
+				Socket socket = new Socket("localhost", HLR_PUSH_PORT);
+				try {
+					OutputStream out = socket.getOutputStream();
+					out.write(("POST / HTTP/1.1\r\nContent-Type: application/json\r\nContent-Length: " + content.length + "\r\n\r\n").getBytes("UTF-8"));
+					out.write(content);
+					out.flush();
+				} finally {
+					socket.close();
+				}
+				return;
+			} catch (ConnectException e) {
+				if (attempt == 50) {
+					throw e;
+				}
+				Thread.sleep(100);
+			}
+		}
+	}
+}
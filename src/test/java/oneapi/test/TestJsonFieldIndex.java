@@ -0,0 +1,107 @@
+package oneapi.test;
+
+import java.io.UnsupportedEncodingException;
+
+import oneapi.exception.RequestException;
+import oneapi.model.DeliveryInfoNotification;
+import oneapi.model.RoamingNotification;
+import oneapi.model.common.InboundSMSMessage;
+import oneapi.model.common.InboundSMSMessageList;
+import oneapi.model.common.Roaming;
+import oneapi.model.lazy.JsonFieldIndex;
+import oneapi.model.lazy.LazyDeliveryInfoNotification;
+import oneapi.model.lazy.LazyInboundSMSMessageList;
+import oneapi.model.lazy.LazyRoamingNotification;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestJsonFieldIndex {
+
+	// payloads of the ConvertJsonTo* examples
+	private static final String DELIVERY_INFO_NOTIFICATION_JSON = "{\"deliveryInfoNotification\":{\"deliveryInfo\":{\"address\":\"38454234234\",\"deliveryStatus\":\"DeliveredToTerminal\"},\"callbackData\":\"\"}}";
+	private static final String INBOUND_MESSAGE_JSON = "{\"inboundSMSMessage\":[{\"dateTime\":1343893501000,\"destinationAddress\":\"7567567657\",\"callbackData\":\"testCallback\",\"moResponseKey\":\"repoKey\",\"price\":\"5\",\"messageId\":null,\"message\":\"TestCriteria\",\"resourceURL\":null,\"senderAddress\":\"76756\",\"moSessionId\":0}],\"numberOfMessagesInThisBatch\":1,\"resourceURL\":null,\"totalNumberOfPendingMessages\":0,\"callbackData\":null}";
+	private static final String HLR_NOTIFICATION_JSON = "{\"terminalRoamingStatusList\":{\"roaming\":{\"address\":\"45534534\",\"currentRoaming\":null,\"servingMccMnc\":{\"mcc\":\"219\",\"mnc\":\"02\"},\"resourceURL\":null,\"retrievalStatus\":\"Error\",\"extendedData\":{\"destinationAddress\":\"54353\",\"statusId\":5,\"doneTime\":1343893501000,\"pricePerMessage\":5.0,\"mccMnc\":\"21902\",\"servingMsc\":\"543553\",\"censoredServingMsc\":\"5345\",\"gsmErrorCode\":0,\"originalNetworkName\":\"VIP-NET\",\"portedNetworkName\":\"TELE2\",\"servingHlr\":\"5435\",\"imsi\":\"219020000627769\",\"originalNetworkPrefix\":\"91\",\"originalCountryPrefix\":\"385\",\"originalCountryName\":\"Croatia                                           \",\"isNumberPorted\":true,\"portedNetworkPrefix\":\"95\",\"portedCountryPrefix\":\"385\",\"portedCountryName\":\"Croatia                                           \",\"numberInRoaming\":false},\"callbackData\":null}}}";
+
+	@Test
+	public void testDeliveryInfoNotification() {
+		JsonFieldIndex fields = JsonFieldIndex.parse(bytes(DELIVERY_INFO_NOTIFICATION_JSON));
+		Assert.assertTrue(fields.isPending("deliveryInfoNotification"));
+
+		DeliveryInfoNotification notification = new LazyDeliveryInfoNotification(fields.takeObject("deliveryInfoNotification"));
+		Assert.assertFalse(fields.isPending("deliveryInfoNotification"));
+		Assert.assertEquals("38454234234", notification.getDeliveryInfo().getAddress());
+		Assert.assertEquals("DeliveredToTerminal", notification.getDeliveryInfo().getDeliveryStatus());
+		Assert.assertEquals("", notification.getCallbackData());
+	}
+
+	@Test
+	public void testInboundMessageNotification() {
+		InboundSMSMessageList messageList = new LazyInboundSMSMessageList(JsonFieldIndex.parse(bytes(INBOUND_MESSAGE_JSON)));
+
+		Assert.assertEquals(Integer.valueOf(1), messageList.getNumberOfMessagesInThisBatch());
+		Assert.assertEquals(Integer.valueOf(0), messageList.getTotalNumberOfPendingMessages());
+		Assert.assertNull(messageList.getResourceURL());
+		Assert.assertNull(messageList.getCallbackData());
+
+		InboundSMSMessage[] messages = messageList.getInboundSMSMessage();
+		Assert.assertEquals(1, messages.length);
+		Assert.assertEquals("7567567657", messages[0].getDestinationAddress());
+		Assert.assertEquals("76756", messages[0].getSenderAddress());
+		Assert.assertEquals("TestCriteria", messages[0].getMessage());
+		Assert.assertEquals("testCallback", messages[0].getCallbackData());
+		Assert.assertEquals("repoKey", messages[0].getMoResponseKey());
+		Assert.assertNull(messages[0].getMessageId());
+		Assert.assertEquals(5.0, messages[0].getPrice(), 0.0);
+	}
+
+	@Test
+	public void testHLRNotification() {
+		JsonFieldIndex fields = JsonFieldIndex.parse(bytes(HLR_NOTIFICATION_JSON));
+		RoamingNotification notification = new LazyRoamingNotification(fields.takeObject("terminalRoamingStatusList"));
+
+		Roaming roaming = notification.getRoaming();
+		Assert.assertEquals("45534534", roaming.getAddress());
+		Assert.assertNull(roaming.getCurrentRoaming());
+		Assert.assertEquals("219", roaming.getServingMccMnc().getMcc());
+		Assert.assertEquals("02", roaming.getServingMccMnc().getMnc());
+		Assert.assertEquals("Error", roaming.getRetrievalStatus());
+		Assert.assertEquals("54353", roaming.getExtendedData().getDestinationAddress());
+		Assert.assertEquals(5, roaming.getExtendedData().getStatusId());
+		Assert.assertEquals("TELE2", roaming.getExtendedData().getPortedNetworkName());
+		Assert.assertEquals(Boolean.TRUE, roaming.getExtendedData().getIsNumberPorted());
+		Assert.assertNull(notification.getCallbackData());
+	}
+
+	@Test
+	public void testOffsetsWithinLargerBuffer() {
+		JsonFieldIndex fields = JsonFieldIndex.parse(bytes("  \r\n{ \"a\" : [ { } , { \"b\" : \"x,}]\\\"y\" } , null ] , \"na\\u006De\" : \"é\" , \"c\":{} }\n"));
+
+		JsonFieldIndex[] elements = fields.takeObjectArray("a");
+		Assert.assertEquals(3, elements.length);
+		Assert.assertNotNull(elements[1]);
+		Assert.assertNull(elements[2]);
+		Assert.assertEquals("x,}]\"y", elements[1].take("b", String.class));
+		Assert.assertEquals("é", fields.take("name", String.class));
+		Assert.assertTrue(fields.isPending("c"));
+		Assert.assertFalse(fields.takeObject("c").isPending("b"));
+	}
+
+	@Test(expected = RequestException.class)
+	public void testNotAnObject() {
+		JsonFieldIndex.parse(bytes("[1, 2]"));
+	}
+
+	@Test(expected = RequestException.class)
+	public void testUnclosedObject() {
+		JsonFieldIndex.parse(bytes("{\"a\": {\"b\": 1}"));
+	}
+
+	private static byte[] bytes(String json) {
+		try {
+			return json.getBytes("UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package oneapi.test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import oneapi.client.impl.SMSClient;
+import oneapi.config.Configuration;
+import oneapi.config.SMSBatchSettings;
+import oneapi.config.SMSDedupSettings;
+import oneapi.listener.ResponseListener;
+import oneapi.model.SMSBatchResult;
+import oneapi.model.SMSRequest;
+import oneapi.model.SendMessageResult;
+import oneapi.model.common.ResourceReferenceWrapper;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestSMSDedup {
+
+	public static final int SERVERPORT = 8084;
+	public static final String URL = "http://localhost:8084";
+	public static final String RESOURCE_URL = "http://example.com/1/smsmessaging/outbound/tel%3A%2B12345678/requests/abc123";
+	private static SMSClient client = null;
+	private static OneAPIServerSimulator server = null;
+
+	@BeforeClass
+	public static void startSimulator() throws Exception {
+		server = new OneAPIServerSimulator(SERVERPORT);
+		new Thread(server).start();
+		server.setResponse(TestJsonProvider.convertToJson(new ResourceReferenceWrapper(RESOURCE_URL)));
+
+		Configuration config = new Configuration(URL, "simple", "1", "simple");
+		config.setSmsDedup(new SMSDedupSettings(60000, 100));
+		config.setSmsBatch(new SMSBatchSettings(2));
+		client = new SMSClient(config);
+	}
+
+	@AfterClass
+	public static void stopSimulator() {
+		server.release();
+		server = null;
+		client = null;
+	}
+
+	@Test
+	public void testThrowingListenerCalledOnce() throws Exception {
+		final AtomicInteger calls = new AtomicInteger();
+		final CountDownLatch responded = new CountDownLatch(1);
+		client.getSMSMessagingClient().sendSMSAsync(request(), new ResponseListener<SendMessageResult>() {
+			@Override
+			public void onGotResponse(SendMessageResult result, Throwable error) {
+				calls.incrementAndGet();
+				responded.countDown();
+				throw new IllegalStateException("listener failed");
+			}
+		});
+		Assert.assertTrue(responded.await(10, TimeUnit.SECONDS));
+		int requests = server.getRequests().size();
+
+		// the duplicate gets the result of the original request, not the exception of its listener
+		SendMessageResult duplicate = client.getSMSMessagingClient().sendSMS(request());
+		Assert.assertEquals(RESOURCE_URL, duplicate.getResourceReference().getResourceURL());
+		Assert.assertEquals(requests, server.getRequests().size());
+		Assert.assertEquals(1, calls.get());
+	}
+
+	@Test
+	public void testSplitCorrelatedRequestSentInFull() {
+		SMSRequest smsRequest = new SMSRequest("TestSender", "TestMessageText", "split-1", null, null, null,
+				new String[] { "2221", "2222", "2223", "2224", "2225" });
+		int requests = server.getRequests().size();
+		long suppressed = client.getSMSMessagingClient().getSuppressedDuplicateCount();
+
+		SMSBatchResult result = client.getSMSMessagingClient().sendSMSBatch(Arrays.asList(smsRequest));
+
+		// every part has its own correlator, none of them is answered from the first part's result
+		Assert.assertEquals(3, result.getSentRequestCount());
+		Assert.assertNull(result.getError(smsRequest));
+		Assert.assertEquals("split-1", result.getResult(smsRequest).getClientCorrelator());
+		Assert.assertEquals(requests + 3, server.getRequests().size());
+		Assert.assertEquals(suppressed, client.getSMSMessagingClient().getSuppressedDuplicateCount());
+	}
+
+	private static SMSRequest request() {
+		return new SMSRequest("TestSender", "TestMessageText", "dedup-1", null, null, null, new String[] { "1111" });
+	}
+}
@@ -0,0 +1,87 @@
+package oneapi.test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import oneapi.client.impl.SMSClient;
+import oneapi.config.Configuration;
+import oneapi.config.SMSBatchSettings;
+import oneapi.model.SMSBatchResult;
+import oneapi.model.SMSRequest;
+import oneapi.model.common.ResourceReferenceWrapper;
+import oneapi.util.AddressSet;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestSendSMSToRecipients {
+
+	public static final int SERVERPORT = 8085;
+	public static final String URL = "http://localhost:8085";
+	private static OneAPIServerSimulator server = null;
+
+	@BeforeClass
+	public static void startSimulator() throws Exception {
+		server = new OneAPIServerSimulator(SERVERPORT);
+		new Thread(server).start();
+		server.setResponse(TestJsonProvider.convertToJson(new ResourceReferenceWrapper("http://example.com/1/smsmessaging/outbound/tel%3A%2B12345678/requests/abc123")));
+	}
+
+	@AfterClass
+	public static void stopSimulator() {
+		server.release();
+		server = null;
+	}
+
+	@Test
+	public void testSentNumbersAdded() {
+		SMSClient client = createClient(URL);
+		AddressSet sentAddresses = new AddressSet();
+		sentAddresses.add(385911111111L);
+
+		SMSBatchResult result;
+		try {
+			result = client.getSMSMessagingClient().sendSMSToRecipients(new SMSRequest("TestSender", "TestMessageText"),
+					addresses("385911111111", "+385912222222", "00385912222222", "0912222222", "385913333333", "385914444444"), sentAddresses);
+		} finally {
+			client.close();
+		}
+
+		Assert.assertEquals(2, result.getSentRequestCount());
+		Assert.assertEquals(1, result.getInvalidAddressCount());
+		Assert.assertEquals(2, result.getDuplicateAddressCount());
+		Assert.assertEquals(4, sentAddresses.size());
+		Assert.assertTrue(sentAddresses.contains(385914444444L));
+	}
+
+	@Test
+	public void testFailedNumbersNotAdded() {
+		// nothing listens on the port, every request fails
+		SMSClient client = createClient("http://localhost:1");
+		AddressSet sentAddresses = new AddressSet();
+
+		SMSBatchResult result;
+		try {
+			result = client.getSMSMessagingClient().sendSMSToRecipients(new SMSRequest("TestSender", "TestMessageText"),
+					addresses("385912222222", "385913333333", "385912222222"), sentAddresses);
+		} finally {
+			client.close();
+		}
+
+		Assert.assertEquals(1, result.getSentRequestCount());
+		Assert.assertEquals(1, result.getDuplicateAddressCount());
+		Assert.assertEquals(0, sentAddresses.size());
+	}
+
+	private static SMSClient createClient(String url) {
+		Configuration config = new Configuration(url, "simple", "1", "simple");
+		config.setSmsBatch(new SMSBatchSettings(2));
+		return new SMSClient(config);
+	}
+
+	private static Iterator<String> addresses(String... addresses) {
+		return Arrays.asList(addresses).iterator();
+	}
+}